@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Servlet vs reactive ingest stack: the same synthetic traffic against one instance per stack on the same host.
+#
+#   mvn -B -Preactive package      # a jar that contains both stacks
+#   scripts/stack-comparison.sh [requests] [rate per second] [stacks...]
+#
+# Each stack is started from the same jar (the reactive one with SPRING_PROFILES_ACTIVE=reactive), warmed up until
+# /actuator/health/readiness reports UP, then driven by TrafficGeneratorRunner in DRIVE mode with the same seed, so
+# both see the same requests at the same arrival times. The runner's final lines (achieved rate, status counts,
+# latency percentiles) are printed per stack; full logs go to target/stack-<stack>.log and target/drive-<stack>.log.
+# mongo-service, Kafka and Eureka must be reachable the same way for both runs, and the customers the traffic uses
+# must exist (load customers-<file> from a FILE run with the bulk loader). Linux only.
+set -euo pipefail
+
+REQUESTS="${1:-200000}"
+RATE="${2:-2000}"
+shift 2 || shift $# || true
+if (( $# > 0 )); then STACKS=("$@"); else STACKS=(servlet reactive); fi
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+NAME="transaction-ingestion-service"
+JAR="$(ls "$ROOT"/target/"$NAME"-*.jar 2>/dev/null | grep -v plain | head -n 1 || true)"
+PORT="${PORT:-18080}"
+MAX_IN_FLIGHT="${MAX_IN_FLIGHT:-512}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-180}"
+
+if [[ -z "$JAR" ]] || ! unzip -l "$JAR" | grep -q reactor-kafka; then
+    echo "Build the jar with the reactive stack first: mvn -B -Preactive package" >&2
+    exit 1
+fi
+
+profile_for() {
+    if [[ "$1" == reactive ]]; then echo reactive; else echo default; fi
+}
+
+wait_ready() {
+    local pid="$1" deadline=$(( $(date +%s) + TIMEOUT_SECONDS ))
+    until curl -fs "http://localhost:$PORT/actuator/health/readiness" 2>/dev/null | grep -q '"UP"'; do
+        if ! kill -0 "$pid" 2>/dev/null || (( $(date +%s) > deadline )); then
+            return 1
+        fi
+        sleep 0.2
+    done
+}
+
+for stack in "${STACKS[@]}"; do
+    SPRING_PROFILES_ACTIVE="$(profile_for "$stack")" java -jar "$JAR" --server.port="$PORT" \
+        --management.endpoint.health.probes.enabled=true > "$ROOT/target/stack-$stack.log" 2>&1 &
+    pid=$!
+    if ! wait_ready "$pid"; then
+        kill "$pid" 2>/dev/null || true
+        echo "$stack: did not become ready, see target/stack-$stack.log"
+        continue
+    fi
+    (cd "$ROOT" && mvn -q test-compile exec:java -Dexec.classpathScope=test \
+        -Dexec.mainClass=com.transaction.ingestion.service.tools.TrafficGeneratorRunner \
+        -Dtraffic-generator.mode=DRIVE -Dtraffic-generator.requests="$REQUESTS" \
+        -Dtraffic-generator.drive.base-url="http://localhost:$PORT" \
+        -Dtraffic-generator.drive.target-rate-per-second="$RATE" \
+        -Dtraffic-generator.drive.max-in-flight="$MAX_IN_FLIGHT") > "$ROOT/target/drive-$stack.log" 2>&1 || true
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "== $stack"
+    grep -E "Traffic generator (finished|latency)" "$ROOT/target/drive-$stack.log" || echo "no result, see target/drive-$stack.log"
+done
@@ -0,0 +1,95 @@
+#!/usr/bin/env bash
+# Startup benchmark: time-to-ready and RSS for the plain JVM jar, the AOT + CDS build and the native image.
+#
+#   mvn -B package                 # target/<name>.jar                    (jvm)
+#   mvn -B -Pcds package           # target/cds/<name>.jar + application.jsa (cds)
+#   mvn -B -Pnative native:compile # target/transaction-ingestion-service   (native)
+#   scripts/startup-benchmark.sh [runs] [modes...]
+#
+# Time-to-ready is measured from process launch until /actuator/health/readiness reports UP. RSS is read from
+# /proc once ready. Kafka and Eureka should be reachable (or stubbed) the same way for every mode. Linux only.
+set -euo pipefail
+
+RUNS="${1:-5}"
+shift || true
+if (( $# > 0 )); then MODES=("$@"); else MODES=(jvm cds native); fi
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+NAME="transaction-ingestion-service"
+JAR="$(ls "$ROOT"/target/"$NAME"-*.jar 2>/dev/null | grep -v plain | head -n 1 || true)"
+PORT="${PORT:-18080}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+APP_ARGS=(--server.port="$PORT" --management.endpoint.health.probes.enabled=true)
+
+command_for() {
+    case "$1" in
+        jvm) echo "java -jar $JAR" ;;
+        cds) echo "java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar $(basename "$JAR")" ;;
+        native) echo "$ROOT/target/$NAME" ;;
+    esac
+}
+
+workdir_for() {
+    if [[ "$1" == cds ]]; then echo "$ROOT/target/cds"; else echo "$ROOT"; fi
+}
+
+available() {
+    case "$1" in
+        jvm) [[ -n "$JAR" ]] ;;
+        cds) [[ -f "$ROOT/target/cds/application.jsa" ]] ;;
+        native) [[ -x "$ROOT/target/$NAME" ]] ;;
+        *) return 1 ;;
+    esac
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+# Prints "<ready ms> <rss kB>" for one start
+measure() {
+    local mode="$1" pid start ready rss
+    start="$(now_ms)"
+    (cd "$(workdir_for "$mode")" && exec $(command_for "$mode") "${APP_ARGS[@]}") > "$ROOT/target/startup-$mode.log" 2>&1 &
+    pid=$!
+    while true; do
+        if curl -fs "http://localhost:$PORT/actuator/health/readiness" 2>/dev/null | grep -q '"UP"'; then
+            ready=$(( $(now_ms) - start ))
+            break
+        fi
+        if ! kill -0 "$pid" 2>/dev/null || (( $(now_ms) - start > TIMEOUT_SECONDS * 1000 )); then
+            kill "$pid" 2>/dev/null || true
+            echo "failed"
+            return
+        fi
+        sleep 0.05
+    done
+    rss="$(awk '/^VmRSS/ {print $2}' "/proc/$pid/status")"
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$ready $rss"
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR == 0) print "-"; else if (NR % 2) print v[(NR + 1) / 2]; else print int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+printf '%-8s %6s %16s %16s\n' mode runs "ready ms (med)" "RSS MB (med)"
+for mode in "${MODES[@]}"; do
+    if ! available "$mode"; then
+        printf '%-8s %6s %16s %16s\n' "$mode" 0 "not built" "-"
+        continue
+    fi
+    results=()
+    for ((i = 0; i < RUNS; i++)); do
+        result="$(measure "$mode")"
+        [[ "$result" != failed ]] && results+=("$result")
+    done
+    if (( ${#results[@]} == 0 )); then
+        printf '%-8s %6s %16s %16s\n' "$mode" 0 "failed" "see target/startup-$mode.log"
+        continue
+    fi
+    ready_ms="$(printf '%s\n' "${results[@]}" | awk '{print $1}' | median)"
+    rss_kb="$(printf '%s\n' "${results[@]}" | awk '{print $2}' | median)"
+    printf '%-8s %6d %16s %16s\n' "$mode" "${#results[@]}" "$ready_ms" "$(( rss_kb / 1024 ))"
+done
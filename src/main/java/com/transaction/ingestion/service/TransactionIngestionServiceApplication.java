@@ -5,9 +5,11 @@ import io.swagger.v3.oas.annotations.info.Info;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableFeignClients
+@EnableScheduling
 @OpenAPIDefinition(info = @Info(title = "Transaction Ingestion API", version = "1.0", description = "API for ingesting transactions"))
 @org.springframework.cloud.client.discovery.EnableDiscoveryClient
 public class TransactionIngestionServiceApplication {
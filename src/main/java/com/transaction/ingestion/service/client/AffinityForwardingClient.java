@@ -0,0 +1,37 @@
+package com.transaction.ingestion.service.client;
+
+import com.transaction.ingestion.service.dto.CustomerStateHandoff;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.service.IdempotencyService;
+import feign.Response;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+import java.net.URI;
+
+// Calls between instances of this service. The target is chosen per call through the URI argument, and forwarded
+// ingests return the raw Response so every status is relayed instead of being raised as an error. Every call
+// carries the affinity shared secret, which the internal endpoints require.
+@FeignClient(name = "transaction-ingestion-affinity", contextId = "affinityForwardingClient",
+        url = "http://owner-selected-per-call")
+public interface AffinityForwardingClient {
+
+    String FORWARDED_BY_HEADER = "X-Affinity-Forwarded-By";
+    String AFFINITY_TOKEN_HEADER = "X-Affinity-Token";
+
+    @PostMapping("/api/v1/transactions/internal/ingest")
+    Response forwardIngest(URI ownerUri,
+            @RequestHeader(AFFINITY_TOKEN_HEADER) String token,
+            @RequestHeader(FORWARDED_BY_HEADER) String forwardedBy,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody IngestRequest ingestRequest);
+
+    @GetMapping("/api/v1/transactions/internal/customer-state/{customerId}")
+    CustomerStateHandoff fetchCustomerState(URI previousOwnerUri,
+            @RequestHeader(AFFINITY_TOKEN_HEADER) String token,
+            @PathVariable("customerId") String customerId);
+}
@@ -0,0 +1,47 @@
+package com.transaction.ingestion.service.client;
+
+import com.riskplatform.common.entity.Customer;
+import com.riskplatform.common.entity.KYCStatus;
+import com.riskplatform.common.entity.Transaction;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+// Bulk mongo-service operations used by the batching, bulk-load and backfill paths
+@FeignClient(name = "mongo-service", contextId = "mongoServiceBatchClient")
+public interface MongoServiceBatchClient {
+
+    @PostMapping("/api/v1/customers/batch")
+    List<Customer> findCustomersByIds(@RequestBody Collection<String> customerIds);
+
+    @PostMapping("/api/v1/kyc/batch")
+    List<KYCStatus> findKYCStatusesByCustomerIds(@RequestBody Collection<String> customerIds);
+
+    // Bulk upserts keyed by customerId / transactionId, so re-sending a batch after a restart is harmless
+    @PostMapping("/api/v1/customers/bulk")
+    void saveCustomers(@RequestBody List<Customer> customers);
+
+    @PostMapping("/api/v1/transactions/bulk")
+    void saveTransactions(@RequestBody List<Transaction> transactions);
+
+    // Keyset page of transactions with from <= timestamp < to, ordered by (timestamp, transactionId) and starting
+    // strictly after the given cursor; afterTimestamp/afterId are omitted for the first page
+    @GetMapping("/api/v1/transactions/page")
+    List<Transaction> findTransactionsPage(@RequestParam("from") Instant from, @RequestParam("to") Instant to,
+            @RequestParam(value = "afterTimestamp", required = false) Instant afterTimestamp,
+            @RequestParam(value = "afterId", required = false) String afterId,
+            @RequestParam("limit") int limit);
+
+    // A customer's transactions with from < timestamp <= to, newest first; the upper bound lets a backfill read the
+    // history as it stood at a past instant instead of everything up to now
+    @GetMapping("/api/v1/transactions/customer/{customerId}/between")
+    List<Transaction> findCustomerTransactionsBetween(@PathVariable("customerId") String customerId,
+            @RequestParam("from") Instant from, @RequestParam("to") Instant to);
+}
@@ -0,0 +1,59 @@
+package com.transaction.ingestion.service.client;
+
+import com.riskplatform.common.entity.RejectedTransaction;
+import com.riskplatform.common.entity.Transaction;
+import com.transaction.ingestion.service.config.ReactiveProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+// Non-blocking counterpart of MongoServiceClient for the saves and reads on the ingest path. Customer lookups go
+// through CustomerLookupService on both stacks.
+@Component
+@Profile("reactive")
+public class ReactiveMongoServiceClient {
+
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    public ReactiveMongoServiceClient(WebClient.Builder loadBalancedWebClientBuilder,
+            ReactiveProperties reactiveProperties) {
+        this.webClient = loadBalancedWebClientBuilder
+                .baseUrl(reactiveProperties.getMongoService().getBaseUrl())
+                .build();
+        this.timeout = reactiveProperties.getMongoService().getTimeout();
+    }
+
+    public Mono<Transaction> findTransactionById(String transactionId) {
+        return webClient.get()
+                .uri("/api/v1/transactions/{transactionId}", transactionId)
+                .retrieve()
+                .bodyToMono(Transaction.class)
+                .timeout(timeout)
+                .onErrorResume(WebClientResponseException.class,
+                        e -> e.getStatusCode() == HttpStatus.NOT_FOUND ? Mono.empty() : Mono.error(e));
+    }
+
+    public Mono<Transaction> saveTransaction(Transaction transaction) {
+        return webClient.post()
+                .uri("/api/v1/transactions")
+                .bodyValue(transaction)
+                .retrieve()
+                .bodyToMono(Transaction.class)
+                .timeout(timeout);
+    }
+
+    public Mono<RejectedTransaction> saveRejectedTransaction(RejectedTransaction rejectedTransaction) {
+        return webClient.post()
+                .uri("/api/v1/rejected-transactions")
+                .bodyValue(rejectedTransaction)
+                .retrieve()
+                .bodyToMono(RejectedTransaction.class)
+                .timeout(timeout);
+    }
+}
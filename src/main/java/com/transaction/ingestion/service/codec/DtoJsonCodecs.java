@@ -0,0 +1,240 @@
+package com.transaction.ingestion.service.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.riskplatform.common.model.Location;
+import com.transaction.ingestion.service.dto.ErrorResponse;
+import com.transaction.ingestion.service.dto.FixedErrorResponse;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.dto.IngestResponse;
+import com.transaction.ingestion.service.dto.RejectedResponse;
+import com.transaction.ingestion.service.service.FieldDictionaries;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+// Hand-written streaming readers and writers for the ingest DTOs. They produce and accept the same JSON as the
+// application ObjectMapper (ISO-8601 instants, NON_NULL where the DTO asks for it, unknown properties ignored)
+// without going through reflective databind. Property names are pre-encoded once.
+public final class DtoJsonCodecs {
+
+    private static final SerializableString ERROR = new SerializedString("error");
+    private static final SerializableString CODE = new SerializedString("code");
+    private static final SerializableString MESSAGE = new SerializedString("message");
+    private static final SerializableString REASON = new SerializedString("reason");
+    private static final SerializableString DETAILS = new SerializedString("details");
+    private static final SerializableString VIOLATIONS = new SerializedString("violations");
+    private static final SerializableString FIELD = new SerializedString("field");
+    private static final SerializableString CUSTOMER_ID = new SerializedString("customerId");
+    private static final SerializableString REQUESTED_AMOUNT = new SerializedString("requestedAmount");
+    private static final SerializableString CUSTOMER_LIMIT = new SerializedString("customerLimit");
+    private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializableString TRANSACTION_ID = new SerializedString("transactionId");
+    private static final SerializableString STATUS = new SerializedString("status");
+
+    private final FieldDictionaries fieldDictionaries;
+
+    public DtoJsonCodecs(FieldDictionaries fieldDictionaries) {
+        this.fieldDictionaries = fieldDictionaries;
+    }
+
+    public IngestRequest readIngestRequest(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected an IngestRequest object");
+        }
+        IngestRequest request = new IngestRequest();
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "customerId" -> request.setCustomerId(readString(parser, token));
+                case "amount" -> request.setAmount(readDouble(parser, token));
+                case "currency" -> request.setCurrency(fieldDictionaries.currencies().canonical(readString(parser, token)));
+                case "merchant" -> request.setMerchant(readString(parser, token));
+                case "merchantCategory" -> request.setMerchantCategory(
+                        fieldDictionaries.merchantCategories().canonical(readString(parser, token)));
+                case "timestamp" -> request.setTimestamp(readInstant(parser, token));
+                case "channel" -> request.setChannel(fieldDictionaries.channels().canonical(readString(parser, token)));
+                case "device" -> request.setDevice(fieldDictionaries.devices().canonical(readString(parser, token)));
+                // Location comes from common-models; its shape is owned there, so it still goes through databind
+                case "location" -> request.setLocation(token == JsonToken.VALUE_NULL
+                        ? null
+                        : parser.readValueAs(Location.class));
+                default -> parser.skipChildren();
+            }
+        }
+        return request;
+    }
+
+    public void writeIngestResponse(JsonGenerator generator, IngestResponse response) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(TRANSACTION_ID);
+        writeStringOrNull(generator, response.getTransactionId());
+        generator.writeFieldName(STATUS);
+        writeStringOrNull(generator, response.getStatus());
+        generator.writeFieldName(MESSAGE);
+        writeStringOrNull(generator, response.getMessage());
+        generator.writeFieldName(TIMESTAMP);
+        writeStringOrNull(generator, response.getTimestamp() != null ? response.getTimestamp().toString() : null);
+        generator.writeEndObject();
+    }
+
+    // Only the top-level DTOs are NON_NULL; their nested classes are not, so databind writes their nulls and so do
+    // these writers
+    public void writeErrorResponse(JsonGenerator generator, ErrorResponse response) throws IOException {
+        generator.writeStartObject();
+        ErrorResponse.Error error = response.getError();
+        if (error != null) {
+            generator.writeFieldName(ERROR);
+            generator.writeStartObject();
+            writeStringField(generator, CODE, error.getCode());
+            writeStringField(generator, MESSAGE, error.getMessage());
+            generator.writeFieldName(VIOLATIONS);
+            if (error.getViolations() != null) {
+                generator.writeStartArray();
+                for (ErrorResponse.Violation violation : error.getViolations()) {
+                    generator.writeStartObject();
+                    writeStringField(generator, FIELD, violation.getField());
+                    writeStringField(generator, MESSAGE, violation.getMessage());
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            } else {
+                generator.writeNull();
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    public void writeFixedErrorResponse(JsonGenerator generator, FixedErrorResponse response) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ERROR);
+        FixedErrorResponse.Error error = response.getError();
+        if (error != null) {
+            generator.writeStartObject();
+            writeStringField(generator, CODE, error.getCode());
+            writeStringField(generator, MESSAGE, error.getMessage());
+            generator.writeEndObject();
+        } else {
+            generator.writeNull();
+        }
+        generator.writeEndObject();
+    }
+
+    public void writeRejectedResponse(JsonGenerator generator, RejectedResponse response) throws IOException {
+        generator.writeStartObject();
+        RejectedResponse.Error error = response.getError();
+        if (error != null) {
+            generator.writeFieldName(ERROR);
+            generator.writeStartObject();
+            writeStringField(generator, CODE, error.getCode());
+            writeStringField(generator, MESSAGE, error.getMessage());
+            writeStringField(generator, REASON, error.getReason());
+            generator.writeFieldName(DETAILS);
+            RejectedResponse.Details details = error.getDetails();
+            if (details != null) {
+                generator.writeStartObject();
+                writeStringField(generator, CUSTOMER_ID, details.getCustomerId());
+                writeNumberField(generator, REQUESTED_AMOUNT, details.getRequestedAmount());
+                writeNumberField(generator, CUSTOMER_LIMIT, details.getCustomerLimit());
+                writeStringField(generator, TIMESTAMP,
+                        details.getTimestamp() != null ? details.getTimestamp().toString() : null);
+                generator.writeEndObject();
+            } else {
+                generator.writeNull();
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    private static String readString(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return parser.getText();
+        }
+        throw new JsonParseException(parser, "Expected a string for " + parser.currentName());
+    }
+
+    private static Double readDouble(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_STRING:
+                String text = parser.getText().trim();
+                if (text.isEmpty()) {
+                    return null;
+                }
+                try {
+                    return Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    throw new JsonParseException(parser, "Invalid number for " + parser.currentName(), e);
+                }
+            default:
+                throw new JsonParseException(parser, "Expected a number for " + parser.currentName());
+        }
+    }
+
+    // Same inputs as Jackson's InstantDeserializer: ISO-8601 text, or epoch seconds with an optional fraction
+    private static Instant readInstant(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_NUMBER_INT:
+                return Instant.ofEpochSecond(parser.getLongValue());
+            case VALUE_NUMBER_FLOAT:
+                BigDecimal value = parser.getDecimalValue();
+                long seconds = value.longValue();
+                int nanos = value.subtract(BigDecimal.valueOf(seconds)).movePointRight(9).intValue();
+                return Instant.ofEpochSecond(seconds, nanos);
+            case VALUE_STRING:
+                String text = parser.getText().trim();
+                if (text.isEmpty()) {
+                    return null;
+                }
+                try {
+                    return Instant.parse(text);
+                } catch (DateTimeParseException e) {
+                    throw new JsonParseException(parser, "Invalid timestamp for " + parser.currentName(), e);
+                }
+            default:
+                throw new JsonParseException(parser, "Expected a timestamp for " + parser.currentName());
+        }
+    }
+
+    private static void writeStringField(JsonGenerator generator, SerializableString name, String value)
+            throws IOException {
+        generator.writeFieldName(name);
+        writeStringOrNull(generator, value);
+    }
+
+    private static void writeNumberField(JsonGenerator generator, SerializableString name, Double value)
+            throws IOException {
+        generator.writeFieldName(name);
+        if (value != null) {
+            generator.writeNumber(value);
+        } else {
+            generator.writeNull();
+        }
+    }
+
+    private static void writeStringOrNull(JsonGenerator generator, String value) throws IOException {
+        if (value != null) {
+            generator.writeString(value);
+        } else {
+            generator.writeNull();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.transaction.ingestion.service.codec;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.ingestion.service.dto.ErrorResponse;
+import com.transaction.ingestion.service.dto.FixedErrorResponse;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.dto.IngestResponse;
+import com.transaction.ingestion.service.dto.RejectedResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads IngestRequest and writes the ingest response DTOs with DtoJsonCodecs, ahead of the Jackson converter.
+// Bodies that never change (the immutable FixedErrorResponse constants) are encoded once and written as raw bytes.
+public class IngestJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final ObjectMapper objectMapper;
+    private final DtoJsonCodecs codecs;
+    private final Map<Object, byte[]> preEncoded = new IdentityHashMap<>();
+
+    public IngestJsonHttpMessageConverter(ObjectMapper objectMapper, DtoJsonCodecs codecs,
+            List<FixedErrorResponse> fixedBodies) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.objectMapper = objectMapper;
+        this.codecs = codecs;
+        for (FixedErrorResponse body : fixedBodies) {
+            preEncoded.put(body, encode(body));
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == IngestRequest.class || isWritable(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == IngestRequest.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return isWritable(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputMessage.getBody())) {
+            return codecs.readIngestRequest(parser);
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        byte[] encoded = preEncoded.get(body);
+        if (encoded != null) {
+            outputMessage.getBody().write(encoded);
+            return;
+        }
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(
+                StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            write(generator, body);
+        }
+    }
+
+    @Override
+    protected Long getContentLength(Object body, MediaType contentType) {
+        byte[] encoded = preEncoded.get(body);
+        return encoded != null ? (long) encoded.length : null;
+    }
+
+    private boolean isWritable(Class<?> clazz) {
+        return clazz == IngestResponse.class || clazz == ErrorResponse.class || clazz == RejectedResponse.class
+                || clazz == FixedErrorResponse.class;
+    }
+
+    private void write(JsonGenerator generator, Object body) throws IOException {
+        if (body instanceof IngestResponse ingestResponse) {
+            codecs.writeIngestResponse(generator, ingestResponse);
+        } else if (body instanceof ErrorResponse errorResponse) {
+            codecs.writeErrorResponse(generator, errorResponse);
+        } else if (body instanceof RejectedResponse rejectedResponse) {
+            codecs.writeRejectedResponse(generator, rejectedResponse);
+        } else if (body instanceof FixedErrorResponse fixedErrorResponse) {
+            codecs.writeFixedErrorResponse(generator, fixedErrorResponse);
+        } else {
+            throw new HttpMessageNotWritableException("Unsupported body " + body.getClass().getName());
+        }
+    }
+
+    private byte[] encode(Object body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator((OutputStream) out,
+                JsonEncoding.UTF8)) {
+            write(generator, body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,36 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "admission")
+@Data
+public class AdmissionProperties {
+    private boolean enabled = true;
+    private ConcurrencyConfig concurrency = new ConcurrencyConfig();
+    private CustomerRateConfig customerRate = new CustomerRateConfig();
+
+    @Data
+    public static class ConcurrencyConfig {
+        private int initialLimit = 50;
+        private int minLimit = 8;
+        private int maxLimit = 400;
+        // Ratio of long-term to short-term RTT tolerated before the limit starts shrinking
+        private double rttTolerance = 1.5;
+        private double smoothing = 0.2;
+        private int longWindowSamples = 600;
+        // Multiplicative decrease applied when a request fails or times out
+        private double backoffRatio = 0.9;
+        private long retryAfterSeconds = 1;
+    }
+
+    @Data
+    public static class CustomerRateConfig {
+        private boolean enabled = true;
+        private double permitsPerSecond = 20.0;
+        private int burst = 40;
+        private long idleEvictionSeconds = 300;
+    }
+}
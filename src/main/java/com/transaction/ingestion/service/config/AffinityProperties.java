@@ -0,0 +1,20 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "affinity")
+@Data
+public class AffinityProperties {
+    private boolean enabled = true;
+    // Points per instance on the hash ring; more points spread customers more evenly
+    private int virtualNodes = 128;
+    private Duration refreshInterval = Duration.ofSeconds(10);
+    // Sent with every instance-to-instance call and required by the internal endpoints; forwarding stays off
+    // while it is blank
+    private String sharedSecret;
+}
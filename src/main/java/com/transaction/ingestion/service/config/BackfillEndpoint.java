@@ -0,0 +1,49 @@
+package com.transaction.ingestion.service.config;
+
+import com.transaction.ingestion.service.service.BackfillService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.web.server.ConditionalOnManagementPort;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// POST /actuator/backfill {"from": "2024-05-01T00:00:00Z", "to": "2024-05-08T00:00:00Z"} re-validates a time range,
+// GET /actuator/backfill reports progress and the outcome diff, DELETE /actuator/backfill stops the job
+@Component
+@ConditionalOnManagementPort(ManagementPortType.DIFFERENT)
+@Endpoint(id = "backfill")
+@AllArgsConstructor
+public class BackfillEndpoint {
+
+    private final BackfillService backfillService;
+    private final BackfillProperties backfillProperties;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return backfillService.status();
+    }
+
+    @WriteOperation
+    public Map<String, Object> start(String from, String to, @Nullable Boolean publishEvents,
+            @Nullable Boolean persistResults, @Nullable Boolean restart) {
+        return backfillService.start(Instant.parse(from), Instant.parse(to),
+                publishEvents != null ? publishEvents : backfillProperties.isPublishEvents(),
+                persistResults != null ? persistResults : backfillProperties.isPersistResults(),
+                Boolean.TRUE.equals(restart));
+    }
+
+    @DeleteOperation
+    public Map<String, Object> cancel() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cancelled", backfillService.cancel());
+        return result;
+    }
+}
@@ -0,0 +1,27 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "backfill")
+@Data
+public class BackfillProperties {
+    private int pageSize = 500;
+    // Transactions re-validated at the same time
+    private int concurrency = 8;
+    // Upper bound on re-validations per second, whatever the live load
+    private double maxPerSecond = 200;
+    // Backfill pauses while live ingest uses more than this share of the admission concurrency limit
+    private double pauseAboveLiveUtilization = 0.8;
+    private Duration pauseBackoff = Duration.ofMillis(500);
+    // Passes over the failed transactions once the range has been read
+    private int retryPasses = 2;
+    // Checkpoint and diff files are written here, one pair per time range
+    private String checkpointDir = "data/backfill";
+    private boolean publishEvents = false;
+    private boolean persistResults = false;
+}
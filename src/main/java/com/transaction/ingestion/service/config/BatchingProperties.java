@@ -0,0 +1,23 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "batching")
+@Data
+public class BatchingProperties {
+    // Off by default: mongo-service must serve POST /api/v1/customers/batch and /api/v1/kyc/batch first
+    private boolean enabled = false;
+    // How long the first key of a batch waits for others to join it
+    private long windowMicros = 1500;
+    private int maxBatchSize = 100;
+    private int dispatchThreads = 8;
+    private Duration timeout = Duration.ofSeconds(5);
+    // With batching off: threads running single customer lookups alongside the request-only rules. Extra lookups
+    // beyond this run on the request thread.
+    private int lookupThreads = 64;
+}
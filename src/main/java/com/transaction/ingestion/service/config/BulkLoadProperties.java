@@ -0,0 +1,26 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "bulk-load")
+@Data
+public class BulkLoadProperties {
+    private boolean enabled = false;
+    // CSV (.csv, with a header row) or NDJSON (.ndjson, .jsonl) files; either may be left empty
+    private String customersFile;
+    private String transactionsFile;
+    // Each file is split into chunks of about this size, mapped and parsed independently
+    private int chunkSizeBytes = 32 * 1024 * 1024;
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 1000;
+    // Batches sent to mongo-service but not yet acknowledged, across all parser threads
+    private int maxInFlightBatches = 8;
+    private int maxBatchAttempts = 3;
+    private String checkpointDir = "data/bulk-load";
+    private Duration reportInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,20 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "cache.recent-transactions")
+@Data
+public class CacheProperties {
+    private boolean enabled = true;
+    private long maxBytes = 64L * 1024 * 1024;
+    // Unvalidated entries are only read back by the async validator, so they live until it is expected to have run:
+    // past the retry topic delays (1s, 5s, 25s) and up to consumer-lag.degraded-time-to-drain. An instance further
+    // behind is DEGRADED anyway and its validator falls back to mongo-service. max-bytes bounds the memory either way.
+    private Duration receivedTtl = Duration.ofMinutes(10);
+    private Duration validatedTtl = Duration.ofMinutes(30);
+}
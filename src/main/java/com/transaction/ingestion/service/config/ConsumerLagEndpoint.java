@@ -0,0 +1,33 @@
+package com.transaction.ingestion.service.config;
+
+import com.transaction.ingestion.service.service.ConsumerLagMonitor;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.web.server.ConditionalOnManagementPort;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// GET /actuator/consumerlag reports per-partition lag, rates, time to drain and the suggested replica count
+@Component
+@ConditionalOnManagementPort(ManagementPortType.DIFFERENT)
+@Endpoint(id = "consumerlag")
+@AllArgsConstructor
+public class ConsumerLagEndpoint {
+
+    private final ConsumerLagMonitor consumerLagMonitor;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = consumerLagMonitor.status();
+        if (status == null) {
+            Map<String, Object> pending = new LinkedHashMap<>();
+            pending.put("state", "NOT_SAMPLED");
+            return pending;
+        }
+        return status;
+    }
+}
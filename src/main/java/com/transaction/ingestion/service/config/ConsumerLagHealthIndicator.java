@@ -0,0 +1,36 @@
+package com.transaction.ingestion.service.config;
+
+import com.transaction.ingestion.service.service.ConsumerLagMonitor;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Reports DEGRADED while the async validation consumer is past a lag threshold. DEGRADED maps to HTTP 200, so it
+// only takes the instance out of rotation if consumerLag is added to the readiness group.
+@Component
+@AllArgsConstructor
+public class ConsumerLagHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Async validation consumer is falling behind");
+
+    private final ConsumerLagMonitor consumerLagMonitor;
+
+    @Override
+    public Health health() {
+        Map<String, Object> status = consumerLagMonitor.status();
+        if (status == null) {
+            return Health.unknown().build();
+        }
+        return Health.status(consumerLagMonitor.isDegraded() ? DEGRADED : Status.UP)
+                .withDetail("totalLag", status.get("totalLag"))
+                .withDetail("timeToDrainSeconds", status.get("timeToDrainSeconds"))
+                .withDetail("suggestedReplicas", status.get("suggestedReplicas"))
+                .withDetail("reasons", status.get("reasons"))
+                .withDetail("deadLetter", status.get("deadLetter"))
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "consumer-lag")
+@Data
+public class ConsumerLagProperties {
+    private boolean enabled = true;
+    private String groupId = "async-validation-group";
+    private String topic = "transaction-received";
+    private Duration pollInterval = Duration.ofSeconds(10);
+    private Duration requestTimeout = Duration.ofSeconds(5);
+    // Samples kept for the processing and arrival rates and the rate trend
+    private int rateWindow = 12;
+    // Either threshold marks the instance DEGRADED in health
+    private long degradedLag = 50_000;
+    private Duration degradedTimeToDrain = Duration.ofMinutes(10);
+    // The suggested replica count is sized to clear the current lag within this time while keeping up with arrivals
+    private Duration targetTimeToDrain = Duration.ofMinutes(2);
+    private int minReplicas = 1;
+    // 0 caps the suggestion at the partition count, beyond which extra consumers sit idle
+    private int maxReplicas = 0;
+}
@@ -0,0 +1,19 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "cache.customer-history")
+@Data
+public class CustomerHistoryCacheProperties {
+    private boolean enabled = true;
+    // Histories kept; the oldest loaded is dropped first
+    private int maxCustomers = 50_000;
+    // Histories only see what this instance validated, so they are reloaded after this long to pick up
+    // transactions validated elsewhere, e.g. around an affinity rebalance
+    private Duration maxAge = Duration.ofMinutes(10);
+}
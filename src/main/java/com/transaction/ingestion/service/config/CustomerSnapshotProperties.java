@@ -0,0 +1,19 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "customer-snapshot")
+@Data
+public class CustomerSnapshotProperties {
+    private boolean enabled = false;
+    // NDJSON customer export (same format as the bulk loader input); the table is rebuilt when it changes
+    private String exportFile;
+    private String tableFile = "data/customer-snapshot.tbl";
+    // Compacted topic keyed by customerId carrying the full customer; a null value deletes the customer
+    private String deltaTopic = "customer-updated";
+    // Customers missing from the snapshot are looked up in mongo-service instead of being treated as unknown
+    private boolean fallbackToRemote = true;
+}
@@ -0,0 +1,22 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "daily-spend")
+@Data
+public class DailySpendProperties {
+    private boolean enabled = true;
+    // Spend resets at midnight in this zone
+    private String zone = "UTC";
+    private String checkpointPath = "data/daily-spend.bin";
+    private Duration checkpointInterval = Duration.ofSeconds(30);
+    // Totals are per instance, so with several instances they only hold when affinity routing sends each customer to
+    // one of them. Startup fails if other instances are registered while routing is off; set to false only when the
+    // totals are allowed to be per instance.
+    private boolean requireAffinity = true;
+}
@@ -0,0 +1,34 @@
+package com.transaction.ingestion.service.config;
+
+import com.transaction.ingestion.service.service.DeadLetterReplayService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.web.server.ConditionalOnManagementPort;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// POST /actuator/validationdlt {"maxRecords": 1000} re-publishes dead-lettered events to transaction-received
+@Component
+@ConditionalOnManagementPort(ManagementPortType.DIFFERENT)
+@Endpoint(id = "validationdlt")
+@AllArgsConstructor
+public class DeadLetterEndpoint {
+
+    private static final int DEFAULT_MAX_RECORDS = 1000;
+
+    private final DeadLetterReplayService deadLetterReplayService;
+
+    @WriteOperation
+    public Map<String, Object> replay(@Nullable Integer maxRecords) {
+        int limit = maxRecords != null && maxRecords > 0 ? maxRecords : DEFAULT_MAX_RECORDS;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("topic", deadLetterReplayService.getDeadLetterTopic());
+        result.put("replayed", deadLetterReplayService.replay(limit));
+        return result;
+    }
+}
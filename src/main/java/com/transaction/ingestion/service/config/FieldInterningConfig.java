@@ -0,0 +1,74 @@
+package com.transaction.ingestion.service.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.transaction.ingestion.service.service.FieldDictionaries;
+import com.transaction.ingestion.service.service.FieldDictionary;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// Swaps channel, device, currency, merchantCategory and eventType for their canonical instances while JSON is
+// being read, so every deserialized Transaction, request and event shares one String per known value. Unknown
+// values are left as they are; the payload has not been validated yet, so it must not grow the dictionaries.
+// Spring Boot registers Module beans on the application ObjectMapper; KafkaConfig reuses that mapper.
+@Configuration
+public class FieldInterningConfig {
+
+    @Bean
+    public Module fieldInterningModule(FieldDictionaries fieldDictionaries) {
+        SimpleModule module = new SimpleModule("field-interning");
+        module.setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc,
+                    BeanDeserializerBuilder builder) {
+                List<SettableBeanProperty> interned = new ArrayList<>();
+                Iterator<SettableBeanProperty> properties = builder.getProperties();
+                while (properties.hasNext()) {
+                    SettableBeanProperty property = properties.next();
+                    FieldDictionary dictionary = fieldDictionaries.forField(property.getName());
+                    if (dictionary != null && property.getType().hasRawClass(String.class)
+                            && !property.hasValueDeserializer()) {
+                        interned.add(property.withValueDeserializer(new InterningStringDeserializer(dictionary)));
+                    }
+                }
+                for (SettableBeanProperty property : interned) {
+                    builder.addOrReplaceProperty(property, true);
+                }
+                return builder;
+            }
+        });
+        return module;
+    }
+
+    static class InterningStringDeserializer extends StdScalarDeserializer<String> {
+
+        private final FieldDictionary dictionary;
+
+        InterningStringDeserializer(FieldDictionary dictionary) {
+            super(String.class);
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_STRING)) {
+                return dictionary.canonical(parser.getText());
+            }
+            return dictionary.canonical(_parseString(parser, context, this));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "fx")
+@Data
+public class FxProperties {
+    // Currency customer limits and thresholds are expressed in
+    private String baseCurrency = "USD";
+    // Spring resource location, e.g. classpath:fx-rates.properties or file:/etc/fx/rates.properties
+    private String ratesLocation = "classpath:fx-rates.properties";
+    private Duration refreshInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,18 @@
+package com.transaction.ingestion.service.config;
+
+import com.transaction.ingestion.service.service.IdempotencyStore;
+import com.transaction.ingestion.service.service.InMemoryIdempotencyStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdempotencyConfig {
+
+    // Local stand-in; declare another IdempotencyStore bean to share keys across instances
+    @Bean
+    @ConditionalOnMissingBean(IdempotencyStore.class)
+    public IdempotencyStore idempotencyStore(IdempotencyProperties idempotencyProperties) {
+        return new InMemoryIdempotencyStore(idempotencyProperties.getMaxEntries());
+    }
+}
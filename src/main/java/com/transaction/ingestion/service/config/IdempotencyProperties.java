@@ -0,0 +1,18 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "idempotency")
+@Data
+public class IdempotencyProperties {
+    private boolean enabled = true;
+    private int maxEntries = 100_000;
+    private Duration ttl = Duration.ofHours(24);
+    private Duration inFlightWaitTimeout = Duration.ofSeconds(30);
+    private int maxKeyLength = 255;
+}
@@ -0,0 +1,30 @@
+package com.transaction.ingestion.service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.ingestion.service.codec.DtoJsonCodecs;
+import com.transaction.ingestion.service.codec.IngestJsonHttpMessageConverter;
+import com.transaction.ingestion.service.dto.FixedErrorResponse;
+import com.transaction.ingestion.service.service.FieldDictionaries;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// Puts the streaming ingest DTO converter in front of the Jackson converter; every other type still uses databind
+@Configuration
+@Profile("!reactive")
+@AllArgsConstructor
+public class JsonCodecConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+    private final FieldDictionaries fieldDictionaries;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new IngestJsonHttpMessageConverter(objectMapper, new DtoJsonCodecs(fieldDictionaries),
+                FixedErrorResponse.ALL));
+    }
+}
@@ -1,16 +1,20 @@
 package com.transaction.ingestion.service.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskplatform.common.entity.Customer;
 import com.riskplatform.common.event.TransactionValidatedEvent;
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.config.TopicConfig;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
@@ -67,27 +71,50 @@ public class KafkaConfig {
 
     // Consumer Configuration
     @Bean
-    public ConsumerFactory<String, TransactionValidatedEvent> consumerFactory() {
+    public ConsumerFactory<String, TransactionValidatedEvent> consumerFactory(ObjectMapper objectMapper) {
         Map<String, Object> props = new HashMap<>();
         props.put(org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(org.apache.kafka.clients.consumer.ConsumerConfig.GROUP_ID_CONFIG, "transaction-ingestion-group");
-        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
-                org.apache.kafka.common.serialization.StringDeserializer.class);
-        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
-                org.springframework.kafka.support.serializer.JsonDeserializer.class);
         props.put(org.apache.kafka.clients.consumer.ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        props.put(org.springframework.kafka.support.serializer.JsonDeserializer.TRUSTED_PACKAGES,
+        props.put(JsonDeserializer.TRUSTED_PACKAGES,
                 "com.riskplatform.common.event,com.transaction.ingestion.service.model");
-        return new DefaultKafkaConsumerFactory<>(props);
+        // Use the application ObjectMapper so consumed events get the same field interning as HTTP payloads
+        return new DefaultKafkaConsumerFactory<>(props,
+                new org.apache.kafka.common.serialization.StringDeserializer(),
+                new JsonDeserializer<>(objectMapper));
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, TransactionValidatedEvent> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, TransactionValidatedEvent> kafkaListenerContainerFactory(
+            ConsumerFactory<String, TransactionValidatedEvent> consumerFactory) {
         ConcurrentKafkaListenerContainerFactory<String, TransactionValidatedEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
+        factory.setConsumerFactory(consumerFactory);
         return factory;
     }
 
+    // Customer snapshot deltas: full Customer values keyed by customerId, null values are deletions. There is no
+    // group.id: CustomerSnapshotDeltaListener assigns every partition itself and never commits offsets
+    @Bean
+    @ConditionalOnProperty(prefix = "customer-snapshot", name = "enabled", havingValue = "true")
+    public ConsumerFactory<String, Customer> customerDeltaConsumerFactory(ObjectMapper objectMapper) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new DefaultKafkaConsumerFactory<>(props,
+                new org.apache.kafka.common.serialization.StringDeserializer(),
+                new JsonDeserializer<>(Customer.class, objectMapper, false));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "customer-snapshot", name = "enabled", havingValue = "true")
+    public NewTopic customerDeltaTopic(CustomerSnapshotProperties customerSnapshotProperties) {
+        Map<String, String> configs = new HashMap<>();
+        configs.put(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT);
+        return new NewTopic(customerSnapshotProperties.getDeltaTopic(), partitionCount, replicationFactor)
+                .configs(configs);
+    }
+
     // Topic Configuration
     @Bean
     public KafkaAdmin kafkaAdmin() {
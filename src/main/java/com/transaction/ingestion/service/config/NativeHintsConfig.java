@@ -0,0 +1,87 @@
+package com.transaction.ingestion.service.config;
+
+import com.riskplatform.common.entity.Customer;
+import com.riskplatform.common.entity.RejectedTransaction;
+import com.riskplatform.common.entity.Transaction;
+import com.riskplatform.common.entity.ValidationDetails;
+import com.riskplatform.common.event.RejectionDetails;
+import com.riskplatform.common.event.TransactionEvent;
+import com.riskplatform.common.event.TransactionValidatedEvent;
+import com.riskplatform.common.model.Location;
+import com.transaction.ingestion.service.client.AffinityForwardingClient;
+import com.transaction.ingestion.service.client.MongoServiceBatchClient;
+import com.transaction.ingestion.service.client.MongoServiceClient;
+import com.transaction.ingestion.service.dto.CustomerStateHandoff;
+import com.transaction.ingestion.service.dto.ErrorResponse;
+import com.transaction.ingestion.service.dto.FixedErrorResponse;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.dto.IngestResponse;
+import com.transaction.ingestion.service.dto.RejectedResponse;
+import com.transaction.ingestion.service.model.BusinessRejection;
+import com.transaction.ingestion.service.model.Detail;
+import com.transaction.ingestion.service.model.Error;
+import com.transaction.ingestion.service.model.Status;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+// Reflection, proxy and resource hints for the AOT / native-image build (mvn -Pnative or -Pcds). Spring AOT
+// covers beans and @ConfigurationProperties on its own; these are the types reached only through Jackson,
+// Feign proxies and Kafka's reflective serializer instantiation. Unused on the JVM.
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.IngestRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class IngestRuntimeHints implements RuntimeHintsRegistrar {
+
+        // Bound by Jackson over HTTP, Kafka, Feign and the bulk files; Lombok accessors are reached reflectively
+        private static final Class<?>[] JSON_TYPES = {
+                IngestRequest.class, IngestResponse.class, ErrorResponse.class, RejectedResponse.class,
+                FixedErrorResponse.class,
+                CustomerStateHandoff.class, BusinessRejection.class, Detail.class, Error.class, Status.class,
+                com.transaction.ingestion.service.model.KYCStatus.class,
+                com.transaction.ingestion.service.model.Location.class,
+                com.transaction.ingestion.service.model.Transaction.class,
+                com.transaction.ingestion.service.model.TransactionEvent.class,
+                com.transaction.ingestion.service.model.ValidationDetails.class,
+                Customer.class, com.riskplatform.common.entity.KYCStatus.class, RejectedTransaction.class,
+                Transaction.class, ValidationDetails.class, RejectionDetails.class, TransactionEvent.class,
+                TransactionValidatedEvent.class, Location.class,
+                // ValidationRuleRegistry re-binds it with a plain Binder when the rules file changes
+                ValidationProperties.class
+        };
+
+        private static final Class<?>[] FEIGN_CLIENTS = {
+                MongoServiceClient.class, MongoServiceBatchClient.class, AffinityForwardingClient.class
+        };
+
+        // Instantiated by the Kafka clients from class names in producer and consumer configs
+        private static final Class<?>[] KAFKA_SERDES = {
+                JsonSerializer.class, JsonDeserializer.class, StringSerializer.class, StringDeserializer.class
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+
+            for (Class<?> client : FEIGN_CLIENTS) {
+                hints.proxies().registerJdkProxy(client);
+                // Feign's contract reads the Spring MVC annotations on the interface methods
+                hints.reflection().registerType(client, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            for (Class<?> serde : KAFKA_SERDES) {
+                hints.reflection().registerType(serde, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("fx-rates.properties");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.transaction.ingestion.service.config;
+
+import com.transaction.ingestion.service.service.PublishRing;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "kafka.publish-ring")
+@Data
+public class PublishRingProperties {
+    private boolean enabled = true;
+    // Rounded up to a power of two, per publisher
+    private int capacity = 8192;
+    // Each publisher thread owns one ring; a customer always maps to the same ring to keep its events in order
+    private int publishers = 2;
+    private int batchSize = 256;
+    private PublishRing.WaitStrategy waitStrategy = PublishRing.WaitStrategy.SLEEPING;
+    // DROP discards the event when the ring is full; BLOCK waits for a free slot, counting and logging waits longer
+    // than block-timeout, and rejects the event with a KafkaException once it has waited max-block
+    private FullPolicy fullPolicy = FullPolicy.BLOCK;
+    private Duration blockTimeout = Duration.ofMillis(50);
+    private Duration maxBlock = Duration.ofSeconds(1);
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+    public enum FullPolicy {
+        DROP,
+        BLOCK
+    }
+}
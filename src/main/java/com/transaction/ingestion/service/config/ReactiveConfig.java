@@ -0,0 +1,36 @@
+package com.transaction.ingestion.service.config;
+
+import com.riskplatform.common.event.TransactionValidatedEvent;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder() {
+        return WebClient.builder();
+    }
+
+    @Bean(destroyMethod = "close")
+    public KafkaSender<String, TransactionValidatedEvent> reactiveKafkaSender(
+            ProducerFactory<String, TransactionValidatedEvent> producerFactory, ReactiveProperties reactiveProperties) {
+        // Same producer settings as the servlet stack's KafkaTemplate
+        Map<String, Object> configProps = new HashMap<>(producerFactory.getConfigurationProperties());
+        SenderOptions<String, TransactionValidatedEvent> senderOptions = SenderOptions
+                .<String, TransactionValidatedEvent>create(configProps)
+                .maxInFlight(reactiveProperties.getKafka().getMaxInFlight());
+        return KafkaSender.create(senderOptions);
+    }
+}
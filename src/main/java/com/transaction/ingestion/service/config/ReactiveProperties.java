@@ -0,0 +1,27 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "reactive")
+@Data
+public class ReactiveProperties {
+    private MongoServiceConfig mongoService = new MongoServiceConfig();
+    private KafkaSenderConfig kafka = new KafkaSenderConfig();
+
+    @Data
+    public static class MongoServiceConfig {
+        private String baseUrl = "http://mongo-service";
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class KafkaSenderConfig {
+        // Upper bound on unacknowledged sends before the sender stops requesting from upstream
+        private int maxInFlight = 1024;
+    }
+}
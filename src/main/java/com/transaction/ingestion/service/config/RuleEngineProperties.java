@@ -0,0 +1,20 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "rule-engine")
+@Data
+public class RuleEngineProperties {
+    // Reorder rules within a cost class by observed cost and rejection rate
+    private boolean adaptiveOrdering = true;
+    private Duration replanInterval = Duration.ofSeconds(30);
+    // Evaluations a rule needs in an interval before its statistics are updated
+    private long minSamples = 100;
+    // Weight of the latest interval in the moving averages
+    private double smoothing = 0.3;
+}
@@ -0,0 +1,21 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "screening")
+@Data
+public class ScreeningProperties {
+    // Target false-positive rate of each Bloom filter; lower rates cost more bits and hashes per entry
+    private double falsePositiveRate = 0.001;
+    // Spring resource locations with one entry per line ('#' starts a comment). When the sanctions lists are
+    // unset the built-in lists are used. The blacklist adds to the customers' own blacklisted flag.
+    private String blacklistedCustomersLocation;
+    private String sanctionedMerchantsLocation;
+    private String sanctionedCountriesLocation;
+    private Duration refreshInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,35 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "tracing")
+@Data
+public class TracingProperties {
+
+    public enum Exporter {
+        FILE,
+        CONSOLE,
+        NONE
+    }
+
+    // Correlation ids and trace headers are propagated either way; this only controls span recording
+    private boolean enabled = true;
+    // Fraction of new traces recorded in full; incoming traceparent headers keep the caller's decision
+    private double sampleRate = 0.01;
+    // Unsampled traces whose local root takes at least this long are exported anyway; 0 (the default) disables.
+    // Capturing means buffering every span of the trace until the root ends, so it is opt-in.
+    private Duration slowThreshold = Duration.ZERO;
+    // Fraction of unsampled traces that buffer their spans for slow capture while slow-threshold is set
+    private double slowSampleRate = 0.1;
+    private Exporter exporter = Exporter.FILE;
+    private String file = "logs/traces.ndjson";
+    // The file is rolled over to <file>.1 once it reaches this size
+    private long maxFileSize = 100L * 1024 * 1024;
+    // Finished spans waiting for the exporter thread; spans are dropped when it is full
+    private int queueCapacity = 10_000;
+}
@@ -0,0 +1,16 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "validation-reload")
+@Data
+public class ValidationReloadProperties {
+    // YAML file with a top-level "validation:" block; its values override the startup configuration
+    private String file;
+    private Duration pollInterval = Duration.ofSeconds(5);
+}
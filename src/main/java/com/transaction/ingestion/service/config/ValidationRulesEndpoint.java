@@ -0,0 +1,58 @@
+package com.transaction.ingestion.service.config;
+
+import com.transaction.ingestion.service.service.ValidationRuleRegistry;
+import com.transaction.ingestion.service.service.ValidationRuleSnapshot;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.web.server.ConditionalOnManagementPort;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// GET /actuator/validationrules shows the active snapshot, POST reloads it from the watched file and environment
+@Component
+@ConditionalOnManagementPort(ManagementPortType.DIFFERENT)
+@Endpoint(id = "validationrules")
+@AllArgsConstructor
+public class ValidationRulesEndpoint {
+
+    private final ValidationRuleRegistry validationRuleRegistry;
+
+    @ReadOperation
+    public Map<String, Object> rules() {
+        return describe(validationRuleRegistry.current());
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() {
+        Map<String, Object> result;
+        try {
+            result = describe(validationRuleRegistry.reload());
+            result.put("status", "APPLIED");
+        } catch (IllegalArgumentException e) {
+            result = describe(validationRuleRegistry.current());
+            result.put("status", "REJECTED");
+            result.put("error", e.getMessage());
+        }
+        return result;
+    }
+
+    private static Map<String, Object> describe(ValidationRuleSnapshot snapshot) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("version", snapshot.getVersion());
+        description.put("source", snapshot.getSource());
+        description.put("loadedAt", snapshot.getLoadedAt());
+        description.put("timestampWindowMinutes", snapshot.getTimestampWindow().toMinutes());
+        description.put("duplicateCheckEnabled", snapshot.isDuplicateCheckEnabled());
+        description.put("duplicateWindowSeconds", snapshot.getDuplicateWindowSeconds());
+        description.put("velocityCheckEnabled", snapshot.isVelocityCheckEnabled());
+        description.put("maxTransactionsPerHour", snapshot.getMaxTransactionsPerHour());
+        description.put("kycCheckEnabled", snapshot.isKycCheckEnabled());
+        description.put("kycExpiryDays", snapshot.getKycExpiryDays());
+        return description;
+    }
+}
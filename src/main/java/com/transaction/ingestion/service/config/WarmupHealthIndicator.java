@@ -0,0 +1,24 @@
+package com.transaction.ingestion.service.config;
+
+import com.transaction.ingestion.service.service.WarmupService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// OUT_OF_SERVICE until WarmupService has finished. Part of the readiness group, so the instance only takes traffic
+// once it is warm even though warm-up runs after Spring Boot has marked the application ready.
+// The prefetch detail shows whether recent transactions and customers were loaded or why not.
+@Component
+@AllArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final WarmupService warmupService;
+
+    @Override
+    public Health health() {
+        return (warmupService.isFinished() ? Health.up() : Health.outOfService())
+                .withDetail("prefetch", warmupService.getPrefetchOutcome())
+                .build();
+    }
+}
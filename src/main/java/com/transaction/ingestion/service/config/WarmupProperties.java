@@ -0,0 +1,32 @@
+package com.transaction.ingestion.service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "warmup")
+@Data
+public class WarmupProperties {
+    // When disabled the instance is marked ready and UP in Eureka as soon as it has started
+    private boolean enabled = true;
+    // Recent transactions used to find hot customers and merchants and to shape the synthetic requests. Off by
+    // default: the recent transactions come from GET /api/v1/transactions/page, which mongo-service must serve
+    private boolean prefetchRecent = false;
+    private Duration lookback = Duration.ofMinutes(15);
+    private int recentTransactions = 2000;
+    private int hotCustomers = 500;
+    // Synthetic requests through the structural and business-rule paths, in rounds
+    private int requestsPerRound = 500;
+    private int maxRounds = 40;
+    private int threads = 4;
+    // Warm-up ends early once this many consecutive rounds have a p99 at or below the target
+    private Duration latencyTarget = Duration.ofMillis(5);
+    private int stableRounds = 3;
+    // Side-effect free runs of the advanced (async) validation
+    private int advancedValidations = 50;
+    // Hard cap; the instance goes ready when it is reached, warm or not
+    private Duration maxDuration = Duration.ofSeconds(90);
+}
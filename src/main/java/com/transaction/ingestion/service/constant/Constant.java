@@ -8,6 +8,8 @@ public class Constant {
     public static final Pattern ISO_CURRENCY_PATTERN = Pattern.compile("^[A-Z]{3}$");
     public static final Set<String> VALID_CHANNELS = Set.of("online", "atm", "branch", "mobile");
     public static final Set<String> VALID_DEVICES = Set.of("desktop", "mobile", "tablet", "kiosk");
+    public static final Set<String> COMMON_MERCHANT_CATEGORIES = Set.of("GROCERY", "GAS_STATION", "RESTAURANT",
+            "COFFEE_SHOP");
     public static final Set<String> SANCTIONED_MERCHANTS = Set.of("BAD_MERCHANT_1", "BAD_MERCHANT_2");
     public static final Set<String> SANCTIONED_COUNTRIES = Set.of("BAD_COUNTRY_1", "BAD_COUNTRY_2");
 
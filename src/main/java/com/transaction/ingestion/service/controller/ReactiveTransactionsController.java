@@ -0,0 +1,153 @@
+package com.transaction.ingestion.service.controller;
+
+import com.riskplatform.common.entity.Transaction;
+import com.transaction.ingestion.service.client.AffinityForwardingClient;
+import com.transaction.ingestion.service.dto.*;
+import com.transaction.ingestion.service.service.CustomerAffinityRouter;
+import com.transaction.ingestion.service.service.CustomerStateHandoffService;
+import com.transaction.ingestion.service.service.IdempotencyService;
+import com.transaction.ingestion.service.service.IngestAdmissionService;
+import com.transaction.ingestion.service.service.ReactiveTransactionService;
+import com.transaction.ingestion.service.tracing.Span;
+import com.transaction.ingestion.service.tracing.TraceContext;
+import com.transaction.ingestion.service.tracing.Tracer;
+import io.swagger.v3.oas.annotations.Hidden;
+import lombok.AllArgsConstructor;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// WebFlux equivalent of TransactionsController, active with the "reactive" profile. Tracing, customer state
+// handoff, affinity routing and the internal peer endpoints behave as on the servlet stack; the calls that block
+// (state pulls and forwarding) run on boundedElastic so they never hold the event loop.
+@RestController
+@RequestMapping("/api/v1/transactions")
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveTransactionsController {
+
+    private final ReactiveTransactionService reactiveTransactionService;
+    private final IngestAdmissionService ingestAdmissionService;
+    private final IdempotencyService idempotencyService;
+    private final CustomerAffinityRouter customerAffinityRouter;
+    private final CustomerStateHandoffService customerStateHandoffService;
+    private final Tracer tracer;
+
+    @PostMapping("/ingest")
+    public Mono<ResponseEntity<?>> processIngest(@RequestBody IngestRequest ingestRequest,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = TraceContext.TRACEPARENT_HEADER, required = false) String traceparent,
+            @RequestHeader(value = TraceContext.CORRELATION_ID_HEADER, required = false) String correlationId,
+            ServerHttpResponse httpResponse) {
+        Span span = tracer.startDetachedTrace("http.ingest", traceparent, correlationId);
+        httpResponse.getHeaders().set(TraceContext.CORRELATION_ID_HEADER, span.context().getCorrelationId());
+        span.tag("customerId", ingestRequest.getCustomerId());
+        // Replays and admission are settled before any forwarding, as on the servlet stack
+        return traced(takeOver(ingestRequest.getCustomerId())
+                .then(Mono.defer(() -> idempotencyService.executeReactive(ingestRequest.getCustomerId(),
+                        idempotencyKey, ingestRequest, () -> admitAndRoute(ingestRequest, idempotencyKey, span)))),
+                span);
+    }
+
+    // Target of affinity forwarding from other instances; always processed here so requests never loop
+    @Hidden
+    @PostMapping("/internal/ingest")
+    public Mono<ResponseEntity<?>> processForwardedIngest(@RequestBody IngestRequest ingestRequest,
+            @RequestHeader(value = AffinityForwardingClient.AFFINITY_TOKEN_HEADER, required = false) String token,
+            @RequestHeader(AffinityForwardingClient.FORWARDED_BY_HEADER) String forwardedBy,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = TraceContext.TRACEPARENT_HEADER, required = false) String traceparent,
+            @RequestHeader(value = TraceContext.CORRELATION_ID_HEADER, required = false) String correlationId,
+            ServerHttpResponse httpResponse) {
+        if (!customerAffinityRouter.isTrustedPeer(token)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+        }
+        Span span = tracer.startDetachedTrace("http.ingest.forwarded", traceparent, correlationId);
+        httpResponse.getHeaders().set(TraceContext.CORRELATION_ID_HEADER, span.context().getCorrelationId());
+        span.tag("customerId", ingestRequest.getCustomerId()).tag("forwardedBy", forwardedBy);
+        // The forwarding instance already charged the customer's rate, so only the concurrency limit applies
+        return traced(takeOver(ingestRequest.getCustomerId())
+                .then(Mono.defer(() -> idempotencyService.executeReactive(ingestRequest.getCustomerId(),
+                        idempotencyKey, ingestRequest,
+                        () -> admit(null, () -> reactiveTransactionService.processTransaction(ingestRequest,
+                                span.context()))))),
+                span);
+    }
+
+    // Lets the new owner of a customer pull the state this instance kept for it
+    @Hidden
+    @GetMapping("/internal/customer-state/{customerId}")
+    public ResponseEntity<CustomerStateHandoff> exportCustomerState(@PathVariable String customerId,
+            @RequestHeader(value = AffinityForwardingClient.AFFINITY_TOKEN_HEADER, required = false) String token) {
+        if (!customerAffinityRouter.isTrustedPeer(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(customerStateHandoffService.export(customerId));
+    }
+
+    @GetMapping("/{transactionId}")
+    public Mono<ResponseEntity<Transaction>> getTransaction(@PathVariable String transactionId) {
+        return reactiveTransactionService.findTransactionById(transactionId);
+    }
+
+    // Most requests are for customers that did not just move here and skip the hop to boundedElastic
+    private Mono<Void> takeOver(String customerId) {
+        if (customerAffinityRouter.previousOwnerOf(customerId).isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> customerStateHandoffService.takeOver(customerId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private Mono<ResponseEntity<?>> admitAndRoute(IngestRequest ingestRequest, String idempotencyKey, Span span) {
+        return admit(ingestRequest.getCustomerId(), () -> {
+            Mono<ResponseEntity<?>> local = Mono.defer(
+                    () -> reactiveTransactionService.processTransaction(ingestRequest, span.context()));
+            Optional<ServiceInstance> owner = customerAffinityRouter.ownerOf(ingestRequest.getCustomerId());
+            if (owner.isEmpty()) {
+                return local;
+            }
+            // An unreachable owner comes back as null, and the request is then processed here
+            return Mono.<ResponseEntity<?>>fromCallable(
+                            () -> customerAffinityRouter.forward(owner.get(), ingestRequest, idempotencyKey))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doOnNext(forwarded -> span.tag("forwarded", true))
+                    .switchIfEmpty(local);
+        });
+    }
+
+    private Mono<ResponseEntity<?>> admit(String customerId, Supplier<Mono<ResponseEntity<?>>> action) {
+        return Mono.defer(() -> {
+            IngestAdmissionService.Permit permit = ingestAdmissionService.tryAcquire(customerId);
+            if (!permit.isAccepted()) {
+                return Mono.just(tooManyRequests(permit));
+            }
+            return action.get().doFinally(signal -> permit.release(signal == SignalType.ON_COMPLETE));
+        });
+    }
+
+    // The span is not bound to a thread, so it is ended by whichever signal finishes the request
+    private static Mono<ResponseEntity<?>> traced(Mono<ResponseEntity<?>> response, Span span) {
+        return response
+                .doOnNext(entity -> span.tag("http.status", entity.getStatusCode().value()))
+                .doOnError(span::error)
+                .doFinally(signal -> span.end());
+    }
+
+    private ResponseEntity<?> tooManyRequests(IngestAdmissionService.Permit permit) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(permit.getRetryAfterSeconds()))
+                .body(FixedErrorResponse.TOO_MANY_REQUESTS);
+    }
+}
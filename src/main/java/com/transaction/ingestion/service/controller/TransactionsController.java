@@ -1,33 +1,105 @@
 package com.transaction.ingestion.service.controller;
 
 import com.riskplatform.common.entity.Transaction;
+import com.transaction.ingestion.service.client.AffinityForwardingClient;
 import com.transaction.ingestion.service.dto.*;
+import com.transaction.ingestion.service.service.CustomerAffinityRouter;
+import com.transaction.ingestion.service.service.CustomerStateHandoffService;
+import com.transaction.ingestion.service.service.IdempotencyService;
+import com.transaction.ingestion.service.service.IngestAdmissionService;
 import com.transaction.ingestion.service.service.TransactionService;
+import com.transaction.ingestion.service.tracing.Span;
+import com.transaction.ingestion.service.tracing.TraceContext;
+import com.transaction.ingestion.service.tracing.Tracer;
+import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/api/v1/transactions")
+@Profile("!reactive")
 @AllArgsConstructor
 public class TransactionsController {
 
     private final TransactionService transactionService;
+    private final IngestAdmissionService ingestAdmissionService;
+    private final IdempotencyService idempotencyService;
+    private final CustomerAffinityRouter customerAffinityRouter;
+    private final CustomerStateHandoffService customerStateHandoffService;
+    private final Tracer tracer;
 
     @Operation(summary = "Ingest a new transaction", description = "Process and validate a new transaction")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Transaction accepted", content = @Content(schema = @Schema(implementation = IngestResponse.class))),
             @ApiResponse(responseCode = "400", description = "Validation failed", content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
-            @ApiResponse(responseCode = "409", description = "Transaction rejected", content = @Content(schema = @Schema(implementation = RejectedResponse.class)))
+            @ApiResponse(responseCode = "409", description = "Transaction rejected", content = @Content(schema = @Schema(implementation = RejectedResponse.class))),
+            @ApiResponse(responseCode = "429", description = "Ingest capacity exceeded, retry after the indicated delay", content = @Content(schema = @Schema(implementation = FixedErrorResponse.class)))
     })
     @PostMapping("/ingest")
-    public ResponseEntity<?> processIngest(@RequestBody IngestRequest ingestRequest) {
-        return transactionService.processTransaction(ingestRequest);
+    public ResponseEntity<?> processIngest(@RequestBody IngestRequest ingestRequest,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = TraceContext.TRACEPARENT_HEADER, required = false) String traceparent,
+            @RequestHeader(value = TraceContext.CORRELATION_ID_HEADER, required = false) String correlationId,
+            HttpServletResponse httpResponse) {
+        // The correlation id is assigned here (or taken from the caller) and returned in the response headers
+        try (Span span = tracer.startTrace("http.ingest", traceparent, correlationId)) {
+            httpResponse.setHeader(TraceContext.CORRELATION_ID_HEADER, span.context().getCorrelationId());
+            span.tag("customerId", ingestRequest.getCustomerId());
+            // A customer that just moved here brings its stored responses and spend along before anything is checked
+            customerStateHandoffService.takeOver(ingestRequest.getCustomerId());
+            // Replays and admission are settled here before any forwarding, so a rejected or duplicate request never
+            // costs a hop and the wait for the owner is bounded by this instance's concurrency limit
+            return traced(idempotencyService.execute(ingestRequest.getCustomerId(), idempotencyKey, ingestRequest,
+                    () -> admitAndRoute(ingestRequest, idempotencyKey, span)), span);
+        }
+    }
+
+    // Target of affinity forwarding from other instances; always processed here so requests never loop
+    @Hidden
+    @PostMapping("/internal/ingest")
+    public ResponseEntity<?> processForwardedIngest(@RequestBody IngestRequest ingestRequest,
+            @RequestHeader(value = AffinityForwardingClient.AFFINITY_TOKEN_HEADER, required = false) String token,
+            @RequestHeader(AffinityForwardingClient.FORWARDED_BY_HEADER) String forwardedBy,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = TraceContext.TRACEPARENT_HEADER, required = false) String traceparent,
+            @RequestHeader(value = TraceContext.CORRELATION_ID_HEADER, required = false) String correlationId,
+            HttpServletResponse httpResponse) {
+        if (!customerAffinityRouter.isTrustedPeer(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try (Span span = tracer.startTrace("http.ingest.forwarded", traceparent, correlationId)) {
+            httpResponse.setHeader(TraceContext.CORRELATION_ID_HEADER, span.context().getCorrelationId());
+            span.tag("customerId", ingestRequest.getCustomerId()).tag("forwardedBy", forwardedBy);
+            customerStateHandoffService.takeOver(ingestRequest.getCustomerId());
+            // The forwarding instance already charged the customer's rate, so only the concurrency limit applies
+            return traced(idempotencyService.execute(ingestRequest.getCustomerId(), idempotencyKey, ingestRequest,
+                    () -> admit(null, () -> transactionService.processTransaction(ingestRequest))), span);
+        }
+    }
+
+    // Lets the new owner of a customer pull the state this instance kept for it
+    @Hidden
+    @GetMapping("/internal/customer-state/{customerId}")
+    public ResponseEntity<CustomerStateHandoff> exportCustomerState(@PathVariable String customerId,
+            @RequestHeader(value = AffinityForwardingClient.AFFINITY_TOKEN_HEADER, required = false) String token) {
+        if (!customerAffinityRouter.isTrustedPeer(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(customerStateHandoffService.export(customerId));
     }
 
     @Operation(summary = "Get transaction by ID", description = "Retrieve a transaction by its ID")
@@ -39,4 +111,47 @@ public class TransactionsController {
     public ResponseEntity<Transaction> getTransaction(@PathVariable String transactionId) {
         return transactionService.findTransactionById(transactionId);
     }
+
+    private ResponseEntity<?> admitAndRoute(IngestRequest ingestRequest, String idempotencyKey, Span span) {
+        return admit(ingestRequest.getCustomerId(), () -> {
+            Optional<ServiceInstance> owner = customerAffinityRouter.ownerOf(ingestRequest.getCustomerId());
+            if (owner.isPresent()) {
+                ResponseEntity<?> forwarded = customerAffinityRouter.forward(owner.get(), ingestRequest,
+                        idempotencyKey);
+                if (forwarded != null) {
+                    span.tag("forwarded", true);
+                    return forwarded;
+                }
+            }
+            return transactionService.processTransaction(ingestRequest);
+        });
+    }
+
+    private ResponseEntity<?> admit(String customerId, Supplier<ResponseEntity<?>> action) {
+        IngestAdmissionService.Permit permit = ingestAdmissionService.tryAcquire(customerId);
+        if (!permit.isAccepted()) {
+            return tooManyRequests(permit);
+        }
+
+        boolean completed = false;
+        try {
+            ResponseEntity<?> response = action.get();
+            completed = true;
+            return response;
+        } finally {
+            permit.release(completed);
+        }
+    }
+
+    // The correlation id header is already on the servlet response, so the entity is returned as it is
+    private static ResponseEntity<?> traced(ResponseEntity<?> response, Span span) {
+        span.tag("http.status", response.getStatusCode().value());
+        return response;
+    }
+
+    private ResponseEntity<FixedErrorResponse> tooManyRequests(IngestAdmissionService.Permit permit) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(permit.getRetryAfterSeconds()))
+                .body(FixedErrorResponse.TOO_MANY_REQUESTS);
+    }
 }
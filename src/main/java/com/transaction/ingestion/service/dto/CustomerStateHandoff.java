@@ -0,0 +1,32 @@
+package com.transaction.ingestion.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Node-local state of one customer, handed from its previous owner to the instance that owns it after the
+// affinity ring changed
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerStateHandoff {
+    private String customerId;
+    private String baseCurrency;
+    // Epoch day in the daily-spend zone, and the spend recorded on it in base-currency minor units
+    private long spendDay;
+    private long spentMinorUnits;
+    private List<IdempotencyEntry> idempotencyEntries;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IdempotencyEntry {
+        private String idempotencyKey;
+        private byte[] requestFingerprint;
+        private int status;
+        private byte[] body;
+        private long expiresAtMillis;
+    }
+}
@@ -0,0 +1,28 @@
+package com.transaction.ingestion.service.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+// Error bodies that never vary. Immutable, so one instance is shared by every response and the JSON converter
+// can write it from bytes encoded once at startup. Same JSON shape as ErrorResponse without violations.
+@Value
+public class FixedErrorResponse {
+
+    public static final FixedErrorResponse TOO_MANY_REQUESTS = new FixedErrorResponse(
+            new Error("TOO_MANY_REQUESTS", "Ingest capacity exceeded, retry later"));
+    public static final FixedErrorResponse IDEMPOTENCY_KEY_REUSED = new FixedErrorResponse(
+            new Error("IDEMPOTENCY_KEY_REUSED", "Idempotency-Key was already used with a different request"));
+    public static final FixedErrorResponse REQUEST_IN_PROGRESS = new FixedErrorResponse(
+            new Error("REQUEST_IN_PROGRESS", "A request with this Idempotency-Key is still being processed"));
+    public static final List<FixedErrorResponse> ALL = List.of(TOO_MANY_REQUESTS, IDEMPOTENCY_KEY_REUSED,
+            REQUEST_IN_PROGRESS);
+
+    Error error;
+
+    @Value
+    public static class Error {
+        String code;
+        String message;
+    }
+}
@@ -0,0 +1,12 @@
+package com.transaction.ingestion.service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BusinessRejection {
+    private String reason;
+    private String message;
+    private Double customerLimit;
+}
@@ -0,0 +1,149 @@
+package com.transaction.ingestion.service.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Fixed-point amount in the minor unit of its currency (cents for USD, yen for JPY, fils for BHD).
+// Exponents come from the ISO 4217 table shipped with the JDK. Conversions to Double/BigDecimal
+// belong at the API, storage and event boundaries only.
+public final class Money implements Comparable<Money> {
+
+    private static final int DEFAULT_EXPONENT = 2;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L };
+    private static final Map<String, Integer> EXPONENTS = new ConcurrentHashMap<>();
+
+    private final long minorUnits;
+    private final String currency;
+    private final int exponent;
+
+    private Money(long minorUnits, String currency, int exponent) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+        this.exponent = exponent;
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, currency, exponentOf(currency));
+    }
+
+    public static Money of(double amount, String currency) {
+        return ofMinor(toMinorUnits(amount, currency), currency);
+    }
+
+    public static Money of(BigDecimal amount, String currency) {
+        return ofMinor(toMinorUnits(amount, currency), currency);
+    }
+
+    public static long toMinorUnits(double amount, String currency) {
+        return Math.round(amount * POWERS_OF_TEN[exponentOf(currency)]);
+    }
+
+    // Largest whole number of minor units not above amount, so a limit never rounds in the customer's favour.
+    // Dividing back is exact for whole minor units, so the comparison detects any sub-minor-unit remainder.
+    public static long toMinorUnitsFloor(double amount, String currency) {
+        long power = POWERS_OF_TEN[exponentOf(currency)];
+        long rounded = Math.round(amount * power);
+        return (double) rounded / power > amount ? rounded - 1 : rounded;
+    }
+
+    // Whether amount has no more decimal places than the currency's minor unit (no 1234.56 JPY)
+    public static boolean hasWholeMinorUnits(double amount, String currency) {
+        long power = POWERS_OF_TEN[exponentOf(currency)];
+        return (double) Math.round(amount * power) / power == amount;
+    }
+
+    public static long toMinorUnits(BigDecimal amount, String currency) {
+        if (amount == null) {
+            return 0L;
+        }
+        int exponent = exponentOf(currency);
+        // Whole minor units of at most 15 digits survive the trip through double exactly, without the BigDecimal
+        // and BigInteger that setScale and unscaledValue allocate
+        if (amount.scale() <= exponent && amount.precision() - amount.scale() + exponent <= 15) {
+            return Math.round(amount.doubleValue() * POWERS_OF_TEN[exponent]);
+        }
+        return amount.setScale(exponent, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static int exponentOf(String currency) {
+        if (currency == null) {
+            return DEFAULT_EXPONENT;
+        }
+        return EXPONENTS.computeIfAbsent(currency, code -> {
+            try {
+                int digits = Currency.getInstance(code).getDefaultFractionDigits();
+                // Pseudo-currencies such as XAU have no minor unit defined
+                return digits < 0 ? 0 : Math.min(digits, POWERS_OF_TEN.length - 1);
+            } catch (IllegalArgumentException e) {
+                return DEFAULT_EXPONENT;
+            }
+        });
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public int getExponent() {
+        return exponent;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return compareTo(other) > 0;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency, exponent);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, exponent);
+    }
+
+    public double toDouble() {
+        return (double) minorUnits / POWERS_OF_TEN[exponent];
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money money)) {
+            return false;
+        }
+        return minorUnits == money.minorUnits && Objects.equals(currency, money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minorUnits, currency);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency;
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!Objects.equals(currency, other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.transaction.ingestion.service.rules;
+
+import com.transaction.ingestion.service.model.BusinessRejection;
+
+import java.util.Set;
+
+// A single business check on an ingest request. Implementations are Spring beans picked up by
+// BusinessRuleEngine; @Order gives the initial evaluation order before timings are available.
+public interface BusinessRule {
+
+    String getName();
+
+    Set<RuleInput> getInputs();
+
+    CostClass getCostClass();
+
+    String getRejectionReason();
+
+    // Null when the request passes the rule
+    BusinessRejection evaluate(RuleContext context);
+}
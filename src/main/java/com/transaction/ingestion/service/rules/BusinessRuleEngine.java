@@ -0,0 +1,195 @@
+package com.transaction.ingestion.service.rules;
+
+import com.transaction.ingestion.service.config.RuleEngineProperties;
+import com.transaction.ingestion.service.model.BusinessRejection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Evaluates the registered BusinessRules until the first rejection, following a plan that runs cheaper cost
+// classes first and request-only rules before customer rules. While the customer lookup is in flight, the
+// request-only rules can already run. Within a group, rules are periodically re-sorted by expected cost per
+// rejection (mean time / rejection rate), so the rules most likely to cheaply reject run first. Among the LOCAL rules
+// whose inputs are already loaded, the first failing rule in declared (@Order) order is reported, so CUSTOMER_INACTIVE
+// still wins over LIMIT_EXCEEDED. A rejection found before the customer is loaded is returned as is, without waiting
+// for the lookup.
+@Service
+@Slf4j
+public class BusinessRuleEngine {
+
+    // Rejection rate floor so rules that never reject sort by cost instead of dividing by zero
+    private static final double MIN_REJECTION_RATE = 1e-4;
+
+    private final RuleEngineProperties ruleEngineProperties;
+    private final List<RuleStats> rules;
+    private volatile List<RuleStats> plan;
+
+    public BusinessRuleEngine(List<BusinessRule> businessRules, RuleEngineProperties ruleEngineProperties,
+            MeterRegistry meterRegistry) {
+        this.ruleEngineProperties = ruleEngineProperties;
+        List<RuleStats> stats = new ArrayList<>();
+        for (int i = 0; i < businessRules.size(); i++) {
+            stats.add(new RuleStats(businessRules.get(i), i, meterRegistry));
+        }
+        this.rules = List.copyOf(stats);
+        this.plan = order(rules);
+        for (RuleStats rule : rules) {
+            Gauge.builder("business.rule.position", this, engine -> engine.plan.indexOf(rule))
+                    .tag("rule", rule.rule.getName())
+                    .description("Position of the rule in the current evaluation plan")
+                    .register(meterRegistry);
+        }
+        log.info("Business rule plan: {}", describe(plan));
+    }
+
+    public BusinessRejection evaluate(RuleContext context) {
+        List<RuleStats> current = plan;
+        for (int i = 0; i < current.size(); i++) {
+            BusinessRejection rejection = run(current.get(i), context);
+            if (rejection != null) {
+                return firstDeclaredRejection(current, i, rejection, context);
+            }
+        }
+        return null;
+    }
+
+    // Runs the rules declared ahead of the rejecting one that the plan had not reached yet, in declared order, and
+    // returns the first of their rejections, or the original one. Only LOCAL rules whose inputs are already loaded
+    // are re-run: a rejected request never waits on the customer lookup or pays for a remote call, and reserving rules
+    // would reserve for a request that is rejected anyway.
+    private static BusinessRejection firstDeclaredRejection(List<RuleStats> current, int position,
+            BusinessRejection rejection, RuleContext context) {
+        int rejectedIndex = current.get(position).declaredIndex;
+        List<RuleStats> earlier = new ArrayList<>();
+        for (int i = position + 1; i < current.size(); i++) {
+            RuleStats rule = current.get(i);
+            if (rule.declaredIndex < rejectedIndex && rule.rule.getCostClass() == CostClass.LOCAL
+                    && (!rule.needsCustomer || context.isCustomerResolved())) {
+                earlier.add(rule);
+            }
+        }
+        earlier.sort(Comparator.comparingInt(rule -> rule.declaredIndex));
+        for (RuleStats rule : earlier) {
+            BusinessRejection earlierRejection = run(rule, context);
+            if (earlierRejection != null) {
+                return earlierRejection;
+            }
+        }
+        return rejection;
+    }
+
+    private static BusinessRejection run(RuleStats rule, RuleContext context) {
+        if (rule.needsCustomer) {
+            // Wait for the lookup outside the rule's timing so it does not skew the ordering
+            context.getCustomer();
+        }
+        long start = System.nanoTime();
+        BusinessRejection rejection = rule.rule.evaluate(context);
+        if (!context.isDryRun()) {
+            rule.record(System.nanoTime() - start, rejection != null);
+        }
+        return rejection;
+    }
+
+    @Scheduled(fixedDelayString = "${rule-engine.replan-interval:30s}")
+    public void replan() {
+        for (RuleStats rule : rules) {
+            rule.roll(ruleEngineProperties.getMinSamples(), ruleEngineProperties.getSmoothing());
+        }
+        if (!ruleEngineProperties.isAdaptiveOrdering()) {
+            return;
+        }
+        List<RuleStats> next = order(rules);
+        if (!next.equals(plan)) {
+            plan = next;
+            log.info("Business rule plan reordered: {}", describe(next));
+        }
+    }
+
+    private List<RuleStats> order(List<RuleStats> candidates) {
+        Comparator<RuleStats> comparator = Comparator
+                .comparing((RuleStats rule) -> rule.rule.getCostClass())
+                .thenComparing(rule -> rule.needsCustomer);
+        if (ruleEngineProperties.isAdaptiveOrdering()) {
+            comparator = comparator.thenComparingDouble(RuleStats::expectedCostPerRejection);
+        }
+        List<RuleStats> ordered = new ArrayList<>(candidates);
+        ordered.sort(comparator.thenComparingInt(rule -> rule.declaredIndex));
+        return List.copyOf(ordered);
+    }
+
+    private static String describe(List<RuleStats> plan) {
+        return plan.stream().map(rule -> rule.rule.getName()).collect(Collectors.joining(" -> "));
+    }
+
+    private static final class RuleStats {
+        private final BusinessRule rule;
+        private final int declaredIndex;
+        private final boolean needsCustomer;
+        private final Timer timer;
+        private final Counter rejections;
+        private final LongAdder intervalEvaluations = new LongAdder();
+        private final LongAdder intervalRejections = new LongAdder();
+        private final LongAdder intervalNanos = new LongAdder();
+        // Moving averages, only touched by the replan thread
+        private double meanNanos;
+        private double rejectionRate;
+        private volatile double expectedCostPerRejection;
+
+        private RuleStats(BusinessRule rule, int declaredIndex, MeterRegistry meterRegistry) {
+            this.rule = rule;
+            this.declaredIndex = declaredIndex;
+            this.needsCustomer = rule.getInputs().contains(RuleInput.CUSTOMER);
+            this.timer = Timer.builder("business.rule.duration")
+                    .tag("rule", rule.getName())
+                    .tag("cost", rule.getCostClass().name())
+                    .register(meterRegistry);
+            this.rejections = Counter.builder("business.rule.rejections")
+                    .tag("rule", rule.getName())
+                    .tag("reason", rule.getRejectionReason())
+                    .register(meterRegistry);
+        }
+
+        private void record(long nanos, boolean rejected) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            intervalEvaluations.increment();
+            intervalNanos.add(nanos);
+            if (rejected) {
+                rejections.increment();
+                intervalRejections.increment();
+            }
+        }
+
+        private void roll(long minSamples, double smoothing) {
+            long evaluations = intervalEvaluations.sum();
+            if (evaluations < minSamples) {
+                return;
+            }
+            long rejected = intervalRejections.sumThenReset();
+            long nanos = intervalNanos.sumThenReset();
+            intervalEvaluations.add(-evaluations);
+
+            double intervalMean = (double) nanos / evaluations;
+            double intervalRate = (double) rejected / evaluations;
+            boolean first = meanNanos == 0.0;
+            meanNanos = first ? intervalMean : smoothing * intervalMean + (1 - smoothing) * meanNanos;
+            rejectionRate = first ? intervalRate : smoothing * intervalRate + (1 - smoothing) * rejectionRate;
+            expectedCostPerRejection = meanNanos / Math.max(rejectionRate, MIN_REJECTION_RATE);
+        }
+
+        private double expectedCostPerRejection() {
+            return expectedCostPerRejection;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.transaction.ingestion.service.rules;
+
+// Declared cost of a rule; the plan never runs a rule before one of a cheaper class
+public enum CostClass {
+    // In-memory checks against data already in the context
+    LOCAL,
+    // Checks that call another service or a database
+    REMOTE,
+    // Checks that reserve something when they pass; always run last so nothing can reject after the reservation
+    RESERVING
+}
@@ -0,0 +1,46 @@
+package com.transaction.ingestion.service.rules;
+
+import com.transaction.ingestion.service.service.CustomerService;
+import com.transaction.ingestion.service.model.BusinessRejection;
+import lombok.AllArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Component
+@Order(1)
+@AllArgsConstructor
+public class CustomerActiveRule implements BusinessRule {
+
+    private final CustomerService customerService;
+
+    @Override
+    public String getName() {
+        return "customer-active";
+    }
+
+    @Override
+    public Set<RuleInput> getInputs() {
+        return Set.of(RuleInput.CUSTOMER);
+    }
+
+    @Override
+    public CostClass getCostClass() {
+        return CostClass.LOCAL;
+    }
+
+    @Override
+    public String getRejectionReason() {
+        return "CUSTOMER_INACTIVE";
+    }
+
+    @Override
+    public BusinessRejection evaluate(RuleContext context) {
+        // Also covers an unknown customer, so the other customer rules can treat a missing record as a pass
+        if (!customerService.isCustomerActive(context.getCustomer())) {
+            return new BusinessRejection(getRejectionReason(), "Customer is not active", null);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.transaction.ingestion.service.rules;
+
+import com.transaction.ingestion.service.service.CustomerService;
+import com.transaction.ingestion.service.model.BusinessRejection;
+import lombok.AllArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Component
+@Order(2)
+@AllArgsConstructor
+public class CustomerBlacklistRule implements BusinessRule {
+
+    private final CustomerService customerService;
+
+    @Override
+    public String getName() {
+        return "customer-blacklist";
+    }
+
+    @Override
+    public Set<RuleInput> getInputs() {
+        return Set.of(RuleInput.CUSTOMER);
+    }
+
+    @Override
+    public CostClass getCostClass() {
+        return CostClass.LOCAL;
+    }
+
+    @Override
+    public String getRejectionReason() {
+        return "CUSTOMER_BLACKLISTED";
+    }
+
+    @Override
+    public BusinessRejection evaluate(RuleContext context) {
+        if (customerService.isCustomerBlacklisted(context.getRequest().getCustomerId(), context::getCustomer)) {
+            return new BusinessRejection(getRejectionReason(), "Customer is blacklisted", null);
+        }
+        return null;
+    }
+}
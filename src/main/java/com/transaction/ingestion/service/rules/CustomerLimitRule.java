@@ -0,0 +1,54 @@
+package com.transaction.ingestion.service.rules;
+
+import com.transaction.ingestion.service.model.Money;
+import com.transaction.ingestion.service.service.CustomerService;
+import com.transaction.ingestion.service.model.BusinessRejection;
+import lombok.AllArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Component
+@Order(4)
+@AllArgsConstructor
+public class CustomerLimitRule implements BusinessRule {
+
+    private final CustomerService customerService;
+
+    @Override
+    public String getName() {
+        return "customer-limit";
+    }
+
+    @Override
+    public Set<RuleInput> getInputs() {
+        return Set.of(RuleInput.CUSTOMER);
+    }
+
+    @Override
+    public CostClass getCostClass() {
+        return CostClass.LOCAL;
+    }
+
+    @Override
+    public String getRejectionReason() {
+        return "LIMIT_EXCEEDED";
+    }
+
+    @Override
+    public BusinessRejection evaluate(RuleContext context) {
+        // Customer limits are held in the base currency, so the amount is converted before comparing
+        Money amount = context.getBaseAmount();
+        if (amount == null) {
+            return null;
+        }
+        double customerLimit = customerService.getCustomerLimit(context.getCustomer());
+        String baseCurrency = context.getFxRates().getBaseCurrency();
+        if (amount.isGreaterThan(Money.ofMinor(Money.toMinorUnitsFloor(customerLimit, baseCurrency), baseCurrency))) {
+            return new BusinessRejection(getRejectionReason(), "Transaction amount exceeds customer limit",
+                    customerLimit);
+        }
+        return null;
+    }
+}
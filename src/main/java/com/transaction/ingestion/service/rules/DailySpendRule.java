@@ -0,0 +1,65 @@
+package com.transaction.ingestion.service.rules;
+
+import com.riskplatform.common.entity.Customer;
+import com.transaction.ingestion.service.model.Money;
+import com.transaction.ingestion.service.service.DailySpendTracker;
+import com.transaction.ingestion.service.model.BusinessRejection;
+import lombok.AllArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Component
+@Order(7)
+@AllArgsConstructor
+public class DailySpendRule implements BusinessRule {
+
+    private final DailySpendTracker dailySpendTracker;
+
+    @Override
+    public String getName() {
+        return "daily-spend";
+    }
+
+    @Override
+    public Set<RuleInput> getInputs() {
+        return Set.of(RuleInput.CUSTOMER);
+    }
+
+    @Override
+    public CostClass getCostClass() {
+        return CostClass.RESERVING;
+    }
+
+    @Override
+    public String getRejectionReason() {
+        return "DAILY_LIMIT_EXCEEDED";
+    }
+
+    @Override
+    public BusinessRejection evaluate(RuleContext context) {
+        Customer customer = context.getCustomer();
+        Money amount = context.getBaseAmount();
+        if (customer == null || amount == null) {
+            return null;
+        }
+        long dailyLimit = customer.getDailyLimit() != null
+                ? Money.toMinorUnitsFloor(customer.getDailyLimit(), context.getFxRates().getBaseCurrency())
+                : -1L;
+        String customerId = context.getRequest().getCustomerId();
+        if (context.isDryRun()) {
+            return dailySpendTracker.wouldFit(customerId, amount.getMinorUnits(), dailyLimit) ? null
+                    : new BusinessRejection(getRejectionReason(), "Transaction amount exceeds customer daily limit",
+                            customer.getDailyLimit());
+        }
+        // Reserves the amount against today's spend; TransactionService releases exactly this amount if the ingest
+        // fails later, whatever the FX rates have done in the meantime
+        if (!dailySpendTracker.tryAdd(customerId, amount.getMinorUnits(), dailyLimit)) {
+            return new BusinessRejection(getRejectionReason(), "Transaction amount exceeds customer daily limit",
+                    customer.getDailyLimit());
+        }
+        context.recordDailySpendReservation(amount.getMinorUnits());
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.transaction.ingestion.service.rules;
+
+import com.transaction.ingestion.service.model.BusinessRejection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Component
+@Order(6)
+@Slf4j
+public class DuplicateTransactionRule implements BusinessRule {
+
+    @Override
+    public String getName() {
+        return "duplicate-transaction";
+    }
+
+    @Override
+    public Set<RuleInput> getInputs() {
+        return Set.of(RuleInput.REQUEST);
+    }
+
+    @Override
+    public CostClass getCostClass() {
+        // Random stub until the check against recent transactions exists; switch to REMOTE with the real lookup
+        return CostClass.LOCAL;
+    }
+
+    @Override
+    public String getRejectionReason() {
+        return "DUPLICATE_TRANSACTION";
+    }
+
+    @Override
+    public BusinessRejection evaluate(RuleContext context) {
+        if (context.getRules().isDuplicateCheckEnabled() && isDuplicateTransaction(context)) {
+            return new BusinessRejection(getRejectionReason(), "Duplicate transaction detected", null);
+        }
+        return null;
+    }
+
+    private boolean isDuplicateTransaction(RuleContext context) {
+        try {
+            // In a real implementation, we would check against recent transactions in
+            // database
+            // For now, we'll implement a basic check using a simple heuristic
+            int duplicateWindowSeconds = context.getRules().getDuplicateWindowSeconds();
+
+            // This is still a simplified implementation - in a real system we would:
+            // 1. Query database for recent transactions with same customer, amount,
+            // merchant
+            // 2. Check if any occurred within the duplicateWindowSeconds timeframe
+            // 3. Return true if duplicates found
+
+            // For demonstration purposes, we'll randomly flag some as duplicates
+            // In a real implementation, this would be replaced with actual logic
+            return Math.random() < 0.01; // 1% chance of being flagged as duplicate
+        } catch (Exception e) {
+            log.error("Error checking for duplicate transaction: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+}
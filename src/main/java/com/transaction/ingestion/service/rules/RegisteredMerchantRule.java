@@ -0,0 +1,47 @@
+package com.transaction.ingestion.service.rules;
+
+import com.transaction.ingestion.service.model.BusinessRejection;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Component
+@Order(5)
+public class RegisteredMerchantRule implements BusinessRule {
+
+    // For demonstration purposes, we'll check against a whitelist of known merchants. In a real system this
+    // would be a merchant registry lookup.
+    private static final Set<String> REGISTERED_MERCHANTS = Set.of(
+            "Amazon", "Walmart", "Target", "Best Buy", "Starbucks",
+            "McDonald's", "Subway", "Shell", "Exxon", "Costco");
+
+    @Override
+    public String getName() {
+        return "registered-merchant";
+    }
+
+    @Override
+    public Set<RuleInput> getInputs() {
+        return Set.of(RuleInput.REQUEST);
+    }
+
+    @Override
+    public CostClass getCostClass() {
+        return CostClass.LOCAL;
+    }
+
+    @Override
+    public String getRejectionReason() {
+        return "MERCHANT_NOT_REGISTERED";
+    }
+
+    @Override
+    public BusinessRejection evaluate(RuleContext context) {
+        String merchant = context.getRequest().getMerchant();
+        if (merchant == null || !REGISTERED_MERCHANTS.contains(merchant)) {
+            return new BusinessRejection(getRejectionReason(), "Merchant is not registered in system", null);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,93 @@
+package com.transaction.ingestion.service.rules;
+
+import com.riskplatform.common.entity.Customer;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.model.Money;
+import com.transaction.ingestion.service.service.FxRateSnapshot;
+import com.transaction.ingestion.service.service.ValidationRuleSnapshot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Inputs for one evaluation. The customer is resolved on first use so request-only rules can run while the
+// lookup is still in flight. Not thread-safe apart from the daily spend reservation, which a reactive pipeline may
+// settle from whichever thread signals error or cancel; a context belongs to a single request. A dry-run context
+// (warm-up) must leave no trace: rules check without reserving and the engine does not record their stats.
+public class RuleContext {
+
+    private final IngestRequest request;
+    private final ValidationRuleSnapshot rules;
+    private final FxRateSnapshot fxRates;
+    private final Supplier<Customer> customerSupplier;
+    private final boolean dryRun;
+
+    private Customer customer;
+    private boolean customerResolved;
+    private Money baseAmount;
+    private final AtomicLong reservedDailySpend = new AtomicLong();
+
+    public RuleContext(IngestRequest request, ValidationRuleSnapshot rules, FxRateSnapshot fxRates,
+            Supplier<Customer> customerSupplier) {
+        this(request, rules, fxRates, customerSupplier, false);
+    }
+
+    public RuleContext(IngestRequest request, ValidationRuleSnapshot rules, FxRateSnapshot fxRates,
+            Supplier<Customer> customerSupplier, boolean dryRun) {
+        this.request = request;
+        this.rules = rules;
+        this.fxRates = fxRates;
+        this.customerSupplier = customerSupplier;
+        this.dryRun = dryRun;
+    }
+
+    public IngestRequest getRequest() {
+        return request;
+    }
+
+    public ValidationRuleSnapshot getRules() {
+        return rules;
+    }
+
+    public FxRateSnapshot getFxRates() {
+        return fxRates;
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public Customer getCustomer() {
+        if (!customerResolved) {
+            customer = customerSupplier.get();
+            customerResolved = true;
+        }
+        return customer;
+    }
+
+    public boolean isCustomerResolved() {
+        return customerResolved;
+    }
+
+    // Request amount in the FX base currency, rounded up so limit checks never favour the customer, or null when
+    // its currency has no rate
+    public Money getBaseAmount() {
+        if (baseAmount == null && request.getAmount() != null && fxRates.hasRate(request.getCurrency())) {
+            baseAmount = fxRates.toBaseRoundedUp(Money.of(request.getAmount(), request.getCurrency()));
+        }
+        return baseAmount;
+    }
+
+    // Base minor units DailySpendRule added to today's total for this request
+    public void recordDailySpendReservation(long minorUnits) {
+        reservedDailySpend.set(minorUnits);
+    }
+
+    public long getReservedDailySpend() {
+        return reservedDailySpend.get();
+    }
+
+    // Hands the reservation to the caller at most once, so a release can never run twice for one request
+    public long takeReservedDailySpend() {
+        return reservedDailySpend.getAndSet(0L);
+    }
+}
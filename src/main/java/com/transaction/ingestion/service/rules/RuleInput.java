@@ -0,0 +1,8 @@
+package com.transaction.ingestion.service.rules;
+
+public enum RuleInput {
+    // Fields of the ingest request only
+    REQUEST,
+    // The customer record, fetched from the mongo service through the batching loader
+    CUSTOMER
+}
@@ -0,0 +1,42 @@
+package com.transaction.ingestion.service.rules;
+
+import com.transaction.ingestion.service.model.BusinessRejection;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Component
+@Order(3)
+public class SupportedCurrencyRule implements BusinessRule {
+
+    @Override
+    public String getName() {
+        return "supported-currency";
+    }
+
+    @Override
+    public Set<RuleInput> getInputs() {
+        return Set.of(RuleInput.REQUEST);
+    }
+
+    @Override
+    public CostClass getCostClass() {
+        return CostClass.LOCAL;
+    }
+
+    @Override
+    public String getRejectionReason() {
+        return "UNSUPPORTED_CURRENCY";
+    }
+
+    @Override
+    public BusinessRejection evaluate(RuleContext context) {
+        String currency = context.getRequest().getCurrency();
+        if (!context.getFxRates().hasRate(currency)) {
+            return new BusinessRejection(getRejectionReason(), "No exchange rate available for currency " + currency,
+                    null);
+        }
+        return null;
+    }
+}
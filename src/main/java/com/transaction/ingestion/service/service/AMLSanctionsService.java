@@ -1,15 +1,21 @@
 package com.transaction.ingestion.service.service;
 
 import com.riskplatform.common.entity.Transaction;
+import com.transaction.ingestion.service.model.Money;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import static com.transaction.ingestion.service.constant.Constant.*;
-
 @Service
+@AllArgsConstructor
 @Slf4j
 public class AMLSanctionsService {
 
+    private static final double HIGH_VALUE_THRESHOLD = 50000.0;
+
+    private final FxRateService fxRateService;
+    private final ScreeningListService screeningListService;
+
     public boolean isTransactionCompliant(Transaction transaction) {
         try {
             if (isMerchantSanctioned(transaction.getMerchant())) {
@@ -30,11 +36,24 @@ public class AMLSanctionsService {
     }
 
     private boolean isMerchantSanctioned(String merchant) {
-        return SANCTIONED_MERCHANTS.contains(merchant);
+        return screeningListService.isMerchantSanctioned(merchant);
     }
 
     private boolean isCountrySanctioned(String country) {
-        return SANCTIONED_COUNTRIES.contains(country);
+        return screeningListService.isCountrySanctioned(country);
+    }
+
+    // The threshold is in the FX base currency; currencies without a rate are compared at face value
+    private boolean isHighValue(Transaction transaction) {
+        if (transaction.getAmount() == null) {
+            return false;
+        }
+        FxRateSnapshot fxRates = fxRateService.current();
+        Money amount = Money.of(transaction.getAmount(), transaction.getCurrency());
+        if (!fxRates.hasRate(transaction.getCurrency())) {
+            return amount.isGreaterThan(Money.of(HIGH_VALUE_THRESHOLD, transaction.getCurrency()));
+        }
+        return fxRates.toBase(amount).isGreaterThan(Money.of(HIGH_VALUE_THRESHOLD, fxRates.getBaseCurrency()));
     }
 
     private boolean checkExternalAMLService(Transaction transaction) {
@@ -45,8 +64,7 @@ public class AMLSanctionsService {
             Thread.sleep(50); // Simulate network delay
 
             // More realistic mock implementation based on transaction data
-            if (transaction.getAmount() != null
-                    && transaction.getAmount().compareTo(java.math.BigDecimal.valueOf(50000)) > 0) {
+            if (isHighValue(transaction)) {
                 // High-value transactions have a higher chance of being flagged
                 return Math.random() > 0.3;
             }
@@ -0,0 +1,106 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.AdmissionProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Gradient based concurrency limiter: the limit grows while the short-term RTT stays close to the
+// long-term baseline and shrinks as soon as latency starts queueing up behind a slow dependency.
+public class AdaptiveConcurrencyLimiter {
+
+    private final AdmissionProperties.ConcurrencyConfig config;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+    private double lastRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(AdmissionProperties.ConcurrencyConfig config) {
+        this.config = config;
+        this.limit = config.getInitialLimit();
+        this.estimatedLimit = config.getInitialLimit();
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long rttNanos) {
+        int inFlightBeforeRelease = inFlight.getAndDecrement();
+        update(rttNanos, inFlightBeforeRelease);
+    }
+
+    // Gives back a permit for a request that was turned away before doing any work, without touching the limit
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            estimatedLimit = Math.max(config.getMinLimit(), estimatedLimit * config.getBackoffRatio());
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Estimated requests waiting rather than being served: by Little's law, the share of the latest RTT spent above
+    // the long-term baseline, applied to the requests in flight
+    public synchronized double getEstimatedQueueDepth() {
+        if (lastRttNanos <= 0 || longRttNanos >= lastRttNanos) {
+            return 0.0;
+        }
+        return inFlight.get() * (1.0 - longRttNanos / lastRttNanos);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightBeforeRelease) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        lastRttNanos = rttNanos;
+
+        // Exponentially weighted long-term RTT, warmed up with a plain average
+        samples++;
+        if (samples <= config.getLongWindowSamples()) {
+            longRttNanos += (rttNanos - longRttNanos) / samples;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) * (2.0 / (config.getLongWindowSamples() + 1));
+        }
+
+        // Let the baseline recover quickly once a latency spike is over
+        if (longRttNanos / rttNanos > 2.0) {
+            longRttNanos *= 0.95;
+        }
+
+        // Don't grow the limit while the service isn't using it
+        if (inFlightBeforeRelease < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, config.getRttTolerance() * longRttNanos / rttNanos));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        newLimit = estimatedLimit * (1 - config.getSmoothing()) + newLimit * config.getSmoothing();
+        newLimit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), newLimit));
+
+        estimatedLimit = newLimit;
+        limit = (int) newLimit;
+    }
+}
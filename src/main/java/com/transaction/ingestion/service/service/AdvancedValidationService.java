@@ -1,11 +1,13 @@
 package com.transaction.ingestion.service.service;
 
 import com.riskplatform.common.event.TransactionValidatedEvent;
-import com.transaction.ingestion.service.config.ValidationProperties;
 import com.transaction.ingestion.service.model.KYCStatus;
+import com.transaction.ingestion.service.model.Money;
 import com.riskplatform.common.entity.Transaction;
 import com.riskplatform.common.entity.ValidationDetails;
-import com.transaction.ingestion.service.client.MongoServiceClient;
+import com.transaction.ingestion.service.client.MongoServiceBatchClient;
+import com.transaction.ingestion.service.tracing.Span;
+import com.transaction.ingestion.service.tracing.Tracer;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,27 +16,42 @@ import org.springframework.stereotype.Service;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-import java.util.Map;
-import java.util.stream.Collectors;
+
+import static com.transaction.ingestion.service.constant.Constant.COMMON_MERCHANT_CATEGORIES;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class AdvancedValidationService {
 
-    private final MongoServiceClient mongoServiceClient;
+    private final MongoServiceBatchClient mongoServiceBatchClient;
     private final KafkaProducerService kafkaProducerService;
-    private final ValidationProperties validationProperties;
+    private final ValidationRuleRegistry validationRuleRegistry;
+    private final CustomerLookupService customerLookupService;
+    private final FieldDictionaries fieldDictionaries;
+    private final FxRateService fxRateService;
+    private final CustomerHistoryCache customerHistoryCache;
+    private final Tracer tracer;
 
     @Autowired
     private AMLSanctionsService amlSanctionsService;
 
     public ValidationDetails performAdvancedValidation(Transaction transaction) {
+        return performAdvancedValidation(transaction, null);
+    }
+
+    // Scores the transaction and sets its risk flags without publishing anything; asOf evaluates patterns as of a
+    // past instant (null means now). Lookup failures propagate so the caller can retry the whole validation.
+    public ValidationDetails performAdvancedValidation(Transaction transaction, Instant asOf) {
         ValidationDetails validationDetails = new ValidationDetails();
         List<String> riskFlags = new ArrayList<>();
+        ValidationRuleSnapshot rules = validationRuleRegistry.current();
 
-        String kycStatus = checkKYCStatus(transaction.getCustomerId());
+        String kycStatus;
+        try (Span span = tracer.startSpan("validate.kyc")) {
+            kycStatus = checkKYCStatus(transaction.getCustomerId());
+            span.tag("result", kycStatus);
+        }
         validationDetails.setKycStatus(kycStatus);
         if ("EXPIRED".equals(kycStatus)) {
             riskFlags.add("KYC_EXPIRED");
@@ -43,12 +60,20 @@ public class AdvancedValidationService {
         // Velocity check disabled (was using Redis)
         validationDetails.setVelocityFlag(false);
 
-        boolean patternDeviation = checkTransactionPattern(transaction);
+        boolean patternDeviation;
+        try (Span span = tracer.startSpan("validate.pattern")) {
+            patternDeviation = checkTransactionPattern(transaction, rules, asOf);
+            span.tag("deviation", patternDeviation);
+        }
         if (patternDeviation) {
             riskFlags.add("PATTERN_DEVIATION");
         }
 
-        String sanctionsCheck = checkSanctions(transaction);
+        String sanctionsCheck;
+        try (Span span = tracer.startSpan("validate.sanctions")) {
+            sanctionsCheck = checkSanctions(transaction);
+            span.tag("result", sanctionsCheck);
+        }
         validationDetails.setSanctionsCheck(sanctionsCheck);
         if (!"PASSED".equals(sanctionsCheck)) {
             riskFlags.add("SANCTIONS_RISK");
@@ -60,80 +85,89 @@ public class AdvancedValidationService {
 
         transaction.setRiskFlags(riskFlags);
         transaction.setValidationDetails(validationDetails);
+        return validationDetails;
+    }
 
-        if (riskFlags.isEmpty()) {
+    // Publishes the outcome of performAdvancedValidation. Callers do this only once the result has been saved, so a
+    // retried validation never announces a result that was not stored; the event id is fixed per transaction, so
+    // consumers can drop the duplicate left by a retry that fails after publishing.
+    public void publishOutcome(Transaction transaction) {
+        List<String> riskFlags = transaction.getRiskFlags();
+        if (riskFlags == null || riskFlags.isEmpty()) {
             publishTransactionValidatedEvent(transaction);
         } else {
             publishTransactionValidationFailedEvent(transaction, riskFlags);
         }
-
-        return validationDetails;
     }
 
     private String checkKYCStatus(String customerId) {
-        try {
-            com.riskplatform.common.entity.KYCStatus kycStatus = mongoServiceClient.findKYCStatusByCustomerId(customerId);
-            if (kycStatus == null) {
-                return "NOT_FOUND";
-            }
+        com.riskplatform.common.entity.KYCStatus kycStatus = customerLookupService.findKYCStatus(customerId);
+        if (kycStatus == null) {
+            return "NOT_FOUND";
+        }
 
-            if ("VERIFIED".equals(kycStatus.getVerificationStatus())) {
-                if (kycStatus.getExpiryDate() != null &&
-                        kycStatus.getExpiryDate().isBefore(Instant.now())) {
-                    return "EXPIRED";
-                }
-                return "VERIFIED";
+        if ("VERIFIED".equals(kycStatus.getVerificationStatus())) {
+            if (kycStatus.getExpiryDate() != null &&
+                    kycStatus.getExpiryDate().isBefore(Instant.now())) {
+                return "EXPIRED";
             }
-
-            return kycStatus.getVerificationStatus();
-        } catch (Exception e) {
-            log.error("Error checking KYC status for customer {}: {}", customerId, e.getMessage(), e);
-            return "ERROR";
+            return "VERIFIED";
         }
+
+        return kycStatus.getVerificationStatus();
     }
 
-    private boolean checkTransactionPattern(Transaction transaction) {
-        try {
-            String customerId = transaction.getCustomerId();
-            Instant now = Instant.now();
-
-            // Get recent transactions for pattern analysis (last 30 days)
-            Instant thirtyDaysAgo = now.minusSeconds(30 * 24 * 60 * 60L);
-            List<Transaction> recentTransactions = mongoServiceClient
-                    .findTransactionsByCustomerIdAndTimestampAfterOrderByTimestampDesc(
-                            customerId, thirtyDaysAgo);
-
-            // If this is the first transaction, no pattern deviation
-            if (recentTransactions.isEmpty()) {
-                return false;
-            }
+    private boolean checkTransactionPattern(Transaction transaction, ValidationRuleSnapshot rules, Instant asOf) {
+        String customerId = transaction.getCustomerId();
+        Instant now = asOf != null ? asOf : Instant.now();
+
+        // Get recent transactions for pattern analysis (last 30 days)
+        Instant thirtyDaysAgo = now.minusSeconds(30 * 24 * 60 * 60L);
+        if (asOf == null) {
+            FxRateSnapshot fxRates = fxRateService.current();
+            // The cached history includes this transaction; if it is the only one, no pattern deviation
+            return customerHistoryCache.withHistory(transaction, thirtyDaysAgo, fxRates,
+                    history -> history.size() > 1 && checkPatterns(transaction, history, rules, now, fxRates));
+        }
 
-            // Check for velocity pattern deviation
-            if (checkVelocityDeviation(transaction, recentTransactions)) {
-                return true;
-            }
+        // As of a past instant, mongo-service leaves out everything that happened after it; backfills are one-off
+        // reads and bypass the cache
+        List<Transaction> recentTransactions = mongoServiceBatchClient.findCustomerTransactionsBetween(customerId,
+                thirtyDaysAgo, asOf);
 
-            // Check for amount pattern deviation
-            if (checkAmountDeviation(transaction, recentTransactions)) {
-                return true;
-            }
+        // If this is the first transaction, no pattern deviation
+        if (recentTransactions.isEmpty()) {
+            return false;
+        }
 
-            // Check for merchant/category pattern deviation
-            if (checkMerchantDeviation(transaction, recentTransactions)) {
-                return true;
-            }
+        FxRateSnapshot fxRates = fxRateService.current();
+        return checkPatterns(transaction, CustomerHistory.of(recentTransactions, fieldDictionaries, fxRates), rules,
+                now, fxRates);
+    }
 
-            // Check for channel/device pattern deviation
-            if (checkChannelDeviation(transaction, recentTransactions)) {
-                return true;
-            }
+    private boolean checkPatterns(Transaction transaction, CustomerHistory history, ValidationRuleSnapshot rules,
+            Instant now, FxRateSnapshot fxRates) {
+        // Check for velocity pattern deviation
+        if (checkVelocityDeviation(history, rules, now)) {
+            return true;
+        }
 
-            return false;
-        } catch (Exception e) {
-            log.error("Error checking transaction pattern for customer {}: {}", transaction.getCustomerId(),
-                    e.getMessage(), e);
-            return false;
+        // Check for amount pattern deviation
+        if (checkAmountDeviation(transaction, history, fxRates)) {
+            return true;
+        }
+
+        // Check for merchant/category pattern deviation
+        if (checkMerchantDeviation(transaction, history)) {
+            return true;
+        }
+
+        // Check for channel/device pattern deviation
+        if (checkChannelDeviation(transaction, history)) {
+            return true;
         }
+
+        return false;
     }
 
     private String checkSanctions(Transaction transaction) {
@@ -152,108 +186,75 @@ public class AdvancedValidationService {
         }
     }
 
-    private boolean checkVelocityDeviation(Transaction transaction, List<Transaction> recentTransactions) {
-        if (!validationProperties.getRules().isEnableVelocityCheck()) {
+    private boolean checkVelocityDeviation(CustomerHistory history, ValidationRuleSnapshot rules, Instant now) {
+        if (!rules.isVelocityCheckEnabled()) {
             return false;
         }
 
         // Calculate transactions per hour for this customer
-        Instant oneHourAgo = Instant.now().minusSeconds(60 * 60L);
-        long recentCount = recentTransactions.stream()
-                .filter(t -> t.getTimestamp().isAfter(oneHourAgo))
-                .count();
+        Instant oneHourAgo = now.minusSeconds(60 * 60L);
+        int recentCount = history.countSince(oneHourAgo);
 
         // Check if this transaction exceeds the hourly limit
-        int maxTransactionsPerHour = validationProperties.getRules().getMaxTransactionsPerHour() != null
-                ? validationProperties.getRules().getMaxTransactionsPerHour()
-                : 50;
+        int maxTransactionsPerHour = rules.getMaxTransactionsPerHour();
 
         return recentCount >= maxTransactionsPerHour;
     }
 
-    private boolean checkAmountDeviation(Transaction transaction, List<Transaction> recentTransactions) {
-        if (recentTransactions.size() < 5) {
+    private boolean checkAmountDeviation(Transaction transaction, CustomerHistory history, FxRateSnapshot fxRates) {
+        if (history.size() < 5 || transaction.getAmount() == null || !fxRates.hasRate(transaction.getCurrency())) {
             // Not enough history to establish a pattern
             return false;
         }
 
-        // Calculate average and standard deviation of recent transaction amounts
-        double sum = recentTransactions.stream()
-                .map(Transaction::getAmount)
-                .mapToDouble(java.math.BigDecimal::doubleValue)
-                .sum();
-        double average = sum / recentTransactions.size();
-
-        double squaredDifferenceSum = recentTransactions.stream()
-                .map(Transaction::getAmount)
-                .mapToDouble(java.math.BigDecimal::doubleValue)
-                .map(amt -> Math.pow(amt - average, 2))
-                .sum();
-        double standardDeviation = Math.sqrt(squaredDifferenceSum / recentTransactions.size());
-
         // Check if current transaction amount is more than 2 standard deviations from
         // the average
         // This indicates a significant deviation from the customer's normal spending
         // pattern
-        double currentAmount = transaction.getAmount() != null ? transaction.getAmount().doubleValue() : 0.0;
-        double deviation = Math.abs(currentAmount - average);
-        return deviation > (2 * standardDeviation);
+        long currentAmount = fxRates.toBaseMinorUnits(
+                Money.toMinorUnits(transaction.getAmount(), transaction.getCurrency()), transaction.getCurrency());
+        return history.isAmountOutlier(currentAmount, 2.0);
     }
 
-    private boolean checkMerchantDeviation(Transaction transaction, List<Transaction> recentTransactions) {
-        if (recentTransactions.size() < 10 || transaction.getMerchant() == null) {
+    private boolean checkMerchantDeviation(Transaction transaction, CustomerHistory history) {
+        if (history.size() < 10 || transaction.getMerchant() == null) {
             // Not enough history or no merchant info
             return false;
         }
 
-        // Count occurrences of each merchant in recent transactions
-        Map<String, Long> merchantFrequency = recentTransactions.stream()
-                .filter(t -> t.getMerchant() != null)
-                .collect(Collectors.groupingBy(Transaction::getMerchant, Collectors.counting()));
+        // Calculate percentage of transactions at this merchant
+        double merchantPercentage = history.merchantShare(transaction.getMerchant());
 
         // If no merchant frequency data, can't determine pattern
-        if (merchantFrequency.isEmpty()) {
+        if (Double.isNaN(merchantPercentage)) {
             return false;
         }
 
-        // Calculate percentage of transactions at this merchant
-        long totalTransactions = merchantFrequency.values().stream().mapToLong(Long::longValue).sum();
-        long merchantCount = merchantFrequency.getOrDefault(transaction.getMerchant(), 0L);
-        double merchantPercentage = (double) merchantCount / totalTransactions;
-
         // If this merchant is unusual (less than 5% of transactions), flag it
         // unless this is a common merchant category
         if (merchantPercentage < 0.05) {
             // Check if this is a common merchant category
-            Set<String> commonCategories = Set.of("GROCERY", "GAS_STATION", "RESTAURANT", "COFFEE_SHOP");
             String category = transaction.getMerchantCategory();
-            return !commonCategories.contains(category);
+            return !COMMON_MERCHANT_CATEGORIES.contains(category);
         }
 
         return false;
     }
 
-    private boolean checkChannelDeviation(Transaction transaction, List<Transaction> recentTransactions) {
-        if (recentTransactions.size() < 5 || transaction.getChannel() == null) {
+    private boolean checkChannelDeviation(Transaction transaction, CustomerHistory history) {
+        if (history.size() < 5 || transaction.getChannel() == null) {
             // Not enough history or no channel info
             return false;
         }
 
-        // Count occurrences of each channel in recent transactions
-        Map<String, Long> channelFrequency = recentTransactions.stream()
-                .filter(t -> t.getChannel() != null)
-                .collect(Collectors.groupingBy(Transaction::getChannel, Collectors.counting()));
+        // Calculate percentage of transactions on this channel
+        double channelPercentage = history.channelShare(transaction.getChannel());
 
         // If no channel frequency data, can't determine pattern
-        if (channelFrequency.isEmpty()) {
+        if (Double.isNaN(channelPercentage)) {
             return false;
         }
 
-        // Calculate percentage of transactions on this channel
-        long totalTransactions = channelFrequency.values().stream().mapToLong(Long::longValue).sum();
-        long channelCount = channelFrequency.getOrDefault(transaction.getChannel(), 0L);
-        double channelPercentage = (double) channelCount / totalTransactions;
-
         // If this channel is unusual (less than 10% of transactions), flag it
         return channelPercentage < 0.10;
     }
@@ -273,7 +274,7 @@ public class AdvancedValidationService {
                 .location(transaction.getLocation())
                 .eventType("TransactionValidated")
                 .eventTimestamp(Instant.now())
-                .correlationId("corr-" + transaction.getTransactionId())
+                .correlationId(tracer.correlationIdFor(transaction.getTransactionId()))
                 .build();
 
         kafkaProducerService.sendMessage("transaction-validated", event);
@@ -294,7 +295,7 @@ public class AdvancedValidationService {
                 .location(transaction.getLocation())
                 .eventType("TransactionValidationFailed")
                 .eventTimestamp(Instant.now())
-                .correlationId("corr-" + transaction.getTransactionId())
+                .correlationId(tracer.correlationIdFor(transaction.getTransactionId()))
                 .rejectionReason(String.join(",", riskFlags))
                 .build();
 
@@ -4,43 +4,109 @@ import com.riskplatform.common.entity.Transaction;
 import com.riskplatform.common.entity.ValidationDetails;
 import com.riskplatform.common.event.TransactionValidatedEvent;
 import com.transaction.ingestion.service.client.MongoServiceClient;
-import lombok.AllArgsConstructor;
+import com.transaction.ingestion.service.tracing.Span;
+import com.transaction.ingestion.service.tracing.TraceContext;
+import com.transaction.ingestion.service.tracing.Tracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 
 @Service
-@AllArgsConstructor
 @Slf4j
 public class AsyncValidationProcessor {
 
+    public static final String DLT_SUFFIX = "-dlt";
+
     private final MongoServiceClient mongoServiceClient;
     private final AdvancedValidationService advancedValidationService;
+    private final RecentTransactionCache recentTransactionCache;
+    private final Tracer tracer;
+    private final Counter deadLettered;
+
+    public AsyncValidationProcessor(MongoServiceClient mongoServiceClient,
+            AdvancedValidationService advancedValidationService, RecentTransactionCache recentTransactionCache,
+            Tracer tracer, MeterRegistry meterRegistry) {
+        this.mongoServiceClient = mongoServiceClient;
+        this.advancedValidationService = advancedValidationService;
+        this.recentTransactionCache = recentTransactionCache;
+        this.tracer = tracer;
+        this.deadLettered = meterRegistry.counter("async.validation.dead.lettered");
+    }
 
+    // Failures are re-published to transaction-received-retry-0..n and consumed again after an increasing delay,
+    // so the main partition keeps moving. Records that exhaust their attempts end up in transaction-received-dlt.
+    @RetryableTopic(
+            attempts = "${async-validation.retry.attempts:4}",
+            backoff = @Backoff(
+                    delayExpression = "${async-validation.retry.initial-delay-ms:1000}",
+                    multiplierExpression = "${async-validation.retry.multiplier:5}",
+                    maxDelayExpression = "${async-validation.retry.max-delay-ms:60000}"),
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            dltTopicSuffix = DLT_SUFFIX,
+            numPartitions = "${kafka.partition-count}",
+            replicationFactor = "${kafka.replication-factor}",
+            kafkaTemplate = "kafkaTemplate")
     @KafkaListener(topics = "${kafka.topics.transaction-received}", groupId = "async-validation-group")
-    public void processTransactionReceivedEvent(TransactionValidatedEvent event) {
-        try {
-            log.info("Processing transaction received event for transaction ID: {}", event.getTransactionId());
+    // The trace started at ingest continues here from the record headers, including on retry topics, which keep
+    // the original headers. Events published before tracing fall back to the correlation id in the payload.
+    public void processTransactionReceivedEvent(TransactionValidatedEvent event,
+            @Header(value = TraceContext.TRACEPARENT_HEADER, required = false) String traceparent,
+            @Header(value = TraceContext.CORRELATION_ID_HEADER, required = false) String correlationId,
+            @Header(value = KafkaHeaders.RECEIVED_TOPIC, required = false) String topic) {
+        try (Span span = tracer.startTrace("kafka.consume " + topic, traceparent,
+                correlationId != null ? correlationId : event.getCorrelationId())) {
+            span.tag("transactionId", event.getTransactionId());
+            try {
+                log.info("Processing transaction received event for transaction ID: {}", event.getTransactionId());
 
-            Transaction transaction = buildTransactionFromEvent(event);
+                Transaction transaction = buildTransactionFromEvent(event);
 
-            ValidationDetails validationDetails = advancedValidationService.performAdvancedValidation(transaction);
-            log.debug("Validation completed for transaction ID: {}. Risk flags: {}. validation: {}",
-                    event.getTransactionId(), transaction.getRiskFlags(), validationDetails);
+                ValidationDetails validationDetails = advancedValidationService.performAdvancedValidation(transaction);
+                log.debug("Validation completed for transaction ID: {}. Risk flags: {}. validation: {}",
+                        event.getTransactionId(), transaction.getRiskFlags(), validationDetails);
 
-            transaction.setUpdatedAt(Instant.now());
-            mongoServiceClient.saveTransaction(transaction);
+                transaction.setUpdatedAt(Instant.now());
+                Transaction saved = mongoServiceClient.saveTransaction(transaction);
+                recentTransactionCache.put(saved != null ? saved : transaction);
+                // Only announce the result once it is stored; a failed save is retried without a stray event
+                advancedValidationService.publishOutcome(transaction);
 
-            log.info("Completed async validation for transaction ID: {}", event.getTransactionId());
-        } catch (Exception e) {
-            log.error("Error processing transaction received event for transaction ID: {}", event.getTransactionId(),
-                    e);
+                log.info("Completed async validation for transaction ID: {}", event.getTransactionId());
+            } catch (Exception e) {
+                span.error(e);
+                log.warn("Error processing transaction received event for transaction ID: {}, scheduling retry: {}",
+                        event.getTransactionId(), e.getMessage());
+                throw e;
+            }
         }
     }
 
+    // The DLT record keeps the original payload; the exception, original topic, partition and offset travel in
+    // the kafka_dlt-* headers. Use the validationdlt actuator endpoint to replay once the cause is fixed.
+    @DltHandler
+    public void handleDeadLetter(TransactionValidatedEvent event,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(value = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false) String exceptionMessage) {
+        deadLettered.increment();
+        log.error("Async validation gave up on transaction ID: {} (dead-lettered to {}): {}",
+                event.getTransactionId(), topic, exceptionMessage);
+    }
+
     private Transaction buildTransactionFromEvent(TransactionValidatedEvent event) {
+        Transaction cached = recentTransactionCache.get(event.getTransactionId());
+        if (cached != null) {
+            return cached;
+        }
         return mongoServiceClient.findTransactionById(event.getTransactionId())
                 .orElseThrow(() -> new RuntimeException("Transaction not found: " + event.getTransactionId()));
     }
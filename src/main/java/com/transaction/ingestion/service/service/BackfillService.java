@@ -0,0 +1,498 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskplatform.common.entity.Transaction;
+import com.transaction.ingestion.service.client.MongoServiceBatchClient;
+import com.transaction.ingestion.service.client.MongoServiceClient;
+import com.transaction.ingestion.service.config.BackfillProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Re-runs advanced validation over a historical time range, e.g. after the thresholds or the deviation logic
+// changed. Transactions are read in keyset pages, re-validated on a small worker pool and, optionally, saved back.
+// Progress is checkpointed after every completed page, so a cancelled, failed or restarted job resumes from the
+// last page boundary. Transactions that could not be re-validated are recorded in the checkpoint and retried by id
+// once the range has been read. The job throttles itself and backs off entirely while live ingest is busy.
+@Service
+@Slf4j
+public class BackfillService {
+
+    private static final String FLAG_ADDED_PREFIX = "flag.added.";
+    private static final String FLAG_REMOVED_PREFIX = "flag.removed.";
+
+    private final MongoServiceBatchClient mongoServiceBatchClient;
+    private final MongoServiceClient mongoServiceClient;
+    private final AdvancedValidationService advancedValidationService;
+    private final IngestAdmissionService ingestAdmissionService;
+    private final BackfillProperties backfillProperties;
+    private final ObjectMapper objectMapper;
+    private final Counter unchanged;
+    private final Counter changed;
+    private final Counter failed;
+    private final Timer pageTimer;
+
+    private volatile Job current;
+
+    public BackfillService(MongoServiceBatchClient mongoServiceBatchClient, MongoServiceClient mongoServiceClient,
+            AdvancedValidationService advancedValidationService, IngestAdmissionService ingestAdmissionService,
+            BackfillProperties backfillProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.mongoServiceBatchClient = mongoServiceBatchClient;
+        this.mongoServiceClient = mongoServiceClient;
+        this.advancedValidationService = advancedValidationService;
+        this.ingestAdmissionService = ingestAdmissionService;
+        this.backfillProperties = backfillProperties;
+        this.objectMapper = objectMapper;
+        this.unchanged = meterRegistry.counter("backfill.transactions", "outcome", "unchanged");
+        this.changed = meterRegistry.counter("backfill.transactions", "outcome", "changed");
+        this.failed = meterRegistry.counter("backfill.transactions", "outcome", "failed");
+        this.pageTimer = meterRegistry.timer("backfill.page");
+    }
+
+    // Starts (or resumes) a backfill of [from, to). Only one job runs at a time.
+    public synchronized Map<String, Object> start(Instant from, Instant to, boolean publishEvents,
+            boolean persistResults, boolean restart) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        Job running = current;
+        if (running != null && running.isActive()) {
+            throw new IllegalStateException("A backfill of " + running.from + " to " + running.to
+                    + " is already running");
+        }
+        Job job = new Job(from, to, publishEvents, persistResults);
+        try {
+            job.open(restart);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open backfill checkpoint " + job.checkpointPath, e);
+        }
+        current = job;
+        if (job.completed && job.failedIds.isEmpty()) {
+            log.info("Backfill of {} to {} already completed; pass restart to run it again", from, to);
+            job.state = "COMPLETED";
+            return job.status();
+        }
+        Thread thread = new Thread(job, "backfill-" + from.toEpochMilli() + "-" + to.toEpochMilli());
+        thread.setDaemon(true);
+        thread.start();
+        return job.status();
+    }
+
+    public Map<String, Object> status() {
+        Job job = current;
+        if (job == null) {
+            Map<String, Object> idle = new LinkedHashMap<>();
+            idle.put("state", "IDLE");
+            return idle;
+        }
+        return job.status();
+    }
+
+    // Stops the running job after the page in flight; its checkpoint is kept for a later resume
+    @PreDestroy
+    public boolean cancel() {
+        Job job = current;
+        if (job == null || !job.isActive()) {
+            return false;
+        }
+        job.cancelled = true;
+        return true;
+    }
+
+    private class Job implements Runnable {
+
+        private final Instant from;
+        private final Instant to;
+        private final boolean publishEvents;
+        private final boolean persistResults;
+        private final Path checkpointPath;
+        private final Path diffPath;
+        private final TokenBucket rateLimiter;
+
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong changedCount = new AtomicLong();
+        // Transactions whose last re-validation failed; persisted with the checkpoint
+        private final Set<String> failedIds = ConcurrentHashMap.newKeySet();
+        private final AtomicLong nowFlagged = new AtomicLong();
+        private final AtomicLong nowClean = new AtomicLong();
+        private final Map<String, LongAdder> flagsAdded = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> flagsRemoved = new ConcurrentHashMap<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private volatile Instant afterTimestamp;
+        private volatile String afterId;
+        private volatile boolean completed;
+        private OutputStream diffOut;
+        private long processedAtStart;
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+        private volatile long pausedNanos;
+        private volatile boolean paused;
+        private volatile boolean cancelled;
+        private volatile String state = "STARTING";
+        private volatile String error;
+
+        Job(Instant from, Instant to, boolean publishEvents, boolean persistResults) {
+            this.from = from;
+            this.to = to;
+            this.publishEvents = publishEvents;
+            this.persistResults = persistResults;
+            String name = "backfill-" + from.toEpochMilli() + "-" + to.toEpochMilli();
+            Path dir = Paths.get(backfillProperties.getCheckpointDir());
+            this.checkpointPath = dir.resolve(name + ".properties");
+            this.diffPath = dir.resolve(name + "-diff.ndjson");
+            this.rateLimiter = new TokenBucket(backfillProperties.getMaxPerSecond(),
+                    Math.max(1, backfillProperties.getConcurrency()));
+        }
+
+        boolean isActive() {
+            return "STARTING".equals(state) || "RUNNING".equals(state);
+        }
+
+        void open(boolean restart) throws IOException {
+            Files.createDirectories(checkpointPath.getParent());
+            if (restart) {
+                Files.deleteIfExists(checkpointPath);
+                Files.deleteIfExists(diffPath);
+            }
+            long diffBytes = 0;
+            if (Files.exists(checkpointPath)) {
+                Properties checkpoint = new Properties();
+                try (Reader reader = Files.newBufferedReader(checkpointPath, StandardCharsets.UTF_8)) {
+                    checkpoint.load(reader);
+                }
+                restore(checkpoint);
+                diffBytes = Long.parseLong(checkpoint.getProperty("diffBytes", "0"));
+                log.info("Resuming backfill of {} to {} after {} transactions", from, to, processed.get());
+            }
+            // Drop diff lines written for a page that was not checkpointed; that page is processed again
+            if (Files.exists(diffPath)) {
+                try (FileChannel channel = FileChannel.open(diffPath, StandardOpenOption.WRITE)) {
+                    channel.truncate(diffBytes);
+                }
+            }
+            processedAtStart = processed.get();
+        }
+
+        @Override
+        public void run() {
+            state = "RUNNING";
+            startedNanos = System.nanoTime();
+            int concurrency = Math.max(1, backfillProperties.getConcurrency());
+            ExecutorService workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "backfill-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try (OutputStream out = Files.newOutputStream(diffPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND)) {
+                diffOut = out;
+                int pageSize = Math.max(1, backfillProperties.getPageSize());
+                List<Transaction> page = completed ? List.of() : fetchPage(afterTimestamp, afterId, pageSize);
+                while (!cancelled && !page.isEmpty()) {
+                    // Fetch the next page while this one is being re-validated
+                    Transaction last = page.get(page.size() - 1);
+                    CompletableFuture<List<Transaction>> next = page.size() < pageSize
+                            ? CompletableFuture.completedFuture(List.of())
+                            : CompletableFuture.supplyAsync(
+                                    () -> fetchPage(last.getTimestamp(), last.getTransactionId(), pageSize));
+
+                    long pageStart = System.nanoTime();
+                    processPage(page, workers, false);
+                    pageTimer.record(Duration.ofNanos(System.nanoTime() - pageStart));
+                    if (cancelled) {
+                        next.cancel(false);
+                        break;
+                    }
+                    afterTimestamp = last.getTimestamp();
+                    afterId = last.getTransactionId();
+                    page = next.join();
+                    completed = page.isEmpty();
+                    checkpoint();
+                }
+                if (!cancelled) {
+                    retryFailed(workers);
+                }
+                state = cancelled ? "CANCELLED" : "COMPLETED";
+                log.info("Backfill of {} to {} {}: {} processed, {} changed, {} failed, {} rows/s", from, to,
+                        state.toLowerCase(), processed.get(), changedCount.get(), failedIds.size(),
+                        String.format("%.1f", rowsPerSecond()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                state = "CANCELLED";
+            } catch (Exception e) {
+                state = "FAILED";
+                error = e.getMessage();
+                log.error("Backfill of {} to {} failed after {} transactions; it resumes from the last page "
+                        + "checkpoint: {}", from, to, processed.get(), e.getMessage(), e);
+            } finally {
+                finishedNanos = System.nanoTime();
+                workers.shutdownNow();
+            }
+        }
+
+        private List<Transaction> fetchPage(Instant afterTs, String afterTransactionId, int pageSize) {
+            List<Transaction> page = mongoServiceBatchClient.findTransactionsPage(from, to, afterTs,
+                    afterTransactionId, pageSize);
+            return page != null ? page : List.of();
+        }
+
+        // Fetches the failed transactions again by id and re-validates them, up to backfill.retry-passes times. The
+        // ones still failing stay in the checkpoint, so starting the same range again retries them once more.
+        private void retryFailed(ExecutorService workers) throws InterruptedException, IOException {
+            for (int pass = 1; pass <= backfillProperties.getRetryPasses() && !cancelled && !failedIds.isEmpty();
+                    pass++) {
+                log.info("Backfill of {} to {} retrying {} failed transactions, pass {}", from, to,
+                        failedIds.size(), pass);
+                List<Transaction> retry = new ArrayList<>();
+                for (String transactionId : List.copyOf(failedIds)) {
+                    try {
+                        mongoServiceClient.findTransactionById(transactionId).ifPresentOrElse(retry::add,
+                                () -> failedIds.remove(transactionId));
+                    } catch (Exception e) {
+                        log.warn("Backfill could not fetch transaction {} for a retry: {}", transactionId,
+                                e.getMessage());
+                    }
+                }
+                processPage(retry, workers, true);
+                checkpoint();
+            }
+        }
+
+        private void processPage(List<Transaction> page, ExecutorService workers, boolean retry)
+                throws InterruptedException {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>(page.size());
+            for (Transaction transaction : page) {
+                if (cancelled) {
+                    break;
+                }
+                awaitLiveHeadroom();
+                rateLimiter.acquire();
+                inFlight.incrementAndGet();
+                tasks.add(CompletableFuture.runAsync(() -> revalidate(transaction, retry), workers)
+                        .whenComplete((ignored, e) -> inFlight.decrementAndGet()));
+            }
+            // The checkpoint may only move past this page once every transaction on it has been handled
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        }
+
+        // Live ingest always wins: stop handing out work while the admission limiter is close to saturated
+        private void awaitLiveHeadroom() throws InterruptedException {
+            long pauseStart = 0;
+            while (!cancelled
+                    && ingestAdmissionService.getUtilization() > backfillProperties.getPauseAboveLiveUtilization()) {
+                if (pauseStart == 0) {
+                    pauseStart = System.nanoTime();
+                    paused = true;
+                }
+                Thread.sleep(backfillProperties.getPauseBackoff().toMillis());
+            }
+            if (pauseStart != 0) {
+                pausedNanos += System.nanoTime() - pauseStart;
+                paused = false;
+            }
+        }
+
+        // A retry is already counted in processed, and a transaction removed from failedIds only once it succeeds
+        private void revalidate(Transaction transaction, boolean retry) {
+            try {
+                Set<String> before = transaction.getRiskFlags() != null
+                        ? new HashSet<>(transaction.getRiskFlags())
+                        : Set.of();
+                // Re-score as of the transaction's own time so the history window matches the original run
+                advancedValidationService.performAdvancedValidation(transaction, transaction.getTimestamp());
+                Set<String> after = transaction.getRiskFlags() != null
+                        ? new HashSet<>(transaction.getRiskFlags())
+                        : Set.of();
+
+                if (before.equals(after)) {
+                    unchanged.increment();
+                } else {
+                    recordDiff(transaction, before, after);
+                }
+                if (persistResults) {
+                    transaction.setUpdatedAt(Instant.now());
+                    mongoServiceClient.saveTransaction(transaction);
+                }
+                if (publishEvents) {
+                    advancedValidationService.publishOutcome(transaction);
+                }
+                failedIds.remove(transaction.getTransactionId());
+            } catch (Exception e) {
+                failedIds.add(transaction.getTransactionId());
+                failed.increment();
+                log.warn("Backfill could not re-validate transaction {}: {}", transaction.getTransactionId(),
+                        e.getMessage());
+            } finally {
+                if (!retry) {
+                    processed.incrementAndGet();
+                }
+            }
+        }
+
+        private void recordDiff(Transaction transaction, Set<String> before, Set<String> after) throws IOException {
+            changedCount.incrementAndGet();
+            changed.increment();
+            if (before.isEmpty()) {
+                nowFlagged.incrementAndGet();
+            } else if (after.isEmpty()) {
+                nowClean.incrementAndGet();
+            }
+            for (String flag : after) {
+                if (!before.contains(flag)) {
+                    flagsAdded.computeIfAbsent(flag, f -> new LongAdder()).increment();
+                }
+            }
+            for (String flag : before) {
+                if (!after.contains(flag)) {
+                    flagsRemoved.computeIfAbsent(flag, f -> new LongAdder()).increment();
+                }
+            }
+
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("transactionId", transaction.getTransactionId());
+            line.put("customerId", transaction.getCustomerId());
+            line.put("timestamp", transaction.getTimestamp());
+            line.put("before", before.stream().sorted().toList());
+            line.put("after", after.stream().sorted().toList());
+            byte[] bytes = objectMapper.writeValueAsBytes(line);
+            synchronized (this) {
+                diffOut.write(bytes);
+                diffOut.write('\n');
+            }
+        }
+
+        private void checkpoint() throws IOException {
+            Properties checkpoint = new Properties();
+            checkpoint.setProperty("from", from.toString());
+            checkpoint.setProperty("to", to.toString());
+            if (afterTimestamp != null) {
+                checkpoint.setProperty("afterTimestamp", afterTimestamp.toString());
+            }
+            if (afterId != null) {
+                checkpoint.setProperty("afterId", afterId);
+            }
+            checkpoint.setProperty("completed", String.valueOf(completed));
+            checkpoint.setProperty("processed", String.valueOf(processed.get()));
+            checkpoint.setProperty("changed", String.valueOf(changedCount.get()));
+            checkpoint.setProperty("failedIds", String.join(",", failedIds));
+            checkpoint.setProperty("nowFlagged", String.valueOf(nowFlagged.get()));
+            checkpoint.setProperty("nowClean", String.valueOf(nowClean.get()));
+            flagsAdded.forEach((flag, count) -> checkpoint.setProperty(FLAG_ADDED_PREFIX + flag,
+                    String.valueOf(count.sum())));
+            flagsRemoved.forEach((flag, count) -> checkpoint.setProperty(FLAG_REMOVED_PREFIX + flag,
+                    String.valueOf(count.sum())));
+            synchronized (this) {
+                diffOut.flush();
+            }
+            checkpoint.setProperty("diffBytes", String.valueOf(Files.size(diffPath)));
+
+            Path temp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                checkpoint.store(writer, null);
+            }
+            Files.move(temp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private void restore(Properties checkpoint) {
+            String ts = checkpoint.getProperty("afterTimestamp");
+            afterTimestamp = ts != null ? Instant.parse(ts) : null;
+            afterId = checkpoint.getProperty("afterId");
+            completed = Boolean.parseBoolean(checkpoint.getProperty("completed", "false"));
+            processed.set(Long.parseLong(checkpoint.getProperty("processed", "0")));
+            changedCount.set(Long.parseLong(checkpoint.getProperty("changed", "0")));
+            String failed = checkpoint.getProperty("failedIds", "");
+            if (!failed.isEmpty()) {
+                failedIds.addAll(List.of(failed.split(",")));
+            }
+            nowFlagged.set(Long.parseLong(checkpoint.getProperty("nowFlagged", "0")));
+            nowClean.set(Long.parseLong(checkpoint.getProperty("nowClean", "0")));
+            for (String key : checkpoint.stringPropertyNames()) {
+                if (key.startsWith(FLAG_ADDED_PREFIX)) {
+                    restoreCount(flagsAdded, key.substring(FLAG_ADDED_PREFIX.length()), checkpoint.getProperty(key));
+                } else if (key.startsWith(FLAG_REMOVED_PREFIX)) {
+                    restoreCount(flagsRemoved, key.substring(FLAG_REMOVED_PREFIX.length()),
+                            checkpoint.getProperty(key));
+                }
+            }
+        }
+
+        private void restoreCount(Map<String, LongAdder> counts, String flag, String value) {
+            LongAdder adder = new LongAdder();
+            adder.add(Long.parseLong(value));
+            counts.put(flag, adder);
+        }
+
+        private double rowsPerSecond() {
+            if (startedNanos == 0) {
+                return 0.0;
+            }
+            long endNanos = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+            double seconds = (endNanos - startedNanos) / 1_000_000_000.0;
+            return seconds <= 0 ? 0.0 : (processed.get() - processedAtStart) / seconds;
+        }
+
+        Map<String, Object> status() {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("state", paused && isActive() ? "PAUSED_FOR_LIVE_TRAFFIC" : state);
+            status.put("from", from);
+            status.put("to", to);
+            status.put("publishEvents", publishEvents);
+            status.put("persistResults", persistResults);
+            status.put("processed", processed.get());
+            status.put("changed", changedCount.get());
+            status.put("failed", failedIds.size());
+            status.put("nowFlagged", nowFlagged.get());
+            status.put("nowClean", nowClean.get());
+            status.put("flagsAdded", sums(flagsAdded));
+            status.put("flagsRemoved", sums(flagsRemoved));
+            status.put("inFlight", inFlight.get());
+            status.put("rowsPerSecond", Math.round(rowsPerSecond() * 10) / 10.0);
+            status.put("pausedSeconds", pausedNanos / 1_000_000_000L);
+            status.put("cursor", afterTimestamp != null ? afterTimestamp + "/" + afterId : null);
+            status.put("diffFile", diffPath.toString());
+            if (error != null) {
+                status.put("error", error);
+            }
+            return status;
+        }
+
+        private Map<String, Long> sums(Map<String, LongAdder> counts) {
+            Map<String, Long> sums = new TreeMap<>();
+            counts.forEach((flag, count) -> sums.put(flag, count.sum()));
+            return sums;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.transaction.ingestion.service.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// DataLoader-style batching: keys requested within a short window are merged into one bulk call and
+// concurrent requests for a key that is already in flight share the same future (single-flight).
+@Slf4j
+public class BatchLoader<K, V> {
+
+    private final String name;
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Executor dispatchExecutor;
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Object pendingLock = new Object();
+    private Set<K> pending = new LinkedHashSet<>();
+    private boolean flushScheduled;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedKeys = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    public BatchLoader(String name, Function<Set<K>, Map<K, V>> batchFunction, long windowMicros, int maxBatchSize,
+            ScheduledExecutorService scheduler, Executor dispatchExecutor) {
+        this.name = name;
+        this.batchFunction = batchFunction;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+        this.dispatchExecutor = dispatchExecutor;
+    }
+
+    public CompletableFuture<V> load(K key) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            deduplicated.increment();
+            return existing;
+        }
+
+        Set<K> fullBatch = null;
+        synchronized (pendingLock) {
+            pending.add(key);
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = pending;
+                pending = new LinkedHashSet<>();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler.schedule(this::flush, windowMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return future;
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getBatchedKeys() {
+        return batchedKeys.sum();
+    }
+
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    private void flush() {
+        Set<K> batch;
+        synchronized (pendingLock) {
+            batch = pending;
+            pending = new LinkedHashSet<>();
+            flushScheduled = false;
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(Set<K> keys) {
+        batches.increment();
+        batchedKeys.add(keys.size());
+        try {
+            dispatchExecutor.execute(() -> execute(keys));
+        } catch (RuntimeException e) {
+            fail(keys, e);
+        }
+    }
+
+    private void execute(Set<K> keys) {
+        try {
+            Map<K, V> results = batchFunction.apply(keys);
+            for (K key : keys) {
+                CompletableFuture<V> future = inFlight.remove(key);
+                if (future != null) {
+                    future.complete(results.get(key));
+                }
+            }
+        } catch (Throwable e) {
+            log.error("Batch load of {} {} keys failed: {}", keys.size(), name, e.getMessage(), e);
+            fail(keys, e);
+        }
+    }
+
+    private void fail(Set<K> keys, Throwable cause) {
+        for (K key : keys) {
+            CompletableFuture<V> future = inFlight.remove(key);
+            if (future != null) {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.transaction.ingestion.service.service;
+
+import java.util.Collection;
+
+// Immutable Bloom filter over strings. A negative answer is definite; a positive answer may be false with about
+// the configured probability. Uses double hashing over one 64-bit hash, so a probe is a single pass over the key.
+public final class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final int size;
+
+    private BloomFilter(long[] bits, long bitCount, int hashCount, int size) {
+        this.bits = bits;
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.size = size;
+    }
+
+    public static BloomFilter of(Collection<String> values, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        int n = Math.max(1, values.size());
+        // Optimal sizing: m = -n ln(p) / ln(2)^2 bits and k = m/n ln(2) hashes
+        long bitCount = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        bitCount = (bitCount + 63) & ~63L;
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        BloomFilter filter = new BloomFilter(new long[(int) (bitCount >>> 6)], bitCount, hashCount, values.size());
+        for (String value : values) {
+            filter.add(value);
+        }
+        return filter;
+    }
+
+    public boolean mightContain(String value) {
+        if (value == null) {
+            return false;
+        }
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+            h1 += h2;
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private void add(String value) {
+        if (value == null) {
+            return;
+        }
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+            h1 += h2;
+        }
+    }
+
+    // FNV-1a over the UTF-16 code units, finished with the murmur3 64-bit mix
+    private static long hash(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,486 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.transaction.ingestion.service.config.BulkLoadProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Loads large CSV or NDJSON files into mongo-service. Each file is cut into newline-aligned chunks that are
+// memory-mapped and parsed in parallel; parsed rows are written in batches with a global cap on unacknowledged
+// batches. A chunk is checkpointed once all of its batches are acknowledged, so a restarted load skips finished
+// chunks and re-sends at most the chunks that were in progress (the bulk endpoints upsert by id).
+// CSV rows must not contain embedded newlines; dotted headers such as location.city map to nested fields.
+@Service
+@Slf4j
+public class BulkLoader {
+
+    private static final int BOUNDARY_SCAN_BYTES = 64 * 1024;
+    private static final int MAX_LOGGED_PARSE_ERRORS = 20;
+
+    private final BulkLoadProperties bulkLoadProperties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public BulkLoader(BulkLoadProperties bulkLoadProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.bulkLoadProperties = bulkLoadProperties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Loads every row of the file as the given type and returns the number of rows written in this run
+    public <T> long load(Path file, Class<T> type, Consumer<List<T>> batchWriter) throws IOException,
+            InterruptedException {
+        String entity = type.getSimpleName().toLowerCase();
+        boolean csv = file.getFileName().toString().toLowerCase().endsWith(".csv");
+        Counter rowsCounter = meterRegistry.counter("bulk.load.rows", "entity", entity);
+        Counter errorsCounter = meterRegistry.counter("bulk.load.parse.errors", "entity", entity);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            String[][] headers = null;
+            long dataStart = 0;
+            if (csv) {
+                byte[] headerLine = readLineAt(channel, 0, size);
+                headers = parseHeaders(headerLine);
+                dataStart = nextLineStart(channel, 0, size);
+            }
+            List<long[]> chunks = splitIntoChunks(channel, dataStart, size);
+            Checkpoint checkpoint = Checkpoint.open(checkpointPath(file), file, size, chunks.size());
+            int pending = chunks.size() - checkpoint.completed.cardinality();
+            log.info("Bulk loading {} from {} ({} bytes, {} chunks, {} already loaded)", entity, file, size,
+                    chunks.size(), chunks.size() - pending);
+            if (pending == 0) {
+                return 0;
+            }
+
+            ObjectReader reader = objectMapper.readerFor(type);
+            Semaphore inFlight = new Semaphore(Math.max(1, bulkLoadProperties.getMaxInFlightBatches()));
+            ExecutorService writers = Executors.newFixedThreadPool(
+                    Math.max(1, bulkLoadProperties.getMaxInFlightBatches()), daemon("bulk-load-writer"));
+            ExecutorService parsers = Executors.newFixedThreadPool(
+                    Math.max(1, bulkLoadProperties.getParserThreads()), daemon("bulk-load-parser"));
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(
+                    daemon("bulk-load-reporter"));
+
+            AtomicLong rows = new AtomicLong();
+            AtomicLong parseErrors = new AtomicLong();
+            long started = System.nanoTime();
+            long reportMillis = bulkLoadProperties.getReportInterval().toMillis();
+            reporter.scheduleAtFixedRate(new RateReporter(entity, rows, started), reportMillis, reportMillis,
+                    TimeUnit.MILLISECONDS);
+
+            String[][] csvHeaders = headers;
+            List<Future<?>> results = new ArrayList<>();
+            try {
+                for (int i = 0; i < chunks.size(); i++) {
+                    if (checkpoint.completed.get(i)) {
+                        continue;
+                    }
+                    int index = i;
+                    long[] chunk = chunks.get(i);
+                    results.add(parsers.submit(() -> {
+                        ChunkLoader<T> loader = new ChunkLoader<>(reader, csvHeaders, batchWriter, inFlight, writers,
+                                rows, rowsCounter, parseErrors, errorsCounter);
+                        loader.load(channel, chunk[0], chunk[1]);
+                        checkpoint.markCompleted(index);
+                        return null;
+                    }));
+                }
+                IOException failure = null;
+                for (Future<?> result : results) {
+                    try {
+                        result.get();
+                    } catch (ExecutionException e) {
+                        // Let the other chunks finish so their progress is checkpointed before giving up
+                        if (failure == null) {
+                            failure = new IOException("Bulk load of " + file + " failed", e.getCause());
+                        }
+                    }
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            } finally {
+                parsers.shutdownNow();
+                writers.shutdown();
+                writers.awaitTermination(1, TimeUnit.MINUTES);
+                reporter.shutdownNow();
+            }
+
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            log.info("Bulk loaded {} {} rows from {} in {}s ({} rows/s, {} unparseable rows skipped)", rows.get(),
+                    entity, file, String.format("%.1f", seconds), String.format("%.0f", rows.get() / seconds),
+                    parseErrors.get());
+            return rows.get();
+        }
+    }
+
+    private Path checkpointPath(Path file) {
+        return Paths.get(bulkLoadProperties.getCheckpointDir()).resolve(file.getFileName() + ".checkpoint");
+    }
+
+    // Chunk boundaries are moved forward to just past the next newline so that no row straddles two chunks
+    private List<long[]> splitIntoChunks(FileChannel channel, long dataStart, long size) throws IOException {
+        long chunkSize = Math.max(BOUNDARY_SCAN_BYTES, bulkLoadProperties.getChunkSizeBytes());
+        List<long[]> chunks = new ArrayList<>();
+        long start = dataStart;
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            if (end < size) {
+                end = nextLineStart(channel, end, size);
+            }
+            chunks.add(new long[] { start, end });
+            start = end;
+        }
+        return chunks;
+    }
+
+    private long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_BYTES);
+        long offset = position;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private byte[] readLineAt(FileChannel channel, long position, long size) throws IOException {
+        long end = nextLineStart(channel, position, size);
+        int length = (int) (end - position);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        channel.read(buffer, position);
+        byte[] line = buffer.array();
+        while (length > 0 && (line[length - 1] == '\n' || line[length - 1] == '\r')) {
+            length--;
+        }
+        return Arrays.copyOf(line, length);
+    }
+
+    private String[][] parseHeaders(byte[] headerLine) {
+        List<String> names = new ArrayList<>();
+        CsvSplitter.split(headerLine, headerLine.length, names);
+        String[][] paths = new String[names.size()][];
+        for (int i = 0; i < names.size(); i++) {
+            paths[i] = names.get(i).trim().split("\\.");
+        }
+        return paths;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicLong sequence = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private class ChunkLoader<T> {
+
+        private final ObjectReader reader;
+        private final String[][] csvHeaders;
+        private final Consumer<List<T>> batchWriter;
+        private final Semaphore inFlight;
+        private final ExecutorService writers;
+        private final AtomicLong rows;
+        private final Counter rowsCounter;
+        private final AtomicLong parseErrors;
+        private final Counter errorsCounter;
+        private final int batchSize = Math.max(1, bulkLoadProperties.getBatchSize());
+        private final List<CompletableFuture<Void>> writes = new ArrayList<>();
+        private final List<String> fields = new ArrayList<>();
+        private byte[] line = new byte[1024];
+        private List<T> batch;
+
+        ChunkLoader(ObjectReader reader, String[][] csvHeaders, Consumer<List<T>> batchWriter, Semaphore inFlight,
+                ExecutorService writers, AtomicLong rows, Counter rowsCounter, AtomicLong parseErrors,
+                Counter errorsCounter) {
+            this.reader = reader;
+            this.csvHeaders = csvHeaders;
+            this.batchWriter = batchWriter;
+            this.inFlight = inFlight;
+            this.writers = writers;
+            this.rows = rows;
+            this.rowsCounter = rowsCounter;
+            this.parseErrors = parseErrors;
+            this.errorsCounter = errorsCounter;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        void load(FileChannel channel, long start, long end) throws IOException, InterruptedException {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            int limit = buffer.limit();
+            int lineStart = 0;
+            for (int i = 0; i <= limit; i++) {
+                if (i == limit || buffer.get(i) == '\n') {
+                    int length = i - lineStart;
+                    if (length > 0) {
+                        parseLine(buffer, lineStart, length, start);
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            flush();
+            // The chunk only counts as loaded once mongo-service has acknowledged every batch from it
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+        }
+
+        private void parseLine(MappedByteBuffer buffer, int offset, int length, long chunkStart)
+                throws InterruptedException {
+            if (line.length < length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            buffer.get(offset, line, 0, length);
+            if (line[length - 1] == '\r') {
+                length--;
+            }
+            if (length == 0) {
+                return;
+            }
+            try {
+                T row = csvHeaders != null ? readCsv(length) : reader.readValue(line, 0, length);
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    flush();
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                long errors = parseErrors.incrementAndGet();
+                errorsCounter.increment();
+                if (errors <= MAX_LOGGED_PARSE_ERRORS) {
+                    log.warn("Skipping unparseable row at byte {}: {}", chunkStart + offset, e.getMessage());
+                }
+            }
+        }
+
+        private T readCsv(int length) throws IOException {
+            fields.clear();
+            CsvSplitter.split(line, length, fields);
+            ObjectNode node = objectMapper.createObjectNode();
+            for (int i = 0; i < csvHeaders.length && i < fields.size(); i++) {
+                String value = fields.get(i);
+                if (value.isEmpty()) {
+                    continue;
+                }
+                String[] path = csvHeaders[i];
+                ObjectNode parent = node;
+                for (int p = 0; p < path.length - 1; p++) {
+                    parent = parent.has(path[p]) ? (ObjectNode) parent.get(path[p]) : parent.putObject(path[p]);
+                }
+                parent.put(path[path.length - 1], value);
+            }
+            return reader.readValue(node);
+        }
+
+        private void flush() throws InterruptedException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<T> toWrite = batch;
+            batch = new ArrayList<>(batchSize);
+            // Parsers block here when mongo-service falls behind, which bounds memory as well as load
+            inFlight.acquire();
+            writes.add(CompletableFuture.runAsync(() -> write(toWrite), writers)
+                    .whenComplete((ignored, e) -> inFlight.release()));
+        }
+
+        private void write(List<T> toWrite) {
+            int attempts = Math.max(1, bulkLoadProperties.getMaxBatchAttempts());
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    batchWriter.accept(toWrite);
+                    rows.addAndGet(toWrite.size());
+                    rowsCounter.increment(toWrite.size());
+                    return;
+                } catch (RuntimeException e) {
+                    if (attempt >= attempts) {
+                        throw e;
+                    }
+                    log.warn("Bulk write of {} rows failed (attempt {}/{}): {}", toWrite.size(), attempt, attempts,
+                            e.getMessage());
+                    try {
+                        Thread.sleep(200L << attempt);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class CsvSplitter {
+
+        // RFC 4180 fields of a single line: commas separate, double quotes enclose, "" is an escaped quote
+        static void split(byte[] line, int length, List<String> out) {
+            int i = 0;
+            while (i <= length) {
+                if (i < length && line[i] == '"') {
+                    StringBuilder value = new StringBuilder();
+                    int segmentStart = ++i;
+                    while (i < length) {
+                        if (line[i] == '"') {
+                            value.append(new String(line, segmentStart, i - segmentStart, StandardCharsets.UTF_8));
+                            if (i + 1 < length && line[i + 1] == '"') {
+                                value.append('"');
+                                i += 2;
+                                segmentStart = i;
+                                continue;
+                            }
+                            i++;
+                            segmentStart = -1;
+                            break;
+                        }
+                        i++;
+                    }
+                    if (segmentStart >= 0) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    out.add(value.toString());
+                    // Skip to the separator after the closing quote
+                    while (i < length && line[i] != ',') {
+                        i++;
+                    }
+                } else {
+                    int fieldStart = i;
+                    while (i < length && line[i] != ',') {
+                        i++;
+                    }
+                    out.add(new String(line, fieldStart, i - fieldStart, StandardCharsets.UTF_8));
+                }
+                i++;
+            }
+        }
+    }
+
+    // Records which chunks of a file are fully loaded; tied to the file's size and modification time
+    private static final class Checkpoint {
+
+        private final Path path;
+        private final Properties state;
+        private final BitSet completed;
+
+        private Checkpoint(Path path, Properties state, BitSet completed) {
+            this.path = path;
+            this.state = state;
+            this.completed = completed;
+        }
+
+        static Checkpoint open(Path path, Path file, long size, int chunkCount) throws IOException {
+            Properties state = new Properties();
+            state.setProperty("file", file.toAbsolutePath().toString());
+            state.setProperty("size", String.valueOf(size));
+            state.setProperty("lastModified", String.valueOf(Files.getLastModifiedTime(file).toMillis()));
+            state.setProperty("chunks", String.valueOf(chunkCount));
+            BitSet completed = new BitSet(chunkCount);
+            if (Files.exists(path)) {
+                Properties previous = new Properties();
+                try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    previous.load(in);
+                }
+                if (sameInput(state, previous)) {
+                    for (String index : previous.getProperty("completed", "").split(",")) {
+                        if (!index.isBlank()) {
+                            completed.set(Integer.parseInt(index.trim()));
+                        }
+                    }
+                } else {
+                    log.warn("Ignoring bulk load checkpoint {}: the file or chunk size changed", path);
+                }
+            }
+            return new Checkpoint(path, state, completed);
+        }
+
+        private static boolean sameInput(Properties current, Properties previous) {
+            for (String key : List.of("file", "size", "lastModified", "chunks")) {
+                if (!current.getProperty(key).equals(previous.getProperty(key))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        synchronized void markCompleted(int index) throws IOException {
+            completed.set(index);
+            state.setProperty("completed", completed.stream().mapToObj(String::valueOf)
+                    .collect(Collectors.joining(",")));
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                state.store(out, null);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static final class RateReporter implements Runnable {
+
+        private final String entity;
+        private final AtomicLong rows;
+        private final long started;
+        private long lastRows;
+        private long lastNanos;
+
+        RateReporter(String entity, AtomicLong rows, long started) {
+            this.entity = entity;
+            this.rows = rows;
+            this.started = started;
+            this.lastNanos = started;
+        }
+
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+            long total = rows.get();
+            double interval = (now - lastNanos) / 1_000_000_000.0;
+            double overall = (now - started) / 1_000_000_000.0;
+            log.info("Bulk load {}: {} rows, {} rows/s now, {} rows/s overall", entity, total,
+                    String.format("%.0f", (total - lastRows) / interval), String.format("%.0f", total / overall));
+            lastRows = total;
+            lastNanos = now;
+        }
+    }
+}
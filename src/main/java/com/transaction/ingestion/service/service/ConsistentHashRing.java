@@ -0,0 +1,82 @@
+package com.transaction.ingestion.service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+// Immutable consistent-hash ring with virtual nodes. Adding or removing a node only moves the keys adjacent to
+// that node's points, roughly 1/N of the key space.
+public final class ConsistentHashRing {
+
+    private final long[] points;
+    private final String[] owners;
+    private final int nodeCount;
+
+    private ConsistentHashRing(long[] points, String[] owners, int nodeCount) {
+        this.points = points;
+        this.owners = owners;
+        this.nodeCount = nodeCount;
+    }
+
+    public static ConsistentHashRing of(Collection<String> nodeIds, int virtualNodes) {
+        Point[] ring = new Point[nodeIds.size() * virtualNodes];
+        int i = 0;
+        for (String nodeId : nodeIds) {
+            for (int v = 0; v < virtualNodes; v++) {
+                ring[i++] = new Point(hash(nodeId + "#" + v), nodeId);
+            }
+        }
+        // Tie-break on the node id so every instance builds exactly the same ring
+        Arrays.sort(ring, Comparator.comparingLong((Point point) -> point.hash).thenComparing(point -> point.nodeId));
+
+        long[] points = new long[ring.length];
+        String[] owners = new String[ring.length];
+        for (int p = 0; p < ring.length; p++) {
+            points[p] = ring[p].hash;
+            owners[p] = ring[p].nodeId;
+        }
+        return new ConsistentHashRing(points, owners, nodeIds.size());
+    }
+
+    // Owner of the key, or null when the ring is empty
+    public String ownerOf(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    // FNV-1a over the UTF-8 bytes followed by the murmur3 finalizer; stable across JVMs, unlike String.hashCode
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Point {
+        private final long hash;
+        private final String nodeId;
+
+        private Point(long hash, String nodeId) {
+            this.hash = hash;
+            this.nodeId = nodeId;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.ConsumerLagProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ConsumerGroupDescription;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Pattern;
+
+// Samples the committed offsets of the async validation consumer group against the topic's end offsets, together
+// with its retry topics and dead letter topic. Each of those is consumed by the group name plus the topic suffix
+// (async-validation-group-retry-0, ...), as @RetryableTopic sets them up. From the samples it derives per-partition
+// lag, the processing and arrival rates, the processing-rate trend, an estimated time to drain, and a suggested
+// replica count for autoscaling. Records waiting on a retry topic are still owed a validation, so the totals cover
+// the main and retry topics; the dead letter topic is reported separately with the rate records arrive there.
+@Service
+@Slf4j
+public class ConsumerLagMonitor {
+
+    private static final String RETRY_SUFFIX = "-retry";
+
+    private final ConsumerLagProperties properties;
+    private final KafkaAdmin kafkaAdmin;
+    private final MultiGauge partitionLag;
+    // Only touched by the scheduler thread
+    private final Deque<Sample> samples = new ArrayDeque<>();
+    private volatile Map<String, Object> status;
+    private volatile Estimate estimate;
+    private AdminClient adminClient;
+
+    public ConsumerLagMonitor(ConsumerLagProperties properties, KafkaAdmin kafkaAdmin, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.kafkaAdmin = kafkaAdmin;
+        Tags group = Tags.of("group", properties.getGroupId());
+        this.partitionLag = MultiGauge.builder("kafka.consumer.lag")
+                .description("Messages behind the end of the partition")
+                .tags(group)
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.lag.total", this, monitor -> monitor.value(e -> e.totalLag))
+                .tags(group)
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.processing.rate", this, monitor -> monitor.value(e -> e.processingRate))
+                .tags(group)
+                .description("Messages per second committed by the whole group")
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.arrival.rate", this, monitor -> monitor.value(e -> e.arrivalRate))
+                .tags(group)
+                .description("Messages per second appended to the topic")
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.processing.rate.trend", this, monitor -> monitor.value(e -> e.rateTrend))
+                .tags(group)
+                .description("Change of the processing rate, in messages per second per minute")
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.time.to.drain", this, monitor -> monitor.value(e -> e.timeToDrainSeconds))
+                .tags(group)
+                .description("Estimated seconds until the lag is cleared, NaN when it is not shrinking")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.replicas.suggested", this, monitor -> monitor.value(e -> e.suggestedReplicas))
+                .tags(group)
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.dead.letter.rate", this, monitor -> monitor.value(e -> e.deadLetterRate))
+                .tags(group)
+                .description("Messages per second appended to the dead letter topic")
+                .register(meterRegistry);
+        Gauge.builder("kafka.consumer.degraded", this, monitor -> monitor.value(e -> e.degraded ? 1 : 0))
+                .tags(group)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.isEnabled()) {
+            adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (adminClient != null) {
+            adminClient.close();
+        }
+    }
+
+    // Null until the first successful sample
+    public Map<String, Object> status() {
+        return status;
+    }
+
+    public boolean isDegraded() {
+        Estimate current = estimate;
+        return current != null && current.degraded;
+    }
+
+    @Scheduled(fixedDelayString = "${consumer-lag.poll-interval:10s}")
+    public void poll() {
+        if (adminClient == null) {
+            return;
+        }
+        try {
+            sample();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to sample consumer lag of {}: {}", properties.getGroupId(), e.getMessage());
+        }
+    }
+
+    private void sample() throws Exception {
+        long timeout = properties.getRequestTimeout().toMillis();
+        String topic = properties.getTopic();
+        List<String> topics = monitoredTopics(topic,
+                adminClient.listTopics().names().get(timeout, TimeUnit.MILLISECONDS));
+        Map<String, TopicDescription> descriptions = adminClient.describeTopics(topics).allTopicNames()
+                .get(timeout, TimeUnit.MILLISECONDS);
+        Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>();
+        for (String monitored : topics) {
+            Map<TopicPartition, OffsetAndMetadata> offsets = adminClient
+                    .listConsumerGroupOffsets(groupFor(properties.getGroupId(), topic, monitored))
+                    .partitionsToOffsetAndMetadata().get(timeout, TimeUnit.MILLISECONDS);
+            // A group also holds offsets for other topics; only its own topic's are taken
+            offsets.forEach((partition, offset) -> {
+                if (partition.topic().equals(monitored)) {
+                    committed.put(partition, offset);
+                }
+            });
+        }
+
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+        descriptions.values().forEach(description -> description.partitions().forEach(info -> {
+            TopicPartition partition = new TopicPartition(description.name(), info.partition());
+            latest.put(partition, OffsetSpec.latest());
+            if (committed.get(partition) == null) {
+                earliest.put(partition, OffsetSpec.earliest());
+            }
+        }));
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = adminClient.listOffsets(latest).all()
+                .get(timeout, TimeUnit.MILLISECONDS);
+        // A partition the group has never committed on is behind by everything still retained
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> starts = earliest.isEmpty()
+                ? Map.of()
+                : adminClient.listOffsets(earliest).all().get(timeout, TimeUnit.MILLISECONDS);
+        ConsumerGroupDescription group = adminClient.describeConsumerGroups(List.of(properties.getGroupId()))
+                .describedGroups().get(properties.getGroupId()).get(timeout, TimeUnit.MILLISECONDS);
+
+        String deadLetterTopic = topic + AsyncValidationProcessor.DLT_SUFFIX;
+        List<Map<String, Object>> topicRows = new ArrayList<>();
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        long totalLag = 0;
+        long committedTotal = 0;
+        long endTotal = 0;
+        long deadLetterLag = 0;
+        long deadLetterEnd = 0;
+        for (String monitored : topics) {
+            List<Map<String, Object>> partitions = new ArrayList<>();
+            long topicLag = 0;
+            for (TopicPartition partition : latest.keySet().stream()
+                    .filter(partition -> partition.topic().equals(monitored))
+                    .sorted(Comparator.comparingInt(TopicPartition::partition)).toList()) {
+                long end = ends.get(partition).offset();
+                OffsetAndMetadata commit = committed.get(partition);
+                long position = commit != null ? commit.offset() : starts.get(partition).offset();
+                long lag = Math.max(0, end - position);
+                topicLag += lag;
+                if (monitored.equals(deadLetterTopic)) {
+                    deadLetterEnd += end;
+                } else {
+                    committedTotal += position;
+                    endTotal += end;
+                }
+                rows.add(MultiGauge.Row.of(Tags.of("topic", monitored, "partition",
+                        String.valueOf(partition.partition())), lag));
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("partition", partition.partition());
+                row.put("committed", commit != null ? commit.offset() : null);
+                row.put("end", end);
+                row.put("lag", lag);
+                partitions.add(row);
+            }
+            if (monitored.equals(deadLetterTopic)) {
+                deadLetterLag = topicLag;
+            } else {
+                totalLag += topicLag;
+            }
+            Map<String, Object> topicRow = new LinkedHashMap<>();
+            topicRow.put("topic", monitored);
+            topicRow.put("groupId", groupFor(properties.getGroupId(), topic, monitored));
+            topicRow.put("lag", topicLag);
+            topicRow.put("partitions", partitions);
+            topicRows.add(topicRow);
+        }
+        partitionLag.register(rows, true);
+
+        samples.addLast(new Sample(System.nanoTime(), committedTotal, endTotal, deadLetterEnd));
+        while (samples.size() > Math.max(2, properties.getRateWindow())) {
+            samples.removeFirst();
+        }
+        int partitionCount = descriptions.get(topic).partitions().size();
+        Estimate next = estimate(totalLag, group.members().size(), partitionCount);
+        estimate = next;
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("groupId", properties.getGroupId());
+        snapshot.put("topic", topic);
+        snapshot.put("sampledAt", Instant.now().toString());
+        snapshot.put("totalLag", totalLag);
+        snapshot.put("processingRate", next.processingRate);
+        snapshot.put("arrivalRate", next.arrivalRate);
+        snapshot.put("processingRateTrend", next.rateTrend);
+        snapshot.put("timeToDrainSeconds", Double.isNaN(next.timeToDrainSeconds) ? null : next.timeToDrainSeconds);
+        snapshot.put("activeConsumers", group.members().size());
+        snapshot.put("suggestedReplicas", next.suggestedReplicas);
+        snapshot.put("degraded", next.degraded);
+        snapshot.put("reasons", next.reasons);
+        Map<String, Object> deadLetter = new LinkedHashMap<>();
+        deadLetter.put("topic", deadLetterTopic);
+        deadLetter.put("lag", topics.contains(deadLetterTopic) ? deadLetterLag : null);
+        deadLetter.put("arrivalRate", next.deadLetterRate);
+        snapshot.put("deadLetter", deadLetter);
+        snapshot.put("topics", topicRows);
+        status = snapshot;
+    }
+
+    // The main topic first, then its retry topics in order and the dead letter topic, of those that exist. Retry
+    // topics are -retry-<index>, or -retry alone when delays that reached the maximum share one topic.
+    static List<String> monitoredTopics(String topic, Set<String> existing) {
+        Pattern retry = Pattern.compile(Pattern.quote(topic + RETRY_SUFFIX) + "(-[0-9]+)?");
+        List<String> retries = existing.stream()
+                .filter(name -> retry.matcher(name).matches())
+                .sorted(Comparator.comparingInt((String name) -> retryIndex(topic, name)))
+                .toList();
+        List<String> topics = new ArrayList<>();
+        topics.add(topic);
+        topics.addAll(retries);
+        if (existing.contains(topic + AsyncValidationProcessor.DLT_SUFFIX)) {
+            topics.add(topic + AsyncValidationProcessor.DLT_SUFFIX);
+        }
+        return topics;
+    }
+
+    // @RetryableTopic suffixes the listener's group id with the same suffix as the topic
+    static String groupFor(String groupId, String topic, String monitored) {
+        return groupId + monitored.substring(topic.length());
+    }
+
+    private static int retryIndex(String topic, String name) {
+        String suffix = name.substring((topic + RETRY_SUFFIX).length());
+        return suffix.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(suffix.substring(1));
+    }
+
+    private Estimate estimate(long totalLag, int consumers, int partitionCount) {
+        Estimate estimate = new Estimate();
+        estimate.totalLag = totalLag;
+        Sample first = samples.peekFirst();
+        Sample last = samples.peekLast();
+        double seconds = (last.nanos - first.nanos) / 1e9;
+        if (seconds > 0) {
+            estimate.processingRate = Math.max(0, (last.committed - first.committed) / seconds);
+            estimate.arrivalRate = Math.max(0, (last.end - first.end) / seconds);
+            estimate.deadLetterRate = Math.max(0, (last.deadLetterEnd - first.deadLetterEnd) / seconds);
+        }
+        estimate.rateTrend = rateTrend();
+
+        double net = estimate.processingRate - estimate.arrivalRate;
+        double pollSeconds = properties.getPollInterval().toMillis() / 1000.0;
+        if (totalLag == 0) {
+            estimate.timeToDrainSeconds = 0;
+        } else if (net > 0) {
+            estimate.timeToDrainSeconds = totalLag / net;
+        } else if (estimate.processingRate > 0 && totalLag <= estimate.processingRate * pollSeconds) {
+            // Keeping pace with a backlog smaller than one poll interval of work is steady state, not falling behind
+            estimate.timeToDrainSeconds = totalLag / estimate.processingRate;
+        } else {
+            estimate.timeToDrainSeconds = Double.NaN;
+        }
+
+        List<String> reasons = new ArrayList<>();
+        if (totalLag > properties.getDegradedLag()) {
+            reasons.add("lag " + totalLag + " above " + properties.getDegradedLag());
+        }
+        if (Double.isNaN(estimate.timeToDrainSeconds)) {
+            // A single sample has no rates yet, so only the lag threshold applies
+            if (samples.size() >= 2) {
+                reasons.add("lag is not shrinking");
+            }
+        } else if (estimate.timeToDrainSeconds > properties.getDegradedTimeToDrain().toSeconds()) {
+            reasons.add("time to drain " + Math.round(estimate.timeToDrainSeconds) + "s above "
+                    + properties.getDegradedTimeToDrain().toSeconds() + "s");
+        }
+        estimate.reasons = reasons;
+        estimate.degraded = !reasons.isEmpty();
+        estimate.suggestedReplicas = suggestReplicas(estimate, consumers, partitionCount);
+        return estimate;
+    }
+
+    // Replicas needed to keep up with arrivals and clear the current lag within the target time, assuming each
+    // replica sustains the group's observed per-consumer rate
+    private int suggestReplicas(Estimate estimate, int consumers, int partitionCount) {
+        int cap = properties.getMaxReplicas() > 0 ? properties.getMaxReplicas() : Math.max(1, partitionCount);
+        int floor = Math.min(Math.max(1, properties.getMinReplicas()), cap);
+        if (consumers == 0 || estimate.processingRate <= 0) {
+            // No throughput observed yet, so there is nothing to scale from
+            return Math.min(cap, Math.max(floor, consumers));
+        }
+        double perReplica = estimate.processingRate / consumers;
+        long targetSeconds = Math.max(1, properties.getTargetTimeToDrain().toSeconds());
+        double needed = estimate.arrivalRate + estimate.totalLag / (double) targetSeconds;
+        return (int) Math.min(cap, Math.max(floor, Math.ceil(needed / perReplica)));
+    }
+
+    // Least-squares slope of the per-interval processing rates, in messages per second per minute
+    private double rateTrend() {
+        if (samples.size() < 3) {
+            return 0;
+        }
+        List<double[]> points = new ArrayList<>();
+        Sample previous = null;
+        for (Sample sample : samples) {
+            if (previous != null && sample.nanos > previous.nanos) {
+                double midpoint = (sample.nanos + previous.nanos) / 2e9;
+                double rate = (sample.committed - previous.committed) / ((sample.nanos - previous.nanos) / 1e9);
+                points.add(new double[] {midpoint, rate});
+            }
+            previous = sample;
+        }
+        double meanX = points.stream().mapToDouble(p -> p[0]).average().orElse(0);
+        double meanY = points.stream().mapToDouble(p -> p[1]).average().orElse(0);
+        double numerator = 0;
+        double denominator = 0;
+        for (double[] point : points) {
+            numerator += (point[0] - meanX) * (point[1] - meanY);
+            denominator += (point[0] - meanX) * (point[0] - meanX);
+        }
+        return denominator > 0 ? numerator / denominator * 60 : 0;
+    }
+
+    private double value(ToDoubleFunction<Estimate> field) {
+        Estimate current = estimate;
+        return current != null ? field.applyAsDouble(current) : Double.NaN;
+    }
+
+    private static final class Sample {
+
+        private final long nanos;
+        private final long committed;
+        private final long end;
+        private final long deadLetterEnd;
+
+        Sample(long nanos, long committed, long end, long deadLetterEnd) {
+            this.nanos = nanos;
+            this.committed = committed;
+            this.end = end;
+            this.deadLetterEnd = deadLetterEnd;
+        }
+    }
+
+    private static final class Estimate {
+
+        private long totalLag;
+        private double processingRate;
+        private double arrivalRate;
+        private double deadLetterRate;
+        private double rateTrend;
+        private double timeToDrainSeconds;
+        private int suggestedReplicas;
+        private boolean degraded;
+        private List<String> reasons;
+    }
+}
@@ -0,0 +1,252 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.client.AffinityForwardingClient;
+import com.transaction.ingestion.service.config.AffinityProperties;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Routes each customer to one owning instance using a consistent-hash ring over the Eureka-registered
+// instances of this service, so per-customer state (daily spend, idempotency, caches) lives on a single node.
+// The previous ring is kept after every change so the new owner of a customer knows where to pull its state from.
+@Service
+@Slf4j
+public class CustomerAffinityRouter {
+
+    private final AffinityProperties affinityProperties;
+    private final DiscoveryClient discoveryClient;
+    private final ObjectProvider<Registration> registration;
+    private final AffinityForwardingClient forwardingClient;
+    private final String serviceId;
+    private final AtomicReference<Membership> membership = new AtomicReference<>(Membership.EMPTY);
+    private final Counter local;
+    private final Counter forwarded;
+    private final Counter fallback;
+
+    public CustomerAffinityRouter(AffinityProperties affinityProperties, DiscoveryClient discoveryClient,
+            ObjectProvider<Registration> registration, AffinityForwardingClient forwardingClient,
+            @Value("${spring.application.name}") String serviceId, MeterRegistry meterRegistry) {
+        this.affinityProperties = affinityProperties;
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.forwardingClient = forwardingClient;
+        this.serviceId = serviceId;
+        this.local = meterRegistry.counter("affinity.requests", "result", "local");
+        this.forwarded = meterRegistry.counter("affinity.requests", "result", "forwarded");
+        this.fallback = meterRegistry.counter("affinity.requests", "result", "fallback");
+        Gauge.builder("affinity.ring.instances", membership, current -> current.get().ring.nodeCount())
+                .description("Instances currently sharing customers on the affinity ring")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void checkSharedSecret() {
+        if (affinityProperties.isEnabled() && !isForwardingEnabled()) {
+            log.warn("affinity.shared-secret is not set; every request is processed by the instance that receives it");
+        }
+    }
+
+    // Forwarding needs the shared secret, since the owner only accepts internal calls that carry it
+    public boolean isForwardingEnabled() {
+        return affinityProperties.isEnabled() && affinityProperties.getSharedSecret() != null
+                && !affinityProperties.getSharedSecret().isBlank();
+    }
+
+    // True when the token is the configured shared secret; always false while none is configured
+    public boolean isTrustedPeer(String token) {
+        return isForwardingEnabled() && token != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8),
+                affinityProperties.getSharedSecret().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSharedSecret() {
+        return affinityProperties.getSharedSecret();
+    }
+
+    // Instances of this service registered in discovery other than this one, whether or not forwarding is enabled
+    public int otherRegisteredInstances() {
+        Registration self = registration.getIfAvailable();
+        String selfId = self != null ? self.getInstanceId() : null;
+        int others = 0;
+        for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+            if (!Objects.equals(instance.getInstanceId(), selfId)) {
+                others++;
+            }
+        }
+        return others;
+    }
+
+    // The instance that owns the customer, or empty when this instance owns it or routing is not possible
+    public Optional<ServiceInstance> ownerOf(String customerId) {
+        if (!isForwardingEnabled() || customerId == null) {
+            return Optional.empty();
+        }
+        Membership current = membership.get();
+        String ownerId = current.ring.ownerOf(customerId);
+        if (ownerId == null || ownerId.equals(current.selfId)) {
+            local.increment();
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.instances.get(ownerId));
+    }
+
+    // For a customer this instance owns, the instance that owned it before the last ring change, when that was
+    // another instance that is still up. Empty when this instance already held the customer's state, does not own
+    // the customer, or the previous owner is gone.
+    public Optional<ServiceInstance> previousOwnerOf(String customerId) {
+        Membership current = membership.get();
+        if (!isForwardingEnabled() || customerId == null || current.previous == null
+                || !current.selfId.equals(current.ring.ownerOf(customerId))) {
+            return Optional.empty();
+        }
+        String previousId = current.previous.ownerOf(customerId);
+        if (previousId == null || previousId.equals(current.selfId)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.instances.get(previousId));
+    }
+
+    // Pulls of customer state started since the last ring change, keyed by customer; replaced on every change
+    public Map<String, CompletableFuture<Void>> handoffs() {
+        return membership.get().handoffs;
+    }
+
+    // Relays the ingest to the owner. Returns null when the owner could not be reached at all, in which case
+    // the caller processes the request itself.
+    public ResponseEntity<?> forward(ServiceInstance owner, IngestRequest ingestRequest, String idempotencyKey) {
+        try (Response response = forwardingClient.forwardIngest(owner.getUri(), affinityProperties.getSharedSecret(),
+                membership.get().selfId, idempotencyKey, ingestRequest)) {
+            forwarded.increment();
+            return relay(response);
+        } catch (Exception e) {
+            if (isConnectFailure(e)) {
+                fallback.increment();
+                log.warn("Owner {} of customer {} is unreachable, processing locally: {}",
+                        owner.getInstanceId(), ingestRequest.getCustomerId(), e.getMessage());
+                return null;
+            }
+            // The owner may already have processed the request, so only an idempotent retry is safe
+            log.error("Forwarding customer {} to {} failed: {}", ingestRequest.getCustomerId(),
+                    owner.getInstanceId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${affinity.refresh-interval:10s}")
+    public void refreshMembership() {
+        if (!isForwardingEnabled()) {
+            return;
+        }
+        Registration self = registration.getIfAvailable();
+        if (self == null) {
+            return;
+        }
+        try {
+            List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+            Map<String, ServiceInstance> byId = new HashMap<>();
+            for (ServiceInstance instance : instances) {
+                byId.put(instance.getInstanceId(), instance);
+            }
+            // Always own a share ourselves, even before our own registration shows up in the local registry copy
+            byId.putIfAbsent(self.getInstanceId(), self);
+
+            Membership current = membership.get();
+            if (!byId.keySet().equals(current.instances.keySet())) {
+                ConsistentHashRing previous = current.ring;
+                if (current == Membership.EMPTY) {
+                    // Joining: before this instance was up, the others shared its customers between them
+                    Set<String> others = new HashSet<>(byId.keySet());
+                    others.remove(self.getInstanceId());
+                    previous = ConsistentHashRing.of(others, affinityProperties.getVirtualNodes());
+                }
+                membership.set(new Membership(self.getInstanceId(), byId,
+                        ConsistentHashRing.of(byId.keySet(), affinityProperties.getVirtualNodes()), previous));
+                log.info("Affinity ring rebuilt with {} instances", byId.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh affinity ring membership: {}", e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<?> relay(Response response) throws IOException {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.status());
+        copyHeader(response, builder, HttpHeaders.CONTENT_TYPE);
+        copyHeader(response, builder, HttpHeaders.RETRY_AFTER);
+        copyHeader(response, builder, IdempotencyService.IDEMPOTENT_REPLAY_HEADER);
+        if (response.body() == null) {
+            return builder.build();
+        }
+        try (InputStream body = response.body().asInputStream()) {
+            return builder.body(body.readAllBytes());
+        }
+    }
+
+    private static void copyHeader(Response response, ResponseEntity.BodyBuilder builder, String name) {
+        for (Map.Entry<String, Collection<String>> header : response.headers().entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                builder.header(name, header.getValue().toArray(new String[0]));
+            }
+        }
+    }
+
+    private static boolean isConnectFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Membership {
+        private static final Membership EMPTY = new Membership(null, Map.of(), ConsistentHashRing.of(List.of(), 1),
+                null);
+
+        private final String selfId;
+        private final Map<String, ServiceInstance> instances;
+        private final ConsistentHashRing ring;
+        private final ConsistentHashRing previous;
+        private final Map<String, CompletableFuture<Void>> handoffs = new ConcurrentHashMap<>();
+
+        private Membership(String selfId, Map<String, ServiceInstance> instances, ConsistentHashRing ring,
+                ConsistentHashRing previous) {
+            this.selfId = selfId;
+            this.instances = instances;
+            this.ring = ring;
+            this.previous = previous;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Transaction;
+import com.transaction.ingestion.service.model.Money;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+// Columnar, primitive view of a customer's recent transactions, so that every pattern check runs as a single
+// allocation-free loop over parallel arrays instead of boxed streams. CustomerHistoryCache keeps one per customer,
+// appends each validated transaction and evicts what falls out of the window; it is not thread-safe on its own.
+public final class CustomerHistory {
+
+    public static final int NO_CODE = FieldDictionary.NO_CODE;
+    static final long NO_AMOUNT = Long.MIN_VALUE;
+
+    private final FxRateSnapshot fxRates;
+    private int size;
+    // Minor units of the FX base currency; NO_AMOUNT where the currency has no rate
+    private long[] amounts;
+    private long[] timestamps;
+    private int[] merchantCodes;
+    private int[] channelCodes;
+    private int[] deviceCodes;
+    private String[] transactionIds;
+    // Merchants are high-cardinality, so they get a per-history dictionary instead of a shared one
+    private final MerchantCodes merchantDictionary;
+    private final FieldDictionary channelDictionary;
+    private final FieldDictionary deviceDictionary;
+
+    private CustomerHistory(int capacity, FieldDictionaries fieldDictionaries, FxRateSnapshot fxRates) {
+        this.fxRates = fxRates;
+        this.amounts = new long[capacity];
+        this.timestamps = new long[capacity];
+        this.merchantCodes = new int[capacity];
+        this.channelCodes = new int[capacity];
+        this.deviceCodes = new int[capacity];
+        this.transactionIds = new String[capacity];
+        this.merchantDictionary = new MerchantCodes();
+        this.channelDictionary = fieldDictionaries.channels();
+        this.deviceDictionary = fieldDictionaries.devices();
+    }
+
+    public static CustomerHistory of(List<Transaction> transactions, FieldDictionaries fieldDictionaries,
+            FxRateSnapshot fxRates) {
+        CustomerHistory history = new CustomerHistory(Math.max(8, transactions.size()), fieldDictionaries, fxRates);
+        for (Transaction transaction : transactions) {
+            history.add(transaction);
+        }
+        return history;
+    }
+
+    // The rates the amounts were converted with; a history built with older rates is rebuilt rather than mixed
+    public FxRateSnapshot fxRates() {
+        return fxRates;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Adds the transaction unless it is already in the history, e.g. on a retried validation
+    public boolean append(Transaction transaction) {
+        if (transaction.getTransactionId() != null && contains(transaction.getTransactionId())) {
+            return false;
+        }
+        add(transaction);
+        return true;
+    }
+
+    // Drops entries at or before the cutoff, keeping the order of the rest; returns how many were dropped
+    public int evictUpTo(Instant cutoff) {
+        long cutoffMillis = cutoff.toEpochMilli();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (timestamps[i] > cutoffMillis) {
+                if (kept != i) {
+                    amounts[kept] = amounts[i];
+                    timestamps[kept] = timestamps[i];
+                    merchantCodes[kept] = merchantCodes[i];
+                    channelCodes[kept] = channelCodes[i];
+                    deviceCodes[kept] = deviceCodes[i];
+                    transactionIds[kept] = transactionIds[i];
+                }
+                kept++;
+            }
+        }
+        int evicted = size - kept;
+        Arrays.fill(transactionIds, kept, size, null);
+        size = kept;
+        return evicted;
+    }
+
+    private boolean contains(String transactionId) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (transactionId.equals(transactionIds[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(Transaction transaction) {
+        if (size == timestamps.length) {
+            int capacity = timestamps.length * 2;
+            amounts = Arrays.copyOf(amounts, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            merchantCodes = Arrays.copyOf(merchantCodes, capacity);
+            channelCodes = Arrays.copyOf(channelCodes, capacity);
+            deviceCodes = Arrays.copyOf(deviceCodes, capacity);
+            transactionIds = Arrays.copyOf(transactionIds, capacity);
+        }
+        amounts[size] = transaction.getAmount() != null && fxRates.hasRate(transaction.getCurrency())
+                ? fxRates.toBaseMinorUnits(Money.toMinorUnits(transaction.getAmount(), transaction.getCurrency()),
+                        transaction.getCurrency())
+                : NO_AMOUNT;
+        timestamps[size] = transaction.getTimestamp() != null
+                ? transaction.getTimestamp().toEpochMilli()
+                : Long.MIN_VALUE;
+        merchantCodes[size] = merchantDictionary.encode(transaction.getMerchant());
+        channelCodes[size] = channelDictionary.encode(transaction.getChannel());
+        deviceCodes[size] = deviceDictionary.encode(transaction.getDevice());
+        transactionIds[size] = transaction.getTransactionId();
+        size++;
+    }
+
+    public int countSince(Instant since) {
+        long sinceMillis = since.toEpochMilli();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (timestamps[i] > sinceMillis) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // True when the amount, in base-currency minor units, is more than the given number of standard deviations
+    // away from the mean. Welford's single-pass update, so the variance does not cancel out at large amounts.
+    public boolean isAmountOutlier(long baseMinorUnits, double maxDeviations) {
+        int count = 0;
+        double mean = 0;
+        double sumOfSquaredDeviations = 0;
+        for (int i = 0; i < size; i++) {
+            long amount = amounts[i];
+            if (amount == NO_AMOUNT) {
+                continue;
+            }
+            count++;
+            double delta = amount - mean;
+            mean += delta / count;
+            sumOfSquaredDeviations += delta * (amount - mean);
+        }
+        if (count == 0) {
+            return false;
+        }
+        double standardDeviation = Math.sqrt(sumOfSquaredDeviations / count);
+
+        return Math.abs(baseMinorUnits - mean) > maxDeviations * standardDeviation;
+    }
+
+    public double merchantShare(String merchant) {
+        return share(merchantCodes, merchantDictionary.codeOf(merchant));
+    }
+
+    public double channelShare(String channel) {
+        return share(channelCodes, channelDictionary.codeOf(channel));
+    }
+
+    public double deviceShare(String device) {
+        return share(deviceCodes, deviceDictionary.codeOf(device));
+    }
+
+    // Share of the entries with a known value that match the code; NaN when no entry has a value
+    private double share(int[] codes, int code) {
+        int known = 0;
+        int matching = 0;
+        for (int i = 0; i < size; i++) {
+            int value = codes[i];
+            if (value != NO_CODE) {
+                known++;
+                if (value == code) {
+                    matching++;
+                }
+            }
+        }
+        return known == 0 ? Double.NaN : (double) matching / known;
+    }
+
+    // Open-addressing String-to-code table, so encoding allocates no boxed codes or map entries. Grows with the
+    // number of distinct merchants rather than the history size.
+    private static final class MerchantCodes {
+
+        private String[] keys = new String[16];
+        private int[] codes = new int[16];
+        private int size;
+
+        private int encode(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            int slot = slotOf(keys, value);
+            if (keys[slot] == null) {
+                keys[slot] = value;
+                codes[slot] = size++;
+                if (size * 2 > keys.length) {
+                    grow();
+                }
+                return size - 1;
+            }
+            return codes[slot];
+        }
+
+        private int codeOf(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            int slot = slotOf(keys, value);
+            return keys[slot] != null ? codes[slot] : NO_CODE;
+        }
+
+        // Keeps the table at most half full, so probes stay short and always reach an empty slot
+        private void grow() {
+            String[] oldKeys = keys;
+            int[] oldCodes = codes;
+            keys = new String[oldKeys.length * 2];
+            codes = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = slotOf(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    codes[slot] = oldCodes[i];
+                }
+            }
+        }
+
+        // Slot holding the value, or the empty slot where it would go
+        private static int slotOf(String[] table, String value) {
+            int mask = table.length - 1;
+            int hash = value.hashCode();
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (table[slot] != null && !table[slot].equals(value)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Transaction;
+import com.transaction.ingestion.service.client.MongoServiceClient;
+import com.transaction.ingestion.service.config.CustomerHistoryCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// One CustomerHistory per customer, loaded from mongo-service once and then kept up to date in place: each validated
+// transaction is appended and entries older than the window are evicted, so a validation no longer refetches and
+// re-encodes 30 days of transactions. Checks on one customer's history are serialized on that history.
+@Component
+public class CustomerHistoryCache {
+
+    private final CustomerHistoryCacheProperties properties;
+    private final MongoServiceClient mongoServiceClient;
+    private final FieldDictionaries fieldDictionaries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ArrayDeque<String> loadOrder = new ArrayDeque<>();
+    private final Counter hits;
+    private final Counter loads;
+
+    public CustomerHistoryCache(CustomerHistoryCacheProperties properties, MongoServiceClient mongoServiceClient,
+            FieldDictionaries fieldDictionaries, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.mongoServiceClient = mongoServiceClient;
+        this.fieldDictionaries = fieldDictionaries;
+        this.hits = meterRegistry.counter("cache.customer.history.requests", "result", "hit");
+        this.loads = meterRegistry.counter("cache.customer.history.requests", "result", "load");
+        Gauge.builder("cache.customer.history.size", entries, Map::size)
+                .register(meterRegistry);
+    }
+
+    // Runs the check on the customer's history since windowStart, with the transaction being validated included
+    public <T> T withHistory(Transaction transaction, Instant windowStart, FxRateSnapshot fxRates,
+            Function<CustomerHistory, T> check) {
+        String customerId = transaction.getCustomerId();
+        if (!properties.isEnabled()) {
+            CustomerHistory history = load(customerId, windowStart, fxRates);
+            history.append(transaction);
+            return check.apply(history);
+        }
+
+        long nowMillis = System.currentTimeMillis();
+        Entry entry = entries.get(customerId);
+        // Amounts are stored converted, so a history built with other rates is reloaded rather than mixed
+        if (entry == null || entry.history.fxRates() != fxRates
+                || nowMillis - entry.loadedAtMillis > properties.getMaxAge().toMillis()) {
+            entry = new Entry(load(customerId, windowStart, fxRates), nowMillis);
+            store(customerId, entry);
+            loads.increment();
+        } else {
+            hits.increment();
+        }
+
+        CustomerHistory history = entry.history;
+        synchronized (history) {
+            history.evictUpTo(windowStart);
+            history.append(transaction);
+            return check.apply(history);
+        }
+    }
+
+    private CustomerHistory load(String customerId, Instant windowStart, FxRateSnapshot fxRates) {
+        List<Transaction> transactions = mongoServiceClient
+                .findTransactionsByCustomerIdAndTimestampAfterOrderByTimestampDesc(customerId, windowStart);
+        return CustomerHistory.of(transactions, fieldDictionaries, fxRates);
+    }
+
+    private synchronized void store(String customerId, Entry entry) {
+        // Keys leave the map only here, so each key is queued once for as long as it is cached
+        if (entries.put(customerId, entry) == null) {
+            loadOrder.addLast(customerId);
+        }
+        while (entries.size() > properties.getMaxCustomers() && !loadOrder.isEmpty()) {
+            entries.remove(loadOrder.pollFirst());
+        }
+    }
+
+    private static final class Entry {
+        private final CustomerHistory history;
+        private final long loadedAtMillis;
+
+        private Entry(CustomerHistory history, long loadedAtMillis) {
+            this.history = history;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+    }
+}
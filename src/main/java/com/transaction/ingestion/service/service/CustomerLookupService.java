@@ -0,0 +1,169 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Customer;
+import com.riskplatform.common.entity.KYCStatus;
+import com.transaction.ingestion.service.client.MongoServiceBatchClient;
+import com.transaction.ingestion.service.client.MongoServiceClient;
+import com.transaction.ingestion.service.config.BatchingProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Coalesces concurrent customer and KYC lookups into bulk mongo-service calls. When the customer snapshot is
+// enabled, customer lookups are served from it without a network call. With batching off, loadCustomer still runs
+// the lookup off the caller's thread so it overlaps with the request-only rules.
+@Service
+@Slf4j
+public class CustomerLookupService {
+
+    private final MongoServiceClient mongoServiceClient;
+    private final BatchingProperties batchingProperties;
+    private final CustomerSnapshotService customerSnapshotService;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService dispatchExecutor;
+    private final ExecutorService lookupExecutor;
+    private final BatchLoader<String, Customer> customerLoader;
+    private final BatchLoader<String, KYCStatus> kycStatusLoader;
+
+    public CustomerLookupService(MongoServiceClient mongoServiceClient, MongoServiceBatchClient mongoServiceBatchClient,
+            BatchingProperties batchingProperties, CustomerSnapshotService customerSnapshotService,
+            MeterRegistry meterRegistry) {
+        this.mongoServiceClient = mongoServiceClient;
+        this.batchingProperties = batchingProperties;
+        this.customerSnapshotService = customerSnapshotService;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(namedThreads("batch-loader-timer"));
+        this.dispatchExecutor = Executors.newFixedThreadPool(batchingProperties.getDispatchThreads(),
+                namedThreads("batch-loader"));
+        // No queue: when every thread is busy the lookup runs on the caller, as it would without the pool
+        this.lookupExecutor = new ThreadPoolExecutor(batchingProperties.getLookupThreads(),
+                batchingProperties.getLookupThreads(), 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                namedThreads("customer-lookup"), new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.customerLoader = new BatchLoader<>("customer", ids -> {
+            Map<String, Customer> customers = new HashMap<>();
+            for (Customer customer : mongoServiceBatchClient.findCustomersByIds(ids)) {
+                customers.put(customer.getCustomerId(), customer);
+            }
+            return customers;
+        }, batchingProperties.getWindowMicros(), batchingProperties.getMaxBatchSize(), scheduler, dispatchExecutor);
+
+        this.kycStatusLoader = new BatchLoader<>("kyc", ids -> {
+            Map<String, KYCStatus> statuses = new HashMap<>();
+            for (KYCStatus status : mongoServiceBatchClient.findKYCStatusesByCustomerIds(ids)) {
+                statuses.put(status.getCustomerId(), status);
+            }
+            return statuses;
+        }, batchingProperties.getWindowMicros(), batchingProperties.getMaxBatchSize(), scheduler, dispatchExecutor);
+
+        registerMetrics(meterRegistry, "customer", customerLoader);
+        registerMetrics(meterRegistry, "kyc", kycStatusLoader);
+    }
+
+    public Optional<Customer> findCustomer(String customerId) {
+        if (customerSnapshotService.isEnabled()) {
+            Customer customer = customerSnapshotService.find(customerId);
+            if (customer != null || !customerSnapshotService.isFallbackToRemote()) {
+                return Optional.ofNullable(customer);
+            }
+        }
+        if (!batchingProperties.isEnabled() || customerId == null) {
+            return mongoServiceClient.findCustomerByCustomerId(customerId);
+        }
+        return Optional.ofNullable(await(customerLoader.load(customerId), customerId));
+    }
+
+    public CompletableFuture<Customer> loadCustomer(String customerId) {
+        if (customerSnapshotService.isEnabled()) {
+            Customer customer = customerSnapshotService.find(customerId);
+            if (customer != null || !customerSnapshotService.isFallbackToRemote()) {
+                return CompletableFuture.completedFuture(customer);
+            }
+        }
+        if (!batchingProperties.isEnabled()) {
+            return CompletableFuture.supplyAsync(
+                    () -> mongoServiceClient.findCustomerByCustomerId(customerId).orElse(null), lookupExecutor);
+        }
+        return customerLoader.load(customerId);
+    }
+
+    public Customer awaitCustomer(CompletableFuture<Customer> customer, String customerId) {
+        return await(customer, customerId);
+    }
+
+    // How long a caller waits for a lookup before giving up
+    public Duration getTimeout() {
+        return batchingProperties.getTimeout();
+    }
+
+    public KYCStatus findKYCStatus(String customerId) {
+        if (!batchingProperties.isEnabled() || customerId == null) {
+            return mongoServiceClient.findKYCStatusByCustomerId(customerId);
+        }
+        return await(kycStatusLoader.load(customerId), customerId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        dispatchExecutor.shutdown();
+        lookupExecutor.shutdown();
+    }
+
+    private <V> V await(CompletableFuture<V> future, String customerId) {
+        try {
+            return future.get(batchingProperties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading customer " + customerId, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to load customer " + customerId, e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out loading customer " + customerId, e);
+        }
+    }
+
+    private static void registerMetrics(MeterRegistry meterRegistry, String loader, BatchLoader<?, ?> batchLoader) {
+        FunctionCounter.builder("mongo.batch.requests", batchLoader, BatchLoader::getBatches)
+                .tag("loader", loader)
+                .description("Bulk calls issued to the mongo service")
+                .register(meterRegistry);
+        FunctionCounter.builder("mongo.batch.keys", batchLoader, BatchLoader::getBatchedKeys)
+                .tag("loader", loader)
+                .description("Keys resolved through bulk calls")
+                .register(meterRegistry);
+        FunctionCounter.builder("mongo.batch.deduplicated", batchLoader, BatchLoader::getDeduplicated)
+                .tag("loader", loader)
+                .description("Lookups served by an identical in-flight request")
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -5,11 +5,15 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.function.Supplier;
+
 @Service
 @AllArgsConstructor
 @Slf4j
 public class CustomerService {
 
+    private final ScreeningListService screeningListService;
+
     public boolean isCustomerActive(Customer customer) {
         try {
             return customer != null && "ACTIVE".equals(customer.getStatus());
@@ -30,6 +34,12 @@ public class CustomerService {
         }
     }
 
+    // The customer's own blacklisted flag is always read; the screening list, behind its Bloom filter, can only add
+    // customers to it
+    public boolean isCustomerBlacklisted(String customerId, Supplier<Customer> customer) {
+        return screeningListService.isListedAsBlacklisted(customerId) || isCustomerBlacklisted(customer.get());
+    }
+
     public double getCustomerLimit(Customer customer) {
         try {
             if (customer != null) {
@@ -0,0 +1,184 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Customer;
+import com.transaction.ingestion.service.config.CustomerSnapshotProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps the customer snapshot current. Every instance reads the whole compacted delta topic from the beginning at
+// startup. Partitions are assigned by hand with no consumer group, so restarts leave no groups behind on the
+// broker. The end offsets seen at startup are the catch-up target: until every partition has been read up to
+// them, CustomerSnapshotService reports the snapshot as not caught up and readiness stays down. Applying a delta
+// is idempotent because older versions never overwrite newer ones.
+@Component
+@ConditionalOnProperty(prefix = "customer-snapshot", name = "enabled", havingValue = "true")
+@Slf4j
+public class CustomerSnapshotDeltaListener {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final long RETRY_BACKOFF_MILLIS = 1_000;
+    private static final long PARTITION_CHECK_MILLIS = 30_000;
+
+    private final CustomerSnapshotService customerSnapshotService;
+    private final CustomerSnapshotProperties properties;
+    private final ConsumerFactory<String, Customer> customerDeltaConsumerFactory;
+    private volatile boolean running;
+    private volatile Consumer<String, Customer> consumer;
+    private Thread reader;
+    private Map<TopicPartition, Long> catchUpOffsets;
+    private long partitionsCheckedAt;
+
+    public CustomerSnapshotDeltaListener(CustomerSnapshotService customerSnapshotService,
+            CustomerSnapshotProperties properties, ConsumerFactory<String, Customer> customerDeltaConsumerFactory) {
+        this.customerSnapshotService = customerSnapshotService;
+        this.properties = properties;
+        this.customerDeltaConsumerFactory = customerDeltaConsumerFactory;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        reader = new Thread(this::readLoop, "customer-snapshot-deltas");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        Consumer<String, Customer> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+        if (reader != null) {
+            reader.join(5_000);
+        }
+    }
+
+    private void readLoop() {
+        try (Consumer<String, Customer> created = customerDeltaConsumerFactory.createConsumer()) {
+            consumer = created;
+            while (running) {
+                pollOnce(created);
+            }
+        } catch (WakeupException e) {
+            // Shutting down
+        } catch (Exception e) {
+            log.error("Customer snapshot delta reader stopped: {}", e.getMessage(), e);
+        }
+    }
+
+    // One poll: (re)assign partitions when needed, apply what arrived and check whether the catch-up target is met
+    void pollOnce(Consumer<String, Customer> consumer) {
+        if (catchUpOffsets == null || System.currentTimeMillis() - partitionsCheckedAt > PARTITION_CHECK_MILLIS) {
+            if (!assign(consumer)) {
+                sleep(RETRY_BACKOFF_MILLIS);
+                return;
+            }
+        }
+        ConsumerRecords<String, Customer> records;
+        try {
+            records = consumer.poll(POLL_TIMEOUT);
+        } catch (RecordDeserializationException e) {
+            // An unreadable delta can never be applied; skip it rather than stall every later one
+            log.warn("Skipping unreadable customer delta at {} offset {}: {}", e.topicPartition(), e.offset(),
+                    e.getMessage());
+            consumer.seek(e.topicPartition(), e.offset() + 1);
+            return;
+        }
+        for (TopicPartition partition : records.partitions()) {
+            for (ConsumerRecord<String, Customer> record : records.records(partition)) {
+                if (!apply(record)) {
+                    // Read the failed delta again on the next poll instead of losing it
+                    consumer.seek(partition, record.offset());
+                    sleep(RETRY_BACKOFF_MILLIS);
+                    break;
+                }
+            }
+        }
+        if (!customerSnapshotService.isCaughtUp() && reachedCatchUpOffsets(consumer)) {
+            customerSnapshotService.markCaughtUp();
+            log.info("Customer snapshot caught up with {} ({} partitions)", properties.getDeltaTopic(),
+                    catchUpOffsets.size());
+        }
+    }
+
+    private boolean apply(ConsumerRecord<String, Customer> record) {
+        try {
+            if (record.value() == null) {
+                // A tombstone has no body, so its version is the record timestamp, which the producer sets to the
+                // deletion's updatedAt; a record without one sorts before anything already stored
+                customerSnapshotService.remove(record.key(),
+                        record.timestamp() >= 0 ? Instant.ofEpochMilli(record.timestamp()) : null);
+            } else {
+                customerSnapshotService.apply(record.value());
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to apply customer delta for {}, retrying: {}", record.key(), e.getMessage());
+            return false;
+        }
+    }
+
+    // Assigns every partition of the delta topic. Partitions added since the last check are read from the
+    // beginning; the ones already assigned keep their position. False while the topic has no partitions yet.
+    private boolean assign(Consumer<String, Customer> consumer) {
+        partitionsCheckedAt = System.currentTimeMillis();
+        List<PartitionInfo> infos = consumer.partitionsFor(properties.getDeltaTopic());
+        if (infos == null || infos.isEmpty()) {
+            log.warn("Customer delta topic {} has no partitions yet", properties.getDeltaTopic());
+            return catchUpOffsets != null;
+        }
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (PartitionInfo info : infos) {
+            partitions.add(new TopicPartition(info.topic(), info.partition()));
+        }
+        Set<TopicPartition> added = new HashSet<>(partitions);
+        added.removeAll(consumer.assignment());
+        if (added.isEmpty()) {
+            return true;
+        }
+        consumer.assign(partitions);
+        consumer.seekToBeginning(added);
+        if (catchUpOffsets == null) {
+            catchUpOffsets = consumer.endOffsets(partitions);
+        }
+        return true;
+    }
+
+    private boolean reachedCatchUpOffsets(Consumer<String, Customer> consumer) {
+        for (Map.Entry<TopicPartition, Long> target : catchUpOffsets.entrySet()) {
+            if (consumer.position(target.getKey()) < target.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskplatform.common.entity.Customer;
+import com.transaction.ingestion.service.config.CustomerSnapshotProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+// Local replica of the customer fields the business rules need, held in a memory-mapped CustomerSnapshotTable.
+// At startup the table file is reused when it was built from the current export, otherwise it is rebuilt from the
+// NDJSON export into a temp file and moved into place. Customer deltas from Kafka are applied on top. Every record
+// is versioned by the customer's updatedAt, whether it came from the export or from a delta.
+@Service
+@Slf4j
+public class CustomerSnapshotService {
+
+    private final CustomerSnapshotProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rejectedWrites;
+    private volatile CustomerSnapshotTable table;
+    private volatile boolean caughtUp;
+
+    public CustomerSnapshotService(CustomerSnapshotProperties properties, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.hits = meterRegistry.counter("customer.snapshot.lookups", "result", "hit");
+        this.misses = meterRegistry.counter("customer.snapshot.lookups", "result", "miss");
+        this.rejectedWrites = meterRegistry.counter("customer.snapshot.rejected");
+        Gauge.builder("customer.snapshot.size", this, service -> service.table != null ? service.table.size() : 0)
+                .description("Customers held in the snapshot table")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long started = System.nanoTime();
+        Path tablePath = Paths.get(properties.getTableFile());
+        Path exportPath = properties.getExportFile() != null && !properties.getExportFile().isBlank()
+                ? Paths.get(properties.getExportFile())
+                : null;
+
+        CustomerSnapshotTable loaded = Files.exists(tablePath) ? CustomerSnapshotTable.open(tablePath) : null;
+        if (exportPath != null && Files.exists(exportPath)) {
+            long exportSize = Files.size(exportPath);
+            long exportModified = Files.getLastModifiedTime(exportPath).toMillis();
+            if (loaded == null || !loaded.isBuiltFrom(exportSize, exportModified)) {
+                loaded = build(exportPath, tablePath, exportSize, exportModified);
+            }
+        } else if (loaded == null) {
+            log.warn("Customer snapshot enabled but neither {} nor an export file exists; starting empty", tablePath);
+            Files.createDirectories(tablePath.toAbsolutePath().getParent());
+            loaded = CustomerSnapshotTable.create(tablePath, 0);
+        }
+        table = loaded;
+        log.info("Customer snapshot ready: {} customers, {} MB mapped, in {} ms", loaded.size(),
+                loaded.sizeInBytes() / (1024 * 1024), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isEnabled() {
+        return table != null;
+    }
+
+    // True once the delta listener has read the topic up to the end offsets it saw at startup; until then the
+    // table may still hold export values that later deltas have replaced
+    public boolean isCaughtUp() {
+        return caughtUp;
+    }
+
+    public void markCaughtUp() {
+        caughtUp = true;
+    }
+
+    public boolean isFallbackToRemote() {
+        return properties.isFallbackToRemote();
+    }
+
+    // Customer with only the business-rule fields populated, or null when the snapshot does not hold it
+    public Customer find(String customerId) {
+        CustomerSnapshotTable current = table;
+        if (current == null || customerId == null) {
+            return null;
+        }
+        Customer customer = current.get(customerId);
+        (customer != null ? hits : misses).increment();
+        return customer;
+    }
+
+    // Versioned by updatedAt like the export records, so a delta older than the export cannot overwrite it
+    public synchronized void apply(Customer customer) throws IOException {
+        CustomerSnapshotTable current = table;
+        if (current == null || customer == null) {
+            return;
+        }
+        if (!current.hasRoomForInsert()) {
+            current = grow(current);
+        }
+        if (!current.put(customer, epochMillis(customer.getUpdatedAt()))) {
+            rejectedWrites.increment();
+            log.warn("Customer {} cannot be held in the snapshot table", customer.getCustomerId());
+        }
+    }
+
+    // Tombstones carry no customer, so deletedAt is the updatedAt the producer stamped on the record
+    public synchronized void remove(String customerId, Instant deletedAt) {
+        CustomerSnapshotTable current = table;
+        if (current != null) {
+            current.remove(customerId, epochMillis(deletedAt));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        CustomerSnapshotTable current = table;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    private CustomerSnapshotTable build(Path exportPath, Path tablePath, long exportSize, long exportModified)
+            throws IOException {
+        Path directory = tablePath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, tablePath.getFileName().toString(), ".tmp");
+        long lines = countLines(exportPath);
+        CustomerSnapshotTable built = CustomerSnapshotTable.create(temp, lines);
+        long rejected = 0;
+        try (InputStream in = Files.newInputStream(exportPath);
+                MappingIterator<Customer> customers = objectMapper.readerFor(Customer.class).readValues(in)) {
+            while (customers.hasNextValue()) {
+                Customer customer = customers.nextValue();
+                if (!built.put(customer, epochMillis(customer.getUpdatedAt()))) {
+                    rejected++;
+                }
+            }
+        }
+        built.setSource(exportSize, exportModified);
+        built.force();
+        // The mapping stays valid across the rename, so the built table is used as is
+        Files.move(temp, tablePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (rejected > 0) {
+            rejectedWrites.increment(rejected);
+            log.warn("{} customers from {} could not be held in the snapshot table", rejected, exportPath);
+        }
+        log.info("Built customer snapshot from {} ({} customers)", exportPath, built.size());
+        return built;
+    }
+
+    // Doubles the table into a temp file and moves it into place. Readers holding the old mapping keep reading it
+    // until they pick up the new reference; only the single delta writer mutates either table.
+    private CustomerSnapshotTable grow(CustomerSnapshotTable current) throws IOException {
+        Path tablePath = Paths.get(properties.getTableFile());
+        Path temp = Files.createTempFile(tablePath.toAbsolutePath().getParent(), tablePath.getFileName().toString(),
+                ".tmp");
+        CustomerSnapshotTable grown = current.copyTo(temp, current.capacity());
+        grown.force();
+        Files.move(temp, tablePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        table = grown;
+        log.info("Grew customer snapshot table from {} to {} slots", current.capacity(), grown.capacity());
+        return grown;
+    }
+
+    private static long epochMillis(Instant instant) {
+        return instant != null && instant.toEpochMilli() > 0 ? instant.toEpochMilli() : 0L;
+    }
+
+    // Sizes the table before parsing; one customer per line
+    private static long countLines(Path path) throws IOException {
+        long lines = 0;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    if (buffer.get() == '\n') {
+                        lines++;
+                    }
+                }
+                buffer.clear();
+            }
+        }
+        return lines + 1;
+    }
+}
@@ -0,0 +1,456 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Customer;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Off-heap, memory-mapped open-addressing hash table holding the fields the business rules need for each customer.
+// Records are fixed-width 64-byte slots; status and tier are stored as one-byte codes whose strings live in the
+// file header. There is a single writer (the snapshot build, then the delta listener) and any number of lock-free
+// readers: new keys are published by writing the slot hash last, and updates to existing slots are guarded by a
+// per-slot sequence lock so readers never observe a half-written record.
+public final class CustomerSnapshotTable {
+
+    static final int MAX_KEY_LENGTH = 24;
+
+    private static final long MAGIC = 0x43534E4150544231L;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4096;
+    private static final int RECORD_SIZE = 64;
+    private static final int RECORDS_PER_SEGMENT_SHIFT = 24;
+    private static final int RECORDS_PER_SEGMENT = 1 << RECORDS_PER_SEGMENT_SHIFT;
+    private static final int MAX_CODES = 63;
+    private static final int CODE_ENTRY_SIZE = 16;
+    private static final double MAX_LOAD = 0.75;
+
+    // Header layout
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 8;
+    private static final int H_CAPACITY = 12;
+    private static final int H_SIZE = 16;
+    private static final int H_SOURCE_SIZE = 24;
+    private static final int H_SOURCE_MODIFIED = 32;
+    private static final int H_STATUS_CODES = 64;
+    private static final int H_TIER_CODES = H_STATUS_CODES + 1 + MAX_CODES * CODE_ENTRY_SIZE;
+
+    // Record layout
+    private static final int R_HASH = 0;
+    private static final int R_SEQ = 4;
+    private static final int R_KEY_LENGTH = 8;
+    private static final int R_KEY = 9;
+    private static final int R_FLAGS = R_KEY + MAX_KEY_LENGTH;
+    private static final int R_STATUS = R_FLAGS + 1;
+    private static final int R_TIER = R_STATUS + 1;
+    private static final int R_TRANSACTION_LIMIT = 40;
+    private static final int R_DAILY_LIMIT = 48;
+    private static final int R_UPDATED_AT = 56;
+
+    private static final byte F_BLACKLISTED = 1;
+    private static final byte F_BLACKLISTED_UNKNOWN = 2;
+    private static final byte F_DELETED = 4;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+    private final int capacity;
+    private final int mask;
+    private final CodeTable statuses;
+    private final CodeTable tiers;
+    private int size;
+
+    private CustomerSnapshotTable(FileChannel channel, int capacity) throws IOException {
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.header = map(channel, 0, HEADER_SIZE);
+        int segmentCount = (capacity + RECORDS_PER_SEGMENT - 1) >>> RECORDS_PER_SEGMENT_SHIFT;
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long records = Math.min(RECORDS_PER_SEGMENT, capacity - (long) i * RECORDS_PER_SEGMENT);
+            segments[i] = map(channel, HEADER_SIZE + (long) i * RECORDS_PER_SEGMENT * RECORD_SIZE,
+                    records * RECORD_SIZE);
+        }
+        this.statuses = new CodeTable(H_STATUS_CODES);
+        this.tiers = new CodeTable(H_TIER_CODES);
+    }
+
+    // Creates an empty table sized for the expected number of customers, replacing any existing file
+    public static CustomerSnapshotTable create(Path path, long expectedCustomers) throws IOException {
+        long wanted = Math.max(1024, (long) Math.ceil(expectedCustomers / 0.5));
+        if (wanted > (1L << 30)) {
+            throw new IllegalArgumentException("Too many customers for a snapshot table: " + expectedCustomers);
+        }
+        int capacity = Integer.highestOneBit((int) wanted - 1) << 1;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CustomerSnapshotTable table = new CustomerSnapshotTable(channel, capacity);
+            table.header.putLong(H_MAGIC, MAGIC);
+            table.header.putInt(H_VERSION, FORMAT_VERSION);
+            table.header.putInt(H_CAPACITY, capacity);
+            table.header.putInt(H_SIZE, 0);
+            return table;
+        }
+    }
+
+    // Maps an existing table file; null when the file is not a snapshot table of this format
+    public static CustomerSnapshotTable open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer probe = map(channel, 0, HEADER_SIZE);
+            if (probe.getLong(H_MAGIC) != MAGIC || probe.getInt(H_VERSION) != FORMAT_VERSION) {
+                return null;
+            }
+            int capacity = probe.getInt(H_CAPACITY);
+            if (channel.size() < HEADER_SIZE + (long) capacity * RECORD_SIZE) {
+                return null;
+            }
+            CustomerSnapshotTable table = new CustomerSnapshotTable(channel, capacity);
+            table.size = table.header.getInt(H_SIZE);
+            table.statuses.load();
+            table.tiers.load();
+            return table;
+        }
+    }
+
+    // Upserts a customer unless the stored record is newer. Returns false when the customer cannot be stored
+    // (id too long or not ASCII, too many distinct status/tier values, or the table is full).
+    public synchronized boolean put(Customer customer, long updatedAt) {
+        String key = customer.getCustomerId();
+        if (!storable(key)) {
+            return false;
+        }
+        int statusCode = statuses.encode(customer.getStatus());
+        int tierCode = tiers.encode(customer.getTier());
+        if (statusCode < 0 || tierCode < 0) {
+            return false;
+        }
+        byte flags = customer.getBlacklisted() == null ? F_BLACKLISTED_UNKNOWN
+                : customer.getBlacklisted() ? F_BLACKLISTED : 0;
+
+        int hash = hash(key);
+        long slot = find(key, hash);
+        if (slot >= 0) {
+            MappedByteBuffer segment = segment(slot);
+            int offset = offset(slot);
+            if (segment.getLong(offset + R_UPDATED_AT) > updatedAt) {
+                return true;
+            }
+            int seq = (int) INT.getAcquire(segment, offset + R_SEQ);
+            INT.setVolatile(segment, offset + R_SEQ, seq + 1);
+            // The odd sequence must be visible before any field store; the volatile write alone does not keep the
+            // plain stores after it from being reordered ahead of it
+            VarHandle.storeStoreFence();
+            writeFields(segment, offset, flags, statusCode, tierCode, customer, updatedAt);
+            INT.setRelease(segment, offset + R_SEQ, seq + 2);
+            return true;
+        }
+
+        if (!hasRoomForInsert()) {
+            return false;
+        }
+        long free = -slot - 1;
+        MappedByteBuffer segment = segment(free);
+        int offset = offset(free);
+        segment.put(offset + R_KEY_LENGTH, (byte) key.length());
+        for (int i = 0; i < key.length(); i++) {
+            segment.put(offset + R_KEY + i, (byte) key.charAt(i));
+        }
+        writeFields(segment, offset, flags, statusCode, tierCode, customer, updatedAt);
+        // Publishing the hash makes the slot visible to readers, so it must come after every other field
+        INT.setRelease(segment, offset + R_HASH, hash);
+        size++;
+        header.putInt(H_SIZE, size);
+        return true;
+    }
+
+    // Marks a customer as deleted; the slot stays occupied so probe chains remain intact
+    public synchronized void remove(String customerId, long updatedAt) {
+        if (!storable(customerId)) {
+            return;
+        }
+        long slot = find(customerId, hash(customerId));
+        if (slot < 0) {
+            return;
+        }
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+        if (segment.getLong(offset + R_UPDATED_AT) > updatedAt) {
+            return;
+        }
+        int seq = (int) INT.getAcquire(segment, offset + R_SEQ);
+        INT.setVolatile(segment, offset + R_SEQ, seq + 1);
+        VarHandle.storeStoreFence();
+        segment.put(offset + R_FLAGS, (byte) (segment.get(offset + R_FLAGS) | F_DELETED));
+        segment.putLong(offset + R_UPDATED_AT, updatedAt);
+        INT.setRelease(segment, offset + R_SEQ, seq + 2);
+    }
+
+    // Lock-free lookup. Returns null when the customer is unknown or deleted.
+    public Customer get(String customerId) {
+        if (!storable(customerId)) {
+            return null;
+        }
+        long slot = find(customerId, hash(customerId));
+        if (slot < 0) {
+            return null;
+        }
+        MappedByteBuffer segment = segment(slot);
+        int offset = offset(slot);
+        while (true) {
+            int seq = (int) INT.getAcquire(segment, offset + R_SEQ);
+            if ((seq & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            byte flags = segment.get(offset + R_FLAGS);
+            int statusCode = segment.get(offset + R_STATUS);
+            int tierCode = segment.get(offset + R_TIER);
+            double transactionLimit = segment.getDouble(offset + R_TRANSACTION_LIMIT);
+            double dailyLimit = segment.getDouble(offset + R_DAILY_LIMIT);
+            VarHandle.acquireFence();
+            if ((int) INT.getAcquire(segment, offset + R_SEQ) != seq) {
+                continue;
+            }
+            if ((flags & F_DELETED) != 0) {
+                return null;
+            }
+            Customer customer = new Customer();
+            customer.setCustomerId(customerId);
+            customer.setStatus(statuses.decode(statusCode));
+            customer.setTier(tiers.decode(tierCode));
+            customer.setBlacklisted((flags & F_BLACKLISTED_UNKNOWN) != 0 ? null : (flags & F_BLACKLISTED) != 0);
+            customer.setTransactionLimit(Double.isNaN(transactionLimit) ? null : transactionLimit);
+            customer.setDailyLimit(Double.isNaN(dailyLimit) ? null : dailyLimit);
+            return customer;
+        }
+    }
+
+    // False once the next new customer would push the table past its load factor; updates still fit
+    public synchronized boolean hasRoomForInsert() {
+        return size + 1 <= capacity * MAX_LOAD;
+    }
+
+    // Copies every slot, including deletion markers, into a new table at the given path sized for the expected
+    // number of customers. Codes and source metadata carry over, so the copy answers exactly as this table does.
+    public synchronized CustomerSnapshotTable copyTo(Path path, long expectedCustomers) throws IOException {
+        if (expectedCustomers < size) {
+            throw new IllegalArgumentException("Copy must hold at least " + size + " customers");
+        }
+        CustomerSnapshotTable copy = create(path, expectedCustomers);
+        byte[] codes = new byte[H_TIER_CODES + 1 + MAX_CODES * CODE_ENTRY_SIZE - H_STATUS_CODES];
+        header.get(H_STATUS_CODES, codes);
+        copy.header.put(H_STATUS_CODES, codes);
+        copy.statuses.load();
+        copy.tiers.load();
+        copy.header.putLong(H_SOURCE_SIZE, header.getLong(H_SOURCE_SIZE));
+        copy.header.putLong(H_SOURCE_MODIFIED, header.getLong(H_SOURCE_MODIFIED));
+
+        byte[] record = new byte[RECORD_SIZE];
+        for (long index = 0; index < capacity; index++) {
+            MappedByteBuffer segment = segment(index);
+            int offset = offset(index);
+            int hash = (int) INT.getAcquire(segment, offset + R_HASH);
+            if (hash == 0) {
+                continue;
+            }
+            segment.get(offset, record);
+            long free = -copy.findSlot(hash) - 1;
+            MappedByteBuffer target = copy.segment(free);
+            int targetOffset = offset(free);
+            target.put(targetOffset + R_KEY_LENGTH, record, R_KEY_LENGTH, RECORD_SIZE - R_KEY_LENGTH);
+            INT.setRelease(target, targetOffset + R_HASH, hash);
+        }
+        copy.size = size;
+        copy.header.putInt(H_SIZE, size);
+        return copy;
+    }
+
+    public synchronized void setSource(long sourceSize, long sourceModifiedMillis) {
+        header.putLong(H_SOURCE_SIZE, sourceSize);
+        header.putLong(H_SOURCE_MODIFIED, sourceModifiedMillis);
+    }
+
+    public boolean isBuiltFrom(long sourceSize, long sourceModifiedMillis) {
+        return header.getLong(H_SOURCE_SIZE) == sourceSize && header.getLong(H_SOURCE_MODIFIED) == sourceModifiedMillis;
+    }
+
+    public synchronized void force() {
+        header.force();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long sizeInBytes() {
+        return HEADER_SIZE + (long) capacity * RECORD_SIZE;
+    }
+
+    static boolean storable(String customerId) {
+        if (customerId == null || customerId.isEmpty() || customerId.length() > MAX_KEY_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < customerId.length(); i++) {
+            if (customerId.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Slot index of the key, or -(free slot index) - 1 when the key is absent
+    private long find(String key, int hash) {
+        long index = hash & mask;
+        while (true) {
+            MappedByteBuffer segment = segment(index);
+            int offset = offset(index);
+            int stored = (int) INT.getAcquire(segment, offset + R_HASH);
+            if (stored == 0) {
+                return -index - 1;
+            }
+            if (stored == hash && keyEquals(segment, offset, key)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    // First free slot on the probe chain of a hash; only used while copying into a table nobody reads yet
+    private long findSlot(int hash) {
+        long index = hash & mask;
+        while ((int) INT.getAcquire(segment(index), offset(index) + R_HASH) != 0) {
+            index = (index + 1) & mask;
+        }
+        return -index - 1;
+    }
+
+    private static boolean keyEquals(MappedByteBuffer segment, int offset, String key) {
+        if (segment.get(offset + R_KEY_LENGTH) != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (segment.get(offset + R_KEY + i) != (byte) key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeFields(MappedByteBuffer segment, int offset, byte flags, int statusCode, int tierCode,
+            Customer customer, long updatedAt) {
+        segment.put(offset + R_FLAGS, flags);
+        segment.put(offset + R_STATUS, (byte) statusCode);
+        segment.put(offset + R_TIER, (byte) tierCode);
+        segment.putDouble(offset + R_TRANSACTION_LIMIT,
+                customer.getTransactionLimit() != null ? customer.getTransactionLimit() : Double.NaN);
+        segment.putDouble(offset + R_DAILY_LIMIT,
+                customer.getDailyLimit() != null ? customer.getDailyLimit() : Double.NaN);
+        segment.putLong(offset + R_UPDATED_AT, updatedAt);
+    }
+
+    // FNV-1a over the ASCII key, finished with a murmur mix; never 0, which marks an empty slot
+    private static int hash(String key) {
+        int h = 0x811C9DC5;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h == 0 ? 1 : h;
+    }
+
+    private MappedByteBuffer segment(long index) {
+        return segments[(int) (index >>> RECORDS_PER_SEGMENT_SHIFT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index & (RECORDS_PER_SEGMENT - 1)) * RECORD_SIZE;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, length);
+        buffer.order(ByteOrder.nativeOrder());
+        return buffer;
+    }
+
+    // Small dictionary of status or tier strings kept in the header; code 0 means null
+    private final class CodeTable {
+
+        private final int headerOffset;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private volatile String[] values = new String[1];
+
+        CodeTable(int headerOffset) {
+            this.headerOffset = headerOffset;
+        }
+
+        void load() {
+            int count = header.get(headerOffset);
+            List<String> loaded = new ArrayList<>();
+            loaded.add(null);
+            for (int i = 0; i < count; i++) {
+                int entry = headerOffset + 1 + i * CODE_ENTRY_SIZE;
+                byte[] bytes = new byte[header.get(entry)];
+                header.get(entry + 1, bytes);
+                String value = new String(bytes, StandardCharsets.US_ASCII);
+                codes.put(value, i + 1);
+                loaded.add(value);
+            }
+            values = loaded.toArray(new String[0]);
+        }
+
+        // Called by the writer only; -1 when the value cannot be encoded
+        int encode(String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            int count = values.length - 1;
+            if (count >= MAX_CODES || value.length() >= CODE_ENTRY_SIZE || !storable(value)) {
+                return -1;
+            }
+            int entry = headerOffset + 1 + count * CODE_ENTRY_SIZE;
+            header.put(entry, (byte) value.length());
+            header.put(entry + 1, value.getBytes(StandardCharsets.US_ASCII));
+            header.put(headerOffset, (byte) (count + 1));
+            String[] grown = Arrays.copyOf(values, count + 2);
+            grown[count + 1] = value;
+            // Publish the string before any record can carry its code
+            values = grown;
+            codes.put(value, count + 1);
+            return count + 1;
+        }
+
+        String decode(int code) {
+            String[] snapshot = values;
+            return code > 0 && code < snapshot.length ? snapshot[code] : null;
+        }
+    }
+}
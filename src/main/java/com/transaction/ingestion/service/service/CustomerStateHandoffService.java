@@ -0,0 +1,104 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.client.AffinityForwardingClient;
+import com.transaction.ingestion.service.config.FxProperties;
+import com.transaction.ingestion.service.dto.CustomerStateHandoff;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Moves a customer's node-local state (today's spend and stored idempotent responses) to its new owner after the
+// affinity ring changes. The pull happens lazily, the first time the new owner handles the customer, and at most
+// once per ring change; concurrent requests for the same customer wait for that single pull.
+@Service
+@Slf4j
+public class CustomerStateHandoffService {
+
+    private static final long PULL_WAIT_SECONDS = 5;
+
+    private final CustomerAffinityRouter customerAffinityRouter;
+    private final AffinityForwardingClient forwardingClient;
+    private final DailySpendTracker dailySpendTracker;
+    private final IdempotencyService idempotencyService;
+    private final FxProperties fxProperties;
+    private final Counter imported;
+    private final Counter failed;
+
+    public CustomerStateHandoffService(CustomerAffinityRouter customerAffinityRouter,
+            AffinityForwardingClient forwardingClient, DailySpendTracker dailySpendTracker,
+            IdempotencyService idempotencyService, FxProperties fxProperties, MeterRegistry meterRegistry) {
+        this.customerAffinityRouter = customerAffinityRouter;
+        this.forwardingClient = forwardingClient;
+        this.dailySpendTracker = dailySpendTracker;
+        this.idempotencyService = idempotencyService;
+        this.fxProperties = fxProperties;
+        this.imported = meterRegistry.counter("affinity.handoff", "result", "imported");
+        this.failed = meterRegistry.counter("affinity.handoff", "result", "failed");
+    }
+
+    // Called as a request for the customer arrives; a no-op unless the customer moved to this instance
+    public void takeOver(String customerId) {
+        Optional<ServiceInstance> previousOwner = customerAffinityRouter.previousOwnerOf(customerId);
+        if (previousOwner.isEmpty()) {
+            return;
+        }
+        CompletableFuture<Void> pull = new CompletableFuture<>();
+        CompletableFuture<Void> existing = customerAffinityRouter.handoffs().putIfAbsent(customerId, pull);
+        if (existing != null) {
+            awaitPull(existing, customerId);
+            return;
+        }
+        try {
+            CustomerStateHandoff state = forwardingClient.fetchCustomerState(previousOwner.get().getUri(),
+                    customerAffinityRouter.getSharedSecret(), customerId);
+            importState(state);
+            imported.increment();
+        } catch (Exception e) {
+            // Processing goes ahead without the previous owner's state rather than failing the request
+            failed.increment();
+            log.warn("Could not pull state of customer {} from {}: {}", customerId,
+                    previousOwner.get().getInstanceId(), e.getMessage());
+        } finally {
+            pull.complete(null);
+        }
+    }
+
+    public CustomerStateHandoff export(String customerId) {
+        long[] spend = dailySpendTracker.snapshot(customerId);
+        return new CustomerStateHandoff(customerId, fxProperties.getBaseCurrency(), spend[0], spend[1],
+                idempotencyService.exportScope(customerId));
+    }
+
+    private void importState(CustomerStateHandoff state) {
+        if (state == null) {
+            return;
+        }
+        if (fxProperties.getBaseCurrency().equals(state.getBaseCurrency())) {
+            dailySpendTracker.merge(state.getCustomerId(), state.getSpendDay(), state.getSpentMinorUnits());
+        } else {
+            log.warn("Ignoring daily spend of customer {} recorded in {}", state.getCustomerId(),
+                    state.getBaseCurrency());
+        }
+        if (state.getIdempotencyEntries() != null) {
+            idempotencyService.importScope(state.getCustomerId(), state.getIdempotencyEntries());
+        }
+    }
+
+    private static void awaitPull(CompletableFuture<Void> pull, String customerId) {
+        try {
+            pull.get(PULL_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Gave up waiting for the state of customer {}: {}", customerId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.DailySpendProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// DailySpendTracker keeps each customer's total on the instance that handled the requests. Across N instances
+// that only adds up when affinity routing sends every request for a customer to the same one; otherwise each
+// instance allows the full daily limit. Startup fails when other instances are already registered and routing is
+// off. Instances that start together cannot see each other yet, so the check is repeated on every ring refresh
+// and reported on daily.spend.affinity.violation.
+@Component
+@Slf4j
+public class DailySpendAffinityGuard {
+
+    private final DailySpendProperties dailySpendProperties;
+    private final CustomerAffinityRouter customerAffinityRouter;
+    private volatile boolean violated;
+
+    public DailySpendAffinityGuard(DailySpendProperties dailySpendProperties,
+            CustomerAffinityRouter customerAffinityRouter, MeterRegistry meterRegistry) {
+        this.dailySpendProperties = dailySpendProperties;
+        this.customerAffinityRouter = customerAffinityRouter;
+        Gauge.builder("daily.spend.affinity.violation", this, guard -> guard.violated ? 1 : 0)
+                .description("1 while other instances run and daily spend totals are not routed by customer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void verifyAtStartup() {
+        int others = unroutedPeers();
+        if (others > 0) {
+            throw new IllegalStateException(others + " other instance(s) are registered but affinity routing is "
+                    + "off, so each would enforce daily limits on its own share of a customer's spend. Set "
+                    + "affinity.shared-secret, or daily-spend.require-affinity=false to accept per-instance totals.");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${affinity.refresh-interval:10s}")
+    public void check() {
+        int others;
+        try {
+            others = unroutedPeers();
+        } catch (Exception e) {
+            log.warn("Could not check daily spend affinity: {}", e.getMessage());
+            return;
+        }
+        boolean nowViolated = others > 0;
+        if (nowViolated && !violated) {
+            log.error("{} other instance(s) registered while affinity routing is off; daily spend limits are "
+                    + "enforced per instance", others);
+        }
+        violated = nowViolated;
+    }
+
+    public boolean isViolated() {
+        return violated;
+    }
+
+    private int unroutedPeers() {
+        if (!dailySpendProperties.isEnabled() || !dailySpendProperties.isRequireAffinity()
+                || customerAffinityRouter.isForwardingEnabled()) {
+            return 0;
+        }
+        return customerAffinityRouter.otherRegisteredInstances();
+    }
+}
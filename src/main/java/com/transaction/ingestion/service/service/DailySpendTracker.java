@@ -0,0 +1,282 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.DailySpendProperties;
+import com.transaction.ingestion.service.config.FxProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory running total of each customer's spend for the current day, in base-currency minor units.
+// Every customer has its own accumulator and lock, so concurrent ingests only contend when they are for the
+// same customer. Totals are checkpointed to local disk so a restart does not forget the day's spend.
+@Component
+@Slf4j
+public class DailySpendTracker {
+
+    private static final int CHECKPOINT_VERSION = 1;
+
+    private final DailySpendProperties dailySpendProperties;
+    private final FxProperties fxProperties;
+    private final ZoneId zone;
+    private final Map<String, Accumulator> accumulators = new ConcurrentHashMap<>();
+    private final Timer checkpointTimer;
+
+    private volatile long currentDay;
+    private volatile long nextDayStartMillis;
+
+    public DailySpendTracker(DailySpendProperties dailySpendProperties, FxProperties fxProperties,
+            MeterRegistry meterRegistry) {
+        this.dailySpendProperties = dailySpendProperties;
+        this.fxProperties = fxProperties;
+        this.zone = ZoneId.of(dailySpendProperties.getZone());
+        this.checkpointTimer = meterRegistry.timer("daily.spend.checkpoint");
+        Gauge.builder("daily.spend.customers", accumulators, Map::size)
+                .description("Customers with a tracked daily spend")
+                .register(meterRegistry);
+        rollDay(System.currentTimeMillis());
+    }
+
+    // Adds the amount to today's total unless that would take it over the limit. A negative limit means unlimited.
+    public boolean tryAdd(String customerId, long amountMinorUnits, long limitMinorUnits) {
+        if (!dailySpendProperties.isEnabled() || customerId == null) {
+            return true;
+        }
+        long day = today();
+        while (true) {
+            Accumulator accumulator = accumulators.computeIfAbsent(customerId, id -> new Accumulator(day));
+            int result = accumulator.tryAdd(day, amountMinorUnits, limitMinorUnits);
+            if (result != Accumulator.RETIRED) {
+                return result == Accumulator.ADDED;
+            }
+            // Lost a race with the checkpoint evicting yesterday's accumulator; start a fresh one
+            accumulators.remove(customerId, accumulator);
+        }
+    }
+
+    // The check tryAdd makes, without adding anything
+    public boolean wouldFit(String customerId, long amountMinorUnits, long limitMinorUnits) {
+        if (!dailySpendProperties.isEnabled() || customerId == null || limitMinorUnits < 0) {
+            return true;
+        }
+        return getSpent(customerId) + amountMinorUnits <= limitMinorUnits;
+    }
+
+    // Gives back an amount added by tryAdd for a transaction that was not accepted after all
+    public void release(String customerId, long amountMinorUnits) {
+        if (!dailySpendProperties.isEnabled() || customerId == null) {
+            return;
+        }
+        Accumulator accumulator = accumulators.get(customerId);
+        if (accumulator != null) {
+            accumulator.release(today(), amountMinorUnits);
+        }
+    }
+
+    // Today's spend as {epoch day, minor units}, for handing the customer to another instance
+    public long[] snapshot(String customerId) {
+        long day = today();
+        return new long[] { day, getSpent(customerId) };
+    }
+
+    // Folds in today's spend recorded by the customer's previous owner. Keeping the larger total, rather than adding,
+    // makes a repeated handoff (ownership moving back and forth) harmless.
+    public void merge(String customerId, long day, long spentMinorUnits) {
+        if (!dailySpendProperties.isEnabled() || customerId == null || day != today() || spentMinorUnits <= 0) {
+            return;
+        }
+        while (true) {
+            Accumulator accumulator = accumulators.computeIfAbsent(customerId, id -> new Accumulator(day));
+            if (accumulator.mergeMax(day, spentMinorUnits)) {
+                return;
+            }
+            accumulators.remove(customerId, accumulator);
+        }
+    }
+
+    public long getSpent(String customerId) {
+        Accumulator accumulator = accumulators.get(customerId);
+        return accumulator != null ? accumulator.spentOn(today()) : 0L;
+    }
+
+    @PostConstruct
+    public void restore() {
+        Path path = Paths.get(dailySpendProperties.getCheckpointPath());
+        if (!dailySpendProperties.isEnabled() || !Files.exists(path)) {
+            return;
+        }
+        long day = today();
+        int restored = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != CHECKPOINT_VERSION) {
+                log.warn("Ignoring daily spend checkpoint {} with unknown version", path);
+                return;
+            }
+            String baseCurrency = in.readUTF();
+            if (!baseCurrency.equals(fxProperties.getBaseCurrency())) {
+                log.warn("Ignoring daily spend checkpoint {} recorded in {}", path, baseCurrency);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String customerId = in.readUTF();
+                long entryDay = in.readLong();
+                long spent = in.readLong();
+                if (entryDay == day) {
+                    accumulators.put(customerId, new Accumulator(entryDay, spent));
+                    restored++;
+                }
+            }
+            log.info("Restored daily spend for {} customers from {}", restored, path);
+        } catch (IOException e) {
+            log.error("Failed to restore daily spend checkpoint {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${daily-spend.checkpoint-interval:30s}",
+            initialDelayString = "${daily-spend.checkpoint-interval:30s}")
+    public void checkpoint() {
+        if (!dailySpendProperties.isEnabled()) {
+            return;
+        }
+        long day = today();
+        // Accumulators from previous days are dead weight once the day has rolled over
+        accumulators.forEach((customerId, accumulator) -> {
+            if (accumulator.retireIfBefore(day)) {
+                accumulators.remove(customerId, accumulator);
+            }
+        });
+
+        checkpointTimer.record(() -> {
+            Path path = Paths.get(dailySpendProperties.getCheckpointPath()).toAbsolutePath();
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try {
+                Files.createDirectories(path.getParent());
+                List<Map.Entry<String, Accumulator>> entries = new ArrayList<>(accumulators.entrySet());
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(CHECKPOINT_VERSION);
+                    out.writeUTF(fxProperties.getBaseCurrency());
+                    out.writeInt(entries.size());
+                    for (Map.Entry<String, Accumulator> entry : entries) {
+                        long[] snapshot = entry.getValue().snapshot();
+                        out.writeUTF(entry.getKey());
+                        out.writeLong(snapshot[0]);
+                        out.writeLong(snapshot[1]);
+                    }
+                }
+                // Readers only ever see a complete checkpoint
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.debug("Checkpointed daily spend for {} customers to {}", entries.size(), path);
+            } catch (IOException e) {
+                log.error("Failed to checkpoint daily spend to {}: {}", path, e.getMessage());
+            }
+        });
+    }
+
+    private long today() {
+        long now = System.currentTimeMillis();
+        if (now >= nextDayStartMillis) {
+            rollDay(now);
+        }
+        return currentDay;
+    }
+
+    private synchronized void rollDay(long now) {
+        if (now < nextDayStartMillis) {
+            return;
+        }
+        LocalDate date = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+        currentDay = date.toEpochDay();
+        nextDayStartMillis = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    private static final class Accumulator {
+        private static final int ADDED = 0;
+        private static final int LIMIT_EXCEEDED = 1;
+        private static final int RETIRED = 2;
+
+        private long day;
+        private long spent;
+        private boolean retired;
+
+        private Accumulator(long day) {
+            this(day, 0L);
+        }
+
+        private Accumulator(long day, long spent) {
+            this.day = day;
+            this.spent = spent;
+        }
+
+        private synchronized int tryAdd(long today, long amount, long limit) {
+            if (retired) {
+                return RETIRED;
+            }
+            if (day != today) {
+                day = today;
+                spent = 0L;
+            }
+            if (limit >= 0 && spent + amount > limit) {
+                return LIMIT_EXCEEDED;
+            }
+            spent += amount;
+            return ADDED;
+        }
+
+        private synchronized void release(long today, long amount) {
+            if (day == today) {
+                spent = Math.max(0L, spent - amount);
+            }
+        }
+
+        private synchronized boolean mergeMax(long today, long amount) {
+            if (retired) {
+                return false;
+            }
+            if (day != today) {
+                day = today;
+                spent = 0L;
+            }
+            spent = Math.max(spent, amount);
+            return true;
+        }
+
+        private synchronized long spentOn(long today) {
+            return day == today ? spent : 0L;
+        }
+
+        private synchronized boolean retireIfBefore(long today) {
+            if (day < today) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        private synchronized long[] snapshot() {
+            return new long[] { day, spent };
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.event.TransactionValidatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+// Moves dead-lettered transaction-received events back onto the main topic. Progress is committed under its own
+// consumer group, so each dead letter is replayed once even if the replay is triggered repeatedly.
+@Service
+@Slf4j
+public class DeadLetterReplayService {
+
+    private static final String REPLAY_GROUP_ID = "async-validation-dlt-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final ConsumerFactory<String, TransactionValidatedEvent> consumerFactory;
+    private final KafkaTemplate<String, TransactionValidatedEvent> kafkaTemplate;
+    private final String sourceTopic;
+    private final String deadLetterTopic;
+    private final Counter replayed;
+
+    public DeadLetterReplayService(ConsumerFactory<String, TransactionValidatedEvent> consumerFactory,
+            KafkaTemplate<String, TransactionValidatedEvent> kafkaTemplate,
+            @Value("${kafka.topics.transaction-received}") String sourceTopic, MeterRegistry meterRegistry) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.sourceTopic = sourceTopic;
+        this.deadLetterTopic = sourceTopic + AsyncValidationProcessor.DLT_SUFFIX;
+        this.replayed = meterRegistry.counter("async.validation.dlt.replayed");
+    }
+
+    public String getDeadLetterTopic() {
+        return deadLetterTopic;
+    }
+
+    // Replays up to maxRecords dead letters and returns how many were re-published
+    public synchronized int replay(int maxRecords) {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(Math.min(maxRecords, 500)));
+
+        int count = 0;
+        try (Consumer<String, TransactionValidatedEvent> consumer = consumerFactory.createConsumer(REPLAY_GROUP_ID,
+                null, null, overrides)) {
+            // Assign rather than subscribe so there is no group rebalance to wait for before the first poll
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo partition : consumer.partitionsFor(deadLetterTopic)) {
+                partitions.add(new TopicPartition(partition.topic(), partition.partition()));
+            }
+            consumer.assign(partitions);
+
+            Map<TopicPartition, OffsetAndMetadata> processed = new HashMap<>();
+            try {
+                while (count < maxRecords) {
+                    ConsumerRecords<String, TransactionValidatedEvent> records = consumer.poll(POLL_TIMEOUT);
+                    if (records.isEmpty()) {
+                        break;
+                    }
+                    for (ConsumerRecord<String, TransactionValidatedEvent> record : records) {
+                        if (count >= maxRecords) {
+                            break;
+                        }
+                        if (record.value() != null) {
+                            // Wait for the broker so an offset is only committed once the event is safely back
+                            kafkaTemplate.send(sourceTopic, record.key(), record.value()).get(30, TimeUnit.SECONDS);
+                            count++;
+                            replayed.increment();
+                        }
+                        processed.put(new TopicPartition(record.topic(), record.partition()),
+                                new OffsetAndMetadata(record.offset() + 1));
+                    }
+                    consumer.commitSync(processed);
+                }
+            } finally {
+                // Also commit what was replayed before a failure, so a retry does not publish it twice
+                if (!processed.isEmpty()) {
+                    consumer.commitSync(processed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying " + deadLetterTopic, e);
+        } catch (Exception e) {
+            log.error("Replay of {} stopped after {} records: {}", deadLetterTopic, count, e.getMessage(), e);
+            throw new IllegalStateException("Replay of " + deadLetterTopic + " failed after " + count + " records", e);
+        }
+        log.info("Replayed {} dead-lettered events from {} to {}", count, deadLetterTopic, sourceTopic);
+        return count;
+    }
+}
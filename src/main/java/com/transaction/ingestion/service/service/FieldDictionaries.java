@@ -0,0 +1,75 @@
+package com.transaction.ingestion.service.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.transaction.ingestion.service.constant.Constant.COMMON_MERCHANT_CATEGORIES;
+import static com.transaction.ingestion.service.constant.Constant.VALID_CHANNELS;
+import static com.transaction.ingestion.service.constant.Constant.VALID_DEVICES;
+
+// Shared dictionaries for the low-cardinality fields of transactions and events, keyed by JSON property name.
+// Each is seeded with the values the service knows to be valid; anything else is only added once it has been
+// validated and stored.
+@Component
+public class FieldDictionaries {
+
+    private static final int MAX_ENTRIES = 4096;
+    private static final Set<String> EVENT_TYPES = Set.of("TransactionReceived", "TransactionValidated",
+            "TransactionValidationFailed");
+
+    private final FieldDictionary channels = new FieldDictionary("channel", MAX_ENTRIES, VALID_CHANNELS);
+    private final FieldDictionary devices = new FieldDictionary("device", MAX_ENTRIES, VALID_DEVICES);
+    private final FieldDictionary currencies = new FieldDictionary("currency", MAX_ENTRIES,
+            Currency.getAvailableCurrencies().stream().map(Currency::getCurrencyCode).toList());
+    private final FieldDictionary merchantCategories = new FieldDictionary("merchantCategory", MAX_ENTRIES,
+            COMMON_MERCHANT_CATEGORIES);
+    private final FieldDictionary eventTypes = new FieldDictionary("eventType", MAX_ENTRIES, EVENT_TYPES);
+    private final Map<String, FieldDictionary> byField;
+
+    public FieldDictionaries(MeterRegistry meterRegistry) {
+        List<FieldDictionary> all = List.of(channels, devices, currencies, merchantCategories, eventTypes);
+        this.byField = Map.of(
+                channels.getField(), channels,
+                devices.getField(), devices,
+                currencies.getField(), currencies,
+                merchantCategories.getField(), merchantCategories,
+                eventTypes.getField(), eventTypes);
+        for (FieldDictionary dictionary : all) {
+            Gauge.builder("field.dictionary.size", dictionary, FieldDictionary::size)
+                    .tag("field", dictionary.getField())
+                    .description("Distinct values interned for the field")
+                    .register(meterRegistry);
+        }
+    }
+
+    // Dictionary for a JSON property name, or null when the property is not dictionary-encoded
+    public FieldDictionary forField(String field) {
+        return byField.get(field);
+    }
+
+    public FieldDictionary channels() {
+        return channels;
+    }
+
+    public FieldDictionary devices() {
+        return devices;
+    }
+
+    public FieldDictionary currencies() {
+        return currencies;
+    }
+
+    public FieldDictionary merchantCategories() {
+        return merchantCategories;
+    }
+
+    public FieldDictionary eventTypes() {
+        return eventTypes;
+    }
+}
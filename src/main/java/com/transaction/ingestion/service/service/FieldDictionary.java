@@ -0,0 +1,106 @@
+package com.transaction.ingestion.service.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Append-only dictionary for a low-cardinality String field. Hands out one canonical instance per value
+// and a dense int code that can be stored in place of the String. Codes are never reused or removed, so only
+// trusted values may be added: the known codes it is seeded with, or values that have passed validation.
+// Untrusted input goes through canonical(), which never adds.
+@Slf4j
+public class FieldDictionary {
+
+    public static final int NO_CODE = -1;
+
+    private final String field;
+    private final int maxEntries;
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private boolean overflowLogged;
+
+    public FieldDictionary(String field, int maxEntries) {
+        this.field = field;
+        this.maxEntries = maxEntries;
+    }
+
+    public FieldDictionary(String field, int maxEntries, Collection<String> knownValues) {
+        this(field, maxEntries);
+        knownValues.stream().sorted().forEach(this::encode);
+    }
+
+    // Canonical instance of an already known value, or the value itself; never adds, so it is safe for values
+    // that have not been validated yet
+    public String canonical(String value) {
+        int code = codeOf(value);
+        return code == NO_CODE ? value : values[code];
+    }
+
+    // Canonical instance of the value, adding it if needed; values beyond the dictionary capacity are returned
+    // as-is
+    public String intern(String value) {
+        int code = encode(value);
+        return code == NO_CODE ? value : values[code];
+    }
+
+    public int encode(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        return add(value);
+    }
+
+    // Code of an already known value, without adding it
+    public int codeOf(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : NO_CODE;
+    }
+
+    public String decode(int code) {
+        String[] snapshot = values;
+        return code >= 0 && code < snapshot.length ? snapshot[code] : null;
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        int code = codes.size();
+        if (code >= maxEntries) {
+            if (!overflowLogged) {
+                overflowLogged = true;
+                log.warn("Dictionary for field {} is full at {} entries; new values are no longer interned",
+                        field, maxEntries);
+            }
+            return NO_CODE;
+        }
+        String[] current = values;
+        if (code == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[code] = value;
+        // Publish the array before the code so readers that see the code also see the value
+        values = current;
+        codes.put(value, code);
+        return code;
+    }
+}
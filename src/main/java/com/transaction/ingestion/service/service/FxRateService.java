@@ -0,0 +1,101 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.FxProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Holds the current FX rate table. Refreshes build a new snapshot off the hot path and swap it in atomically;
+// readers take the reference once per check and never lock.
+@Service
+@Slf4j
+public class FxRateService {
+
+    private final FxProperties fxProperties;
+    private final ResourceLoader resourceLoader;
+    private final AtomicReference<FxRateSnapshot> snapshot;
+    private final Timer refreshTimer;
+    private final Counter refreshFailures;
+
+    public FxRateService(FxProperties fxProperties, ResourceLoader resourceLoader, MeterRegistry meterRegistry) {
+        this.fxProperties = fxProperties;
+        this.resourceLoader = resourceLoader;
+        // Until the first load only the base currency converts
+        this.snapshot = new AtomicReference<>(
+                FxRateSnapshot.of(fxProperties.getBaseCurrency(), Map.of(), Instant.EPOCH));
+        this.refreshTimer = Timer.builder("fx.rates.refresh")
+                .description("Time taken to load and swap in the FX rate table")
+                .register(meterRegistry);
+        this.refreshFailures = meterRegistry.counter("fx.rates.refresh.failures");
+        Gauge.builder("fx.rates.age.seconds", this,
+                        service -> Duration.between(service.current().getLoadedAt(), Instant.now()).toSeconds())
+                .register(meterRegistry);
+        Gauge.builder("fx.rates.currencies", this, service -> service.current().size())
+                .register(meterRegistry);
+    }
+
+    public FxRateSnapshot current() {
+        return snapshot.get();
+    }
+
+    @PostConstruct
+    public void loadInitialRates() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${fx.refresh-interval:5m}", initialDelayString = "${fx.refresh-interval:5m}")
+    public void refresh() {
+        long start = System.nanoTime();
+        try {
+            Map<String, BigDecimal> rates = loadRates();
+            snapshot.set(FxRateSnapshot.of(fxProperties.getBaseCurrency(), rates, Instant.now()));
+            log.debug("Loaded {} FX rates from {}", rates.size(), fxProperties.getRatesLocation());
+        } catch (Exception e) {
+            refreshFailures.increment();
+            log.error("Failed to refresh FX rates from {}, keeping rates loaded at {}: {}",
+                    fxProperties.getRatesLocation(), current().getLoadedAt(), e.getMessage());
+        } finally {
+            refreshTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private Map<String, BigDecimal> loadRates() throws IOException {
+        Resource resource = resourceLoader.getResource(fxProperties.getRatesLocation());
+        Properties properties = new Properties();
+        try (InputStream inputStream = resource.getInputStream()) {
+            properties.load(inputStream);
+        }
+
+        Map<String, BigDecimal> rates = new HashMap<>();
+        for (String currency : properties.stringPropertyNames()) {
+            try {
+                BigDecimal rate = new BigDecimal(properties.getProperty(currency).trim());
+                if (rate.signum() > 0) {
+                    rates.put(currency.trim(), rate);
+                } else {
+                    log.warn("Ignoring non-positive FX rate for {}", currency);
+                }
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed FX rate for {}: {}", currency, properties.getProperty(currency));
+            }
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,83 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.model.Money;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+// Immutable set of exchange rates into the base currency. Each rate is pre-multiplied by the difference in
+// ISO 4217 exponents so converting minor units is a single multiplication.
+public final class FxRateSnapshot {
+
+    private final String baseCurrency;
+    private final Map<String, Double> minorUnitFactors;
+    private final Instant loadedAt;
+
+    private FxRateSnapshot(String baseCurrency, Map<String, Double> minorUnitFactors, Instant loadedAt) {
+        this.baseCurrency = baseCurrency;
+        this.minorUnitFactors = minorUnitFactors;
+        this.loadedAt = loadedAt;
+    }
+
+    // Rates are units of the base currency per one unit of each currency
+    public static FxRateSnapshot of(String baseCurrency, Map<String, BigDecimal> rates, Instant loadedAt) {
+        int baseExponent = Money.exponentOf(baseCurrency);
+        Map<String, Double> factors = new HashMap<>();
+        rates.forEach((currency, rate) -> factors.put(currency,
+                rate.scaleByPowerOfTen(baseExponent - Money.exponentOf(currency)).doubleValue()));
+        factors.put(baseCurrency, 1.0);
+        return new FxRateSnapshot(baseCurrency, Map.copyOf(factors), loadedAt);
+    }
+
+    public boolean hasRate(String currency) {
+        return currency != null && minorUnitFactors.containsKey(currency);
+    }
+
+    public long toBaseMinorUnits(long minorUnits, String currency) {
+        Double factor = currency != null ? minorUnitFactors.get(currency) : null;
+        if (factor == null) {
+            throw new IllegalArgumentException("No exchange rate for currency " + currency);
+        }
+        return Math.round(minorUnits * factor);
+    }
+
+    // Converted amount rounded up to the next whole minor unit, for checks against limits. Products within
+    // floating-point noise of a whole number are exact conversions and are not bumped.
+    public long toBaseMinorUnitsRoundedUp(long minorUnits, String currency) {
+        Double factor = currency != null ? minorUnitFactors.get(currency) : null;
+        if (factor == null) {
+            throw new IllegalArgumentException("No exchange rate for currency " + currency);
+        }
+        double converted = minorUnits * factor;
+        long rounded = Math.round(converted);
+        return Math.abs(converted - rounded) <= 4 * Math.ulp(converted) ? rounded : (long) Math.ceil(converted);
+    }
+
+    public Money toBaseRoundedUp(Money money) {
+        if (baseCurrency.equals(money.getCurrency())) {
+            return money;
+        }
+        return Money.ofMinor(toBaseMinorUnitsRoundedUp(money.getMinorUnits(), money.getCurrency()), baseCurrency);
+    }
+
+    public Money toBase(Money money) {
+        if (baseCurrency.equals(money.getCurrency())) {
+            return money;
+        }
+        return Money.ofMinor(toBaseMinorUnits(money.getMinorUnits(), money.getCurrency()), baseCurrency);
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public int size() {
+        return minorUnitFactors.size();
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+}
@@ -0,0 +1,254 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.transaction.ingestion.service.config.IdempotencyProperties;
+import com.transaction.ingestion.service.dto.CustomerStateHandoff;
+import com.transaction.ingestion.service.dto.ErrorResponse;
+import com.transaction.ingestion.service.dto.FixedErrorResponse;
+import com.transaction.ingestion.service.dto.IngestResponse;
+import com.transaction.ingestion.service.dto.RejectedResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAY_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyStore idempotencyStore;
+    private final IdempotencyProperties idempotencyProperties;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter canonicalWriter;
+    private final Map<String, CompletableFuture<ResponseEntity<?>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter replayed;
+    private final Counter collapsed;
+
+    public IdempotencyService(IdempotencyStore idempotencyStore, IdempotencyProperties idempotencyProperties,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.idempotencyStore = idempotencyStore;
+        this.idempotencyProperties = idempotencyProperties;
+        this.objectMapper = objectMapper;
+        // Sorted properties and map keys, so equal requests hash the same on every instance
+        ObjectMapper canonical = objectMapper.copy();
+        canonical.setConfig(canonical.getSerializationConfig()
+                .with(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS));
+        this.canonicalWriter = canonical.writer();
+        this.replayed = meterRegistry.counter("ingest.idempotency.replayed");
+        this.collapsed = meterRegistry.counter("ingest.idempotency.collapsed");
+    }
+
+    public ResponseEntity<?> execute(String scope, String idempotencyKey, Object request,
+            Supplier<ResponseEntity<?>> action) {
+        if (!idempotencyProperties.isEnabled() || idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > idempotencyProperties.getMaxKeyLength()) {
+            return invalidKey();
+        }
+
+        String key = scope + ":" + idempotencyKey;
+        byte[] fingerprint = fingerprint(request);
+
+        ResponseEntity<?> stored = replay(key, fingerprint);
+        if (stored != null) {
+            return stored;
+        }
+
+        CompletableFuture<ResponseEntity<?>> leader = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            collapsed.increment();
+            return awaitInFlight(key, existing);
+        }
+
+        try {
+            // The previous leader may have finished between the lookup and claiming the key
+            stored = replay(key, fingerprint);
+            if (stored != null) {
+                leader.complete(stored);
+                return stored;
+            }
+
+            ResponseEntity<?> response = action.get();
+            store(key, fingerprint, response);
+            leader.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, leader);
+        }
+    }
+
+    public Mono<ResponseEntity<?>> executeReactive(String scope, String idempotencyKey, Object request,
+            Supplier<Mono<ResponseEntity<?>>> action) {
+        if (!idempotencyProperties.isEnabled() || idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > idempotencyProperties.getMaxKeyLength()) {
+            return Mono.just(invalidKey());
+        }
+
+        String key = scope + ":" + idempotencyKey;
+        byte[] fingerprint = fingerprint(request);
+
+        ResponseEntity<?> stored = replay(key, fingerprint);
+        if (stored != null) {
+            return Mono.just(stored);
+        }
+
+        CompletableFuture<ResponseEntity<?>> leader = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<?>> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            collapsed.increment();
+            // Suppress cancel so a follower timing out doesn't cancel the leader for everyone else
+            return Mono.fromFuture(existing, true)
+                    .timeout(idempotencyProperties.getInFlightWaitTimeout(),
+                            Mono.fromSupplier(this::requestInProgress));
+        }
+
+        stored = replay(key, fingerprint);
+        if (stored != null) {
+            leader.complete(stored);
+            inFlight.remove(key, leader);
+            return Mono.just(stored);
+        }
+
+        // The work is detached from the leader's own subscriber. If the leader's client goes away, the work still
+        // finishes, is stored and completes the future its followers wait on, rather than failing them and leaving
+        // a retry to process the request a second time.
+        return Mono.defer(() -> {
+            Mono.defer(action)
+                    .doFinally(signal -> inFlight.remove(key, leader))
+                    .subscribe(response -> {
+                        store(key, fingerprint, response);
+                        leader.complete(response);
+                    }, leader::completeExceptionally, () -> leader.completeExceptionally(
+                            new IllegalStateException("No response for idempotency key " + key)));
+            return Mono.fromFuture(leader, true);
+        });
+    }
+
+    // Stored responses of one customer, for handing the customer to the instance that now owns it
+    public List<CustomerStateHandoff.IdempotencyEntry> exportScope(String scope) {
+        String prefix = scope + ":";
+        return idempotencyStore.entriesInScope(scope).stream()
+                .map(entry -> new CustomerStateHandoff.IdempotencyEntry(entry.getKey().substring(prefix.length()),
+                        entry.getResponse().getRequestFingerprint(), entry.getResponse().getStatus(),
+                        entry.getResponse().getBody(), entry.getExpiresAtMillis()))
+                .toList();
+    }
+
+    // Adds responses exported by the customer's previous owner; keys already stored here are left alone
+    public void importScope(String scope, List<CustomerStateHandoff.IdempotencyEntry> entries) {
+        long now = System.currentTimeMillis();
+        for (CustomerStateHandoff.IdempotencyEntry entry : entries) {
+            if (entry.getExpiresAtMillis() > now) {
+                idempotencyStore.putIfAbsent(scope + ":" + entry.getIdempotencyKey(),
+                        new IdempotencyStore.StoredResponse(entry.getRequestFingerprint(), entry.getStatus(),
+                                entry.getBody()),
+                        Duration.ofMillis(entry.getExpiresAtMillis() - now));
+            }
+        }
+    }
+
+    private ResponseEntity<?> replay(String key, byte[] fingerprint) {
+        IdempotencyStore.StoredResponse stored = idempotencyStore.get(key);
+        if (stored == null) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(stored.getRequestFingerprint(), fingerprint)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(FixedErrorResponse.IDEMPOTENCY_KEY_REUSED);
+        }
+        replayed.increment();
+        return ResponseEntity.status(stored.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IDEMPOTENT_REPLAY_HEADER, "true")
+                .body(stored.getBody());
+    }
+
+    private void store(String key, byte[] fingerprint, ResponseEntity<?> response) {
+        if (!isReplayable(response)) {
+            return;
+        }
+        try {
+            idempotencyStore.put(key, new IdempotencyStore.StoredResponse(fingerprint,
+                    response.getStatusCode().value(), objectMapper.writeValueAsBytes(response.getBody())),
+                    idempotencyProperties.getTtl());
+        } catch (JsonProcessingException e) {
+            // The response still goes out; a retry is simply processed again
+            log.warn("Unable to store response for idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    byte[] fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return digest.digest(canonicalWriter.writeValueAsBytes(request));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request cannot be fingerprinted", e);
+        }
+    }
+
+    private ResponseEntity<?> awaitInFlight(String key, CompletableFuture<ResponseEntity<?>> existing) {
+        try {
+            return existing.get(idempotencyProperties.getInFlightWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight request " + key, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for in-flight request with idempotency key {}", key);
+            return requestInProgress();
+        }
+    }
+
+    private ResponseEntity<?> requestInProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(FixedErrorResponse.REQUEST_IN_PROGRESS);
+    }
+
+    private boolean isReplayable(ResponseEntity<?> response) {
+        Object body = response.getBody();
+        return body instanceof IngestResponse || body instanceof RejectedResponse;
+    }
+
+    private ResponseEntity<?> invalidKey() {
+        ErrorResponse errorResponse = new ErrorResponse(new ErrorResponse.Error("VALIDATION_FAILED",
+                "Invalid transaction request", List.of(new ErrorResponse.Violation(IDEMPOTENCY_KEY_HEADER,
+                        "Idempotency-Key must be 1-" + idempotencyProperties.getMaxKeyLength() + " characters"))));
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+}
@@ -0,0 +1,36 @@
+package com.transaction.ingestion.service.service;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface IdempotencyStore {
+
+    StoredResponse get(String key);
+
+    void put(String key, StoredResponse response, Duration ttl);
+
+    // Stores the entry unless the key already has one; used when another instance hands a customer over
+    void putIfAbsent(String key, StoredResponse response, Duration ttl);
+
+    // Live entries whose key starts with "<scope>:", with the time each one expires
+    List<ScopedEntry> entriesInScope(String scope);
+
+    // Only plain values are kept, so an entry can be copied to another instance or an external store as is
+    @Value
+    class StoredResponse {
+        // SHA-256 of the canonical JSON of the request that produced the response
+        byte[] requestFingerprint;
+        int status;
+        // JSON body exactly as it was returned
+        byte[] body;
+    }
+
+    @Value
+    class ScopedEntry {
+        String key;
+        StoredResponse response;
+        long expiresAtMillis;
+    }
+}
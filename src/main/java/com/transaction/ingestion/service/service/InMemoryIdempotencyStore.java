@@ -0,0 +1,122 @@
+package com.transaction.ingestion.service.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bounded LRU with per-entry TTL, split into independently locked segments to keep contention low. Keys are
+// spread by their scope (the part before the first ':'), so all keys of one customer share a segment.
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public InMemoryIdempotencyStore(int maxEntries) {
+        int perSegment = Math.max(1, maxEntries / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    @Override
+    public StoredResponse get(String key) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            Entry entry = segment.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAtMillis < System.currentTimeMillis()) {
+                segment.remove(key);
+                return null;
+            }
+            return entry.response;
+        }
+    }
+
+    @Override
+    public void put(String key, StoredResponse response, Duration ttl) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, new Entry(response, System.currentTimeMillis() + ttl.toMillis()));
+        }
+    }
+
+    @Override
+    public void putIfAbsent(String key, StoredResponse response, Duration ttl) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            Entry existing = segment.get(key);
+            if (existing == null || existing.expiresAtMillis < System.currentTimeMillis()) {
+                segment.put(key, new Entry(response, System.currentTimeMillis() + ttl.toMillis()));
+            }
+        }
+    }
+
+    @Override
+    public List<ScopedEntry> entriesInScope(String scope) {
+        String prefix = scope + ":";
+        long now = System.currentTimeMillis();
+        List<ScopedEntry> entries = new ArrayList<>();
+        // A scope containing ':' is spread by a shorter prefix, so only then do all segments need a look
+        Segment[] candidates = scope.indexOf(':') < 0 ? new Segment[] {segmentFor(prefix)} : segments;
+        for (Segment segment : candidates) {
+            synchronized (segment) {
+                for (Map.Entry<String, Entry> entry : segment.entrySet()) {
+                    if (entry.getKey().startsWith(prefix) && entry.getValue().expiresAtMillis >= now) {
+                        entries.add(new ScopedEntry(entry.getKey(), entry.getValue().response,
+                                entry.getValue().expiresAtMillis));
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(String key) {
+        int separator = key.indexOf(':');
+        int end = separator < 0 ? key.length() : separator;
+        int h = 0;
+        for (int i = 0; i < end; i++) {
+            h = 31 * h + key.charAt(i);
+        }
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static final class Entry {
+        private final StoredResponse response;
+        private final long expiresAtMillis;
+
+        private Entry(StoredResponse response, long expiresAtMillis) {
+            this.response = response;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<String, Entry> {
+        private final int maxEntries;
+
+        private Segment(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.AdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Slf4j
+public class IngestAdmissionService {
+
+    private final AdmissionProperties admissionProperties;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Map<String, TokenBucket> customerBuckets = new ConcurrentHashMap<>();
+    private final Counter concurrencyRejects;
+    private final Counter customerRateRejects;
+
+    public IngestAdmissionService(AdmissionProperties admissionProperties, MeterRegistry meterRegistry) {
+        this.admissionProperties = admissionProperties;
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(admissionProperties.getConcurrency());
+
+        Gauge.builder("ingest.admission.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for ingest requests")
+                .register(meterRegistry);
+        Gauge.builder("ingest.admission.inflight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Ingest requests currently holding an admission permit")
+                .register(meterRegistry);
+        Gauge.builder("ingest.admission.queue.depth", concurrencyLimiter,
+                        AdaptiveConcurrencyLimiter::getEstimatedQueueDepth)
+                .description("Estimated admitted requests queueing behind slow dependencies rather than being served")
+                .register(meterRegistry);
+        Gauge.builder("ingest.admission.customer.buckets", customerBuckets, Map::size)
+                .register(meterRegistry);
+        this.concurrencyRejects = Counter.builder("ingest.admission.rejected")
+                .tag("reason", "concurrency-limit")
+                .register(meterRegistry);
+        this.customerRateRejects = Counter.builder("ingest.admission.rejected")
+                .tag("reason", "customer-rate")
+                .register(meterRegistry);
+    }
+
+    public Permit tryAcquire(String customerId) {
+        if (!admissionProperties.isEnabled()) {
+            return Permit.unlimited();
+        }
+
+        // Concurrency first, so a request shed for overload does not also use up the customer's rate
+        if (!concurrencyLimiter.tryAcquire()) {
+            concurrencyRejects.increment();
+            return Permit.rejected(admissionProperties.getConcurrency().getRetryAfterSeconds());
+        }
+
+        AdmissionProperties.CustomerRateConfig customerRate = admissionProperties.getCustomerRate();
+        if (customerRate.isEnabled() && customerId != null) {
+            TokenBucket bucket = customerBuckets.computeIfAbsent(customerId,
+                    id -> new TokenBucket(customerRate.getPermitsPerSecond(), customerRate.getBurst()));
+            long waitNanos = bucket.tryConsume();
+            if (waitNanos > 0) {
+                concurrencyLimiter.onIgnored();
+                customerRateRejects.increment();
+                return Permit.rejected(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+            }
+        }
+
+        return new Permit(concurrencyLimiter, System.nanoTime());
+    }
+
+    // Share of the adaptive concurrency limit currently in use by live ingest traffic
+    public double getUtilization() {
+        int limit = concurrencyLimiter.getLimit();
+        return limit <= 0 ? 0.0 : (double) concurrencyLimiter.getInFlight() / limit;
+    }
+
+    @Scheduled(fixedDelayString = "${admission.customer-rate.eviction-interval-ms:60000}")
+    public void evictIdleCustomerBuckets() {
+        long idleNanos = TimeUnit.SECONDS.toNanos(admissionProperties.getCustomerRate().getIdleEvictionSeconds());
+        int before = customerBuckets.size();
+        customerBuckets.values().removeIf(bucket -> bucket.isIdle(idleNanos));
+        log.debug("Evicted {} idle customer rate buckets", before - customerBuckets.size());
+    }
+
+    public static class Permit {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long startNanos;
+        private final boolean accepted;
+        private final long retryAfterSeconds;
+
+        private Permit(AdaptiveConcurrencyLimiter limiter, long startNanos) {
+            this.limiter = limiter;
+            this.startNanos = startNanos;
+            this.accepted = true;
+            this.retryAfterSeconds = 0;
+        }
+
+        private Permit(long retryAfterSeconds) {
+            this.limiter = null;
+            this.startNanos = 0;
+            this.accepted = false;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        static Permit unlimited() {
+            return new Permit(null, 0);
+        }
+
+        static Permit rejected(long retryAfterSeconds) {
+            return new Permit(retryAfterSeconds);
+        }
+
+        public boolean isAccepted() {
+            return accepted;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void release(boolean completed) {
+            if (limiter == null) {
+                return;
+            }
+            if (completed) {
+                limiter.onSuccess(System.nanoTime() - startNanos);
+            } else {
+                limiter.onDropped();
+            }
+        }
+    }
+}
@@ -1,26 +1,242 @@
 package com.transaction.ingestion.service.service;
 
-import com.riskplatform.common.event.TransactionEvent;
 import com.riskplatform.common.event.TransactionValidatedEvent;
-import com.transaction.ingestion.service.dto.*;
-import lombok.AllArgsConstructor;
+import com.transaction.ingestion.service.config.PublishRingProperties;
+import com.transaction.ingestion.service.tracing.Span;
+import com.transaction.ingestion.service.tracing.TraceContext;
+import com.transaction.ingestion.service.tracing.Tracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Request and listener threads only drop events into a preallocated ring; dedicated publisher threads drain the
+// rings in batches and hand each batch to the producer in one call, so producer stalls (metadata fetches, full
+// buffers) never show up in ingest latency. Events of one customer always go through the same ring, preserving their order.
+// The caller's trace travels with the event in the traceparent and X-Correlation-Id record headers; the send span
+// covers the time from hand-off to the broker's acknowledgement.
 @Service
 @Slf4j
-@AllArgsConstructor
 public class KafkaProducerService {
 
+    private static final long DRAIN_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
     private final KafkaTemplate<String, TransactionValidatedEvent> kafkaTemplate;
+    private final PublishRingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    private final PublishRing[] rings;
+    private final Thread[] publishers;
+    private final DistributionSummary batchSizes;
+    private final Counter blockedPublishes;
+    private volatile boolean running;
+
+    public KafkaProducerService(KafkaTemplate<String, TransactionValidatedEvent> kafkaTemplate,
+            PublishRingProperties properties, MeterRegistry meterRegistry, Tracer tracer) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+        int count = properties.isEnabled() ? Math.max(1, properties.getPublishers()) : 0;
+        this.rings = new PublishRing[count];
+        this.publishers = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            PublishRing ring = new PublishRing(properties.getCapacity(), properties.getWaitStrategy());
+            rings[i] = ring;
+            Gauge.builder("kafka.publish.ring.occupancy", ring, PublishRing::size)
+                    .tag("ring", String.valueOf(i))
+                    .description("Events waiting in the publish ring")
+                    .register(meterRegistry);
+            Gauge.builder("kafka.publish.ring.capacity", ring, PublishRing::capacity)
+                    .tag("ring", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        this.batchSizes = DistributionSummary.builder("kafka.publish.ring.batch.size")
+                .description("Events handed to KafkaTemplate per drain")
+                .register(meterRegistry);
+        this.blockedPublishes = meterRegistry.counter("kafka.publish.ring.blocked");
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < rings.length; i++) {
+            PublishRing ring = rings[i];
+            Thread thread = new Thread(() -> publishLoop(ring), "kafka-publisher-" + i);
+            thread.setDaemon(true);
+            publishers[i] = thread;
+            thread.start();
+        }
+    }
 
     public void sendMessage(String topic, TransactionValidatedEvent message) {
+        String key = message.getCustomerId();
+        Span span = tracer.startAsyncSpan("kafka.send " + topic).tag("transactionId", message.getTransactionId());
+        if (rings.length == 0) {
+            send(topic, key, message, span);
+            return;
+        }
+        PublishRing ring = rings[Math.floorMod(key != null ? key.hashCode() : 0, rings.length)];
+        if (properties.getFullPolicy() == PublishRingProperties.FullPolicy.DROP) {
+            if (!ring.tryPublish(topic, key, message, span)) {
+                span.error("publish ring full").end();
+                meterRegistry.counter("kafka.publish.ring.dropped", "topic", topic).increment();
+                log.warn("Publish ring full, dropped {} event for transaction {}", topic,
+                        message.getTransactionId());
+            }
+            return;
+        }
+        // Backpressure: the caller waits for a slot rather than sending itself, which could overtake the customer's
+        // events still in the ring. Only once the publishers have stopped is there no ring left to keep order with.
+        // A wait longer than max-block rejects the event, so a stalled producer fails callers instead of hanging them.
+        long blockTimeout = properties.getBlockTimeout().toNanos();
+        long deadline = System.nanoTime() + properties.getMaxBlock().toNanos();
+        boolean blocked = false;
+        while (!ring.publish(topic, key, message, span, Math.min(blockTimeout, deadline - System.nanoTime()))) {
+            if (!running) {
+                send(topic, key, message, span);
+                return;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                span.error("publish ring full").end();
+                meterRegistry.counter("kafka.publish.ring.rejected", "topic", topic).increment();
+                throw new KafkaException("Publish ring full for " + properties.getMaxBlock() + ", rejected " + topic
+                        + " event for transaction " + message.getTransactionId());
+            }
+            if (!blocked) {
+                blocked = true;
+                blockedPublishes.increment();
+                log.warn("Publish ring full for {}, waiting for the publisher", properties.getBlockTimeout());
+            }
+        }
+    }
+
+    private void publishLoop(PublishRing ring) {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        Batch batch = new Batch(batchSize);
+        while (running || ring.size() > 0) {
+            int drained = ring.drain(batch::add, batchSize, DRAIN_WAIT_NANOS);
+            if (drained > 0) {
+                batchSizes.record(drained);
+                sendBatch(batch);
+            }
+        }
+    }
+
+    // The whole batch goes to the producer in one template call, back to back, with no per-record future
+    private void sendBatch(Batch batch) {
+        try {
+            kafkaTemplate.execute(producer -> {
+                while (batch.handed < batch.records.size()) {
+                    ProducerRecord<String, TransactionValidatedEvent> record = batch.records.get(batch.handed);
+                    Span span = batch.spans.get(batch.handed);
+                    batch.handed++;
+                    try {
+                        producer.send(record, (metadata, e) -> complete(record, span, metadata, e));
+                    } catch (Exception e) {
+                        complete(record, span, null, e);
+                    }
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // No producer: none of the records not yet handed over were sent
+            for (int i = batch.handed; i < batch.records.size(); i++) {
+                complete(batch.records.get(i), batch.spans.get(i), null, e);
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void send(String topic, String key, TransactionValidatedEvent message, Span span) {
+        ProducerRecord<String, TransactionValidatedEvent> record = record(topic, key, message, span);
         try {
-            kafkaTemplate.send(topic, message.getCustomerId(), message);
-            log.info("Message sent to topic {}: {}", topic, message);
+            kafkaTemplate.send(record).whenComplete((result, e) ->
+                    complete(record, span, result != null ? result.getRecordMetadata() : null, e));
         } catch (Exception e) {
-            log.error("Error sending message to topic {}: {}", topic, e.getMessage(), e);
+            complete(record, span, null, e);
+        }
+    }
+
+    private void complete(ProducerRecord<String, TransactionValidatedEvent> record, Span span,
+            RecordMetadata metadata, Throwable e) {
+        if (e != null) {
+            span.error(e);
+            meterRegistry.counter("kafka.publish.failures", "topic", record.topic()).increment();
+            log.error("Error sending message to topic {}: {}", record.topic(), e.getMessage(), e);
+        } else {
+            span.tag("partition", metadata.partition()).tag("offset", metadata.offset());
+            if (log.isDebugEnabled()) {
+                log.debug("Message sent to topic {}: {}", record.topic(), record.value());
+            }
+        }
+        span.end();
+    }
+
+    private static ProducerRecord<String, TransactionValidatedEvent> record(String topic, String key,
+            TransactionValidatedEvent message, Span span) {
+        ProducerRecord<String, TransactionValidatedEvent> record = new ProducerRecord<>(topic, key, message);
+        addTraceHeaders(record.headers(), span.context());
+        return record;
+    }
+
+    static void addTraceHeaders(Headers headers, TraceContext context) {
+        if (context != null) {
+            headers.add(TraceContext.TRACEPARENT_HEADER, context.traceparent().getBytes(StandardCharsets.UTF_8));
+            headers.add(TraceContext.CORRELATION_ID_HEADER,
+                    context.getCorrelationId().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // Lets the publishers drain what is already in the rings before the producer is closed
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        long deadline = System.nanoTime() + properties.getShutdownTimeout().toNanos();
+        for (Thread publisher : publishers) {
+            if (publisher != null) {
+                publisher.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            }
+        }
+        kafkaTemplate.flush();
+    }
+
+    // Records drained from one ring, reused by its publisher thread for every batch
+    private static final class Batch {
+
+        private final List<ProducerRecord<String, TransactionValidatedEvent>> records;
+        private final List<Span> spans;
+        private int handed;
+
+        private Batch(int capacity) {
+            this.records = new ArrayList<>(capacity);
+            this.spans = new ArrayList<>(capacity);
+        }
+
+        private void add(String topic, String key, TransactionValidatedEvent event, Span span) {
+            records.add(record(topic, key, event, span));
+            spans.add(span);
+        }
+
+        private void clear() {
+            records.clear();
+            spans.clear();
+            handed = 0;
         }
     }
 }
@@ -0,0 +1,191 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.event.TransactionValidatedEvent;
+import com.transaction.ingestion.service.tracing.Span;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Preallocated multi-producer / single-consumer ring of pending Kafka sends. Producers claim a sequence with a CAS,
+// fill the slot in place and mark it published; the single publisher thread drains contiguous published slots in
+// batches. Slots are reused, so steady-state publishing allocates nothing beyond the event and its trace span.
+public class PublishRing {
+
+    public enum WaitStrategy {
+        // Lowest latency, burns a core while idle
+        BUSY_SPIN,
+        // Spins briefly, then yields the CPU
+        YIELDING,
+        // Spins, yields, then parks for short intervals
+        SLEEPING,
+        // Parks until a producer signals new work
+        BLOCKING
+    }
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long BLOCKING_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    static final class Slot {
+        String topic;
+        String key;
+        TransactionValidatedEvent event;
+        Span span;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final WaitStrategy waitStrategy;
+    // Next sequence to hand out to a producer
+    private final AtomicLong claimed = new AtomicLong();
+    // Every sequence below this has been handed to Kafka and its slot may be reused
+    private volatile long consumed;
+    private volatile Thread consumer;
+    private volatile boolean consumerParked;
+
+    public PublishRing(int capacity, WaitStrategy waitStrategy) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1L);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    // Claims a slot, fills it and publishes it; false when the ring is full
+    public boolean tryPublish(String topic, String key, TransactionValidatedEvent event, Span span) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) sequence & mask;
+        Slot slot = slots[index];
+        slot.topic = topic;
+        slot.key = key;
+        slot.event = event;
+        slot.span = span;
+        // Release store: the consumer that sees the sequence also sees the slot contents
+        published.lazySet(index, sequence);
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    // Publishes, waiting up to timeoutNanos for space; false when the ring stayed full
+    public boolean publish(String topic, String key, TransactionValidatedEvent event, Span span,
+            long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        int attempt = 0;
+        while (!tryPublish(topic, key, event, span)) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            backOff(attempt++);
+        }
+        return true;
+    }
+
+    public interface SlotHandler {
+        void handle(String topic, String key, TransactionValidatedEvent event, Span span);
+    }
+
+    // Called only from the publisher thread. Hands up to maxBatch published slots to the handler and returns how
+    // many were drained, waiting according to the wait strategy while the ring is empty.
+    public int drain(SlotHandler handler, int maxBatch, long maxWaitNanos) {
+        consumer = Thread.currentThread();
+        long next = consumed;
+        long deadline = System.nanoTime() + maxWaitNanos;
+        int attempt = 0;
+        while (published.get((int) next & mask) != next) {
+            if (System.nanoTime() - deadline >= 0) {
+                return 0;
+            }
+            idle(attempt++);
+        }
+
+        int count = 0;
+        try {
+            while (count < maxBatch && published.get((int) next & mask) == next) {
+                Slot slot = slots[(int) next & mask];
+                try {
+                    handler.handle(slot.topic, slot.key, slot.event, slot.span);
+                } finally {
+                    slot.topic = null;
+                    slot.key = null;
+                    slot.event = null;
+                    slot.span = null;
+                    next++;
+                    count++;
+                }
+            }
+        } finally {
+            // Free the whole batch at once so producers see one volatile write per batch rather than per event
+            consumed = next;
+        }
+        return count;
+    }
+
+    public long size() {
+        return Math.max(0, claimed.get() - consumed);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    private void idle(int attempt) {
+        switch (waitStrategy) {
+            case BUSY_SPIN -> Thread.onSpinWait();
+            case YIELDING -> {
+                if (attempt < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            case SLEEPING -> {
+                if (attempt < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+            }
+            case BLOCKING -> {
+                consumerParked = true;
+                // Re-check after announcing the park so a producer that published just before cannot be missed;
+                // the timeout bounds the wait if an unpark races with the flag anyway
+                if (published.get((int) consumed & mask) != consumed) {
+                    LockSupport.parkNanos(this, BLOCKING_PARK_NANOS);
+                }
+                consumerParked = false;
+            }
+        }
+    }
+
+    // Producers waiting for space never busy-spin for long: the ring being full means Kafka is the bottleneck
+    private void backOff(int attempt) {
+        if (attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(SLEEP_NANOS);
+        }
+    }
+}
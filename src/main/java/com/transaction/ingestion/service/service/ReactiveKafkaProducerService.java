@@ -0,0 +1,44 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.event.TransactionValidatedEvent;
+import com.transaction.ingestion.service.tracing.TraceContext;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+@Service
+@Profile("reactive")
+@Slf4j
+@AllArgsConstructor
+public class ReactiveKafkaProducerService {
+
+    private final KafkaSender<String, TransactionValidatedEvent> reactiveKafkaSender;
+
+    // The trace travels in the same record headers as on the servlet stack
+    public Mono<Void> sendMessage(String topic, TransactionValidatedEvent message, TraceContext trace) {
+        ProducerRecord<String, TransactionValidatedEvent> producerRecord = new ProducerRecord<>(topic,
+                message.getCustomerId(), message);
+        KafkaProducerService.addTraceHeaders(producerRecord.headers(), trace);
+        SenderRecord<String, TransactionValidatedEvent, String> record = SenderRecord.create(producerRecord,
+                message.getTransactionId());
+        return reactiveKafkaSender.send(Mono.just(record))
+                .doOnNext(result -> {
+                    if (result.exception() != null) {
+                        log.error("Error sending message to topic {}: {}", topic, result.exception().getMessage(),
+                                result.exception());
+                    } else {
+                        log.debug("Message sent to topic {}: {}", topic, result.correlationMetadata());
+                    }
+                })
+                .then()
+                .onErrorResume(e -> {
+                    log.error("Error sending message to topic {}: {}", topic, e.getMessage(), e);
+                    return Mono.empty();
+                });
+    }
+}
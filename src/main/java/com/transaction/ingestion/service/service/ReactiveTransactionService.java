@@ -0,0 +1,151 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Customer;
+import com.riskplatform.common.entity.RejectedTransaction;
+import com.riskplatform.common.entity.Transaction;
+import com.transaction.ingestion.service.client.ReactiveMongoServiceClient;
+import com.transaction.ingestion.service.dto.ErrorResponse;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.model.BusinessRejection;
+import com.transaction.ingestion.service.rules.RuleContext;
+import com.transaction.ingestion.service.tracing.TraceContext;
+import com.transaction.ingestion.service.tracing.Tracer;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Non-blocking variant of TransactionService.processTransaction; validation rules, payloads and the customer lookup
+// (snapshot, batching loader or lookup pool) are shared. The request's trace context is passed in, since a reactive
+// request has no current span on the threads it runs on.
+@Service
+@Profile("reactive")
+@AllArgsConstructor
+@Slf4j
+public class ReactiveTransactionService {
+
+    private final TransactionService transactionService;
+    private final ReactiveMongoServiceClient reactiveMongoServiceClient;
+    private final CustomerLookupService customerLookupService;
+    private final ReactiveKafkaProducerService reactiveKafkaProducerService;
+    private final RecentTransactionCache recentTransactionCache;
+    private final ValidationRuleRegistry validationRuleRegistry;
+
+    public Mono<ResponseEntity<?>> processTransaction(IngestRequest ingestRequest, TraceContext trace) {
+        ValidationRuleSnapshot rules = validationRuleRegistry.current();
+        List<ErrorResponse.Violation> violations = transactionService.validateStructural(ingestRequest, rules);
+        if (!violations.isEmpty()) {
+            return Mono.just(validationFailed(violations));
+        }
+
+        return loadCustomer(ingestRequest.getCustomerId())
+                .flatMap(customer -> processWithCustomer(ingestRequest, customer.orElse(null), rules, trace));
+    }
+
+    // The lookup future may be shared with other requests for the same customer, so a cancel or timeout here must
+    // not cancel it. Subscribing on boundedElastic keeps a caller-runs lookup off the event loop.
+    private Mono<Optional<Customer>> loadCustomer(String customerId) {
+        return Mono.fromFuture(() -> customerLookupService.loadCustomer(customerId), true)
+                .subscribeOn(Schedulers.boundedElastic())
+                .timeout(customerLookupService.getTimeout())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    public Mono<ResponseEntity<Transaction>> findTransactionById(String transactionId) {
+        Transaction cached = recentTransactionCache.getValidated(transactionId);
+        if (cached != null) {
+            return Mono.just(ResponseEntity.ok(cached));
+        }
+        return reactiveMongoServiceClient.findTransactionById(transactionId)
+                .doOnNext(recentTransactionCache::put)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private Mono<ResponseEntity<?>> processWithCustomer(IngestRequest ingestRequest, Customer customer,
+            ValidationRuleSnapshot rules, TraceContext trace) {
+        RuleContext ruleContext = transactionService.newRuleContext(ingestRequest, () -> customer, rules);
+        // The rules take per-customer locks and can wait on lookups, so they run on boundedElastic rather than the
+        // event loop. A cancel while they run releases the reservation, whichever of the two finishes last.
+        AtomicBoolean cancelled = new AtomicBoolean();
+        return Mono.fromCallable(() -> {
+                    BusinessRejection rejection = transactionService.evaluateBusinessRules(ruleContext);
+                    if (cancelled.get()) {
+                        transactionService.releaseDailySpend(ruleContext);
+                    }
+                    return Optional.ofNullable(rejection);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnCancel(() -> {
+                    cancelled.set(true);
+                    transactionService.releaseDailySpend(ruleContext);
+                })
+                .flatMap(rejection -> rejection.isPresent()
+                        ? reject(ingestRequest, rejection.get(), trace)
+                        : accept(ingestRequest, ruleContext, trace));
+    }
+
+    private Mono<ResponseEntity<?>> accept(IngestRequest ingestRequest, RuleContext ruleContext, TraceContext trace) {
+        List<ErrorResponse.Violation> violations = transactionService.validateSchemaCompliance(ingestRequest);
+        if (!violations.isEmpty()) {
+            transactionService.releaseDailySpend(ruleContext);
+            return Mono.just(validationFailed(violations));
+        }
+
+        String transactionId = transactionService.newTransactionId();
+        Transaction transaction = transactionService.buildTransaction(ingestRequest, transactionId);
+
+        // A client disconnect cancels the save as well as failing it; either way the reservation goes back. Once
+        // the save has succeeded the reservation is taken, so a cancel during the publish cannot release it.
+        return reactiveMongoServiceClient.saveTransaction(transaction)
+                .doOnError(e -> transactionService.releaseDailySpend(ruleContext))
+                .doOnCancel(() -> transactionService.releaseDailySpend(ruleContext))
+                .doOnNext(saved -> ruleContext.takeReservedDailySpend())
+                .doOnNext(recentTransactionCache::put)
+                .flatMap(saved -> reactiveKafkaProducerService
+                        .sendMessage("transaction-received", transactionService.buildReceivedEvent(saved,
+                                Tracer.correlationIdFor(trace, saved.getTransactionId())), trace))
+                .then(Mono.<ResponseEntity<?>>fromSupplier(
+                        () -> ResponseEntity.ok(transactionService.buildIngestResponse(transactionId))));
+    }
+
+    private Mono<ResponseEntity<?>> reject(IngestRequest request, BusinessRejection rejection, TraceContext trace) {
+        String transactionId = transactionService.newTransactionId();
+        String correlationId = Tracer.correlationIdFor(trace, transactionId);
+        RejectedTransaction rejectedTransaction = transactionService.buildRejectedTransaction(request,
+                rejection.getReason(), rejection.getCustomerLimit(), transactionId, correlationId);
+
+        Mono<Void> audit = reactiveMongoServiceClient.saveRejectedTransaction(rejectedTransaction)
+                .doOnNext(saved -> log.info("Saved rejected transaction {} to audit trail",
+                        rejectedTransaction.getTransactionId()))
+                .onErrorResume(e -> {
+                    log.error("Error saving rejected transaction to audit trail: {}", e.getMessage(), e);
+                    return Mono.empty();
+                })
+                .then();
+        Mono<Void> publish = reactiveKafkaProducerService.sendMessage("transaction-rejected",
+                transactionService.buildRejectedEvent(request, rejection.getReason(), rejection.getCustomerLimit(),
+                        transactionId, correlationId), trace);
+
+        return Mono.when(audit, publish)
+                .then(Mono.<ResponseEntity<?>>fromSupplier(() -> new ResponseEntity<>(
+                        transactionService.buildRejectedBody(rejection.getReason(), rejection.getMessage(), request,
+                                rejection.getCustomerLimit()),
+                        HttpStatus.BAD_REQUEST)));
+    }
+
+    private ResponseEntity<?> validationFailed(List<ErrorResponse.Violation> violations) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                new ErrorResponse.Error("VALIDATION_FAILED", "Invalid transaction request", violations));
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+}
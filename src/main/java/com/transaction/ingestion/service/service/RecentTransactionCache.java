@@ -0,0 +1,176 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.riskplatform.common.entity.Transaction;
+import com.transaction.ingestion.service.config.CacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Recently ingested transactions kept as Smile-encoded bytes and bounded by total size rather than entry count.
+// Reads are lock-free; writes and FIFO eviction are serialized. An unvalidated entry goes stale as soon as another
+// instance validates the transaction, so only AsyncValidationProcessor, which needs exactly that received state,
+// reads it; API reads go through getValidated.
+@Component
+@Slf4j
+public class RecentTransactionCache {
+
+    // Rough per-entry cost of the map node, entry object and key beyond the payload itself
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final CacheProperties cacheProperties;
+    private final ObjectMapper smileMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ArrayDeque<QueueNode> insertionOrder = new ArrayDeque<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    private long totalBytes;
+    private long sequence;
+
+    public RecentTransactionCache(CacheProperties cacheProperties, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.cacheProperties = cacheProperties;
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.hits = meterRegistry.counter("cache.recent.transactions.requests", "result", "hit");
+        this.misses = meterRegistry.counter("cache.recent.transactions.requests", "result", "miss");
+        Gauge.builder("cache.recent.transactions.hit.ratio", this, RecentTransactionCache::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("cache.recent.transactions.bytes", this, RecentTransactionCache::getTotalBytes)
+                .register(meterRegistry);
+        Gauge.builder("cache.recent.transactions.size", entries, Map::size)
+                .register(meterRegistry);
+    }
+
+    public Transaction get(String transactionId) {
+        return get(transactionId, false);
+    }
+
+    // Only entries written after validation; a transaction still awaiting validation is read from mongo-service
+    public Transaction getValidated(String transactionId) {
+        return get(transactionId, true);
+    }
+
+    private Transaction get(String transactionId, boolean validatedOnly) {
+        if (!cacheProperties.isEnabled() || transactionId == null) {
+            return null;
+        }
+        Entry entry = entries.get(transactionId);
+        if (entry == null || entry.expiresAtMillis < System.currentTimeMillis()
+                || (validatedOnly && !entry.validated)) {
+            misses.increment();
+            return null;
+        }
+        try {
+            Transaction transaction = smileMapper.readValue(entry.data, Transaction.class);
+            hits.increment();
+            return transaction;
+        } catch (Exception e) {
+            log.warn("Dropping unreadable cache entry for transaction {}: {}", transactionId, e.getMessage());
+            invalidate(transactionId, entry);
+            misses.increment();
+            return null;
+        }
+    }
+
+    public void put(Transaction transaction) {
+        if (!cacheProperties.isEnabled() || transaction == null || transaction.getTransactionId() == null) {
+            return;
+        }
+        byte[] data;
+        try {
+            data = smileMapper.writeValueAsBytes(transaction);
+        } catch (Exception e) {
+            log.warn("Unable to cache transaction {}: {}", transaction.getTransactionId(), e.getMessage());
+            return;
+        }
+
+        boolean validated = transaction.getValidationDetails() != null;
+        long ttlMillis = validated
+                ? cacheProperties.getValidatedTtl().toMillis()
+                : cacheProperties.getReceivedTtl().toMillis();
+        String key = transaction.getTransactionId();
+        long size = data.length + key.length() * 2L + ENTRY_OVERHEAD_BYTES;
+        if (size > cacheProperties.getMaxBytes()) {
+            return;
+        }
+
+        synchronized (this) {
+            Entry entry = new Entry(data, size, System.currentTimeMillis() + ttlMillis, validated, ++sequence);
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalBytes -= previous.size;
+            }
+            totalBytes += size;
+            insertionOrder.addLast(new QueueNode(key, entry.sequence));
+            evict();
+        }
+    }
+
+    private synchronized void invalidate(String transactionId, Entry entry) {
+        if (entries.remove(transactionId, entry)) {
+            totalBytes -= entry.size;
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void evict() {
+        while (totalBytes > cacheProperties.getMaxBytes() && !insertionOrder.isEmpty()) {
+            QueueNode node = insertionOrder.pollFirst();
+            Entry entry = entries.get(node.key);
+            // Skip queue nodes left behind by entries that have since been replaced
+            if (entry != null && entry.sequence == node.sequence) {
+                entries.remove(node.key);
+                totalBytes -= entry.size;
+            }
+        }
+        // Keep stale queue nodes from piling up when the same transactions are rewritten repeatedly
+        if (insertionOrder.size() > entries.size() * 2 + 1024) {
+            insertionOrder.removeIf(node -> {
+                Entry entry = entries.get(node.key);
+                return entry == null || entry.sequence != node.sequence;
+            });
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+
+    private static final class Entry {
+        private final byte[] data;
+        private final long size;
+        private final long expiresAtMillis;
+        private final boolean validated;
+        private final long sequence;
+
+        private Entry(byte[] data, long size, long expiresAtMillis, boolean validated, long sequence) {
+            this.data = data;
+            this.size = size;
+            this.expiresAtMillis = expiresAtMillis;
+            this.validated = validated;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class QueueNode {
+        private final String key;
+        private final long sequence;
+
+        private QueueNode(String key, long sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.ScreeningProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.transaction.ingestion.service.constant.Constant.SANCTIONED_COUNTRIES;
+import static com.transaction.ingestion.service.constant.Constant.SANCTIONED_MERCHANTS;
+
+// Holds the customer blacklist and the sanctions lists together with a Bloom filter over each. Almost every lookup
+// is a clean miss, which the filter answers with a few hashes; only possible hits reach the exact set. Refreshes
+// rebuild each list with its filter off the hot path and swap them in atomically.
+@Service
+@Slf4j
+public class ScreeningListService {
+
+    private final ScreeningProperties properties;
+    private final ResourceLoader resourceLoader;
+    private final AtomicReference<Lists> lists = new AtomicReference<>();
+    private final Counter refreshFailures;
+    private final Counter[] blacklistProbes;
+    private final Counter[] merchantProbes;
+    private final Counter[] countryProbes;
+
+    public ScreeningListService(ScreeningProperties properties, ResourceLoader resourceLoader,
+            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.resourceLoader = resourceLoader;
+        this.refreshFailures = meterRegistry.counter("screening.lists.refresh.failures");
+        this.blacklistProbes = probeCounters(meterRegistry, "blacklist");
+        this.merchantProbes = probeCounters(meterRegistry, "merchants");
+        this.countryProbes = probeCounters(meterRegistry, "countries");
+        // Until the first load only the built-in sanctions lists are known
+        this.lists.set(build(Set.of(), SANCTIONED_MERCHANTS, SANCTIONED_COUNTRIES));
+        Gauge.builder("screening.lists.entries", this, service -> service.lists.get().merchants.size())
+                .tag("list", "merchants")
+                .register(meterRegistry);
+        Gauge.builder("screening.lists.entries", this, service -> service.lists.get().countries.size())
+                .tag("list", "countries")
+                .register(meterRegistry);
+        Gauge.builder("screening.lists.entries", this, service -> service.lists.get().blacklist.size())
+                .tag("list", "blacklist")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void loadInitialLists() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${screening.refresh-interval:5m}",
+            initialDelayString = "${screening.refresh-interval:5m}")
+    public void refresh() {
+        try {
+            Set<String> blacklist = read(properties.getBlacklistedCustomersLocation());
+            Set<String> merchants = read(properties.getSanctionedMerchantsLocation());
+            Set<String> countries = read(properties.getSanctionedCountriesLocation());
+            Lists built = build(blacklist != null ? blacklist : Set.of(),
+                    merchants != null ? merchants : SANCTIONED_MERCHANTS,
+                    countries != null ? countries : SANCTIONED_COUNTRIES);
+            lists.set(built);
+            log.debug("Loaded screening lists: {} blacklisted customers, {} merchants, {} countries",
+                    built.blacklist.size(), built.merchants.size(), built.countries.size());
+        } catch (Exception e) {
+            refreshFailures.increment();
+            log.error("Failed to refresh screening lists, keeping the current lists: {}", e.getMessage());
+        }
+    }
+
+    // The list only adds to the customer's own blacklisted flag; it never clears a flagged customer
+    public boolean isListedAsBlacklisted(String customerId) {
+        Lists current = lists.get();
+        return customerId != null && record(blacklistProbes, current.blacklistFilter.mightContain(customerId))
+                && current.blacklist.contains(customerId);
+    }
+
+    public boolean isMerchantSanctioned(String merchant) {
+        Lists current = lists.get();
+        return merchant != null && record(merchantProbes, current.merchantFilter.mightContain(merchant))
+                && current.merchants.contains(merchant);
+    }
+
+    public boolean isCountrySanctioned(String country) {
+        Lists current = lists.get();
+        return country != null && record(countryProbes, current.countryFilter.mightContain(country))
+                && current.countries.contains(country);
+    }
+
+    private static boolean record(Counter[] probes, boolean possibleHit) {
+        probes[possibleHit ? 1 : 0].increment();
+        return possibleHit;
+    }
+
+    // [0] counts definite negatives, [1] possible hits sent on to the exact set
+    private static Counter[] probeCounters(MeterRegistry meterRegistry, String list) {
+        return new Counter[] {
+                meterRegistry.counter("screening.prefilter", "list", list, "result", "negative"),
+                meterRegistry.counter("screening.prefilter", "list", list, "result", "possible")
+        };
+    }
+
+    private Lists build(Set<String> blacklist, Set<String> merchants, Set<String> countries) {
+        double rate = properties.getFalsePositiveRate();
+        return new Lists(Set.copyOf(blacklist), BloomFilter.of(blacklist, rate), Set.copyOf(merchants),
+                BloomFilter.of(merchants, rate), Set.copyOf(countries), BloomFilter.of(countries, rate));
+    }
+
+    private Set<String> read(String location) throws IOException {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        Resource resource = resourceLoader.getResource(location);
+        Set<String> entries = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                String entry = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                if (!entry.isEmpty()) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static final class Lists {
+
+        private final Set<String> blacklist;
+        private final BloomFilter blacklistFilter;
+        private final Set<String> merchants;
+        private final BloomFilter merchantFilter;
+        private final Set<String> countries;
+        private final BloomFilter countryFilter;
+
+        Lists(Set<String> blacklist, BloomFilter blacklistFilter, Set<String> merchants, BloomFilter merchantFilter,
+                Set<String> countries, BloomFilter countryFilter) {
+            this.blacklist = blacklist;
+            this.blacklistFilter = blacklistFilter;
+            this.merchants = merchants;
+            this.merchantFilter = merchantFilter;
+            this.countries = countries;
+            this.countryFilter = countryFilter;
+        }
+    }
+}
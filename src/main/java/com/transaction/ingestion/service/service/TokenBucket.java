@@ -0,0 +1,55 @@
+package com.transaction.ingestion.service.service;
+
+import java.util.concurrent.TimeUnit;
+
+public class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long lastUsedNanos;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000.0;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+        this.lastUsedNanos = lastRefillNanos;
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanos until the next token is available
+    public synchronized long tryConsume() {
+        long now = System.nanoTime();
+        refill(now);
+        lastUsedNanos = now;
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return 0;
+        }
+        return (long) Math.ceil((1.0 - tokens) / permitsPerNano);
+    }
+
+    // Blocks the calling thread until a token is available
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        while ((waitNanos = tryConsume()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    public synchronized boolean isIdle(long idleNanos) {
+        long now = System.nanoTime();
+        refill(now);
+        return tokens >= capacity && now - lastUsedNanos > idleNanos;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * permitsPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
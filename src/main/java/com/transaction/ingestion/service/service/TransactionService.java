@@ -2,7 +2,6 @@ package com.transaction.ingestion.service.service;
 
 import com.riskplatform.common.event.TransactionValidatedEvent;
 import com.transaction.ingestion.service.client.MongoServiceClient;
-import com.transaction.ingestion.service.config.ValidationProperties;
 import com.riskplatform.common.entity.Customer;
 import com.riskplatform.common.entity.RejectedTransaction;
 import com.riskplatform.common.entity.Transaction;
@@ -10,6 +9,12 @@ import com.riskplatform.common.entity.Transaction;
 import com.riskplatform.common.event.TransactionEvent;
 import com.riskplatform.common.event.RejectionDetails;
 import com.transaction.ingestion.service.dto.*;
+import com.transaction.ingestion.service.model.BusinessRejection;
+import com.transaction.ingestion.service.model.Money;
+import com.transaction.ingestion.service.rules.BusinessRuleEngine;
+import com.transaction.ingestion.service.rules.RuleContext;
+import com.transaction.ingestion.service.tracing.Span;
+import com.transaction.ingestion.service.tracing.Tracer;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -17,8 +22,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static com.transaction.ingestion.service.constant.Constant.*;
 
@@ -27,54 +33,84 @@ import static com.transaction.ingestion.service.constant.Constant.*;
 @Slf4j
 public class TransactionService {
 
-    private final CustomerService customerService;
     private final KafkaProducerService kafkaProducerService;
-    private final ValidationProperties validationProperties;
+    private final ValidationRuleRegistry validationRuleRegistry;
     private final MongoServiceClient mongoServiceClient;
+    private final CustomerLookupService customerLookupService;
+    private final RecentTransactionCache recentTransactionCache;
+    private final FxRateService fxRateService;
+    private final DailySpendTracker dailySpendTracker;
+    private final BusinessRuleEngine businessRuleEngine;
+    private final Tracer tracer;
 
     public ResponseEntity<?> processTransaction(IngestRequest ingestRequest) {
-        List<ErrorResponse.Violation> violations = validateStructural(ingestRequest);
+        ValidationRuleSnapshot rules = validationRuleRegistry.current();
+        List<ErrorResponse.Violation> violations;
+        try (Span span = tracer.startSpan("validate.structural")) {
+            violations = validateStructural(ingestRequest, rules);
+            span.tag("violations", violations.size());
+        }
         if (!violations.isEmpty()) {
             ErrorResponse errorResponse = new ErrorResponse(
                     new ErrorResponse.Error("VALIDATION_FAILED", "Invalid transaction request", violations));
             return ResponseEntity.badRequest().body(errorResponse);
         }
 
-        ResponseEntity<?> businessValidationResult = validateBusinessRules(ingestRequest);
-        if (businessValidationResult != null) {
-            return businessValidationResult;
+        // Start the (batched) customer lookup now so it overlaps with the request-only rules
+        CompletableFuture<Customer> customer = customerLookupService.loadCustomer(ingestRequest.getCustomerId());
+        RuleContext ruleContext = newRuleContext(ingestRequest,
+                () -> customerLookupService.awaitCustomer(customer, ingestRequest.getCustomerId()), rules);
+        BusinessRejection rejection;
+        try (Span span = tracer.startSpan("validate.business-rules")) {
+            rejection = evaluateBusinessRules(ruleContext);
+            span.tag("rejected", rejection != null);
+        }
+        if (rejection != null) {
+            return buildRejectedResponse(rejection.getReason(), rejection.getMessage(), ingestRequest,
+                    rejection.getCustomerLimit());
         }
 
-        violations = validateSchemaCompliance(ingestRequest);
+        try (Span span = tracer.startSpan("validate.schema")) {
+            violations = validateSchemaCompliance(ingestRequest);
+            span.tag("violations", violations.size());
+        }
         if (!violations.isEmpty()) {
+            releaseDailySpend(ruleContext);
             ErrorResponse errorResponse = new ErrorResponse(
                     new ErrorResponse.Error("VALIDATION_FAILED", "Invalid transaction request", violations));
             return ResponseEntity.badRequest().body(errorResponse);
         }
 
-        String transactionId = "T" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8);
+        String transactionId = newTransactionId();
 
         Transaction transaction = buildTransaction(ingestRequest, transactionId);
 
-        Transaction save = mongoServiceClient.saveTransaction(transaction);
+        Transaction save;
+        try {
+            save = mongoServiceClient.saveTransaction(transaction);
+        } catch (RuntimeException e) {
+            releaseDailySpend(ruleContext);
+            throw e;
+        }
+        recentTransactionCache.put(save);
 
         publishTransactionReceivedEvent(save);
 
-        IngestResponse response = new IngestResponse(
-                transactionId,
-                "RECEIVED",
-                "Transaction received and queued for validation",
-                Instant.now());
-
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(buildIngestResponse(transactionId));
     }
 
     public ResponseEntity<Transaction> findTransactionById(String transactionId) {
+        Transaction cached = recentTransactionCache.getValidated(transactionId);
+        if (cached != null) {
+            return ResponseEntity.ok(cached);
+        }
+
         Optional<Transaction> transaction = mongoServiceClient.findTransactionById(transactionId);
+        transaction.ifPresent(recentTransactionCache::put);
         return transaction.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    private List<ErrorResponse.Violation> validateStructural(IngestRequest request) {
+    List<ErrorResponse.Violation> validateStructural(IngestRequest request, ValidationRuleSnapshot rules) {
         List<ErrorResponse.Violation> violations = new ArrayList<>();
 
         if (request.getCustomerId() == null || !CUSTOMER_ID_PATTERN.matcher(request.getCustomerId()).matches()) {
@@ -87,6 +123,11 @@ public class TransactionService {
 
         if (request.getCurrency() == null || !ISO_CURRENCY_PATTERN.matcher(request.getCurrency()).matches()) {
             violations.add(new ErrorResponse.Violation("currency", "Currency must be valid ISO 4217 code"));
+        } else if (request.getAmount() != null
+                && !Money.hasWholeMinorUnits(request.getAmount(), request.getCurrency())) {
+            // Rejected rather than rounded, so the stored amount is always the amount that was sent
+            violations.add(new ErrorResponse.Violation("amount",
+                    "Amount has more decimal places than " + request.getCurrency() + " allows"));
         }
 
         if (request.getMerchant() == null || request.getMerchant().isEmpty() || request.getMerchant().length() > 100) {
@@ -98,8 +139,8 @@ public class TransactionService {
         } else {
             Instant now = Instant.now();
             log.info("current time: {}", now);
-            Instant minTime = now.minus(validationProperties.getTimestamp().getTimeWindowMinutes(), ChronoUnit.MINUTES);
-            Instant maxTime = now.plus(validationProperties.getTimestamp().getTimeWindowMinutes(), ChronoUnit.MINUTES);
+            Instant minTime = now.minus(rules.getTimestampWindow());
+            Instant maxTime = now.plus(rules.getTimestampWindow());
 
             if (request.getTimestamp().isAfter(maxTime) || request.getTimestamp().isBefore(minTime)) {
                 violations.add(new ErrorResponse.Violation("timestamp", "Timestamp must be within acceptable window"));
@@ -119,35 +160,31 @@ public class TransactionService {
         return violations;
     }
 
-    private ResponseEntity<?> validateBusinessRules(IngestRequest request) {
-        Customer customer = mongoServiceClient.findCustomerByCustomerId(request.getCustomerId()).orElse(null);
-        if (!customerService.isCustomerActive(customer)) {
-            return buildRejectedResponse("CUSTOMER_INACTIVE", "Customer is not active", request);
-        }
-
-        if (customerService.isCustomerBlacklisted(customer)) {
-            return buildRejectedResponse("CUSTOMER_BLACKLISTED", "Customer is blacklisted", request);
-        }
+    RuleContext newRuleContext(IngestRequest request, Supplier<Customer> customer, ValidationRuleSnapshot rules) {
+        return new RuleContext(request, rules, fxRateService.current(), customer);
+    }
 
-        double customerLimit = customerService.getCustomerLimit(customer);
-        if (request.getAmount() > customerLimit) {
-            return buildRejectedResponse("LIMIT_EXCEEDED", "Transaction amount exceeds customer limit", request,
-                    customerLimit);
-        }
+    // For warm-up: same rules and rates, but nothing is reserved and the rule stats are left alone
+    RuleContext newDryRunRuleContext(IngestRequest request, Supplier<Customer> customer,
+            ValidationRuleSnapshot rules) {
+        return new RuleContext(request, rules, fxRateService.current(), customer, true);
+    }
 
-        if (!isMerchantRegistered(request.getMerchant())) {
-            return buildRejectedResponse("MERCHANT_NOT_REGISTERED", "Merchant is not registered in system", request);
-        }
+    // Runs the business rule plan; the customer supplier is only called once a customer rule needs it
+    BusinessRejection evaluateBusinessRules(RuleContext context) {
+        return businessRuleEngine.evaluate(context);
+    }
 
-        if (validationProperties.getRules().isEnableDuplicateCheck() &&
-                isDuplicateTransaction(request)) {
-            return buildRejectedResponse("DUPLICATE_TRANSACTION", "Duplicate transaction detected", request);
+    // Undoes the daily spend reservation made by evaluateBusinessRules when the transaction is not accepted. The
+    // amount is the one that was reserved, not a fresh conversion, so an FX refresh in between cannot leak spend.
+    void releaseDailySpend(RuleContext context) {
+        long reserved = context.takeReservedDailySpend();
+        if (reserved > 0) {
+            dailySpendTracker.release(context.getRequest().getCustomerId(), reserved);
         }
-
-        return null;
     }
 
-    private List<ErrorResponse.Violation> validateSchemaCompliance(IngestRequest request) {
+    List<ErrorResponse.Violation> validateSchemaCompliance(IngestRequest request) {
         List<ErrorResponse.Violation> violations = new ArrayList<>();
 
         if (request.getCustomerId() == null)
@@ -168,13 +205,22 @@ public class TransactionService {
         return violations;
     }
 
-    private ResponseEntity<RejectedResponse> buildRejectedResponse(String reason, String message,
-            IngestRequest request) {
-        return buildRejectedResponse(reason, message, request, null);
-    }
-
     private ResponseEntity<RejectedResponse> buildRejectedResponse(String reason, String message, IngestRequest request,
             Double customerLimit) {
+        RejectedResponse response = buildRejectedBody(reason, message, request, customerLimit);
+
+        // The audit record and the event describe the same rejection, so they share one id and correlation id
+        String transactionId = newTransactionId();
+        String correlationId = tracer.correlationIdFor(transactionId);
+
+        saveRejectedTransaction(request, reason, customerLimit, transactionId, correlationId);
+
+        publishTransactionRejectedEvent(request, reason, customerLimit, transactionId, correlationId);
+
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    RejectedResponse buildRejectedBody(String reason, String message, IngestRequest request, Double customerLimit) {
         RejectedResponse.Details details = null;
         if (request != null) {
             details = new RejectedResponse.Details(
@@ -184,21 +230,27 @@ public class TransactionService {
                     Instant.now());
         }
 
-        RejectedResponse response = new RejectedResponse(
+        return new RejectedResponse(
                 new RejectedResponse.Error("TRANSACTION_REJECTED", message, reason, details));
+    }
 
-        saveRejectedTransaction(request, reason, customerLimit);
-
-        publishTransactionRejectedEvent(request, reason, customerLimit);
+    IngestResponse buildIngestResponse(String transactionId) {
+        return new IngestResponse(
+                transactionId,
+                "RECEIVED",
+                "Transaction received and queued for validation",
+                Instant.now());
+    }
 
-        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    String newTransactionId() {
+        return "T" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8);
     }
 
-    private Transaction buildTransaction(IngestRequest ingestRequest, String transactionId) {
+    Transaction buildTransaction(IngestRequest ingestRequest, String transactionId) {
         return Transaction.builder()
                 .transactionId(transactionId)
                 .customerId(ingestRequest.getCustomerId())
-                .amount(java.math.BigDecimal.valueOf(ingestRequest.getAmount()))
+                .amount(Money.of(ingestRequest.getAmount(), ingestRequest.getCurrency()).toBigDecimal())
                 .currency(ingestRequest.getCurrency())
                 .merchant(ingestRequest.getMerchant())
                 .merchantCategory(ingestRequest.getMerchantCategory())
@@ -213,7 +265,15 @@ public class TransactionService {
     }
 
     private void publishTransactionReceivedEvent(Transaction transaction) {
-        TransactionValidatedEvent event = TransactionValidatedEvent.builder()
+        kafkaProducerService.sendMessage("transaction-received", buildReceivedEvent(transaction));
+    }
+
+    TransactionValidatedEvent buildReceivedEvent(Transaction transaction) {
+        return buildReceivedEvent(transaction, tracer.correlationIdFor(transaction.getTransactionId()));
+    }
+
+    TransactionValidatedEvent buildReceivedEvent(Transaction transaction, String correlationId) {
+        return TransactionValidatedEvent.builder()
                 .eventId(transaction.getId())
                 .transactionId(transaction.getTransactionId())
                 .customerId(transaction.getCustomerId())
@@ -225,15 +285,21 @@ public class TransactionService {
                 .device(transaction.getDevice() != null ? transaction.getDevice() : null)
                 .eventType("TransactionReceived")
                 .eventTimestamp(Instant.now())
-                .correlationId("corr-" + transaction.getTransactionId())
+                .correlationId(correlationId)
                 .build();
-        kafkaProducerService.sendMessage("transaction-received", event);
     }
 
-    private void publishTransactionRejectedEvent(IngestRequest request, String reason, Double customerLimit) {
+    private void publishTransactionRejectedEvent(IngestRequest request, String reason, Double customerLimit,
+            String transactionId, String correlationId) {
         if (request == null)
             return;
 
+        kafkaProducerService.sendMessage("transaction-rejected",
+                buildRejectedEvent(request, reason, customerLimit, transactionId, correlationId));
+    }
+
+    TransactionValidatedEvent buildRejectedEvent(IngestRequest request, String reason, Double customerLimit,
+            String transactionId, String correlationId) {
         RejectionDetails rejectionDetails = null;
         if (request.getAmount() != null && customerLimit != null) {
             rejectionDetails = RejectionDetails.builder()
@@ -242,9 +308,7 @@ public class TransactionService {
                     .build();
         }
 
-        String transactionId = "T" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8);
-
-        TransactionValidatedEvent event = TransactionValidatedEvent.builder()
+        return TransactionValidatedEvent.builder()
                 .eventId("evt-" + transactionId + "-1")
                 .transactionId(transactionId)
                 .customerId(request.getCustomerId())
@@ -256,82 +320,41 @@ public class TransactionService {
                 .device(request.getDevice())
                 .eventType("TransactionRejected")
                 .eventTimestamp(Instant.now())
-                .correlationId("corr-" + transactionId)
+                .correlationId(correlationId)
                 .rejectionReason(reason)
                 .rejectionDetails(rejectionDetails)
                 .build();
-
-        kafkaProducerService.sendMessage("transaction-rejected", event);
-    }
-
-    private boolean isMerchantRegistered(String merchant) {
-        // In a real implementation, we would check against a merchant registry in the
-        // database
-        // For now, we'll implement a more realistic check
-        if (merchant == null || merchant.isEmpty()) {
-            return false;
-        }
-
-        // This is still a simplified implementation - in a real system we would:
-        // 1. Query database for merchant record
-        // 2. Check if merchant is active and registered
-        // 3. Return true if merchant is valid
-
-        // For demonstration purposes, we'll check against a whitelist of known
-        // merchants
-        Set<String> registeredMerchants = Set.of(
-                "Amazon", "Walmart", "Target", "Best Buy", "Starbucks",
-                "McDonald's", "Subway", "Shell", "Exxon", "Costco");
-
-        return registeredMerchants.contains(merchant);
     }
 
-    private boolean isDuplicateTransaction(IngestRequest request) {
+    private void saveRejectedTransaction(IngestRequest request, String reason, Double customerLimit,
+            String transactionId, String correlationId) {
         try {
-            // In a real implementation, we would check against recent transactions in
-            // database
-            // For now, we'll implement a basic check using a simple heuristic
-            int duplicateWindowSeconds = validationProperties.getRules().getDuplicateWindowSeconds();
-
-            // This is still a simplified implementation - in a real system we would:
-            // 1. Query database for recent transactions with same customer, amount,
-            // merchant
-            // 2. Check if any occurred within the duplicateWindowSeconds timeframe
-            // 3. Return true if duplicates found
-
-            // For demonstration purposes, we'll randomly flag some as duplicates
-            // In a real implementation, this would be replaced with actual logic
-            return Math.random() < 0.01; // 1% chance of being flagged as duplicate
-        } catch (Exception e) {
-            log.error("Error checking for duplicate transaction: {}", e.getMessage(), e);
-            return false;
-        }
-    }
-
-    private void saveRejectedTransaction(IngestRequest request, String reason, Double customerLimit) {
-        try {
-            RejectedTransaction rejectedTransaction = new RejectedTransaction();
-            rejectedTransaction
-                    .setTransactionId("T" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8));
-            rejectedTransaction.setCustomerId(request.getCustomerId());
-            rejectedTransaction.setAmount(request.getAmount());
-            rejectedTransaction.setCurrency(request.getCurrency());
-            rejectedTransaction.setMerchant(request.getMerchant());
-            rejectedTransaction.setRejectionReason(reason);
-            rejectedTransaction.setEventTimestamp(Instant.now());
-            rejectedTransaction.setCorrelationId(
-                    "corr-" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8));
-            rejectedTransaction.setCreatedAt(Instant.now());
-
-            RejectedTransaction.RejectionDetails rejectionDetails = new RejectedTransaction.RejectionDetails();
-            rejectionDetails.setRequestedAmount(request.getAmount());
-            rejectionDetails.setCustomerLimit(customerLimit);
-            rejectedTransaction.setRejectionDetails(rejectionDetails);
-
+            RejectedTransaction rejectedTransaction = buildRejectedTransaction(request, reason, customerLimit,
+                    transactionId, correlationId);
             mongoServiceClient.saveRejectedTransaction(rejectedTransaction);
             log.info("Saved rejected transaction {} to audit trail", rejectedTransaction.getTransactionId());
         } catch (Exception e) {
             log.error("Error saving rejected transaction to audit trail: {}", e.getMessage(), e);
         }
     }
+
+    RejectedTransaction buildRejectedTransaction(IngestRequest request, String reason, Double customerLimit,
+            String transactionId, String correlationId) {
+        RejectedTransaction rejectedTransaction = new RejectedTransaction();
+        rejectedTransaction.setTransactionId(transactionId);
+        rejectedTransaction.setCustomerId(request.getCustomerId());
+        rejectedTransaction.setAmount(request.getAmount());
+        rejectedTransaction.setCurrency(request.getCurrency());
+        rejectedTransaction.setMerchant(request.getMerchant());
+        rejectedTransaction.setRejectionReason(reason);
+        rejectedTransaction.setEventTimestamp(Instant.now());
+        rejectedTransaction.setCorrelationId(correlationId);
+        rejectedTransaction.setCreatedAt(Instant.now());
+
+        RejectedTransaction.RejectionDetails rejectionDetails = new RejectedTransaction.RejectionDetails();
+        rejectionDetails.setRequestedAmount(request.getAmount());
+        rejectionDetails.setCustomerLimit(customerLimit);
+        rejectedTransaction.setRejectionDetails(rejectionDetails);
+        return rejectedTransaction;
+    }
 }
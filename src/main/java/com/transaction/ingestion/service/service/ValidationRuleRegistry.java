@@ -0,0 +1,108 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.ValidationProperties;
+import com.transaction.ingestion.service.config.ValidationReloadProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// Publishes the active ValidationRuleSnapshot. Reloads re-bind the "validation" block from the watched file
+// layered over the startup environment, validate it, and swap the snapshot in with a single volatile write.
+// An invalid file leaves the current snapshot in place.
+@Service
+@Slf4j
+public class ValidationRuleRegistry {
+
+    private final ValidationReloadProperties reloadProperties;
+    private final ConfigurableEnvironment environment;
+    private final Counter reloaded;
+    private final Counter rejected;
+
+    private volatile ValidationRuleSnapshot current;
+    private long lastModified = -1;
+
+    public ValidationRuleRegistry(ValidationProperties validationProperties,
+            ValidationReloadProperties reloadProperties, ConfigurableEnvironment environment,
+            MeterRegistry meterRegistry) {
+        this.reloadProperties = reloadProperties;
+        this.environment = environment;
+        this.current = ValidationRuleSnapshot.compile(validationProperties, 1, "startup");
+        this.reloaded = meterRegistry.counter("validation.rules.reload", "result", "applied");
+        this.rejected = meterRegistry.counter("validation.rules.reload", "result", "rejected");
+        Gauge.builder("validation.rules.version", this, registry -> registry.current().getVersion())
+                .register(meterRegistry);
+    }
+
+    public ValidationRuleSnapshot current() {
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${validation-reload.poll-interval:5s}")
+    public void pollFile() {
+        Path file = watchedFile();
+        if (file == null || !Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (modified != lastModified) {
+                // Remember the timestamp even when the file is invalid so it is not re-parsed until it changes
+                lastModified = modified;
+                reload();
+            }
+        } catch (Exception e) {
+            log.error("Failed to check validation rules file {}: {}", file, e.getMessage());
+        }
+    }
+
+    // Rebuilds the snapshot from the file (when configured) over the startup configuration
+    public synchronized ValidationRuleSnapshot reload() {
+        Path file = watchedFile();
+        String source = file != null && Files.isRegularFile(file) ? file.toString() : "environment";
+        try {
+            List<ConfigurationPropertySource> sources = new ArrayList<>();
+            if (file != null && Files.isRegularFile(file)) {
+                List<PropertySource<?>> loaded = new YamlPropertySourceLoader()
+                        .load("validation-reload", new FileSystemResource(file));
+                ConfigurationPropertySources.from(loaded).forEach(sources::add);
+            }
+            ConfigurationPropertySources.get(environment).forEach(sources::add);
+
+            ValidationProperties properties = new Binder(sources)
+                    .bind("validation", ValidationProperties.class)
+                    .orElseGet(ValidationProperties::new);
+            ValidationRuleSnapshot snapshot = ValidationRuleSnapshot.compile(properties,
+                    current.getVersion() + 1, source);
+            current = snapshot;
+            reloaded.increment();
+            log.info("Applied validation rules version {} from {}", snapshot.getVersion(), source);
+            return snapshot;
+        } catch (Exception e) {
+            rejected.increment();
+            log.error("Rejected validation rules from {}, keeping version {}: {}", source, current.getVersion(),
+                    e.getMessage());
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private Path watchedFile() {
+        String file = reloadProperties.getFile();
+        return file == null || file.isBlank() ? null : Paths.get(file);
+    }
+}
@@ -0,0 +1,115 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.ValidationProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Immutable, pre-validated view of ValidationProperties. A request reads one snapshot up front and uses it for
+// every rule, so a reload mid-request never mixes old and new thresholds.
+public final class ValidationRuleSnapshot {
+
+    private static final int DEFAULT_MAX_TRANSACTIONS_PER_HOUR = 50;
+
+    private final long version;
+    private final String source;
+    private final Instant loadedAt;
+    private final Duration timestampWindow;
+    private final boolean duplicateCheckEnabled;
+    private final int duplicateWindowSeconds;
+    private final boolean velocityCheckEnabled;
+    private final int maxTransactionsPerHour;
+    private final boolean kycCheckEnabled;
+    private final int kycExpiryDays;
+
+    private ValidationRuleSnapshot(long version, String source, ValidationProperties properties) {
+        ValidationProperties.ValidationRules rules = properties.getRules();
+        this.version = version;
+        this.source = source;
+        this.loadedAt = Instant.now();
+        this.timestampWindow = Duration.ofMinutes(properties.getTimestamp().getTimeWindowMinutes());
+        this.duplicateCheckEnabled = rules.isEnableDuplicateCheck();
+        this.duplicateWindowSeconds = rules.getDuplicateWindowSeconds() != null ? rules.getDuplicateWindowSeconds() : 0;
+        this.velocityCheckEnabled = rules.isEnableVelocityCheck();
+        this.maxTransactionsPerHour = rules.getMaxTransactionsPerHour() != null
+                ? rules.getMaxTransactionsPerHour()
+                : DEFAULT_MAX_TRANSACTIONS_PER_HOUR;
+        this.kycCheckEnabled = rules.isEnableKycCheck();
+        this.kycExpiryDays = rules.getKycExpiryDays() != null ? rules.getKycExpiryDays() : 0;
+    }
+
+    // Validates the bound properties and freezes them; throws IllegalArgumentException listing every problem
+    public static ValidationRuleSnapshot compile(ValidationProperties properties, long version, String source) {
+        List<String> problems = new ArrayList<>();
+        if (properties.getTimestamp() == null || properties.getTimestamp().getTimeWindowMinutes() == null
+                || properties.getTimestamp().getTimeWindowMinutes() <= 0) {
+            problems.add("timestamp.time-window-minutes must be > 0");
+        }
+        ValidationProperties.ValidationRules rules = properties.getRules();
+        if (rules == null) {
+            problems.add("rules must be configured");
+        } else {
+            if (rules.isEnableDuplicateCheck()
+                    && (rules.getDuplicateWindowSeconds() == null || rules.getDuplicateWindowSeconds() <= 0)) {
+                problems.add("rules.duplicate-window-seconds must be > 0 when the duplicate check is enabled");
+            }
+            if (rules.getMaxTransactionsPerHour() != null && rules.getMaxTransactionsPerHour() <= 0) {
+                problems.add("rules.max-transactions-per-hour must be > 0");
+            }
+            if (rules.isEnableKycCheck() && (rules.getKycExpiryDays() == null || rules.getKycExpiryDays() <= 0)) {
+                problems.add("rules.kyc-expiry-days must be > 0 when the KYC check is enabled");
+            }
+        }
+        ValidationProperties.AmountConfig amount = properties.getAmount();
+        if (amount != null && amount.getMinimumAmount() != null && amount.getMaximumAmount() != null
+                && amount.getMinimumAmount() > amount.getMaximumAmount()) {
+            problems.add("amount.minimum-amount must not exceed amount.maximum-amount");
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException("Invalid validation rules from " + source + ": " + problems);
+        }
+        return new ValidationRuleSnapshot(version, source, properties);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public Duration getTimestampWindow() {
+        return timestampWindow;
+    }
+
+    public boolean isDuplicateCheckEnabled() {
+        return duplicateCheckEnabled;
+    }
+
+    public int getDuplicateWindowSeconds() {
+        return duplicateWindowSeconds;
+    }
+
+    public boolean isVelocityCheckEnabled() {
+        return velocityCheckEnabled;
+    }
+
+    public int getMaxTransactionsPerHour() {
+        return maxTransactionsPerHour;
+    }
+
+    public boolean isKycCheckEnabled() {
+        return kycCheckEnabled;
+    }
+
+    public int getKycExpiryDays() {
+        return kycExpiryDays;
+    }
+}
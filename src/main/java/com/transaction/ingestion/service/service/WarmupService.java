@@ -0,0 +1,423 @@
+package com.transaction.ingestion.service.service;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import com.riskplatform.common.entity.Customer;
+import com.riskplatform.common.entity.Transaction;
+import com.riskplatform.common.event.TransactionValidatedEvent;
+import com.riskplatform.common.model.Location;
+import com.transaction.ingestion.service.client.MongoServiceBatchClient;
+import com.transaction.ingestion.service.config.WarmupProperties;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.model.BusinessRejection;
+import com.transaction.ingestion.service.rules.RuleContext;
+import com.transaction.ingestion.service.tracing.Tracer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+// Warms a freshly started instance before it takes traffic: opens the Kafka and mongo-service connections,
+// optionally prefetches recent transactions and their hottest customers, and runs synthetic requests through the
+// validation paths until their p99 meets the latency target. Nothing is saved or published, and the synthetic requests use
+// synthetic customers and dry-run rule contexts, so they cannot touch a real customer's daily spend or the rule
+// stats behind the adaptive plan. Runs on its own thread from ApplicationReadyEvent; WarmupHealthIndicator keeps
+// readiness OUT_OF_SERVICE until it is done, and then the Eureka status (registered as STARTING) goes UP.
+@Service
+@Slf4j
+public class WarmupService {
+
+    // Built-in mix for an instance with no recent traffic to copy: amount, currency, merchant, category, channel,
+    // device, country. The last row uses an unregistered merchant so the rejection path is warmed too.
+    private static final String[][] BUILT_IN_SAMPLES = {
+            { "25.40", "USD", "Amazon", "E-commerce", "online", "desktop", "USA" },
+            { "4.75", "USD", "Starbucks", "Food & Beverage", "mobile", "mobile", "USA" },
+            { "182.10", "EUR", "Target", "Retail", "online", "mobile", "Germany" },
+            { "60.00", "GBP", "Shell", "Gas Station", "branch", "kiosk", "UK" },
+            { "2300", "JPY", "McDonald's", "Food & Beverage", "mobile", "mobile", "Japan" },
+            { "1450.00", "INR", "Costco", "Wholesale", "atm", "tablet", "India" },
+            { "899.99", "USD", "Best Buy", "Retail", "online", "desktop", "USA" },
+            { "37.20", "USD", "Merchant-000123", "Retail", "online", "mobile", "USA" } };
+
+    private final WarmupProperties properties;
+    private final TransactionService transactionService;
+    private final AdvancedValidationService advancedValidationService;
+    private final CustomerLookupService customerLookupService;
+    private final RecentTransactionCache recentTransactionCache;
+    private final MongoServiceBatchClient mongoServiceBatchClient;
+    private final KafkaTemplate<String, TransactionValidatedEvent> kafkaTemplate;
+    private final ValidationRuleRegistry validationRuleRegistry;
+    private final Tracer tracer;
+    private final ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+    private final List<String> topics;
+    private volatile long lastRoundP99Micros = -1;
+    private volatile long durationMillis = -1;
+    private volatile boolean finished;
+    private volatile String prefetchOutcome = "pending";
+
+    public WarmupService(WarmupProperties properties, TransactionService transactionService,
+            AdvancedValidationService advancedValidationService, CustomerLookupService customerLookupService,
+            RecentTransactionCache recentTransactionCache, MongoServiceBatchClient mongoServiceBatchClient,
+            KafkaTemplate<String, TransactionValidatedEvent> kafkaTemplate,
+            ValidationRuleRegistry validationRuleRegistry, Tracer tracer,
+            ObjectProvider<ApplicationInfoManager> applicationInfoManager, MeterRegistry meterRegistry,
+            @Value("${kafka.topics.transaction-received}") String transactionReceivedTopic,
+            @Value("${kafka.topics.transaction-validated}") String transactionValidatedTopic,
+            @Value("${kafka.topics.transaction-rejected}") String transactionRejectedTopic,
+            @Value("${kafka.topics.transaction-validation-failed:transaction-validation-failed}")
+            String transactionValidationFailedTopic) {
+        this.properties = properties;
+        this.transactionService = transactionService;
+        this.advancedValidationService = advancedValidationService;
+        this.customerLookupService = customerLookupService;
+        this.recentTransactionCache = recentTransactionCache;
+        this.mongoServiceBatchClient = mongoServiceBatchClient;
+        this.kafkaTemplate = kafkaTemplate;
+        this.validationRuleRegistry = validationRuleRegistry;
+        this.tracer = tracer;
+        this.applicationInfoManager = applicationInfoManager;
+        this.topics = List.of(transactionReceivedTopic, transactionValidatedTopic, transactionRejectedTopic,
+                transactionValidationFailedTopic);
+        Gauge.builder("warmup.duration", this, service -> service.durationMillis)
+                .description("Milliseconds spent warming up before going ready, -1 until finished")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("warmup.p99", this, service -> service.lastRoundP99Micros)
+                .description("p99 of the last synthetic validation round")
+                .baseUnit("microseconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWarmUp() {
+        if (!properties.isEnabled()) {
+            warmUp();
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "warmup-coordinator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    // What the recent-transaction prefetch did, for WarmupHealthIndicator: pending, disabled, the counts loaded, or
+    // the failure that left the cache and customer lookups cold
+    public String getPrefetchOutcome() {
+        return prefetchOutcome;
+    }
+
+    void warmUp() {
+        long start = System.nanoTime();
+        try {
+            if (properties.isEnabled()) {
+                runPhases(start + properties.getMaxDuration().toNanos());
+            } else {
+                prefetchOutcome = "disabled";
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Warm-up interrupted, going ready");
+        } catch (Exception e) {
+            log.error("Warm-up failed, going ready anyway: {}", e.getMessage(), e);
+        } finally {
+            durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            finished = true;
+            applicationInfoManager.ifAvailable(manager -> manager.setInstanceStatus(InstanceInfo.InstanceStatus.UP));
+            log.info("Warm-up finished in {} ms, instance is ready", durationMillis);
+        }
+    }
+
+    private void runPhases(long deadline) throws InterruptedException {
+        openKafkaConnections();
+        List<Transaction> recent = prefetch();
+        List<IngestRequest> samples = sampleRequests(recent);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, properties.getThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            runAdvancedValidations(executor, samples, deadline);
+            runRounds(executor, samples, deadline);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Fetching partition metadata connects the producer to the brokers without sending anything
+    private void openKafkaConnections() {
+        for (String topic : topics) {
+            try {
+                kafkaTemplate.partitionsFor(topic);
+            } catch (Exception e) {
+                log.warn("Warm-up could not fetch metadata for topic {}: {}", topic, e.getMessage());
+            }
+        }
+    }
+
+    // Loads recent transactions into the cache and the hottest of their customers through CustomerLookupService,
+    // which batches the lookups when batching is on and makes single calls otherwise. Without the prefetch the
+    // advanced validations below are the first mongo-service calls and open the pooled connections.
+    List<Transaction> prefetch() {
+        if (!properties.isPrefetchRecent()) {
+            prefetchOutcome = "disabled";
+            return List.of();
+        }
+        Instant now = Instant.now();
+        List<Transaction> recent;
+        try {
+            recent = mongoServiceBatchClient.findTransactionsPage(now.minus(properties.getLookback()), now, null,
+                    null, properties.getRecentTransactions());
+        } catch (Exception e) {
+            log.warn("Warm-up could not load recent transactions: {}", e.getMessage());
+            prefetchOutcome = "failed: " + e.getMessage();
+            return List.of();
+        }
+        recent.forEach(recentTransactionCache::put);
+
+        List<String> hotCustomers = hottest(recent, Transaction::getCustomerId, properties.getHotCustomers());
+        List<CompletableFuture<Customer>> loads = new ArrayList<>();
+        for (String customerId : hotCustomers) {
+            loads.add(customerLookupService.loadCustomer(customerId));
+        }
+        try {
+            CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("Warm-up customer prefetch incomplete: {}", e.getMessage());
+            prefetchOutcome = "customers incomplete: " + e.getMessage();
+            return recent;
+        }
+        log.info("Warm-up prefetched {} recent transactions and {} hot customers", recent.size(),
+                hotCustomers.size());
+        prefetchOutcome = recent.size() + " transactions, " + hotCustomers.size() + " customers";
+        return recent;
+    }
+
+    // Requests shaped like recent traffic, or the built-in mix when there is none, moved onto synthetic customer ids
+    private List<IngestRequest> sampleRequests(List<Transaction> recent) {
+        List<IngestRequest> samples = new ArrayList<>();
+        for (Transaction transaction : recent) {
+            IngestRequest request = new IngestRequest();
+            request.setAmount(transaction.getAmount() != null ? transaction.getAmount().doubleValue() : null);
+            request.setCurrency(transaction.getCurrency());
+            request.setMerchant(transaction.getMerchant());
+            request.setMerchantCategory(transaction.getMerchantCategory());
+            request.setChannel(transaction.getChannel());
+            request.setDevice(transaction.getDevice());
+            request.setLocation(transaction.getLocation());
+            samples.add(request);
+        }
+        if (samples.isEmpty()) {
+            samples.addAll(builtInSamples());
+        }
+        int customers = Math.max(1, properties.getHotCustomers());
+        for (int i = 0; i < samples.size(); i++) {
+            samples.get(i).setCustomerId(syntheticCustomerId(i % customers));
+        }
+        return samples;
+    }
+
+    private void runAdvancedValidations(ExecutorService executor, List<IngestRequest> samples, long deadline)
+            throws InterruptedException {
+        int count = Math.min(properties.getAdvancedValidations(), samples.size());
+        List<Future<?>> runs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            IngestRequest request = copyWithNow(samples.get(i));
+            runs.add(executor.submit(() -> advancedValidationService.performAdvancedValidation(
+                    transactionService.buildTransaction(request, "warmup-" + request.getCustomerId()), null)));
+        }
+        awaitAll(runs, deadline);
+    }
+
+    // Rounds of synthetic requests until the latency target holds for stableRounds rounds in a row
+    private void runRounds(ExecutorService executor, List<IngestRequest> samples, long deadline)
+            throws InterruptedException {
+        int perRound = Math.max(1, properties.getRequestsPerRound());
+        long targetMicros = TimeUnit.NANOSECONDS.toMicros(properties.getLatencyTarget().toNanos());
+        int stable = 0;
+        AtomicInteger next = new AtomicInteger();
+        for (int round = 1; round <= properties.getMaxRounds(); round++) {
+            if (System.nanoTime() - deadline >= 0) {
+                log.warn("Warm-up reached its {} cap after {} rounds", properties.getMaxDuration(), round - 1);
+                return;
+            }
+            AtomicLongArray latencies = new AtomicLongArray(perRound);
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < perRound; i++) {
+                int slot = i;
+                tasks.add(executor.submit(() -> latencies.set(slot,
+                        validateOnce(samples.get(Math.floorMod(next.getAndIncrement(), samples.size()))))));
+            }
+            boolean complete = awaitAll(tasks, deadline);
+
+            long p99 = p99Micros(latencies);
+            if (p99 >= 0) {
+                lastRoundP99Micros = p99;
+            }
+            if (!complete) {
+                log.warn("Warm-up reached its {} cap during round {} (p99 {} us over the completed requests)",
+                        properties.getMaxDuration(), round, p99);
+                return;
+            }
+            log.debug("Warm-up round {}: p99 {} us", round, p99);
+            stable = p99 <= targetMicros ? stable + 1 : 0;
+            if (stable >= properties.getStableRounds()) {
+                log.info("Warm-up met the {} latency target after {} rounds (p99 {} us)",
+                        properties.getLatencyTarget(), round, p99);
+                return;
+            }
+        }
+        log.info("Warm-up ran all {} rounds, last p99 {} us", properties.getMaxRounds(), lastRoundP99Micros);
+    }
+
+    // p99 over the requests that completed; slots still at zero never finished. -1 when none did.
+    static long p99Micros(AtomicLongArray latencies) {
+        long[] completed = new long[latencies.length()];
+        int count = 0;
+        for (int i = 0; i < latencies.length(); i++) {
+            long latency = latencies.get(i);
+            if (latency > 0) {
+                completed[count++] = latency;
+            }
+        }
+        if (count == 0) {
+            return -1;
+        }
+        Arrays.sort(completed, 0, count);
+        return TimeUnit.NANOSECONDS.toMicros(completed[Math.min(count - 1, (int) (count * 0.99))]);
+    }
+
+    // The synchronous ingest path up to the point where it would save and publish, against a synthetic customer
+    // and a dry-run rule context; returns nanoseconds taken, at least 1
+    private long validateOnce(IngestRequest sample) {
+        IngestRequest request = copyWithNow(sample);
+        long start = System.nanoTime();
+        try {
+            ValidationRuleSnapshot rules = validationRuleRegistry.current();
+            if (transactionService.validateStructural(request, rules).isEmpty()) {
+                RuleContext ruleContext = transactionService.newDryRunRuleContext(request,
+                        () -> syntheticCustomer(request.getCustomerId()), rules);
+                BusinessRejection rejection = transactionService.evaluateBusinessRules(ruleContext);
+                if (rejection == null) {
+                    transactionService.validateSchemaCompliance(request);
+                    Transaction transaction = transactionService.buildTransaction(request,
+                            transactionService.newTransactionId());
+                    transactionService.buildReceivedEvent(transaction);
+                    transactionService.buildIngestResponse(transaction.getTransactionId());
+                } else {
+                    transactionService.buildRejectedBody(rejection.getReason(), rejection.getMessage(), request,
+                            rejection.getCustomerLimit());
+                    String transactionId = transactionService.newTransactionId();
+                    transactionService.buildRejectedEvent(request, rejection.getReason(),
+                            rejection.getCustomerLimit(), transactionId, tracer.correlationIdFor(transactionId));
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Warm-up request failed: {}", e.getMessage());
+        }
+        return Math.max(1L, System.nanoTime() - start);
+    }
+
+    static List<IngestRequest> builtInSamples() {
+        List<IngestRequest> samples = new ArrayList<>(BUILT_IN_SAMPLES.length);
+        for (String[] row : BUILT_IN_SAMPLES) {
+            IngestRequest request = new IngestRequest();
+            request.setAmount(Double.parseDouble(row[0]));
+            request.setCurrency(row[1]);
+            request.setMerchant(row[2]);
+            request.setMerchantCategory(row[3]);
+            request.setChannel(row[4]);
+            request.setDevice(row[5]);
+            Location location = new Location();
+            location.setCountry(row[6]);
+            request.setLocation(location);
+            samples.add(request);
+        }
+        return samples;
+    }
+
+    // Eleven digits, well clear of the six-digit ids the traffic generator and test data use
+    static String syntheticCustomerId(int index) {
+        return String.format("C9%09d", index);
+    }
+
+    private static Customer syntheticCustomer(String customerId) {
+        Customer customer = new Customer();
+        customer.setCustomerId(customerId);
+        customer.setStatus("ACTIVE");
+        customer.setTier("STANDARD");
+        customer.setDailyLimit(50000.00);
+        customer.setBlacklisted(false);
+        return customer;
+    }
+
+    private static IngestRequest copyWithNow(IngestRequest sample) {
+        IngestRequest request = new IngestRequest();
+        request.setCustomerId(sample.getCustomerId());
+        request.setAmount(sample.getAmount());
+        request.setCurrency(sample.getCurrency());
+        request.setMerchant(sample.getMerchant());
+        request.setMerchantCategory(sample.getMerchantCategory());
+        request.setTimestamp(Instant.now());
+        request.setChannel(sample.getChannel());
+        request.setDevice(sample.getDevice());
+        request.setLocation(sample.getLocation());
+        return request;
+    }
+
+    private static <T> List<String> hottest(List<T> rows, Function<T, String> key, int limit) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (T row : rows) {
+            String value = key.apply(row);
+            if (value != null) {
+                counts.merge(value, 1, Integer::sum);
+            }
+        }
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Stops waiting at the deadline and returns false; the remaining tasks are abandoned when the executor shuts down
+    private static boolean awaitAll(List<Future<?>> futures, long deadline) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                log.debug("Warm-up task failed: {}", e.getCause().getMessage());
+            } catch (TimeoutException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
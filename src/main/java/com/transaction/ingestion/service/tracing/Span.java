@@ -0,0 +1,157 @@
+package com.transaction.ingestion.service.tracing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// A timed operation within a trace. Scoped spans become the thread's current span until closed and must be closed
+// on the thread that opened them (try-with-resources); async spans are ended from whichever thread completes the
+// work. Non-recording spans only carry the context for propagation and cost nothing beyond the allocation.
+public final class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span(null, null, null, null, false, null, null, false);
+
+    // Unsampled traces keep at most this many finished spans in case the local root turns out to be slow
+    private static final int MAX_BUFFERED = 256;
+
+    private final Tracer tracer;
+    private final TraceContext context;
+    private final String parentSpanId;
+    private final String name;
+    private final boolean recording;
+    private final Span localRoot;
+    private final Span previous;
+    private final boolean scoped;
+    private final long startEpochMicros;
+    private final long startNanos;
+    private final String thread;
+    private long durationNanos = -1;
+    private Map<String, Object> tags;
+    private String error;
+    private List<Span> buffered;
+
+    Span(Tracer tracer, TraceContext context, String parentSpanId, String name, boolean recording, Span localRoot,
+            Span previous, boolean scoped) {
+        this.tracer = tracer;
+        this.context = context;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.recording = recording;
+        this.localRoot = localRoot != null ? localRoot : this;
+        this.previous = previous;
+        this.scoped = scoped;
+        this.startNanos = recording ? System.nanoTime() : 0;
+        this.startEpochMicros = recording ? tracer.epochMicros(startNanos) : 0;
+        this.thread = recording ? Thread.currentThread().getName() : null;
+    }
+
+    public Span tag(String key, Object value) {
+        if (recording && value != null) {
+            if (tags == null) {
+                tags = new LinkedHashMap<>();
+            }
+            tags.put(key, value);
+        }
+        return this;
+    }
+
+    public Span error(Throwable throwable) {
+        if (recording && throwable != null) {
+            error = throwable.getClass().getSimpleName() + ": " + throwable.getMessage();
+        }
+        return this;
+    }
+
+    public Span error(String message) {
+        if (recording) {
+            error = message;
+        }
+        return this;
+    }
+
+    // Null for the no-op span handed out when there is no trace on the current thread
+    public TraceContext context() {
+        return context;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public void end() {
+        if (tracer == null) {
+            return;
+        }
+        synchronized (this) {
+            if (durationNanos >= 0) {
+                return;
+            }
+            durationNanos = recording ? System.nanoTime() - startNanos : 0;
+        }
+        if (scoped) {
+            tracer.exit(this);
+        }
+        if (recording) {
+            tracer.finished(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        end();
+    }
+
+    void buffer(Span child) {
+        if (buffered == null) {
+            buffered = new ArrayList<>();
+        }
+        if (buffered.size() < MAX_BUFFERED) {
+            buffered.add(child);
+        }
+    }
+
+    List<Span> buffered() {
+        return buffered;
+    }
+
+    boolean isLocalRoot() {
+        return localRoot == this;
+    }
+
+    Span localRoot() {
+        return localRoot;
+    }
+
+    Span previous() {
+        return previous;
+    }
+
+    String parentSpanId() {
+        return parentSpanId;
+    }
+
+    String name() {
+        return name;
+    }
+
+    long startEpochMicros() {
+        return startEpochMicros;
+    }
+
+    long durationNanos() {
+        return durationNanos;
+    }
+
+    String thread() {
+        return thread;
+    }
+
+    Map<String, Object> tags() {
+        return tags;
+    }
+
+    String errorMessage() {
+        return error;
+    }
+}
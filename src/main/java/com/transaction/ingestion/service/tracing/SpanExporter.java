@@ -0,0 +1,205 @@
+package com.transaction.ingestion.service.tracing;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.ingestion.service.config.TracingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Writes finished spans as one JSON object per line to a local file (rolled over at tracing.max-file-size) or to
+// stdout. Request threads only offer to a bounded queue; a single background thread does the encoding and I/O.
+// Lines of one trace can be grouped offline by traceId or correlationId and nested by parentSpanId.
+@Component
+@Slf4j
+public class SpanExporter {
+
+    private final TracingProperties properties;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Span> queue;
+    private final Counter exported;
+    private final Counter dropped;
+    private volatile boolean running;
+    private Thread writer;
+    private OutputStream out;
+    private long written;
+
+    public SpanExporter(TracingProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.exported = meterRegistry.counter("tracing.spans.exported");
+        this.dropped = meterRegistry.counter("tracing.spans.dropped");
+        Gauge.builder("tracing.spans.queued", queue, BlockingQueue::size)
+                .description("Finished spans waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled() || properties.getExporter() == TracingProperties.Exporter.NONE) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "trace-exporter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void export(Span span) {
+        if (!running) {
+            return;
+        }
+        if (!queue.offer(span)) {
+            dropped.increment();
+        }
+    }
+
+    private void writeLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Span span = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (span == null) {
+                    continue;
+                }
+                OutputStream target = output();
+                write(target, span);
+                while ((span = queue.poll()) != null) {
+                    write(target, span);
+                }
+                target.flush();
+                rollOverIfNeeded();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Error writing trace spans: {}", e.getMessage());
+                closeOutput();
+            }
+        }
+        closeOutput();
+    }
+
+    private void write(OutputStream target, Span span) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(StreamUtils.nonClosing(target),
+                JsonEncoding.UTF8)) {
+            TraceContext context = span.context();
+            generator.writeStartObject();
+            generator.writeStringField("traceId", context.getTraceId());
+            generator.writeStringField("spanId", context.getSpanId());
+            if (span.parentSpanId() != null) {
+                generator.writeStringField("parentSpanId", span.parentSpanId());
+            }
+            generator.writeStringField("correlationId", context.getCorrelationId());
+            generator.writeStringField("name", span.name());
+            generator.writeNumberField("startMicros", span.startEpochMicros());
+            generator.writeNumberField("durationMicros", span.durationNanos() / 1000);
+            generator.writeStringField("thread", span.thread());
+            generator.writeBooleanField("sampled", context.isSampled());
+            if (span.errorMessage() != null) {
+                generator.writeStringField("error", span.errorMessage());
+            }
+            Map<String, Object> tags = span.tags();
+            if (tags != null) {
+                generator.writeObjectFieldStart("tags");
+                for (Map.Entry<String, Object> tag : tags.entrySet()) {
+                    generator.writeFieldName(tag.getKey());
+                    if (tag.getValue() instanceof Number || tag.getValue() instanceof Boolean) {
+                        generator.writeObject(tag.getValue());
+                    } else {
+                        generator.writeString(String.valueOf(tag.getValue()));
+                    }
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+        target.write('\n');
+        exported.increment();
+    }
+
+    private OutputStream output() throws IOException {
+        if (out == null) {
+            if (properties.getExporter() == TracingProperties.Exporter.CONSOLE) {
+                out = StreamUtils.nonClosing(System.out);
+                written = 0;
+            } else {
+                Path path = Paths.get(properties.getFile());
+                if (path.toAbsolutePath().getParent() != null) {
+                    Files.createDirectories(path.toAbsolutePath().getParent());
+                }
+                written = Files.exists(path) ? Files.size(path) : 0;
+                out = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024));
+            }
+        }
+        return out;
+    }
+
+    private void rollOverIfNeeded() throws IOException {
+        if (properties.getExporter() != TracingProperties.Exporter.FILE || written < properties.getMaxFileSize()) {
+            return;
+        }
+        closeOutput();
+        Path path = Paths.get(properties.getFile());
+        Files.move(path, Paths.get(properties.getFile() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void closeOutput() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                log.debug("Error closing trace output: {}", e.getMessage());
+            }
+            out = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private final class CountingOutputStream extends FilterOutputStream {
+
+        CountingOutputStream(OutputStream delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            written += len;
+        }
+    }
+}
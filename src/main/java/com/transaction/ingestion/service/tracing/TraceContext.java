@@ -0,0 +1,94 @@
+package com.transaction.ingestion.service.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Identifies a span within a trace plus the correlation id that travels with it. Carried over HTTP and Kafka as a
+// W3C traceparent header (00-<trace id>-<span id>-<flags>) and an X-Correlation-Id header.
+public final class TraceContext {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    public static final String CORRELATION_ID_HEADER = "X-Correlation-Id";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String traceId;
+    private final String spanId;
+    private final String correlationId;
+    private final boolean sampled;
+
+    TraceContext(String traceId, String spanId, String correlationId, boolean sampled) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.correlationId = correlationId;
+        this.sampled = sampled;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public String traceparent() {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    TraceContext child() {
+        return new TraceContext(traceId, newSpanId(), correlationId, sampled);
+    }
+
+    // Null when the header is missing or malformed, in which case the caller starts a new trace
+    static TraceContext parse(String traceparent, String correlationId) {
+        if (traceparent == null || traceparent.length() != 55 || traceparent.charAt(2) != '-'
+                || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-') {
+            return null;
+        }
+        String traceId = traceparent.substring(3, 35);
+        String spanId = traceparent.substring(36, 52);
+        if (!isHex(traceId) || !isHex(spanId) || !isHex(traceparent.substring(53))) {
+            return null;
+        }
+        boolean sampled = (Character.digit(traceparent.charAt(54), 16) & 1) == 1;
+        return new TraceContext(traceId, spanId, correlationId, sampled);
+    }
+
+    static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] chars = new char[32];
+        hex(random.nextLong(), chars, 0);
+        hex(random.nextLong() | 1L, chars, 16);
+        return new String(chars);
+    }
+
+    static String newSpanId() {
+        char[] chars = new char[16];
+        hex(ThreadLocalRandom.current().nextLong() | 1L, chars, 0);
+        return new String(chars);
+    }
+
+    private static void hex(long value, char[] chars, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            chars[offset + i] = HEX[(int) value & 0xF];
+            value >>>= 4;
+        }
+    }
+
+    private static boolean isHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
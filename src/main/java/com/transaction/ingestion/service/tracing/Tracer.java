@@ -0,0 +1,186 @@
+package com.transaction.ingestion.service.tracing;
+
+import com.transaction.ingestion.service.config.TracingProperties;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Starts traces at the service's entry points (ingest requests, Kafka listeners) and spans around the work inside
+// them. The sampling decision is made once per trace and travels in traceparent, so a sampled ingest is also
+// recorded by the async validation consumer. With tracing.slow-threshold set, a tracing.slow-sample-rate share of
+// unsampled traces also record their local spans in memory and export them only when the local root ends up slower
+// than the threshold.
+@Component
+public class Tracer {
+
+    public static final String MDC_TRACE_ID = "traceId";
+    public static final String MDC_CORRELATION_ID = "correlationId";
+    public static final int MAX_CORRELATION_ID_LENGTH = 64;
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private final TracingProperties properties;
+    private final SpanExporter exporter;
+    private final long baseEpochMicros;
+    private final long baseNanos;
+
+    public Tracer(TracingProperties properties, SpanExporter exporter) {
+        this.properties = properties;
+        this.exporter = exporter;
+        this.baseEpochMicros = System.currentTimeMillis() * 1000;
+        this.baseNanos = System.nanoTime();
+    }
+
+    // Opens the local root span of a trace, continuing the caller's trace when traceparent is valid. The
+    // correlation id is kept as given if it is valid, otherwise derived from the trace id. It ends up in the MDC,
+    // logs, response headers and Kafka payloads, so a caller-supplied value is never taken unchecked.
+    public Span startTrace(String name, String traceparent, String correlationId) {
+        Span span = newLocalRoot(name, traceparent, correlationId, true);
+        enter(span);
+        return span;
+    }
+
+    // Same as startTrace, but the span is not bound to the calling thread: a reactive request hops between threads,
+    // so it carries the span's context itself and ends the span from whichever thread completes it
+    public Span startDetachedTrace(String name, String traceparent, String correlationId) {
+        return newLocalRoot(name, traceparent, correlationId, false);
+    }
+
+    private Span newLocalRoot(String name, String traceparent, String correlationId, boolean scoped) {
+        if (!isValidCorrelationId(correlationId)) {
+            correlationId = null;
+        }
+        TraceContext parent = TraceContext.parse(traceparent, correlationId);
+        TraceContext context;
+        if (parent != null) {
+            String correlation = correlationId != null ? correlationId : "corr-" + parent.getTraceId();
+            context = new TraceContext(parent.getTraceId(), TraceContext.newSpanId(), correlation,
+                    parent.isSampled());
+        } else {
+            String traceId = TraceContext.newTraceId();
+            boolean sampled = properties.isEnabled()
+                    && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+            context = new TraceContext(traceId, TraceContext.newSpanId(),
+                    correlationId != null ? correlationId : "corr-" + traceId, sampled);
+        }
+        boolean recording = properties.isEnabled() && (context.isSampled() || capturesIfSlow());
+        return new Span(this, context, parent != null ? parent.getSpanId() : null, name, recording, null,
+                scoped ? CURRENT.get() : null, scoped);
+    }
+
+    // Child of the current span, scoped to this thread; a no-op when the trace is not being recorded
+    public Span startSpan(String name) {
+        Span current = CURRENT.get();
+        if (current == null || !current.isRecording()) {
+            return Span.NOOP;
+        }
+        Span span = new Span(this, current.context().child(), current.context().getSpanId(), name, true,
+                current.localRoot(), current, true);
+        CURRENT.set(span);
+        return span;
+    }
+
+    // Child of the current span that is ended on another thread, e.g. when a Kafka send is acknowledged. Only
+    // sampled traces record it, but its context can always be propagated.
+    public Span startAsyncSpan(String name) {
+        Span current = CURRENT.get();
+        if (current == null) {
+            return Span.NOOP;
+        }
+        TraceContext context = current.context();
+        boolean recording = properties.isEnabled() && context.isSampled();
+        return new Span(this, recording ? context.child() : context, context.getSpanId(), name, recording,
+                null, null, false);
+    }
+
+    public TraceContext currentContext() {
+        Span current = CURRENT.get();
+        return current != null ? current.context() : null;
+    }
+
+    // The current trace's correlation id, or the historical corr-<transaction id> outside of a trace
+    public String correlationIdFor(String transactionId) {
+        return correlationIdFor(currentContext(), transactionId);
+    }
+
+    public static String correlationIdFor(TraceContext context, String transactionId) {
+        return context != null ? context.getCorrelationId() : "corr-" + transactionId;
+    }
+
+    // Up to MAX_CORRELATION_ID_LENGTH letters, digits, '.', '_', ':' or '-', which covers UUIDs and the derived
+    // corr-<id> form and leaves nothing that could break a log line or a header
+    static boolean isValidCorrelationId(String correlationId) {
+        if (correlationId == null || correlationId.isEmpty()
+                || correlationId.length() > MAX_CORRELATION_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < correlationId.length(); i++) {
+            char c = correlationId.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '_' || c == ':' || c == '-';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long epochMicros(long nanos) {
+        return baseEpochMicros + (nanos - baseNanos) / 1000;
+    }
+
+    private void enter(Span span) {
+        CURRENT.set(span);
+        MDC.put(MDC_TRACE_ID, span.context().getTraceId());
+        MDC.put(MDC_CORRELATION_ID, span.context().getCorrelationId());
+    }
+
+    void exit(Span span) {
+        Span previous = span.previous();
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+        if (span.isLocalRoot()) {
+            if (previous != null) {
+                MDC.put(MDC_TRACE_ID, previous.context().getTraceId());
+                MDC.put(MDC_CORRELATION_ID, previous.context().getCorrelationId());
+            } else {
+                MDC.remove(MDC_TRACE_ID);
+                MDC.remove(MDC_CORRELATION_ID);
+            }
+        }
+    }
+
+    void finished(Span span) {
+        if (span.context().isSampled()) {
+            exporter.export(span);
+            return;
+        }
+        if (!span.isLocalRoot()) {
+            span.localRoot().buffer(span);
+            return;
+        }
+        long threshold = slowThresholdNanos();
+        if (threshold > 0 && span.durationNanos() >= threshold) {
+            span.tag("slow", true);
+            List<Span> buffered = span.buffered();
+            if (buffered != null) {
+                buffered.forEach(exporter::export);
+            }
+            exporter.export(span);
+        }
+    }
+
+    // Decided per local root, so a trace continued from a caller can still be captured here when slow
+    private boolean capturesIfSlow() {
+        return slowThresholdNanos() > 0 && ThreadLocalRandom.current().nextDouble() < properties.getSlowSampleRate();
+    }
+
+    private long slowThresholdNanos() {
+        return properties.getSlowThreshold() != null ? properties.getSlowThreshold().toNanos() : 0;
+    }
+}
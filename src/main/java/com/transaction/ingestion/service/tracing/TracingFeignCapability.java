@@ -0,0 +1,63 @@
+package com.transaction.ingestion.service.tracing;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Picked up by every Feign client (mongo-service and affinity forwarding): records a span per call and passes the
+// trace and correlation id on as headers. Calls made from batch-loader threads run outside any trace and go
+// through untouched.
+@Component
+public class TracingFeignCapability implements Capability {
+
+    private final Tracer tracer;
+
+    public TracingFeignCapability(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            if (tracer.currentContext() == null) {
+                return client.execute(request, options);
+            }
+            Span span = tracer.startSpan("feign " + operation(request));
+            try {
+                TraceContext context = span.context() != null ? span.context() : tracer.currentContext();
+                Response response = client.execute(withTraceHeaders(request, context), options);
+                span.tag("http.status", response.status());
+                return response;
+            } catch (IOException | RuntimeException e) {
+                span.error(e);
+                throw e;
+            } finally {
+                span.end();
+            }
+        };
+    }
+
+    private static String operation(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().methodMetadata() != null) {
+            return request.requestTemplate().methodMetadata().configKey();
+        }
+        return request.httpMethod() + " " + URI.create(request.url()).getPath();
+    }
+
+    private static Request withTraceHeaders(Request request, TraceContext context) {
+        Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+        headers.put(TraceContext.TRACEPARENT_HEADER, List.of(context.traceparent()));
+        headers.put(TraceContext.CORRELATION_ID_HEADER, List.of(context.getCorrelationId()));
+        return Request.create(request.httpMethod(), request.url(), headers, request.body(), request.charset(),
+                request.requestTemplate());
+    }
+}
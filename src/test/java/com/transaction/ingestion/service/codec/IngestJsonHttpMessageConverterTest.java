@@ -0,0 +1,111 @@
+package com.transaction.ingestion.service.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.transaction.ingestion.service.dto.ErrorResponse;
+import com.transaction.ingestion.service.dto.FixedErrorResponse;
+import com.transaction.ingestion.service.dto.IngestResponse;
+import com.transaction.ingestion.service.dto.RejectedResponse;
+import com.transaction.ingestion.service.service.FieldDictionaries;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IngestJsonHttpMessageConverterTest {
+
+    private static final Instant AT = Instant.parse("2026-10-19T08:00:00.123Z");
+
+    // Same date handling as the application ObjectMapper
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final IngestJsonHttpMessageConverter converter = new IngestJsonHttpMessageConverter(objectMapper,
+            new DtoJsonCodecs(new FieldDictionaries(new SimpleMeterRegistry())), FixedErrorResponse.ALL);
+
+    @Test
+    void writesTheIngestResponse() throws IOException {
+        assertGolden("{\"transactionId\":\"T1\",\"status\":\"ACCEPTED\",\"message\":\"Transaction received\","
+                + "\"timestamp\":\"2026-10-19T08:00:00.123Z\"}",
+                new IngestResponse("T1", "ACCEPTED", "Transaction received", AT));
+    }
+
+    @Test
+    void writesValidationErrorsWithNestedNulls() throws IOException {
+        assertGolden("{\"error\":{\"code\":\"VALIDATION_FAILED\",\"message\":\"Invalid transaction request\","
+                + "\"violations\":[{\"field\":\"amount\",\"message\":\"Amount must be > 0\"}]}}",
+                new ErrorResponse(new ErrorResponse.Error("VALIDATION_FAILED", "Invalid transaction request",
+                        List.of(new ErrorResponse.Violation("amount", "Amount must be > 0")))));
+        assertGolden("{\"error\":{\"code\":\"VALIDATION_FAILED\",\"message\":null,\"violations\":null}}",
+                new ErrorResponse(new ErrorResponse.Error("VALIDATION_FAILED", null, null)));
+        assertGolden("{}", new ErrorResponse(null));
+    }
+
+    @Test
+    void writesTheRejectedResponse() throws IOException {
+        assertGolden("{\"error\":{\"code\":\"TRANSACTION_REJECTED\",\"message\":\"Daily limit exceeded\","
+                + "\"reason\":\"DAILY_LIMIT_EXCEEDED\",\"details\":{\"customerId\":\"C000001\","
+                + "\"requestedAmount\":125.5,\"customerLimit\":100.0,\"timestamp\":\"2026-10-19T08:00:00.123Z\"}}}",
+                new RejectedResponse(new RejectedResponse.Error("TRANSACTION_REJECTED", "Daily limit exceeded",
+                        "DAILY_LIMIT_EXCEEDED", new RejectedResponse.Details("C000001", 125.5, 100.0, AT))));
+        assertGolden("{\"error\":{\"code\":\"TRANSACTION_REJECTED\",\"message\":null,\"reason\":\"BLACKLISTED\","
+                + "\"details\":{\"customerId\":\"C000001\",\"requestedAmount\":125.5,\"customerLimit\":null,"
+                + "\"timestamp\":null}}}",
+                new RejectedResponse(new RejectedResponse.Error("TRANSACTION_REJECTED", null, "BLACKLISTED",
+                        new RejectedResponse.Details("C000001", 125.5, null, null))));
+    }
+
+    @Test
+    void writesTheFixedBodiesFromPreEncodedBytes() throws IOException {
+        assertGolden("{\"error\":{\"code\":\"TOO_MANY_REQUESTS\","
+                + "\"message\":\"Ingest capacity exceeded, retry later\"}}", FixedErrorResponse.TOO_MANY_REQUESTS);
+        assertGolden("{\"error\":{\"code\":\"IDEMPOTENCY_KEY_REUSED\","
+                + "\"message\":\"Idempotency-Key was already used with a different request\"}}",
+                FixedErrorResponse.IDEMPOTENCY_KEY_REUSED);
+        HttpHeaders headers = write(FixedErrorResponse.REQUEST_IN_PROGRESS).getHeaders();
+        assertEquals(objectMapper.writeValueAsBytes(FixedErrorResponse.REQUEST_IN_PROGRESS).length,
+                headers.getContentLength());
+    }
+
+    // The converter must match the golden JSON byte for byte, and so must the databind output it replaces
+    private void assertGolden(String expected, Object body) throws IOException {
+        assertEquals(expected, write(body).getBodyAsString());
+        assertEquals(expected, objectMapper.writeValueAsString(body));
+    }
+
+    private RecordingOutputMessage write(Object body) throws IOException {
+        RecordingOutputMessage message = new RecordingOutputMessage();
+        converter.write(body, MediaType.APPLICATION_JSON, message);
+        return message;
+    }
+
+    private static final class RecordingOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        private String getBodyAsString() {
+            return body.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.transaction.ingestion.service.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.transaction.ingestion.service.dto.FixedErrorResponse;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.dto.IngestResponse;
+import com.transaction.ingestion.service.dto.RejectedResponse;
+import com.transaction.ingestion.service.service.FieldDictionaries;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+// Time and allocation per operation of the streaming codecs against databind on the application ObjectMapper.
+// Not a test; run it on a quiet machine with
+//   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.transaction.ingestion.service.codec.JsonCodecBenchmark
+public final class JsonCodecBenchmark {
+
+    private static final int WARMUP = 200_000;
+    private static final int MEASURED = 1_000_000;
+    private static final byte[] REQUEST = ("{\"customerId\":\"C000001\",\"amount\":125.5,\"currency\":\"EUR\","
+            + "\"merchant\":\"Corner Shop\",\"merchantCategory\":\"GROCERY\",\"timestamp\":\"2026-10-19T08:00:00Z\","
+            + "\"channel\":\"online\",\"device\":\"mobile\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final DtoJsonCodecs codecs = new DtoJsonCodecs(new FieldDictionaries(new SimpleMeterRegistry()));
+    private final IngestJsonHttpMessageConverter converter = new IngestJsonHttpMessageConverter(objectMapper, codecs,
+            FixedErrorResponse.ALL);
+    private final MappingJackson2HttpMessageConverter jacksonConverter =
+            new MappingJackson2HttpMessageConverter(objectMapper);
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+    private final IngestResponse accepted = new IngestResponse("T1", "ACCEPTED", "Transaction received",
+            Instant.parse("2026-10-19T08:00:00Z"));
+    private final RejectedResponse rejected = new RejectedResponse(new RejectedResponse.Error("TRANSACTION_REJECTED",
+            "Daily limit exceeded", "DAILY_LIMIT_EXCEEDED",
+            new RejectedResponse.Details("C000001", 125.5, 100.0, Instant.parse("2026-10-19T08:00:00Z"))));
+    private final BufferMessage message = new BufferMessage();
+    private long sink;
+
+    public static void main(String[] args) throws IOException {
+        new JsonCodecBenchmark().run();
+    }
+
+    private void run() throws IOException {
+        System.out.printf("%-32s %12s %12s%n", "operation", "ns/op", "bytes/op");
+        measure("read request: codec", () -> {
+            try (JsonParser parser = objectMapper.getFactory().createParser(REQUEST)) {
+                sink += codecs.readIngestRequest(parser).getCustomerId().length();
+            }
+        });
+        measure("read request: databind", () ->
+                sink += objectMapper.readValue(REQUEST, IngestRequest.class).getCustomerId().length());
+        // Responses go through the HTTP converters, so both sides pay for the same header handling
+        measureWrite("write accepted", accepted);
+        measureWrite("write rejected", rejected);
+        measureWrite("write 429", FixedErrorResponse.TOO_MANY_REQUESTS);
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private void measureWrite(String name, Object body) throws IOException {
+        measure(name + ": codec", () -> write(converter, body));
+        measure(name + ": databind", () -> write(jacksonConverter, body));
+    }
+
+    private void write(HttpMessageConverter<Object> target, Object body) throws IOException {
+        out.reset();
+        message.headers.clear();
+        target.write(body, MediaType.APPLICATION_JSON, message);
+        sink += out.size();
+    }
+
+    private void measure(String name, Operation operation) throws IOException {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED; i++) {
+            operation.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("%-32s %12.1f %12.1f%n", name, (double) elapsed / MEASURED, (double) allocated / MEASURED);
+    }
+
+    private interface Operation {
+        void run() throws IOException;
+    }
+
+    private final class BufferMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        @Override
+        public OutputStream getBody() {
+            return out;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
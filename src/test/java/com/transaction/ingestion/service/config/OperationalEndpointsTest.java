@@ -0,0 +1,46 @@
+package com.transaction.ingestion.service.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.servlet.context.AnnotationConfigServletWebApplicationContext;
+import org.springframework.context.annotation.AnnotatedBeanDefinitionReader;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OperationalEndpointsTest {
+
+    private static final List<Class<?>> ENDPOINTS = List.of(BackfillEndpoint.class, ConsumerLagEndpoint.class,
+            DeadLetterEndpoint.class, ValidationRulesEndpoint.class);
+
+    @Test
+    void areNotRegisteredOnTheServicePort() {
+        assertEquals(0, registered(Map.of("server.port", "8080")));
+        assertEquals(0, registered(Map.of("server.port", "8080", "management.server.port", "8080")));
+    }
+
+    @Test
+    void areRegisteredOnASeparateManagementPort() {
+        assertEquals(ENDPOINTS.size(), registered(Map.of("server.port", "8080", "management.server.port", "8081")));
+    }
+
+    // Conditions are evaluated on registration, so the endpoints' own dependencies are not needed. The reader is
+    // given the environment directly; the context's own reader was created before setEnvironment
+    private static int registered(Map<String, Object> properties) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        try (AnnotationConfigServletWebApplicationContext context = new AnnotationConfigServletWebApplicationContext()) {
+            context.setEnvironment(environment);
+            AnnotatedBeanDefinitionReader reader = new AnnotatedBeanDefinitionReader(context, environment);
+            ENDPOINTS.forEach(reader::register);
+            int count = 0;
+            for (Class<?> endpoint : ENDPOINTS) {
+                count += context.getDefaultListableBeanFactory().getBeanNamesForType(endpoint).length;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.transaction.ingestion.service.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    @Test
+    void usesTheIsoExponentOfEachCurrency() {
+        assertEquals(2, Money.exponentOf("USD"));
+        assertEquals(0, Money.exponentOf("JPY"));
+        assertEquals(3, Money.exponentOf("BHD"));
+        assertEquals(2, Money.exponentOf("NOT_A_CURRENCY"));
+    }
+
+    @Test
+    void acceptsOnlyAmountsWithWholeMinorUnits() {
+        assertTrue(Money.hasWholeMinorUnits(0.29, "USD"));
+        assertTrue(Money.hasWholeMinorUnits(999999999.99, "USD"));
+        assertTrue(Money.hasWholeMinorUnits(1234, "JPY"));
+        assertTrue(Money.hasWholeMinorUnits(1.234, "BHD"));
+        assertFalse(Money.hasWholeMinorUnits(1234.56, "JPY"));
+        assertFalse(Money.hasWholeMinorUnits(0.295, "USD"));
+        assertFalse(Money.hasWholeMinorUnits(1.2345, "BHD"));
+    }
+
+    @Test
+    void floorNeverRoundsUp() {
+        assertEquals(29, Money.toMinorUnitsFloor(0.29, "USD"));
+        assertEquals(1_000_000, Money.toMinorUnitsFloor(10000.0, "USD"));
+        assertEquals(99_999, Money.toMinorUnitsFloor(999.999, "USD"));
+        assertEquals(99_999, Money.toMinorUnitsFloor(999.995, "USD"));
+        assertEquals(1234, Money.toMinorUnitsFloor(1234.99, "JPY"));
+    }
+
+    @Test
+    void convertsWholeMinorUnitsExactly() {
+        Money money = Money.of(0.29, "USD");
+
+        assertEquals(29, money.getMinorUnits());
+        assertEquals(new BigDecimal("0.29"), money.toBigDecimal());
+        assertEquals(0.29, money.toDouble(), 0.0);
+        assertEquals(1234, Money.of(new BigDecimal("1234"), "JPY").getMinorUnits());
+    }
+
+    @Test
+    void convertsBigDecimalsOnBothSidesOfTheFastPath() {
+        assertEquals(29, Money.toMinorUnits(new BigDecimal("0.29"), "USD"));
+        assertEquals(-1_000, Money.toMinorUnits(new BigDecimal("-10"), "USD"));
+        assertEquals(500_000, Money.toMinorUnits(new BigDecimal("5E+3"), "USD"));
+        assertEquals(999_999_999_999_999L, Money.toMinorUnits(new BigDecimal("9999999999999.99"), "USD"));
+        // Too many digits for a double, and more decimals than the currency: both take the exact path
+        assertEquals(1_234_567_890_123_456_789L, Money.toMinorUnits(new BigDecimal("12345678901234567.89"), "USD"));
+        assertEquals(2, Money.toMinorUnits(new BigDecimal("0.025"), "USD"));
+        assertEquals(1_234, Money.toMinorUnits(new BigDecimal("1234.5"), "JPY"));
+    }
+
+    @Test
+    void comparesByMinorUnits() {
+        assertTrue(Money.ofMinor(10_001, "USD").isGreaterThan(Money.ofMinor(10_000, "USD")));
+        assertFalse(Money.ofMinor(10_000, "USD").isGreaterThan(Money.ofMinor(10_000, "USD")));
+        assertEquals(Money.ofMinor(30, "USD"), Money.ofMinor(10, "USD").plus(Money.ofMinor(20, "USD")));
+    }
+}
@@ -0,0 +1,145 @@
+package com.transaction.ingestion.service.rules;
+
+import com.riskplatform.common.entity.Customer;
+import com.transaction.ingestion.service.config.RuleEngineProperties;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.model.BusinessRejection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BusinessRuleEngineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Declared as in production: customer-active first, the reserving rule last
+    private final FakeRule active = new FakeRule("customer-active", RuleInput.CUSTOMER, CostClass.LOCAL,
+            "CUSTOMER_INACTIVE", context -> !"ACTIVE".equals(context.getCustomer().getStatus()));
+    private final FakeRule limit = new FakeRule("customer-limit", RuleInput.CUSTOMER, CostClass.LOCAL,
+            "LIMIT_EXCEEDED", context -> context.getRequest().getAmount() > 100);
+    private final FakeRule merchant = new FakeRule("registered-merchant", RuleInput.REQUEST, CostClass.LOCAL,
+            "MERCHANT_NOT_REGISTERED", context -> "Unknown".equals(context.getRequest().getMerchant()));
+    private final FakeRule dailySpend = new FakeRule("daily-spend", RuleInput.CUSTOMER, CostClass.RESERVING,
+            "DAILY_LIMIT_EXCEEDED", context -> false);
+
+    @Test
+    void anInactiveCustomerIsReportedEvenWhenTheLimitRuleRunsFirst() {
+        BusinessRuleEngine engine = engine();
+        // The limit rule rejects often and active never, so adaptive ordering moves limit ahead of active
+        for (int i = 0; i < 20; i++) {
+            engine.evaluate(context(500, "Shop", "ACTIVE"));
+            engine.evaluate(context(50, "Shop", "ACTIVE"));
+        }
+        engine.replan();
+        assertTrue(position("customer-limit") < position("customer-active"));
+
+        assertEquals("CUSTOMER_INACTIVE", engine.evaluate(context(500, "Shop", "SUSPENDED")).getReason());
+        assertEquals("LIMIT_EXCEEDED", engine.evaluate(context(500, "Shop", "ACTIVE")).getReason());
+    }
+
+    @Test
+    void aRequestOnlyRejectionIsReturnedWithoutWaitingForTheCustomer() {
+        BusinessRuleEngine engine = engine();
+        // Request-only rules run before customer rules, while the lookup is in flight
+        assertTrue(position("registered-merchant") < position("customer-active"));
+
+        RuleContext context = context(50, "Unknown", "SUSPENDED");
+        assertEquals("MERCHANT_NOT_REGISTERED", engine.evaluate(context).getReason());
+        assertFalse(context.isCustomerResolved());
+        assertEquals(0, active.evaluations);
+        assertEquals(0, dailySpend.evaluations);
+    }
+
+    @Test
+    void earlierRemoteRulesAreNotRerunAfterARejection() {
+        FakeRule remote = new FakeRule("remote-check", RuleInput.REQUEST, CostClass.REMOTE, "REMOTE_REJECTED",
+                context -> true);
+        RuleEngineProperties properties = new RuleEngineProperties();
+        BusinessRuleEngine engine = new BusinessRuleEngine(List.of(remote, limit, dailySpend), properties,
+                meterRegistry);
+
+        assertEquals("LIMIT_EXCEEDED", engine.evaluate(context(500, "Shop", "ACTIVE")).getReason());
+        assertEquals(0, remote.evaluations);
+    }
+
+    @Test
+    void passesWhenNoRuleRejects() {
+        assertNull(engine().evaluate(context(50, "Shop", "ACTIVE")));
+        assertEquals(1, dailySpend.evaluations);
+    }
+
+    private BusinessRuleEngine engine() {
+        RuleEngineProperties properties = new RuleEngineProperties();
+        properties.setMinSamples(1);
+        properties.setSmoothing(1.0);
+        return new BusinessRuleEngine(List.of(active, limit, merchant, dailySpend), properties, meterRegistry);
+    }
+
+    private double position(String rule) {
+        return meterRegistry.get("business.rule.position").tag("rule", rule).gauge().value();
+    }
+
+    private static RuleContext context(double amount, String merchantName, String status) {
+        IngestRequest request = new IngestRequest();
+        request.setCustomerId("C000001");
+        request.setAmount(amount);
+        request.setMerchant(merchantName);
+        Customer customer = new Customer();
+        customer.setCustomerId("C000001");
+        customer.setStatus(status);
+        return new RuleContext(request, null, null, () -> customer);
+    }
+
+    private static final class FakeRule implements BusinessRule {
+
+        private final String name;
+        private final RuleInput input;
+        private final CostClass costClass;
+        private final String reason;
+        private final Predicate<RuleContext> rejects;
+        private int evaluations;
+
+        private FakeRule(String name, RuleInput input, CostClass costClass, String reason,
+                Predicate<RuleContext> rejects) {
+            this.name = name;
+            this.input = input;
+            this.costClass = costClass;
+            this.reason = reason;
+            this.rejects = rejects;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Set<RuleInput> getInputs() {
+            return Set.of(input);
+        }
+
+        @Override
+        public CostClass getCostClass() {
+            return costClass;
+        }
+
+        @Override
+        public String getRejectionReason() {
+            return reason;
+        }
+
+        @Override
+        public BusinessRejection evaluate(RuleContext context) {
+            evaluations++;
+            return rejects.test(context) ? new BusinessRejection(reason, name, null) : null;
+        }
+    }
+}
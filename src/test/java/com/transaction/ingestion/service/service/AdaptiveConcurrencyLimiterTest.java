@@ -0,0 +1,93 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.AdmissionProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASELINE = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void neverAdmitsMoreThanTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config());
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        assertFalse(limiter.tryAcquire());
+        assertEquals(20, limiter.getInFlight());
+    }
+
+    @Test
+    void growsWhileLatencyHoldsAndShrinksWhenItQueues() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config());
+        runAtFullLoad(limiter, BASELINE, 200);
+        int grown = limiter.getLimit();
+        assertTrue(grown > 20, "limit " + grown);
+
+        // Before the long-term baseline has caught up with the new latency
+        runAtFullLoad(limiter, BASELINE * 4, 2);
+
+        assertTrue(limiter.getLimit() < grown, "limit " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= config().getMinLimit());
+    }
+
+    @Test
+    void backsOffOnDropsButNotOnIgnoredPermits() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config());
+        limiter.tryAcquire();
+        limiter.onIgnored();
+        assertEquals(20, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+
+        limiter.tryAcquire();
+        limiter.onDropped();
+
+        assertEquals(18, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void estimatesTheQueueFromLatencyAboveTheBaseline() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config());
+        runAtFullLoad(limiter, BASELINE, 100);
+        assertEquals(0.0, limiter.getEstimatedQueueDepth(), 0.0);
+
+        // Double the baseline latency: about half of each in-flight request's time is spent waiting
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+        }
+        limiter.tryAcquire();
+        limiter.onSuccess(BASELINE * 2);
+
+        double depth = limiter.getEstimatedQueueDepth();
+        assertTrue(depth > 4 && depth <= 5, "depth " + depth);
+    }
+
+    // Every permit taken, then released with the given latency, one at a time
+    private static void runAtFullLoad(AdaptiveConcurrencyLimiter limiter, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int taken = 0;
+            while (limiter.tryAcquire()) {
+                taken++;
+            }
+            for (int i = 0; i < taken; i++) {
+                limiter.onSuccess(rttNanos);
+            }
+        }
+    }
+
+    private static AdmissionProperties.ConcurrencyConfig config() {
+        AdmissionProperties.ConcurrencyConfig config = new AdmissionProperties.ConcurrencyConfig();
+        config.setInitialLimit(20);
+        config.setMinLimit(4);
+        config.setMaxLimit(200);
+        return config;
+    }
+}
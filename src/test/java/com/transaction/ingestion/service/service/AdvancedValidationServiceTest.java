@@ -0,0 +1,63 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskplatform.common.entity.Transaction;
+import com.transaction.ingestion.service.client.MongoServiceClient;
+import com.transaction.ingestion.service.config.BatchingProperties;
+import com.transaction.ingestion.service.config.CustomerSnapshotProperties;
+import com.transaction.ingestion.service.config.ValidationReloadProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdvancedValidationServiceTest {
+
+    private static final Instant AS_OF = Instant.parse("2026-09-15T12:00:00Z");
+
+    @Test
+    void readsHistoryAsOfAPastInstantWithAnUpperBound() {
+        List<Object[]> queries = new ArrayList<>();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Only the bounded query is answered; the open-ended one would fail the test
+        MongoServiceClient client = TestFixtures.mongo(Map.of("findKYCStatusByCustomerId", args -> null));
+        CustomerLookupService lookups = new CustomerLookupService(client, null, new BatchingProperties(),
+                new CustomerSnapshotService(new CustomerSnapshotProperties(), new ObjectMapper(), meterRegistry),
+                meterRegistry);
+        ValidationRuleRegistry rules = new ValidationRuleRegistry(TestFixtures.validationProperties(),
+                new ValidationReloadProperties(), new StandardEnvironment(), meterRegistry);
+        AdvancedValidationService advanced = new AdvancedValidationService(
+                TestFixtures.batchClient(Map.of("findCustomerTransactionsBetween", args -> {
+                    queries.add(args);
+                    return List.of();
+                })),
+                null, rules, lookups, new FieldDictionaries(meterRegistry), null, null, TestFixtures.tracer(),
+                new AMLSanctionsService(null, null) {
+                    @Override
+                    public boolean isTransactionCompliant(Transaction transaction) {
+                        return true;
+                    }
+                });
+
+        advanced.performAdvancedValidation(Transaction.builder()
+                .transactionId("T1")
+                .customerId("C000001")
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .timestamp(AS_OF)
+                .build(), AS_OF);
+
+        assertEquals(1, queries.size());
+        assertEquals("C000001", queries.get(0)[0]);
+        assertEquals(AS_OF.minus(Duration.ofDays(30)), queries.get(0)[1]);
+        assertEquals(AS_OF, queries.get(0)[2]);
+    }
+}
@@ -0,0 +1,130 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskplatform.common.entity.Transaction;
+import com.riskplatform.common.event.TransactionValidatedEvent;
+import com.transaction.ingestion.service.client.MongoServiceClient;
+import com.transaction.ingestion.service.config.BatchingProperties;
+import com.transaction.ingestion.service.config.CacheProperties;
+import com.transaction.ingestion.service.config.CustomerHistoryCacheProperties;
+import com.transaction.ingestion.service.config.CustomerSnapshotProperties;
+import com.transaction.ingestion.service.config.FxProperties;
+import com.transaction.ingestion.service.config.ValidationReloadProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncValidationProcessorTest {
+
+    private final TestFixtures.RecordingKafkaTemplate template = new TestFixtures.RecordingKafkaTemplate();
+    private final List<String> calls = new ArrayList<>();
+    private final Map<String, Function<Object[], Object>> mongo = new HashMap<>();
+
+    AsyncValidationProcessorTest() {
+        mongo.put("findTransactionById", args -> Optional.of(transaction()));
+        mongo.put("findKYCStatusByCustomerId", args -> null);
+        mongo.put("findTransactionsByCustomerIdAndTimestampAfterOrderByTimestampDesc", args -> List.of());
+        mongo.put("saveTransaction", args -> {
+            calls.add("save, events sent: " + template.sent.size());
+            return args[0];
+        });
+    }
+
+    @Test
+    void publishesTheOutcomeOnlyAfterTheSave() {
+        processor().processTransactionReceivedEvent(event(), null, null, "transaction-received");
+
+        assertEquals(List.of("save, events sent: 0"), calls);
+        assertEquals(1, template.sent.size());
+        assertEquals("transaction-validated", template.sent.get(0).topic());
+        assertEquals("evt-T1-2", template.sent.get(0).value().getEventId());
+    }
+
+    @Test
+    void failedSaveIsRetriedWithoutPublishing() {
+        mongo.put("saveTransaction", args -> {
+            throw new IllegalStateException("mongo-service unavailable");
+        });
+
+        assertThrows(IllegalStateException.class, () -> processor().processTransactionReceivedEvent(event(), null,
+                null, "transaction-received"));
+        assertTrue(template.sent.isEmpty());
+    }
+
+    @Test
+    void lookupFailuresReachTheRetryTopics() {
+        mongo.put("findKYCStatusByCustomerId", args -> {
+            throw new IllegalStateException("kyc lookup timed out");
+        });
+        assertThrows(IllegalStateException.class, () -> processor().processTransactionReceivedEvent(event(), null,
+                null, "transaction-received"));
+
+        mongo.put("findKYCStatusByCustomerId", args -> null);
+        mongo.put("findTransactionsByCustomerIdAndTimestampAfterOrderByTimestampDesc", args -> {
+            throw new IllegalStateException("history lookup timed out");
+        });
+        assertThrows(IllegalStateException.class, () -> processor().processTransactionReceivedEvent(event(), null,
+                null, "transaction-received"));
+
+        assertTrue(calls.isEmpty());
+        assertTrue(template.sent.isEmpty());
+    }
+
+    private AsyncValidationProcessor processor() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MongoServiceClient client = TestFixtures.mongo(mongo);
+        BatchingProperties batching = new BatchingProperties();
+        batching.setEnabled(false);
+        CustomerLookupService lookups = new CustomerLookupService(client, null, batching,
+                new CustomerSnapshotService(new CustomerSnapshotProperties(), new ObjectMapper(), meterRegistry),
+                meterRegistry);
+        ValidationRuleRegistry rules = new ValidationRuleRegistry(TestFixtures.validationProperties(),
+                new ValidationReloadProperties(), new StandardEnvironment(), meterRegistry);
+        FieldDictionaries fieldDictionaries = new FieldDictionaries(meterRegistry);
+        AdvancedValidationService advanced = new AdvancedValidationService(null,
+                TestFixtures.producer(template), rules, lookups, fieldDictionaries,
+                new FxRateService(new FxProperties(), new DefaultResourceLoader(), meterRegistry),
+                new CustomerHistoryCache(new CustomerHistoryCacheProperties(), client, fieldDictionaries,
+                        meterRegistry),
+                TestFixtures.tracer(),
+                new AMLSanctionsService(null, null) {
+                    @Override
+                    public boolean isTransactionCompliant(Transaction transaction) {
+                        return true;
+                    }
+                });
+        CacheProperties cache = new CacheProperties();
+        cache.setEnabled(false);
+        return new AsyncValidationProcessor(client, advanced,
+                new RecentTransactionCache(cache, new ObjectMapper(), meterRegistry), TestFixtures.tracer(),
+                meterRegistry);
+    }
+
+    private static TransactionValidatedEvent event() {
+        return TransactionValidatedEvent.builder().transactionId("T1").customerId("C000001").build();
+    }
+
+    private static Transaction transaction() {
+        return Transaction.builder()
+                .transactionId("T1")
+                .customerId("C000001")
+                .amount(new BigDecimal("19.99"))
+                .currency("USD")
+                .timestamp(Instant.now())
+                .build();
+    }
+}
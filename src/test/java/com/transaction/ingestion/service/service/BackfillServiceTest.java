@@ -0,0 +1,118 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Transaction;
+import com.riskplatform.common.entity.ValidationDetails;
+import com.transaction.ingestion.service.client.MongoServiceBatchClient;
+import com.transaction.ingestion.service.config.AdmissionProperties;
+import com.transaction.ingestion.service.config.BackfillProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackfillServiceTest {
+
+    private static final Instant FROM = Instant.parse("2026-10-01T00:00:00Z");
+    private static final Instant TO = Instant.parse("2026-10-02T00:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+    @Test
+    void retriesFailedTransactionsOnceTheRangeIsRead() throws Exception {
+        BackfillService backfill = backfill(Set.of("T2"), 1);
+
+        Map<String, Object> status = run(backfill);
+
+        assertEquals("COMPLETED", status.get("state"));
+        assertEquals(3L, status.get("processed"));
+        assertEquals(0, status.get("failed"));
+        assertEquals(2, attempts.get("T2").get());
+    }
+
+    @Test
+    void keepsTransactionsThatStillFailForTheNextStart() throws Exception {
+        BackfillService backfill = backfill(Set.of("T2"), Integer.MAX_VALUE);
+
+        Map<String, Object> status = run(backfill);
+
+        assertEquals(1, status.get("failed"));
+        // One attempt in the range and one per retry pass
+        assertEquals(3, attempts.get("T2").get());
+        try (var files = Files.list(tempDir)) {
+            String checkpoint = Files.readString(files.filter(file -> file.toString().endsWith(".properties"))
+                    .findFirst().orElseThrow());
+            assertTrue(checkpoint.contains("failedIds=T2"));
+        }
+
+        // The range is complete, but starting it again retries what is left
+        status = run(backfill);
+        assertEquals(5, attempts.get("T2").get());
+        assertEquals(1, attempts.get("T1").get());
+        assertEquals(3L, status.get("processed"));
+    }
+
+    // The listed transactions fail their first `failures` re-validations
+    private BackfillService backfill(Set<String> failing, int failures) {
+        List<Transaction> page = List.of(transaction("T1"), transaction("T2"), transaction("T3"));
+        MongoServiceBatchClient batchClient = TestFixtures.batchClient(Map.of("findTransactionsPage",
+                args -> args[2] == null ? page : List.of()));
+        AdvancedValidationService advanced = new AdvancedValidationService(null, null, null, null, null, null, null,
+                null, null) {
+            @Override
+            public ValidationDetails performAdvancedValidation(Transaction transaction, Instant asOf) {
+                int attempt = attempts.computeIfAbsent(transaction.getTransactionId(), id -> new AtomicInteger())
+                        .incrementAndGet();
+                if (failing.contains(transaction.getTransactionId()) && attempt <= failures) {
+                    throw new IllegalStateException("mongo-service unavailable");
+                }
+                return new ValidationDetails();
+            }
+        };
+        BackfillProperties properties = new BackfillProperties();
+        properties.setCheckpointDir(tempDir.toString());
+        properties.setMaxPerSecond(10_000);
+        return new BackfillService(batchClient, TestFixtures.mongo(Map.of("findTransactionById", args ->
+                page.stream().filter(t -> t.getTransactionId().equals(args[0])).findFirst())),
+                advanced, new IngestAdmissionService(new AdmissionProperties(), meterRegistry), properties,
+                TestFixtures.objectMapper(), meterRegistry);
+    }
+
+    private static Map<String, Object> run(BackfillService backfill) throws InterruptedException {
+        backfill.start(FROM, TO, false, false, false);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        Map<String, Object> status = backfill.status();
+        while (("STARTING".equals(status.get("state")) || "RUNNING".equals(status.get("state")))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            status = backfill.status();
+        }
+        return status;
+    }
+
+    private static Transaction transaction(String transactionId) {
+        return Transaction.builder()
+                .transactionId(transactionId)
+                .customerId("C000001")
+                .amount(new BigDecimal("10.00"))
+                .currency("USD")
+                .timestamp(FROM.plusSeconds(transactionId.hashCode() % 100))
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.transaction.ingestion.service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final int ENTRIES = 10_000;
+    private static final int PROBES = 200_000;
+
+    @Test
+    void neverGivesAFalseNegative() {
+        List<String> values = values("C", ENTRIES);
+        BloomFilter filter = BloomFilter.of(values, 0.01);
+
+        for (String value : values) {
+            assertTrue(filter.mightContain(value));
+        }
+        assertFalse(filter.mightContain(null));
+    }
+
+    @Test
+    void measuredFalsePositiveRateStaysWithinTheConfiguredBound() {
+        for (double rate : new double[] { 0.01, 0.001 }) {
+            BloomFilter filter = BloomFilter.of(values("C", ENTRIES), rate);
+            int falsePositives = 0;
+            for (String probe : values("M", PROBES)) {
+                if (filter.mightContain(probe)) {
+                    falsePositives++;
+                }
+            }
+
+            // A quarter over the target leaves room for sampling noise at the lower rate (about 200 expected hits)
+            double measured = (double) falsePositives / PROBES;
+            assertTrue(measured <= rate * 1.25, "measured " + measured + " for a target of " + rate);
+        }
+    }
+
+    @Test
+    void rejectsAnInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.of(List.of("a"), 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.of(List.of("a"), 1));
+    }
+
+    private static List<String> values(String prefix, int count) {
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(prefix + String.format("%06d", i));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,38 @@
+package com.transaction.ingestion.service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConsumerLagMonitorTest {
+
+    private static final String TOPIC = "transaction-received";
+
+    @Test
+    void monitorsTheRetryTopicsInOrderAndTheDeadLetterTopic() {
+        Set<String> existing = Set.of("transaction-validated", "transaction-received-dlt",
+                "transaction-received-retry-10", "transaction-received-retry-2", "transaction-received",
+                "transaction-received-retry-0", "transaction-received-retry", "transaction-received-retry-x");
+
+        assertEquals(List.of(TOPIC, "transaction-received-retry-0", "transaction-received-retry-2",
+                "transaction-received-retry-10", "transaction-received-retry", "transaction-received-dlt"),
+                ConsumerLagMonitor.monitoredTopics(TOPIC, existing));
+    }
+
+    @Test
+    void monitorsTheMainTopicAloneBeforeAnyRetryTopicExists() {
+        assertEquals(List.of(TOPIC), ConsumerLagMonitor.monitoredTopics(TOPIC, Set.of(TOPIC, "other")));
+    }
+
+    @Test
+    void pairsEachTopicWithTheSuffixedGroup() {
+        assertEquals("async-validation-group", ConsumerLagMonitor.groupFor("async-validation-group", TOPIC, TOPIC));
+        assertEquals("async-validation-group-retry-1", ConsumerLagMonitor.groupFor("async-validation-group", TOPIC,
+                "transaction-received-retry-1"));
+        assertEquals("async-validation-group-dlt", ConsumerLagMonitor.groupFor("async-validation-group", TOPIC,
+                "transaction-received-dlt"));
+    }
+}
@@ -0,0 +1,326 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.ingestion.service.client.AffinityForwardingClient;
+import com.transaction.ingestion.service.config.AdmissionProperties;
+import com.transaction.ingestion.service.config.AffinityProperties;
+import com.transaction.ingestion.service.config.DailySpendProperties;
+import com.transaction.ingestion.service.config.FxProperties;
+import com.transaction.ingestion.service.config.IdempotencyProperties;
+import com.transaction.ingestion.service.controller.TransactionsController;
+import com.transaction.ingestion.service.dto.CustomerStateHandoff;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.dto.IngestResponse;
+import com.transaction.ingestion.service.dto.RejectedResponse;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two instances wired together in memory: forwarding and state pulls go straight to the other instance's
+// controller, with bodies serialized as they would be on the wire
+class CustomerAffinityTwoInstanceTest {
+
+    private static final String SECRET = "affinity-test-secret";
+    private static final String SERVICE_ID = "transaction-ingestion-service";
+    private static final Instant AT = Instant.parse("2026-03-01T10:15:30Z");
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = TestFixtures.objectMapper();
+    private final List<ServiceInstance> registered = new ArrayList<>();
+    private final Map<URI, Instance> byUri = new HashMap<>();
+
+    @Test
+    void requestIsProcessedByTheOwnerWhicheverInstanceReceivesIt() {
+        Instance a = start("A", SECRET);
+        Instance b = start("B", SECRET);
+        refreshAll(a, b);
+        String customerId = customerOwnedBy("B", "A", "B");
+
+        assertEquals("B", processedBy(a.ingest(request(customerId, 10.0), null)));
+        assertEquals("B", processedBy(b.ingest(request(customerId, 10.0), null)));
+        assertEquals(2, b.transactions.processed);
+        assertEquals(0, a.transactions.processed);
+    }
+
+    @Test
+    void stateFollowsTheCustomerWhenAnInstanceJoins() {
+        Instance a = start("A", SECRET);
+        refreshAll(a);
+        String customerId = customerOwnedBy("B", "A", "B");
+        ResponseEntity<?> original = a.ingest(request(customerId, 60.0), "key-1");
+        assertEquals("A", processedBy(original));
+
+        Instance b = start("B", SECRET);
+        refreshAll(a, b);
+
+        // The retry reaches the new owner, which replays the response A stored instead of charging again
+        ResponseEntity<?> retry = b.ingest(request(customerId, 60.0), "key-1");
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAY_HEADER));
+        assertEquals(0, b.transactions.processed);
+
+        // Today's spend moved as well: 60 + 50 is over the daily limit of 100, whichever instance is asked
+        assertEquals(HttpStatus.CONFLICT, b.ingest(request(customerId, 50.0), "key-2").getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, a.ingest(request(customerId, 50.0), "key-3").getStatusCode());
+        assertEquals(HttpStatus.OK, a.ingest(request(customerId, 40.0), "key-4").getStatusCode());
+        assertEquals(6_000 + 4_000, b.dailySpend.getSpent(customerId));
+        assertEquals(1, a.transactions.processed);
+    }
+
+    @Test
+    void internalEndpointsRequireTheSharedSecret() {
+        Instance a = start("A", SECRET);
+        refreshAll(a);
+
+        assertEquals(HttpStatus.FORBIDDEN, a.controller.processForwardedIngest(request("C1", 10.0), "wrong",
+                "B", null, null, null, new MockHttpServletResponse()).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, a.controller.processForwardedIngest(request("C1", 10.0), null,
+                "B", null, null, null, new MockHttpServletResponse()).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, a.controller.exportCustomerState("C1", null).getStatusCode());
+        assertEquals(0, a.transactions.processed);
+    }
+
+    @Test
+    void withoutSharedSecretEveryInstanceProcessesLocally() {
+        Instance a = start("A", null);
+        Instance b = start("B", null);
+        refreshAll(a, b);
+        String customerId = customerOwnedBy("B", "A", "B");
+
+        assertFalse(a.router.isForwardingEnabled());
+        assertEquals("A", processedBy(a.ingest(request(customerId, 10.0), null)));
+        assertEquals(HttpStatus.FORBIDDEN, b.controller.exportCustomerState(customerId, null).getStatusCode());
+    }
+
+    @Test
+    void dailySpendRefusesToStartNextToUnroutedInstances() {
+        Instance a = start("A", null);
+        // Alone, the instance's totals are the customer's totals
+        guard(a, true).verifyAtStartup();
+
+        Instance b = start("B", null);
+        assertThrows(IllegalStateException.class, () -> guard(b, true).verifyAtStartup());
+        guard(b, false).verifyAtStartup();
+
+        // A started before B registered; the periodic check catches it
+        DailySpendAffinityGuard running = guard(a, true);
+        running.check();
+        assertTrue(running.isViolated());
+
+        Instance c = start("C", SECRET);
+        guard(c, true).verifyAtStartup();
+    }
+
+    private DailySpendAffinityGuard guard(Instance instance, boolean requireAffinity) {
+        DailySpendProperties properties = new DailySpendProperties();
+        properties.setRequireAffinity(requireAffinity);
+        return new DailySpendAffinityGuard(properties, instance.router, new SimpleMeterRegistry());
+    }
+
+    private Instance start(String id, String secret) {
+        Instance instance = new Instance(id, secret);
+        registered.add(instance.registration);
+        byUri.put(instance.registration.getUri(), instance);
+        return instance;
+    }
+
+    private static void refreshAll(Instance... instances) {
+        for (Instance instance : instances) {
+            instance.router.refreshMembership();
+        }
+    }
+
+    private static String customerOwnedBy(String owner, String... members) {
+        ConsistentHashRing ring = ConsistentHashRing.of(Set.of(members), 128);
+        for (int i = 0; ; i++) {
+            String customerId = "C" + i;
+            if (owner.equals(ring.ownerOf(customerId))) {
+                return customerId;
+            }
+        }
+    }
+
+    private String processedBy(ResponseEntity<?> response) {
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        if (response.getBody() instanceof IngestResponse ingestResponse) {
+            return ingestResponse.getMessage();
+        }
+        try {
+            return objectMapper.readTree((byte[]) response.getBody()).get("message").asText();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static IngestRequest request(String customerId, double amount) {
+        IngestRequest request = new IngestRequest();
+        request.setCustomerId(customerId);
+        request.setAmount(amount);
+        request.setCurrency("USD");
+        request.setTimestamp(AT);
+        return request;
+    }
+
+    private final class Instance {
+
+        private final TestRegistration registration;
+        private final CustomerAffinityRouter router;
+        private final DailySpendTracker dailySpend;
+        private final CountingTransactionService transactions;
+        private final TransactionsController controller;
+
+        private Instance(String id, String secret) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            registration = new TestRegistration(id);
+            AffinityProperties affinity = new AffinityProperties();
+            affinity.setSharedSecret(secret);
+            StaticListableBeanFactory beans = new StaticListableBeanFactory();
+            beans.addBean("registration", registration);
+            router = new CustomerAffinityRouter(affinity, new TestDiscoveryClient(), beans.getBeanProvider(
+                    Registration.class), new InMemoryForwardingClient(), SERVICE_ID, meterRegistry);
+
+            DailySpendProperties dailySpendProperties = new DailySpendProperties();
+            dailySpendProperties.setCheckpointPath(tempDir.resolve(id + "-daily-spend.bin").toString());
+            FxProperties fx = new FxProperties();
+            dailySpend = new DailySpendTracker(dailySpendProperties, fx, meterRegistry);
+            IdempotencyService idempotency = new IdempotencyService(new InMemoryIdempotencyStore(1000),
+                    new IdempotencyProperties(), objectMapper, meterRegistry);
+            CustomerStateHandoffService handoff = new CustomerStateHandoffService(router,
+                    new InMemoryForwardingClient(), dailySpend, idempotency, fx, meterRegistry);
+            transactions = new CountingTransactionService(id, dailySpend);
+            controller = new TransactionsController(transactions,
+                    new IngestAdmissionService(new AdmissionProperties(), meterRegistry), idempotency, router,
+                    handoff, TestFixtures.tracer());
+        }
+
+        private ResponseEntity<?> ingest(IngestRequest request, String idempotencyKey) {
+            return controller.processIngest(request, idempotencyKey, null, null, new MockHttpServletResponse());
+        }
+    }
+
+    // Accepts a transaction while the customer stays within 100.00 a day, and names the instance in the message
+    private static final class CountingTransactionService extends TransactionService {
+
+        private final String instanceId;
+        private final DailySpendTracker dailySpend;
+        private int processed;
+
+        private CountingTransactionService(String instanceId, DailySpendTracker dailySpend) {
+            super(null, null, null, null, null, null, null, null, null);
+            this.instanceId = instanceId;
+            this.dailySpend = dailySpend;
+        }
+
+        @Override
+        public ResponseEntity<?> processTransaction(IngestRequest request) {
+            processed++;
+            long minorUnits = Math.round(request.getAmount() * 100);
+            if (!dailySpend.tryAdd(request.getCustomerId(), minorUnits, 10_000)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(new RejectedResponse(
+                        new RejectedResponse.Error("TRANSACTION_REJECTED", "Daily limit exceeded",
+                                "DAILY_LIMIT_EXCEEDED", null)));
+            }
+            return ResponseEntity.ok(new IngestResponse("T-" + instanceId + "-" + processed, "ACCEPTED",
+                    instanceId, AT));
+        }
+    }
+
+    private final class InMemoryForwardingClient implements AffinityForwardingClient {
+
+        @Override
+        public Response forwardIngest(URI ownerUri, String token, String forwardedBy, String idempotencyKey,
+                IngestRequest ingestRequest) {
+            ResponseEntity<?> response = byUri.get(ownerUri).controller.processForwardedIngest(ingestRequest, token,
+                    forwardedBy, idempotencyKey, null, null, new MockHttpServletResponse());
+            Map<String, Collection<String>> headers = new HashMap<>();
+            response.getHeaders().forEach(headers::put);
+            return Response.builder()
+                    .status(response.getStatusCode().value())
+                    .headers(headers)
+                    .body(toBytes(response.getBody()))
+                    .request(Request.create(Request.HttpMethod.POST, ownerUri.toString(), Map.of(), null,
+                            StandardCharsets.UTF_8, null))
+                    .build();
+        }
+
+        @Override
+        public CustomerStateHandoff fetchCustomerState(URI previousOwnerUri, String token, String customerId) {
+            ResponseEntity<CustomerStateHandoff> response = byUri.get(previousOwnerUri).controller
+                    .exportCustomerState(customerId, token);
+            if (response.getStatusCode() != HttpStatus.OK) {
+                throw new IllegalStateException("State pull refused with " + response.getStatusCode());
+            }
+            try {
+                return objectMapper.readValue(toBytes(response.getBody()), CustomerStateHandoff.class);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private byte[] toBytes(Object body) {
+            if (body == null || body instanceof byte[]) {
+                return (byte[]) body;
+            }
+            try {
+                return objectMapper.writeValueAsBytes(body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private final class TestDiscoveryClient implements DiscoveryClient {
+
+        @Override
+        public String description() {
+            return "test";
+        }
+
+        @Override
+        public List<ServiceInstance> getInstances(String serviceId) {
+            return List.copyOf(registered);
+        }
+
+        @Override
+        public List<String> getServices() {
+            return List.of(SERVICE_ID);
+        }
+    }
+
+    private static final class TestRegistration extends DefaultServiceInstance implements Registration {
+
+        private TestRegistration(String id) {
+            super(id, SERVICE_ID, id.toLowerCase() + ".test", 8080, false);
+        }
+    }
+}
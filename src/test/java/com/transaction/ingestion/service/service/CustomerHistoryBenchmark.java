@@ -0,0 +1,111 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Time and allocation per validation of the pattern checks over CustomerHistory against the List<Transaction>
+// stream version they replaced, at growing history sizes. Not a test; run it on a quiet machine with
+//   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.transaction.ingestion.service.service.CustomerHistoryBenchmark
+public final class CustomerHistoryBenchmark {
+
+    private static final int[] SIZES = { 100, 1_000, 10_000 };
+    private static final long OPERATIONS = 20_000_000L;
+    private static final Instant NOW = Instant.parse("2026-10-19T08:00:00Z");
+    private static final FxRateSnapshot RATES = FxRateSnapshot.of("USD", Map.of("EUR", new BigDecimal("1.1")),
+            Instant.EPOCH);
+
+    private final FieldDictionaries fieldDictionaries = new FieldDictionaries(new SimpleMeterRegistry());
+    private long sink;
+
+    public static void main(String[] args) {
+        new CustomerHistoryBenchmark().run();
+    }
+
+    private void run() {
+        System.out.printf("%-8s %-26s %14s %14s%n", "size", "checks", "ns/op", "bytes/op");
+        for (int size : SIZES) {
+            List<Transaction> transactions = history(size);
+            Transaction current = transactions.get(size / 2);
+            int iterations = (int) Math.max(50, OPERATIONS / size);
+            measure(size, "streams over List", iterations, () -> streams(current, transactions));
+            measure(size, "CustomerHistory (build)", iterations, () -> columnar(current, transactions));
+            CustomerHistory built = CustomerHistory.of(transactions, fieldDictionaries, RATES);
+            measure(size, "CustomerHistory (checks)", iterations, () -> checks(current, built));
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+    // The checks as AdvancedValidationService ran them before CustomerHistory
+    private void streams(Transaction transaction, List<Transaction> recent) {
+        Instant oneHourAgo = NOW.minusSeconds(3600);
+        sink += recent.stream().filter(t -> t.getTimestamp().isAfter(oneHourAgo)).count();
+
+        double average = recent.stream().map(Transaction::getAmount).mapToDouble(BigDecimal::doubleValue).sum()
+                / recent.size();
+        double squares = recent.stream().map(Transaction::getAmount).mapToDouble(BigDecimal::doubleValue)
+                .map(amount -> Math.pow(amount - average, 2)).sum();
+        sink += Math.abs(transaction.getAmount().doubleValue() - average) > 2 * Math.sqrt(squares / recent.size())
+                ? 1 : 0;
+
+        Map<String, Long> merchants = recent.stream().filter(t -> t.getMerchant() != null)
+                .collect(Collectors.groupingBy(Transaction::getMerchant, Collectors.counting()));
+        sink += merchants.getOrDefault(transaction.getMerchant(), 0L);
+        Map<String, Long> channels = recent.stream().filter(t -> t.getChannel() != null)
+                .collect(Collectors.groupingBy(Transaction::getChannel, Collectors.counting()));
+        sink += channels.getOrDefault(transaction.getChannel(), 0L);
+    }
+
+    private void columnar(Transaction transaction, List<Transaction> recent) {
+        checks(transaction, CustomerHistory.of(recent, fieldDictionaries, RATES));
+    }
+
+    private void checks(Transaction transaction, CustomerHistory history) {
+        sink += history.countSince(NOW.minusSeconds(3600));
+        sink += history.isAmountOutlier(1_234, 2.0) ? 1 : 0;
+        sink += (long) (history.merchantShare(transaction.getMerchant()) * 1_000);
+        sink += (long) (history.channelShare(transaction.getChannel()) * 1_000);
+    }
+
+    private void measure(int size, String name, int iterations, Runnable operation) {
+        for (int i = 0; i < iterations / 5; i++) {
+            operation.run();
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("%-8d %-26s %14.0f %14.0f%n", size, name, (double) elapsed / iterations,
+                (double) allocated / iterations);
+    }
+
+    private static List<Transaction> history(int size) {
+        String[] channels = { "online", "mobile", "atm", "branch" };
+        List<Transaction> transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            transactions.add(Transaction.builder()
+                    .amount(BigDecimal.valueOf(1_000 + (i * 7_919L) % 50_000, 2))
+                    .currency(i % 5 == 0 ? "EUR" : "USD")
+                    .merchant("Merchant " + (i % 200))
+                    .channel(channels[i % channels.length])
+                    .device("mobile")
+                    .timestamp(NOW.minusSeconds(i * 60L))
+                    .build());
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,88 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Transaction;
+import com.transaction.ingestion.service.config.CustomerHistoryCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CustomerHistoryCacheTest {
+
+    private static final Instant AT = Instant.parse("2026-10-19T08:00:00Z");
+    private static final FxRateSnapshot RATES = FxRateSnapshot.of("USD", Map.of(), Instant.EPOCH);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CustomerHistoryCacheProperties properties = new CustomerHistoryCacheProperties();
+    private final List<Object[]> loads = new ArrayList<>();
+    private final CustomerHistoryCache cache = new CustomerHistoryCache(properties,
+            TestFixtures.mongo(Map.of("findTransactionsByCustomerIdAndTimestampAfterOrderByTimestampDesc", args -> {
+                loads.add(args);
+                return List.of(transaction("C1", "T0", AT));
+            })),
+            new FieldDictionaries(meterRegistry), meterRegistry);
+
+    @Test
+    void loadsACustomerOnceAndAppendsLaterTransactions() {
+        assertEquals(2, sizeWith(transaction("C1", "T1", AT.plusSeconds(60)), AT.minusSeconds(1), RATES));
+        assertEquals(3, sizeWith(transaction("C1", "T2", AT.plusSeconds(120)), AT.minusSeconds(1), RATES));
+        // T0 has left the window
+        assertEquals(3, sizeWith(transaction("C1", "T3", AT.plusSeconds(180)), AT, RATES));
+
+        assertEquals(1, loads.size());
+        assertEquals("C1", loads.get(0)[0]);
+        assertEquals(2.0, meterRegistry.counter("cache.customer.history.requests", "result", "hit").count());
+    }
+
+    @Test
+    void reloadsWhenTheRatesChange() {
+        sizeWith(transaction("C1", "T1", AT), AT.minusSeconds(1), RATES);
+        FxRateSnapshot refreshed = FxRateSnapshot.of("USD", Map.of(), Instant.EPOCH);
+
+        // The reload returns T0 only, so T1 is appended again to the new history
+        assertEquals(2, sizeWith(transaction("C1", "T1", AT), AT.minusSeconds(1), refreshed));
+        assertEquals(2, loads.size());
+    }
+
+    @Test
+    void dropsTheOldestCustomerBeyondTheLimit() {
+        properties.setMaxCustomers(2);
+        sizeWith(transaction("C1", "T1", AT), AT.minusSeconds(1), RATES);
+        sizeWith(transaction("C2", "T2", AT), AT.minusSeconds(1), RATES);
+        sizeWith(transaction("C3", "T3", AT), AT.minusSeconds(1), RATES);
+        sizeWith(transaction("C2", "T4", AT), AT.minusSeconds(1), RATES);
+        sizeWith(transaction("C1", "T5", AT), AT.minusSeconds(1), RATES);
+
+        assertEquals(List.of("C1", "C2", "C3", "C1"), loads.stream().map(args -> (String) args[0]).toList());
+        assertEquals(2.0, meterRegistry.get("cache.customer.history.size").gauge().value());
+    }
+
+    @Test
+    void loadsEveryTimeWhenDisabled() {
+        properties.setEnabled(false);
+        sizeWith(transaction("C1", "T1", AT), AT.minusSeconds(1), RATES);
+        sizeWith(transaction("C1", "T2", AT), AT.minusSeconds(1), RATES);
+
+        assertEquals(2, loads.size());
+    }
+
+    private int sizeWith(Transaction transaction, Instant windowStart, FxRateSnapshot fxRates) {
+        return cache.withHistory(transaction, windowStart, fxRates, CustomerHistory::size);
+    }
+
+    private static Transaction transaction(String customerId, String transactionId, Instant timestamp) {
+        return Transaction.builder()
+                .transactionId(transactionId)
+                .customerId(customerId)
+                .amount(BigDecimal.TEN)
+                .currency("USD")
+                .timestamp(timestamp)
+                .build();
+    }
+}
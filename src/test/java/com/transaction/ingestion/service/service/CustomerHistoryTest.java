@@ -0,0 +1,103 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomerHistoryTest {
+
+    private static final Instant AT = Instant.parse("2026-10-19T08:00:00Z");
+    private static final FxRateSnapshot RATES = FxRateSnapshot.of("USD", Map.of(), Instant.EPOCH);
+
+    private final FieldDictionaries fieldDictionaries = new FieldDictionaries(new SimpleMeterRegistry());
+
+    @Test
+    void keepsTheSpreadOfLargeAmounts() {
+        // 10 billion dollars give or take a few cents: summing squares would cancel the whole spread
+        List<Transaction> transactions = new ArrayList<>();
+        for (int cents = 0; cents < 100; cents++) {
+            transactions.add(transaction(new BigDecimal("10000000000.00").add(BigDecimal.valueOf(cents, 2)),
+                    "Shop", "online"));
+        }
+        CustomerHistory history = CustomerHistory.of(transactions, fieldDictionaries, RATES);
+
+        // Mean 1_000_000_000_049.5 minor units, standard deviation about 28.9
+        long mean = 1_000_000_000_050L;
+        assertFalse(history.isAmountOutlier(mean + 80, 3.0));
+        assertTrue(history.isAmountOutlier(mean + 100, 3.0));
+    }
+
+    @Test
+    void ignoresAmountsWithoutARate() {
+        List<Transaction> transactions = List.of(
+                transaction(new BigDecimal("10.00"), "Shop", "online"),
+                transaction(new BigDecimal("12.00"), "Shop", "online"),
+                Transaction.builder().amount(new BigDecimal("99999")).currency("XXX").timestamp(AT).build());
+        CustomerHistory history = CustomerHistory.of(transactions, fieldDictionaries, RATES);
+
+        assertFalse(history.isAmountOutlier(1_100, 2.0));
+        assertTrue(history.isAmountOutlier(1_500, 2.0));
+    }
+
+    @Test
+    void countsSharesAcrossManyMerchants() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            transactions.add(transaction(BigDecimal.TEN, "Merchant " + (i % 250), i % 4 == 0 ? "atm" : "online"));
+        }
+        transactions.add(transaction(BigDecimal.TEN, null, null));
+        CustomerHistory history = CustomerHistory.of(transactions, fieldDictionaries, RATES);
+
+        assertEquals(4.0 / 1_000, history.merchantShare("Merchant 17"), 1e-12);
+        assertEquals(0.0, history.merchantShare("Merchant 250"));
+        assertEquals(0.75, history.channelShare("online"), 1e-12);
+        assertEquals(1_001, history.size());
+    }
+
+    @Test
+    void appendsNewTransactionsOnceAndEvictsThoseOutsideTheWindow() {
+        CustomerHistory history = CustomerHistory.of(List.of(), fieldDictionaries, RATES);
+        for (int hour = 0; hour < 20; hour++) {
+            assertTrue(history.append(Transaction.builder()
+                    .transactionId("T" + hour)
+                    .amount(BigDecimal.TEN)
+                    .currency("USD")
+                    .merchant(hour < 10 ? "Old Shop" : "New Shop")
+                    .timestamp(AT.plusSeconds(hour * 3_600L))
+                    .build()));
+        }
+        // A retried validation appends the same transaction again
+        assertFalse(history.append(Transaction.builder().transactionId("T19").timestamp(AT).build()));
+        assertEquals(20, history.size());
+
+        assertEquals(10, history.evictUpTo(AT.plusSeconds(9 * 3_600L)));
+
+        assertEquals(10, history.size());
+        assertEquals(0.0, history.merchantShare("Old Shop"));
+        assertEquals(1.0, history.merchantShare("New Shop"), 1e-12);
+        assertEquals(4, history.countSince(AT.plusSeconds(15 * 3_600L)));
+        // Evicted ids may come back, e.g. when a later load returns them again
+        assertTrue(history.append(Transaction.builder().transactionId("T0").timestamp(AT).build()));
+    }
+
+    private static Transaction transaction(BigDecimal amount, String merchant, String channel) {
+        return Transaction.builder()
+                .amount(amount)
+                .currency("USD")
+                .merchant(merchant)
+                .channel(channel)
+                .device("mobile")
+                .timestamp(AT)
+                .build();
+    }
+}
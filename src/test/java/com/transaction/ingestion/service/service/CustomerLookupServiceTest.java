@@ -0,0 +1,56 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskplatform.common.entity.Customer;
+import com.transaction.ingestion.service.config.BatchingProperties;
+import com.transaction.ingestion.service.config.CustomerSnapshotProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class CustomerLookupServiceTest {
+
+    @Test
+    void unbatchedLookupsDoNotBlockTheCaller() throws Exception {
+        CountDownLatch mongoAnswers = new CountDownLatch(1);
+        Customer customer = TestFixtures.customer();
+        CustomerLookupService lookups = lookups(Map.of("findCustomerByCustomerId", args -> {
+            await(mongoAnswers);
+            return Optional.of(customer);
+        }));
+
+        CompletableFuture<Customer> lookup = lookups.loadCustomer("C000001");
+        // The request-only rules would run here
+        assertFalse(lookup.isDone());
+
+        mongoAnswers.countDown();
+        assertEquals(customer, lookups.awaitCustomer(lookup, "C000001"));
+        lookups.shutdown();
+    }
+
+    private static CustomerLookupService lookups(Map<String, Function<Object[], Object>> mongo) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BatchingProperties batching = new BatchingProperties();
+        batching.setEnabled(false);
+        return new CustomerLookupService(TestFixtures.mongo(mongo), null, batching,
+                new CustomerSnapshotService(new CustomerSnapshotProperties(), new ObjectMapper(), meterRegistry),
+                meterRegistry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Customer;
+import com.transaction.ingestion.service.config.ScreeningProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomerServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void flaggedCustomerMissingFromTheListIsBlacklisted() throws IOException {
+        CustomerService customerService = customerService(List.of("C000002"));
+
+        assertTrue(customerService.isCustomerBlacklisted("C000001", () -> customer("C000001", true)));
+    }
+
+    @Test
+    void listedCustomerIsBlacklistedEvenWithoutTheFlag() throws IOException {
+        CustomerService customerService = customerService(List.of("C000002"));
+
+        assertTrue(customerService.isCustomerBlacklisted("C000002", () -> customer("C000002", false)));
+    }
+
+    @Test
+    void customerNeitherFlaggedNorListedIsNotBlacklisted() throws IOException {
+        CustomerService customerService = customerService(List.of("C000002"));
+
+        assertFalse(customerService.isCustomerBlacklisted("C000001", () -> customer("C000001", false)));
+        assertFalse(customerService.isCustomerBlacklisted("C000001", () -> null));
+    }
+
+    @Test
+    void flagDecidesWhenNoListIsConfigured() throws IOException {
+        CustomerService customerService = customerService(null);
+
+        assertTrue(customerService.isCustomerBlacklisted("C000001", () -> customer("C000001", true)));
+        assertFalse(customerService.isCustomerBlacklisted("C000001", () -> customer("C000001", null)));
+    }
+
+    private CustomerService customerService(List<String> blacklist) throws IOException {
+        ScreeningProperties properties = new ScreeningProperties();
+        if (blacklist != null) {
+            Path file = Files.write(tempDir.resolve("blacklist.txt"), blacklist);
+            properties.setBlacklistedCustomersLocation(file.toUri().toString());
+        }
+        ScreeningListService screeningListService = new ScreeningListService(properties,
+                new DefaultResourceLoader(), new SimpleMeterRegistry());
+        screeningListService.loadInitialLists();
+        return new CustomerService(screeningListService);
+    }
+
+    private static Customer customer(String customerId, Boolean blacklisted) {
+        Customer customer = new Customer();
+        customer.setCustomerId(customerId);
+        customer.setBlacklisted(blacklisted);
+        return customer;
+    }
+}
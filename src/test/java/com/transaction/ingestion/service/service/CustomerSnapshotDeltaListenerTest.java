@@ -0,0 +1,100 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskplatform.common.entity.Customer;
+import com.transaction.ingestion.service.config.CustomerSnapshotProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomerSnapshotDeltaListenerTest {
+
+    private static final String TOPIC = "customer-updated";
+    private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition P1 = new TopicPartition(TOPIC, 1);
+
+    @TempDir
+    Path tempDir;
+
+    private final MockConsumer<String, Customer> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+
+    @Test
+    void catchesUpOnlyOnceEveryPartitionReachesItsStartupEndOffset() throws IOException {
+        CustomerSnapshotService snapshot = snapshot();
+        CustomerSnapshotDeltaListener listener = listener(snapshot);
+        consumer.updatePartitions(TOPIC, List.of(partition(0), partition(1)));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L, P1, 0L));
+        consumer.updateEndOffsets(Map.of(P0, 2L, P1, 1L));
+
+        listener.pollOnce(consumer);
+        // Assigned by hand, with no group to leave behind
+        assertEquals(Set.of(P0, P1), consumer.assignment());
+        assertFalse(snapshot.isCaughtUp());
+
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0, "C1",
+                CustomerSnapshotServiceTest.customer("C1", "ACTIVE", 1_000)));
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, 1, 0, "C2",
+                CustomerSnapshotServiceTest.customer("C2", "ACTIVE", 1_000)));
+        listener.pollOnce(consumer);
+        assertFalse(snapshot.isCaughtUp());
+
+        // The tombstone is stamped with the deletion's updatedAt
+        consumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 1, 2_000L, TimestampType.CREATE_TIME, 2, 0, "C1", null,
+                new RecordHeaders(), Optional.empty()));
+        listener.pollOnce(consumer);
+        assertTrue(snapshot.isCaughtUp());
+        assertNull(snapshot.find("C1"));
+        assertEquals("ACTIVE", snapshot.find("C2").getStatus());
+    }
+
+    @Test
+    void anEmptyTopicIsCaughtUpAfterTheFirstPoll() throws IOException {
+        CustomerSnapshotService snapshot = snapshot();
+        consumer.updatePartitions(TOPIC, List.of(partition(0)));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L));
+        consumer.updateEndOffsets(Map.of(P0, 0L));
+
+        listener(snapshot).pollOnce(consumer);
+
+        assertTrue(snapshot.isCaughtUp());
+    }
+
+    private CustomerSnapshotDeltaListener listener(CustomerSnapshotService snapshot) {
+        CustomerSnapshotProperties properties = new CustomerSnapshotProperties();
+        properties.setDeltaTopic(TOPIC);
+        return new CustomerSnapshotDeltaListener(snapshot, properties, null);
+    }
+
+    private CustomerSnapshotService snapshot() throws IOException {
+        CustomerSnapshotProperties properties = new CustomerSnapshotProperties();
+        properties.setEnabled(true);
+        properties.setTableFile(tempDir.resolve("customers.tbl").toString());
+        CustomerSnapshotService service = new CustomerSnapshotService(properties, new ObjectMapper(),
+                new SimpleMeterRegistry());
+        service.load();
+        return service;
+    }
+
+    private static PartitionInfo partition(int partition) {
+        return new PartitionInfo(TOPIC, partition, null, null, null);
+    }
+}
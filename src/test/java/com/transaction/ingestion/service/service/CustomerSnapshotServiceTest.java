@@ -0,0 +1,111 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riskplatform.common.entity.Customer;
+import com.transaction.ingestion.service.config.CustomerSnapshotProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomerSnapshotServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void growsPastTheInitialCapacity() throws IOException {
+        CustomerSnapshotService service = service();
+        for (int i = 0; i < 5_000; i++) {
+            service.apply(customer("C" + i, "ACTIVE", 1_000));
+        }
+        service.remove("C42", Instant.ofEpochMilli(2_000));
+
+        for (int i = 0; i < 5_000; i++) {
+            if (i != 42) {
+                assertNotNull(service.find("C" + i), "C" + i);
+            }
+        }
+        assertNull(service.find("C42"));
+        // The deletion marker survives the copies, so an older upsert cannot bring the customer back
+        service.apply(customer("C42", "ACTIVE", 1_500));
+        assertNull(service.find("C42"));
+
+        CustomerSnapshotTable reopened = CustomerSnapshotTable.open(tempDir.resolve("customers.tbl"));
+        assertNotNull(reopened);
+        assertTrue(reopened.capacity() > 1024);
+        assertEquals("ACTIVE", reopened.get("C4999").getStatus());
+    }
+
+    @Test
+    void upsertsAndDeletesAreOrderedOnUpdatedAt() throws IOException {
+        CustomerSnapshotService service = service();
+        service.apply(customer("C1", "ACTIVE", 2_000));
+        service.apply(customer("C1", "SUSPENDED", 1_000));
+        assertEquals("ACTIVE", service.find("C1").getStatus());
+
+        service.remove("C1", Instant.ofEpochMilli(1_500));
+        assertNotNull(service.find("C1"));
+        service.remove("C1", Instant.ofEpochMilli(3_000));
+        assertNull(service.find("C1"));
+    }
+
+    @Test
+    void deltaWithoutUpdatedAtDoesNotOverrideNewerRecord() throws IOException {
+        CustomerSnapshotService service = service();
+        service.apply(customer("C1", "ACTIVE", 2_000));
+        service.apply(customer("C1", "SUSPENDED", null));
+        assertEquals("ACTIVE", service.find("C1").getStatus());
+
+        service.apply(customer("C2", "ACTIVE", null));
+        assertEquals("ACTIVE", service.find("C2").getStatus());
+    }
+
+    @Test
+    void deltasAndTheExportShareOneVersion() throws IOException {
+        ObjectMapper objectMapper = TestFixtures.objectMapper();
+        Path export = tempDir.resolve("customers.ndjson");
+        Files.writeString(export, objectMapper.writeValueAsString(customer("C1", "ACTIVE", 2_000)) + "\n");
+        CustomerSnapshotService service = service(objectMapper, export);
+        assertFalse(service.isCaughtUp());
+
+        service.apply(customer("C1", "SUSPENDED", 1_000));
+        assertEquals("ACTIVE", service.find("C1").getStatus());
+        service.apply(customer("C1", "SUSPENDED", 3_000));
+        assertEquals("SUSPENDED", service.find("C1").getStatus());
+    }
+
+    private CustomerSnapshotService service() throws IOException {
+        return service(new ObjectMapper(), null);
+    }
+
+    private CustomerSnapshotService service(ObjectMapper objectMapper, Path export) throws IOException {
+        CustomerSnapshotProperties properties = new CustomerSnapshotProperties();
+        properties.setEnabled(true);
+        properties.setTableFile(tempDir.resolve("customers.tbl").toString());
+        properties.setExportFile(export != null ? export.toString() : null);
+        CustomerSnapshotService service = new CustomerSnapshotService(properties, objectMapper,
+                new SimpleMeterRegistry());
+        service.load();
+        return service;
+    }
+
+    static Customer customer(String id, String status, Integer updatedAtMillis) {
+        Customer customer = new Customer();
+        customer.setCustomerId(id);
+        customer.setStatus(status);
+        customer.setTransactionLimit(500.0);
+        customer.setUpdatedAt(updatedAtMillis != null ? Instant.ofEpochMilli(updatedAtMillis) : null);
+        return customer;
+    }
+}
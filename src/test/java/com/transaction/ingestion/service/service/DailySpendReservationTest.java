@@ -0,0 +1,275 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Transaction;
+import com.riskplatform.common.event.TransactionValidatedEvent;
+import com.transaction.ingestion.service.client.ReactiveMongoServiceClient;
+import com.transaction.ingestion.service.config.BatchingProperties;
+import com.transaction.ingestion.service.config.CacheProperties;
+import com.transaction.ingestion.service.config.CustomerSnapshotProperties;
+import com.transaction.ingestion.service.config.DailySpendProperties;
+import com.transaction.ingestion.service.config.FxProperties;
+import com.transaction.ingestion.service.config.ReactiveProperties;
+import com.transaction.ingestion.service.config.RuleEngineProperties;
+import com.transaction.ingestion.service.config.ValidationReloadProperties;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.rules.BusinessRuleEngine;
+import com.transaction.ingestion.service.rules.DailySpendRule;
+import com.transaction.ingestion.service.rules.RuleContext;
+import com.transaction.ingestion.service.tracing.TraceContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DailySpendReservationTest {
+
+    private static final String CUSTOMER_ID = "C000001";
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SwappableFxRateService fxRateService = new SwappableFxRateService(meterRegistry);
+    private DailySpendTracker dailySpend;
+    private TransactionService transactionService;
+
+    @Test
+    void releasesTheReservedAmountEvenAfterAnFxRefresh() {
+        setUp();
+        fxRateService.rates = rates("1.1");
+        RuleContext context = transactionService.newRuleContext(request("EUR"), TestFixtures::customer, rules());
+
+        assertNull(transactionService.evaluateBusinessRules(context));
+        assertEquals(1_100, dailySpend.getSpent(CUSTOMER_ID));
+
+        // A fresh conversion at the new rate would give back 1_300 and under-count the spend
+        fxRateService.rates = rates("1.3");
+        transactionService.releaseDailySpend(context);
+
+        assertEquals(0, dailySpend.getSpent(CUSTOMER_ID));
+    }
+
+    @Test
+    void releasesAReservationOnlyOnce() {
+        setUp();
+        RuleContext first = transactionService.newRuleContext(request("USD"), TestFixtures::customer, rules());
+        RuleContext second = transactionService.newRuleContext(request("USD"), TestFixtures::customer, rules());
+        transactionService.evaluateBusinessRules(first);
+        transactionService.evaluateBusinessRules(second);
+
+        transactionService.releaseDailySpend(first);
+        transactionService.releaseDailySpend(first);
+
+        assertEquals(1_000, dailySpend.getSpent(CUSTOMER_ID));
+    }
+
+    @Test
+    void releasesWhenAReactiveIngestIsCancelledBeforeTheSave() throws InterruptedException {
+        setUp();
+        CountDownLatch saving = new CountDownLatch(1);
+        ReactiveTransactionService reactive = reactive(Mono.<Transaction>never().doOnSubscribe(s -> saving.countDown()),
+                Mono.empty());
+
+        Disposable ingest = reactive.processTransaction(request("USD"), null).subscribe();
+        assertTrue(saving.await(5, TimeUnit.SECONDS));
+        assertEquals(1_000, dailySpend.getSpent(CUSTOMER_ID));
+        ingest.dispose();
+
+        assertEquals(0, dailySpend.getSpent(CUSTOMER_ID));
+    }
+
+    @Test
+    void keepsTheReservationWhenCancelledAfterTheSave() throws InterruptedException {
+        setUp();
+        CountDownLatch publishing = new CountDownLatch(1);
+        ReactiveTransactionService reactive = reactive(null,
+                Mono.<Void>never().doOnSubscribe(s -> publishing.countDown()));
+
+        Disposable ingest = reactive.processTransaction(request("USD"), null).subscribe();
+        assertTrue(publishing.await(5, TimeUnit.SECONDS));
+        ingest.dispose();
+
+        assertEquals(1_000, dailySpend.getSpent(CUSTOMER_ID));
+    }
+
+    @Test
+    void reactiveIngestRunsTheRulesOffTheSubscribingThread() {
+        setUp();
+        String[] ruleThread = new String[1];
+        ReactiveTransactionService reactive = reactive(Mono.defer(() -> {
+            ruleThread[0] = Thread.currentThread().getName();
+            return Mono.empty();
+        }), Mono.empty());
+
+        reactive.processTransaction(request("USD"), null).block(Duration.ofSeconds(5));
+
+        // The save is subscribed on the thread that ran the rules
+        assertTrue(ruleThread[0].startsWith("boundedElastic"), ruleThread[0]);
+    }
+
+    @Test
+    void releasesWhenCancelledWhileTheRulesAreRunning() throws InterruptedException {
+        GatedDailySpendTracker gated = new GatedDailySpendTracker();
+        setUp(gated);
+        ReactiveTransactionService reactive = reactive(Mono.never(), Mono.empty());
+
+        Disposable ingest = reactive.processTransaction(request("USD"), null).subscribe();
+        assertTrue(gated.entered.await(5, TimeUnit.SECONDS));
+        ingest.dispose();
+        gated.gate.countDown();
+        assertTrue(gated.added.await(5, TimeUnit.SECONDS));
+
+        assertEventually(0, () -> dailySpend.getSpent(CUSTOMER_ID));
+    }
+
+    @Test
+    void dryRunsReserveNothingAndLeaveTheRuleStatsAlone() {
+        setUp();
+        RuleContext context = transactionService.newDryRunRuleContext(request("USD"), TestFixtures::customer,
+                rules());
+
+        assertNull(transactionService.evaluateBusinessRules(context));
+
+        assertEquals(0, dailySpend.getSpent(CUSTOMER_ID));
+        assertEquals(0, context.getReservedDailySpend());
+        assertEquals(0, meterRegistry.get("business.rule.duration").timer().count());
+    }
+
+    @Test
+    void dryRunsStillRejectOverTheDailyLimit() {
+        setUp();
+        IngestRequest request = TransactionServiceTest.request(1_500.00, "USD");
+        request.setCustomerId(CUSTOMER_ID);
+        RuleContext context = transactionService.newDryRunRuleContext(request, TestFixtures::customer, rules());
+
+        assertEquals("DAILY_LIMIT_EXCEEDED", transactionService.evaluateBusinessRules(context).getReason());
+        assertEquals(0, dailySpend.getSpent(CUSTOMER_ID));
+    }
+
+    private void setUp() {
+        setUp(new DailySpendTracker(dailySpendProperties(), new FxProperties(), meterRegistry));
+    }
+
+    private void setUp(DailySpendTracker tracker) {
+        dailySpend = tracker;
+        BusinessRuleEngine engine = new BusinessRuleEngine(List.of(new DailySpendRule(dailySpend)),
+                new RuleEngineProperties(), meterRegistry);
+        transactionService = new TransactionService(null, null, null, null, null, fxRateService, dailySpend,
+                engine, TestFixtures.tracer());
+    }
+
+    private DailySpendProperties dailySpendProperties() {
+        DailySpendProperties dailySpendProperties = new DailySpendProperties();
+        dailySpendProperties.setCheckpointPath(tempDir.resolve("daily-spend.bin").toString());
+        return dailySpendProperties;
+    }
+
+    private static void assertEventually(long expected, LongSupplier actual) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (actual.getAsLong() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, actual.getAsLong());
+    }
+
+    // A null save echoes the transaction back
+    private ReactiveTransactionService reactive(Mono<Transaction> save, Mono<Void> publish) {
+        ReactiveMongoServiceClient mongo = new ReactiveMongoServiceClient(WebClient.builder(),
+                new ReactiveProperties()) {
+            @Override
+            public Mono<Transaction> saveTransaction(Transaction transaction) {
+                return save != null ? save : Mono.just(transaction);
+            }
+        };
+        ReactiveKafkaProducerService kafka = new ReactiveKafkaProducerService(null) {
+            @Override
+            public Mono<Void> sendMessage(String topic, TransactionValidatedEvent message, TraceContext trace) {
+                return publish;
+            }
+        };
+        ValidationRuleRegistry registry = new ValidationRuleRegistry(TestFixtures.validationProperties(),
+                new ValidationReloadProperties(), new StandardEnvironment(), meterRegistry);
+        BatchingProperties batching = new BatchingProperties();
+        batching.setEnabled(false);
+        CustomerLookupService lookups = new CustomerLookupService(
+                TestFixtures.mongo(Map.of("findCustomerByCustomerId", args -> Optional.of(TestFixtures.customer()))),
+                null, batching, new CustomerSnapshotService(new CustomerSnapshotProperties(),
+                        TestFixtures.objectMapper(), meterRegistry), meterRegistry);
+        return new ReactiveTransactionService(transactionService, mongo, lookups, kafka,
+                new RecentTransactionCache(new CacheProperties(), TestFixtures.objectMapper(), meterRegistry),
+                registry);
+    }
+
+    private static ValidationRuleSnapshot rules() {
+        return ValidationRuleSnapshot.compile(TestFixtures.validationProperties(), 1, "test");
+    }
+
+    private static FxRateSnapshot rates(String eurRate) {
+        return FxRateSnapshot.of("USD", Map.of("EUR", new BigDecimal(eurRate)), Instant.EPOCH);
+    }
+
+    // 10.00 in the request currency
+    private static IngestRequest request(String currency) {
+        IngestRequest request = TransactionServiceTest.request(10.00, currency);
+        request.setCustomerId(CUSTOMER_ID);
+        return request;
+    }
+
+    // Holds a reservation inside the rules until the gate opens
+    private final class GatedDailySpendTracker extends DailySpendTracker {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+        private final CountDownLatch added = new CountDownLatch(1);
+
+        private GatedDailySpendTracker() {
+            super(dailySpendProperties(), new FxProperties(), meterRegistry);
+        }
+
+        @Override
+        public boolean tryAdd(String customerId, long amountMinorUnits, long limitMinorUnits) {
+            entered.countDown();
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            boolean fits = super.tryAdd(customerId, amountMinorUnits, limitMinorUnits);
+            added.countDown();
+            return fits;
+        }
+    }
+
+    private static final class SwappableFxRateService extends FxRateService {
+
+        private volatile FxRateSnapshot rates = FxRateSnapshot.of("USD", Map.of(), Instant.EPOCH);
+
+        private SwappableFxRateService(SimpleMeterRegistry meterRegistry) {
+            super(new FxProperties(), new DefaultResourceLoader(), meterRegistry);
+        }
+
+        @Override
+        public FxRateSnapshot current() {
+            return rates;
+        }
+    }
+}
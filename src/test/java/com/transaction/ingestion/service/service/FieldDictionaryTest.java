@@ -0,0 +1,94 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.transaction.ingestion.service.codec.DtoJsonCodecs;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FieldDictionaryTest {
+
+    private static final int REQUESTS = 10_000;
+
+    private final FieldDictionaries fieldDictionaries = new FieldDictionaries(new SimpleMeterRegistry());
+    private final DtoJsonCodecs codecs = new DtoJsonCodecs(fieldDictionaries);
+
+    @Test
+    void parsingUnknownValuesDoesNotGrowTheDictionaries() throws IOException {
+        int currencies = fieldDictionaries.currencies().size();
+        int channels = fieldDictionaries.channels().size();
+        int categories = fieldDictionaries.merchantCategories().size();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            IngestRequest request = read(json("Q" + i, "channel-" + i, "category-" + i));
+            assertEquals("Q" + i, request.getCurrency());
+        }
+
+        assertEquals(currencies, fieldDictionaries.currencies().size());
+        assertEquals(channels, fieldDictionaries.channels().size());
+        assertEquals(categories, fieldDictionaries.merchantCategories().size());
+    }
+
+    @Test
+    void knownValuesShareOneInstance() throws IOException {
+        List<IngestRequest> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(read(json("EUR", "online", "GROCERY")));
+        }
+        List<IngestRequest> databind = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            databind.add(TestFixtures.objectMapper().readValue(json("EUR", "online", "GROCERY"),
+                    IngestRequest.class));
+        }
+
+        // Retained Strings for the four dictionary fields: one each when interned, one per request otherwise
+        assertEquals(4, distinctInstances(requests));
+        assertEquals(4 * REQUESTS, distinctInstances(databind));
+        assertSame(fieldDictionaries.currencies().canonical("EUR"), requests.get(0).getCurrency());
+    }
+
+    @Test
+    void validatedValuesAreAddedExplicitly() {
+        FieldDictionary channels = fieldDictionaries.channels();
+        String value = new String("kiosk-lane");
+
+        assertEquals(FieldDictionary.NO_CODE, channels.codeOf(value));
+        int code = channels.encode(value);
+
+        assertSame(value, channels.canonical(new String("kiosk-lane")));
+        assertEquals(code, channels.codeOf("kiosk-lane"));
+    }
+
+    private IngestRequest read(String json) throws IOException {
+        try (JsonParser parser = TestFixtures.objectMapper().getFactory().createParser(json)) {
+            return codecs.readIngestRequest(parser);
+        }
+    }
+
+    private static int distinctInstances(List<IngestRequest> requests) {
+        Set<String> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (IngestRequest request : requests) {
+            instances.add(request.getCurrency());
+            instances.add(request.getChannel());
+            instances.add(request.getDevice());
+            instances.add(request.getMerchantCategory());
+        }
+        return instances.size();
+    }
+
+    private static String json(String currency, String channel, String merchantCategory) {
+        return "{\"customerId\":\"C000001\",\"amount\":10.5,\"currency\":\"" + currency + "\",\"merchant\":\"Shop\","
+                + "\"merchantCategory\":\"" + merchantCategory + "\",\"timestamp\":\"2026-10-19T08:00:00Z\","
+                + "\"channel\":\"" + channel + "\",\"device\":\"mobile\"}";
+    }
+}
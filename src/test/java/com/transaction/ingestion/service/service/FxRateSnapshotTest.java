@@ -0,0 +1,41 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FxRateSnapshotTest {
+
+    private final FxRateSnapshot rates = FxRateSnapshot.of("USD",
+            Map.of("EUR", new BigDecimal("1.1"), "JPY", new BigDecimal("0.0067")), Instant.EPOCH);
+
+    @Test
+    void convertsBetweenExponents() {
+        // 1000 JPY = 6.70 USD
+        assertEquals(670, rates.toBaseMinorUnits(1000, "JPY"));
+        assertEquals(110, rates.toBaseMinorUnits(100, "EUR"));
+    }
+
+    @Test
+    void roundsUpOnlyWhenTheConversionHasARemainder() {
+        // 1.00 EUR is exactly 1.10 USD even though 100 * 1.1 is not exact in binary
+        assertEquals(110, rates.toBaseMinorUnitsRoundedUp(100, "EUR"));
+        // 1 JPY = 0.67 cents, which must count as a whole cent against a limit
+        assertEquals(1, rates.toBaseMinorUnitsRoundedUp(1, "JPY"));
+        assertEquals(101, rates.toBaseMinorUnitsRoundedUp(150, "JPY"));
+        assertEquals(670, rates.toBaseMinorUnitsRoundedUp(1000, "JPY"));
+    }
+
+    @Test
+    void leavesBaseCurrencyAmountsUntouched() {
+        Money money = Money.ofMinor(12_345, "USD");
+
+        assertSame(money, rates.toBaseRoundedUp(money));
+    }
+}
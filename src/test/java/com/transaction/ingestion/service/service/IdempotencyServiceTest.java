@@ -0,0 +1,166 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.IdempotencyProperties;
+import com.transaction.ingestion.service.dto.FixedErrorResponse;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.dto.IngestResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyServiceTest {
+
+    private static final Instant AT = Instant.parse("2026-03-01T10:15:30Z");
+
+    private final IdempotencyProperties properties = new IdempotencyProperties();
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(1000);
+    private final IdempotencyService service = new IdempotencyService(store, properties, TestFixtures.objectMapper(),
+            new SimpleMeterRegistry());
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void retryReplaysTheStoredStatusAndBody() {
+        ResponseEntity<?> first = service.execute("C1", "key-1", request(25.0), this::accept);
+        ResponseEntity<?> retry = service.execute("C1", "key-1", request(25.0), this::accept);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAY_HEADER));
+        assertEquals("{\"transactionId\":\"T1\",\"status\":\"ACCEPTED\",\"message\":\"ok\","
+                + "\"timestamp\":\"2026-03-01T10:15:30Z\"}",
+                new String((byte[]) retry.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void reusingTheKeyForAnotherRequestIsRejected() {
+        service.execute("C1", "key-1", request(25.0), this::accept);
+        ResponseEntity<?> reused = service.execute("C1", "key-1", request(26.0), this::accept);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertSame(FixedErrorResponse.IDEMPOTENCY_KEY_REUSED, reused.getBody());
+    }
+
+    @Test
+    void keysAreScopedPerCustomer() {
+        service.execute("C1", "key-1", request(25.0), this::accept);
+        service.execute("C2", "key-1", request(25.0), this::accept);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void fingerprintDependsOnContentNotIdentity() {
+        assertArrayEquals(service.fingerprint(request(25.0)), service.fingerprint(request(25.0)));
+        assertFalse(Arrays.equals(service.fingerprint(request(25.0)), service.fingerprint(request(25.01))));
+        assertEquals(32, service.fingerprint(request(25.0)).length);
+    }
+
+    @Test
+    void concurrentDuplicateGetsInProgressOnceTheWaitRunsOut() throws Exception {
+        properties.setInFlightWaitTimeout(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> leader = CompletableFuture.supplyAsync(() ->
+                service.execute("C1", "key-1", request(25.0), () -> {
+                    started.countDown();
+                    await(finish);
+                    return accept();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        ResponseEntity<?> duplicate = service.execute("C1", "key-1", request(25.0), this::accept);
+        assertEquals(HttpStatus.CONFLICT, duplicate.getStatusCode());
+        assertSame(FixedErrorResponse.REQUEST_IN_PROGRESS, duplicate.getBody());
+
+        finish.countDown();
+        assertEquals(HttpStatus.OK, leader.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicateDoesNotRunAgain() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> leader = CompletableFuture.supplyAsync(() ->
+                service.execute("C1", "key-1", request(25.0), () -> {
+                    started.countDown();
+                    await(finish);
+                    return accept();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<?>> duplicate = CompletableFuture.supplyAsync(() ->
+                service.execute("C1", "key-1", request(25.0), this::accept));
+
+        finish.countDown();
+        assertEquals(HttpStatus.OK, leader.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(HttpStatus.OK, duplicate.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void cancelledReactiveLeaderStillAnswersItsFollowers() throws Exception {
+        Sinks.One<ResponseEntity<?>> work = Sinks.one();
+        Mono<ResponseEntity<?>> action = work.asMono().doOnNext(response -> executions.incrementAndGet());
+        Disposable leader = service.executeReactive("C1", "key-1", request(25.0), () -> action).subscribe();
+        CompletableFuture<ResponseEntity<?>> first = service.executeReactive("C1", "key-1", request(25.0),
+                () -> Mono.fromSupplier(this::accept)).toFuture();
+        CompletableFuture<ResponseEntity<?>> second = service.executeReactive("C1", "key-1", request(25.0),
+                () -> Mono.fromSupplier(this::accept)).toFuture();
+
+        // The leader's client goes away while the work is still running
+        leader.dispose();
+        work.tryEmitValue(ResponseEntity.ok(new IngestResponse("T1", "ACCEPTED", "ok", AT)));
+
+        assertEquals(HttpStatus.OK, first.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(HttpStatus.OK, second.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals(1, executions.get());
+        // The response was stored, so a later retry is a replay rather than a second transaction
+        ResponseEntity<?> retry = service.executeReactive("C1", "key-1", request(25.0),
+                () -> Mono.fromSupplier(this::accept)).block(Duration.ofSeconds(5));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAY_HEADER));
+        assertEquals(1, executions.get());
+    }
+
+    private ResponseEntity<?> accept() {
+        executions.incrementAndGet();
+        return ResponseEntity.ok(new IngestResponse("T1", "ACCEPTED", "ok", AT));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static IngestRequest request(double amount) {
+        IngestRequest request = new IngestRequest();
+        request.setCustomerId("C1");
+        request.setAmount(amount);
+        request.setCurrency("USD");
+        request.setTimestamp(AT);
+        return request;
+    }
+}
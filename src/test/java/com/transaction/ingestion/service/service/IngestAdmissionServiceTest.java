@@ -0,0 +1,63 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.AdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IngestAdmissionServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void aConcurrencyRejectionLeavesTheCustomersTokenAlone() {
+        IngestAdmissionService admission = admission();
+        List<IngestAdmissionService.Permit> busy = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            busy.add(admission.tryAcquire("C00000" + i));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertFalse(admission.tryAcquire("C000009").isAccepted());
+        }
+        busy.get(0).release(true);
+
+        // Burst 1: the token is still there although the customer was shed five times
+        assertTrue(admission.tryAcquire("C000009").isAccepted());
+        assertEquals(5.0, rejected("concurrency-limit"), 0.0);
+        assertEquals(0.0, rejected("customer-rate"), 0.0);
+    }
+
+    @Test
+    void aCustomerRateRejectionGivesTheConcurrencySlotBack() {
+        IngestAdmissionService admission = admission();
+        admission.tryAcquire("C000001");
+
+        IngestAdmissionService.Permit permit = admission.tryAcquire("C000001");
+
+        assertFalse(permit.isAccepted());
+        assertTrue(permit.getRetryAfterSeconds() >= 1);
+        assertEquals(1.0, meterRegistry.get("ingest.admission.inflight").gauge().value(), 0.0);
+        assertEquals(4.0, meterRegistry.get("ingest.admission.limit").gauge().value(), 0.0);
+        assertEquals(0.0, meterRegistry.get("ingest.admission.queue.depth").gauge().value(), 0.0);
+    }
+
+    private IngestAdmissionService admission() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.getConcurrency().setInitialLimit(4);
+        properties.getConcurrency().setMinLimit(4);
+        properties.getCustomerRate().setPermitsPerSecond(0.001);
+        properties.getCustomerRate().setBurst(1);
+        return new IngestAdmissionService(properties, meterRegistry);
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("ingest.admission.rejected").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,143 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.event.TransactionValidatedEvent;
+import com.transaction.ingestion.service.config.PublishRingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.InterruptException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.KafkaException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KafkaProducerServiceTest {
+
+    private static final int EVENTS = 20;
+
+    @Test
+    void blockingOnAFullRingKeepsTheCustomersOrder() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        // Only the publisher's batches wait here; a caller-thread send would slip past and be recorded first
+        TestFixtures.RecordingKafkaTemplate template = gatedTemplate(gate, new CountDownLatch(1), new AtomicInteger());
+        PublishRingProperties properties = new PublishRingProperties();
+        properties.setCapacity(2);
+        properties.setPublishers(1);
+        properties.setBlockTimeout(Duration.ofMillis(1));
+        properties.setMaxBlock(Duration.ofSeconds(10));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        KafkaProducerService producer = new KafkaProducerService(template, properties, meterRegistry,
+                TestFixtures.tracer());
+        producer.start();
+
+        Thread caller = new Thread(() -> {
+            for (int i = 0; i < EVENTS; i++) {
+                producer.sendMessage("transaction-received",
+                        TransactionValidatedEvent.builder().transactionId("T" + i).customerId("C000001").build());
+            }
+        });
+        caller.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.counter("kafka.publish.ring.blocked").count() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        gate.countDown();
+        caller.join(TimeUnit.SECONDS.toMillis(10));
+        producer.stop();
+
+        assertEquals(IntStream.range(0, EVENTS).mapToObj(i -> "T" + i).toList(),
+                template.sent.stream().map(record -> record.value().getTransactionId()).toList());
+        assertTrue(meterRegistry.counter("kafka.publish.ring.blocked").count() >= 1);
+    }
+
+    @Test
+    void sendsADrainedBatchInOneProducerCall() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        AtomicInteger batches = new AtomicInteger();
+        TestFixtures.RecordingKafkaTemplate template = gatedTemplate(gate, firstBatch, batches);
+        PublishRingProperties properties = new PublishRingProperties();
+        properties.setCapacity(4);
+        properties.setPublishers(1);
+        KafkaProducerService producer = new KafkaProducerService(template, properties, new SimpleMeterRegistry(),
+                TestFixtures.tracer());
+        producer.start();
+
+        producer.sendMessage("transaction-received", event("T0"));
+        assertTrue(firstBatch.await(10, TimeUnit.SECONDS));
+        // The publisher is held in the first batch, so these three pile up in the ring and leave as one batch
+        for (int i = 1; i <= 3; i++) {
+            producer.sendMessage("transaction-received", event("T" + i));
+        }
+        gate.countDown();
+        producer.stop();
+
+        assertEquals(2, batches.get());
+        assertEquals(List.of("T0", "T1", "T2", "T3"),
+                template.sent.stream().map(record -> record.value().getTransactionId()).toList());
+    }
+
+    @Test
+    void blockingRejectsThePublishAfterMaxBlock() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        TestFixtures.RecordingKafkaTemplate template = gatedTemplate(gate, firstBatch, new AtomicInteger());
+        PublishRingProperties properties = new PublishRingProperties();
+        properties.setCapacity(4);
+        properties.setPublishers(1);
+        properties.setBlockTimeout(Duration.ofMillis(1));
+        properties.setMaxBlock(Duration.ofMillis(50));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        KafkaProducerService producer = new KafkaProducerService(template, properties, meterRegistry,
+                TestFixtures.tracer());
+        producer.start();
+
+        producer.sendMessage("transaction-received", event("T0"));
+        assertTrue(firstBatch.await(10, TimeUnit.SECONDS));
+        // The publisher is held in the first batch, so these four fill the ring
+        for (int i = 1; i <= 4; i++) {
+            producer.sendMessage("transaction-received", event("T" + i));
+        }
+        long start = System.nanoTime();
+        assertThrows(KafkaException.class, () -> producer.sendMessage("transaction-received", event("T5")));
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        gate.countDown();
+        producer.stop();
+
+        assertTrue(waitedMillis >= 50 && waitedMillis < 5_000, "waited " + waitedMillis + "ms");
+        assertEquals(1.0, meterRegistry.counter("kafka.publish.ring.rejected", "topic", "transaction-received")
+                .count());
+        assertFalse(template.sent.stream().anyMatch(record -> "T5".equals(record.value().getTransactionId())));
+        assertEquals(5, template.sent.size());
+    }
+
+    // Holds every publisher batch until the gate opens, counting batches and signalling when the first arrives
+    private static TestFixtures.RecordingKafkaTemplate gatedTemplate(CountDownLatch gate, CountDownLatch firstBatch,
+            AtomicInteger batches) {
+        return new TestFixtures.RecordingKafkaTemplate() {
+            @Override
+            public <T> T execute(ProducerCallback<String, TransactionValidatedEvent, T> callback) {
+                batches.incrementAndGet();
+                firstBatch.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptException(e);
+                }
+                return super.execute(callback);
+            }
+        };
+    }
+
+    private static TransactionValidatedEvent event(String transactionId) {
+        return TransactionValidatedEvent.builder().transactionId(transactionId).customerId("C000001").build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.event.TransactionValidatedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublishRingTest {
+
+    private static final long WAIT = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void rejectsWhenFullAndDrainsInOrder() {
+        PublishRing ring = new PublishRing(4, PublishRing.WaitStrategy.BUSY_SPIN);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.tryPublish("topic", "C000001", event("T" + i), null));
+        }
+
+        assertFalse(ring.tryPublish("topic", "C000001", event("T4"), null));
+
+        List<String> drained = new ArrayList<>();
+        assertEquals(4, ring.drain((topic, key, event, span) -> drained.add(event.getTransactionId()), 10, WAIT));
+        assertEquals(List.of("T0", "T1", "T2", "T3"), drained);
+        assertEquals(0, ring.size());
+        assertTrue(ring.tryPublish("topic", "C000001", event("T4"), null));
+    }
+
+    @Test
+    void publishWaitsForTheConsumerToFreeASlot() throws Exception {
+        PublishRing ring = new PublishRing(4, PublishRing.WaitStrategy.BUSY_SPIN);
+        for (int i = 0; i < ring.capacity(); i++) {
+            ring.tryPublish("topic", "C000001", event("T" + i), null);
+        }
+
+        assertFalse(ring.publish("topic", "C000001", event("T4"), null, TimeUnit.MILLISECONDS.toNanos(5)));
+
+        CompletableFuture<Boolean> publish = CompletableFuture.supplyAsync(() ->
+                ring.publish("topic", "C000001", event("T4"), null, TimeUnit.SECONDS.toNanos(10)));
+        ring.drain((topic, key, event, span) -> { }, 1, WAIT);
+
+        assertTrue(publish.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void keepsEachProducersOrderUnderContention() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        PublishRing ring = new PublishRing(64, PublishRing.WaitStrategy.YIELDING);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String key = "C00000" + p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    ring.publish("topic", key, event(String.valueOf(i)), null, TimeUnit.SECONDS.toNanos(10));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        int[] next = new int[producers];
+        List<String> outOfOrder = Collections.synchronizedList(new ArrayList<>());
+        int received = 0;
+        while (received < producers * perProducer) {
+            received += ring.drain((topic, key, event, span) -> {
+                int producer = key.charAt(key.length() - 1) - '0';
+                int sequence = Integer.parseInt(event.getTransactionId());
+                if (sequence != next[producer]++) {
+                    outOfOrder.add(key + ":" + sequence);
+                }
+            }, 256, TimeUnit.SECONDS.toNanos(10));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(List.of(), outOfOrder);
+        assertEquals(0, ring.size());
+    }
+
+    private static TransactionValidatedEvent event(String transactionId) {
+        return TransactionValidatedEvent.builder().transactionId(transactionId).customerId("C000001").build();
+    }
+}
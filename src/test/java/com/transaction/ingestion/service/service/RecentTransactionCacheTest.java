@@ -0,0 +1,46 @@
+package com.transaction.ingestion.service.service;
+
+import com.riskplatform.common.entity.Transaction;
+import com.riskplatform.common.entity.ValidationDetails;
+import com.transaction.ingestion.service.config.CacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RecentTransactionCacheTest {
+
+    private final RecentTransactionCache cache = new RecentTransactionCache(new CacheProperties(),
+            TestFixtures.objectMapper(), new SimpleMeterRegistry());
+
+    @Test
+    void unvalidatedEntriesAreOnlyServedToTheValidator() {
+        cache.put(transaction(null));
+
+        // Another instance may already have validated it, so API reads go to mongo-service
+        assertNull(cache.getValidated("T1"));
+        assertNotNull(cache.get("T1"));
+
+        ValidationDetails details = new ValidationDetails();
+        details.setKycStatus("VERIFIED");
+        cache.put(transaction(details));
+
+        assertEquals("VERIFIED", cache.getValidated("T1").getValidationDetails().getKycStatus());
+        assertNotNull(cache.get("T1"));
+    }
+
+    private static Transaction transaction(ValidationDetails validationDetails) {
+        Transaction transaction = Transaction.builder()
+                .transactionId("T1")
+                .customerId("C000001")
+                .amount(new BigDecimal("19.99"))
+                .currency("USD")
+                .build();
+        transaction.setValidationDetails(validationDetails);
+        return transaction;
+    }
+}
@@ -0,0 +1,96 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.ScreeningProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScreeningListServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsListsIgnoringCommentsAndBlankLines() throws IOException {
+        Path merchants = Files.write(tempDir.resolve("merchants.txt"),
+                List.of("# sanctioned merchants", "", "  Acme Arms  ", "Shady Corp # added 2026"));
+        ScreeningProperties properties = new ScreeningProperties();
+        properties.setSanctionedMerchantsLocation(merchants.toUri().toString());
+        ScreeningListService service = service(properties);
+
+        assertTrue(service.isMerchantSanctioned("Acme Arms"));
+        assertTrue(service.isMerchantSanctioned("Shady Corp"));
+        assertFalse(service.isMerchantSanctioned("Corner Shop"));
+        assertFalse(service.isMerchantSanctioned(null));
+    }
+
+    @Test
+    void refreshPicksUpNewEntries() throws IOException {
+        Path blacklist = Files.write(tempDir.resolve("blacklist.txt"), List.of("C000001"));
+        ScreeningProperties properties = new ScreeningProperties();
+        properties.setBlacklistedCustomersLocation(blacklist.toUri().toString());
+        ScreeningListService service = service(properties);
+        assertFalse(service.isListedAsBlacklisted("C000002"));
+
+        Files.write(blacklist, List.of("C000001", "C000002"));
+        service.refresh();
+
+        assertTrue(service.isListedAsBlacklisted("C000002"));
+    }
+
+    @Test
+    void failedRefreshKeepsTheCurrentLists() throws IOException {
+        Path countries = Files.write(tempDir.resolve("countries.txt"), List.of("XX"));
+        ScreeningProperties properties = new ScreeningProperties();
+        properties.setSanctionedCountriesLocation(countries.toUri().toString());
+        ScreeningListService service = service(properties);
+
+        Files.delete(countries);
+        service.refresh();
+
+        assertTrue(service.isCountrySanctioned("XX"));
+    }
+
+    @Test
+    void filterNegativesSkipTheSetAndPossibleHitsAreCheckedExactly() throws IOException {
+        Path blacklist = Files.write(tempDir.resolve("blacklist.txt"), List.of("C000001"));
+        ScreeningProperties properties = new ScreeningProperties();
+        properties.setBlacklistedCustomersLocation(blacklist.toUri().toString());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ScreeningListService service = service(properties, meterRegistry);
+
+        for (int i = 2; i < 1_002; i++) {
+            assertFalse(service.isListedAsBlacklisted(String.format("C%06d", i)));
+        }
+        assertTrue(service.isListedAsBlacklisted("C000001"));
+
+        double negatives = meterRegistry.get("screening.prefilter").tags("list", "blacklist", "result", "negative")
+                .counter().count();
+        double possible = meterRegistry.get("screening.prefilter").tags("list", "blacklist", "result", "possible")
+                .counter().count();
+        assertEquals(1_001.0, negatives + possible);
+        // At the default rate almost every clean customer is ruled out by the filter alone
+        assertTrue(possible <= 5, "possible hits " + possible);
+    }
+
+    private static ScreeningListService service(ScreeningProperties properties) {
+        return service(properties, new SimpleMeterRegistry());
+    }
+
+    private static ScreeningListService service(ScreeningProperties properties, SimpleMeterRegistry meterRegistry) {
+        ScreeningListService service = new ScreeningListService(properties, new DefaultResourceLoader(),
+                meterRegistry);
+        service.loadInitialLists();
+        return service;
+    }
+}
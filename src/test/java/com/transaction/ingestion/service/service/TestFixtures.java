@@ -0,0 +1,141 @@
+package com.transaction.ingestion.service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.riskplatform.common.entity.Customer;
+import com.riskplatform.common.event.TransactionValidatedEvent;
+import com.transaction.ingestion.service.client.MongoServiceBatchClient;
+import com.transaction.ingestion.service.client.MongoServiceClient;
+import com.transaction.ingestion.service.config.PublishRingProperties;
+import com.transaction.ingestion.service.config.TracingProperties;
+import com.transaction.ingestion.service.config.ValidationProperties;
+import com.transaction.ingestion.service.tracing.SpanExporter;
+import com.transaction.ingestion.service.tracing.Tracer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+// Hand-written fakes shared by the service tests
+final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    // Same date handling as the application ObjectMapper
+    static ObjectMapper objectMapper() {
+        return new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    // Minimal rule set that ValidationRuleSnapshot accepts
+    static ValidationProperties validationProperties() {
+        ValidationProperties properties = new ValidationProperties();
+        ValidationProperties.TimestampConfig timestamp = new ValidationProperties.TimestampConfig();
+        timestamp.setTimeWindowMinutes(5);
+        properties.setTimestamp(timestamp);
+        properties.setRules(new ValidationProperties.ValidationRules());
+        return properties;
+    }
+
+    static Tracer tracer() {
+        TracingProperties properties = new TracingProperties();
+        properties.setExporter(TracingProperties.Exporter.NONE);
+        return new Tracer(properties, new SpanExporter(properties, new ObjectMapper(), new SimpleMeterRegistry()));
+    }
+
+    // Active customer with a 1000.00 daily limit
+    static Customer customer() {
+        Customer customer = new Customer();
+        customer.setCustomerId("C000001");
+        customer.setStatus("ACTIVE");
+        customer.setDailyLimit(1000.00);
+        return customer;
+    }
+
+    // mongo-service client answering the named methods; any other call fails the test
+    static MongoServiceClient mongo(Map<String, Function<Object[], Object>> answers) {
+        return fake(MongoServiceClient.class, answers);
+    }
+
+    static MongoServiceBatchClient batchClient(Map<String, Function<Object[], Object>> answers) {
+        return fake(MongoServiceBatchClient.class, answers);
+    }
+
+    private static <T> T fake(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException("Unexpected call to " + method.getName());
+                    }
+                    return answer.apply(args);
+                }));
+    }
+
+    // Producer that sends straight through a recording template, without publish rings
+    static KafkaProducerService producer(RecordingKafkaTemplate template) {
+        PublishRingProperties properties = new PublishRingProperties();
+        properties.setEnabled(false);
+        return new KafkaProducerService(template, properties, new SimpleMeterRegistry(), tracer());
+    }
+
+    static class RecordingKafkaTemplate extends KafkaTemplate<String, TransactionValidatedEvent> {
+
+        final List<ProducerRecord<String, TransactionValidatedEvent>> sent = new CopyOnWriteArrayList<>();
+
+        // Batches from the publish rings go through execute and are recorded like single sends
+        final MockProducer<String, TransactionValidatedEvent> producer =
+                new MockProducer<String, TransactionValidatedEvent>(true, new StringSerializer(),
+                        (topic, event) -> new byte[0]) {
+                    @Override
+                    public synchronized Future<RecordMetadata> send(
+                            ProducerRecord<String, TransactionValidatedEvent> record, Callback callback) {
+                        sent.add(record);
+                        return super.send(record, callback);
+                    }
+                };
+
+        RecordingKafkaTemplate() {
+            super(() -> {
+                throw new UnsupportedOperationException("No producer in tests");
+            });
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, TransactionValidatedEvent>> send(
+                ProducerRecord<String, TransactionValidatedEvent> record) {
+            sent.add(record);
+            RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), 0), sent.size(), 0,
+                    System.currentTimeMillis(), 0, 0);
+            return CompletableFuture.completedFuture(new SendResult<>(record, metadata));
+        }
+
+        @Override
+        public <T> T execute(ProducerCallback<String, TransactionValidatedEvent, T> callback) {
+            return callback.doInKafka(producer);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        List<String> topics() {
+            return sent.stream().map(ProducerRecord::topic).toList();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.transaction.ingestion.service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void allowsTheBurstThenReportsTheWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(10.0, 3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryConsume());
+        }
+
+        long waitNanos = bucket.tryConsume();
+
+        // One token every 100 ms
+        assertTrue(waitNanos > TimeUnit.MILLISECONDS.toNanos(50), "waited " + waitNanos);
+        assertTrue(waitNanos <= TimeUnit.MILLISECONDS.toNanos(100), "waited " + waitNanos);
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1_000.0, 1);
+        assertEquals(0, bucket.tryConsume());
+
+        bucket.acquire();
+
+        assertTrue(bucket.tryConsume() > 0);
+    }
+
+    @Test
+    void isIdleOnlyWhenFullAndUnusedForTheGivenTime() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1_000.0, 2);
+        bucket.tryConsume();
+        assertFalse(bucket.isIdle(TimeUnit.SECONDS.toNanos(60)));
+
+        Thread.sleep(20);
+
+        assertTrue(bucket.isIdle(TimeUnit.MILLISECONDS.toNanos(10)));
+        assertFalse(bucket.isIdle(TimeUnit.SECONDS.toNanos(60)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.dto.ErrorResponse;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionServiceTest {
+
+    private final TransactionService transactionService = new TransactionService(null, null, null, null, null,
+            null, null, null, null);
+    private final ValidationRuleSnapshot rules = rules();
+
+    @Test
+    void rejectsAmountsMorePreciseThanTheCurrency() {
+        List<ErrorResponse.Violation> violations = transactionService.validateStructural(
+                request(1234.56, "JPY"), rules);
+
+        assertEquals(1, violations.size());
+        assertEquals("amount", violations.get(0).getField());
+    }
+
+    @Test
+    void acceptsAmountsInWholeMinorUnits() {
+        assertTrue(transactionService.validateStructural(request(1234, "JPY"), rules).isEmpty());
+        assertTrue(transactionService.validateStructural(request(19.99, "USD"), rules).isEmpty());
+        assertTrue(transactionService.validateStructural(request(1.235, "BHD"), rules).isEmpty());
+    }
+
+    @Test
+    void storesTheAmountThatWasSent() {
+        assertEquals("19.99", transactionService.buildTransaction(request(19.99, "USD"), "T1")
+                .getAmount().toPlainString());
+    }
+
+    static ValidationRuleSnapshot rules() {
+        return ValidationRuleSnapshot.compile(TestFixtures.validationProperties(), 1, "test");
+    }
+
+    static IngestRequest request(double amount, String currency) {
+        IngestRequest request = new IngestRequest();
+        request.setCustomerId("C000001");
+        request.setAmount(amount);
+        request.setCurrency(currency);
+        request.setMerchant("Corner Shop");
+        request.setTimestamp(Instant.now());
+        request.setChannel("online");
+        request.setDevice("mobile");
+        return request;
+    }
+}
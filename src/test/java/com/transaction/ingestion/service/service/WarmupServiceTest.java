@@ -0,0 +1,96 @@
+package com.transaction.ingestion.service.service;
+
+import com.transaction.ingestion.service.config.ValidationProperties;
+import com.transaction.ingestion.service.config.WarmupHealthIndicator;
+import com.transaction.ingestion.service.config.WarmupProperties;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WarmupServiceTest {
+
+    @Test
+    void p99IgnoresRequestsThatDidNotComplete() {
+        AtomicLongArray latencies = new AtomicLongArray(200);
+        for (int i = 0; i < 100; i++) {
+            latencies.set(i, (i + 1) * 1_000L);
+        }
+
+        // Over all 200 slots the zeros would pull the p99 down to 99 us
+        assertEquals(100, WarmupService.p99Micros(latencies));
+    }
+
+    @Test
+    void p99IsUnknownWhenNothingCompleted() {
+        assertEquals(-1, WarmupService.p99Micros(new AtomicLongArray(10)));
+    }
+
+    @Test
+    void syntheticCustomerIdsAreValidButOutsideTheUsualRange() {
+        String customerId = WarmupService.syntheticCustomerId(42);
+
+        assertEquals("C9000000042", customerId);
+        assertTrue(customerId.matches("C[0-9]{6,}"));
+    }
+
+    @Test
+    void recentPrefetchIsOffByDefault() {
+        // Any call to mongo-service would fail the fake
+        WarmupService warmup = warmup(new WarmupProperties(), Map.of());
+
+        assertEquals(List.of(), warmup.prefetch());
+        assertEquals("disabled", warmup.getPrefetchOutcome());
+    }
+
+    @Test
+    void aFailedPrefetchShowsInTheHealthDetails() {
+        WarmupProperties properties = new WarmupProperties();
+        properties.setPrefetchRecent(true);
+        WarmupService warmup = warmup(properties, Map.of("findTransactionsPage", args -> {
+            throw new IllegalStateException("404 Not Found");
+        }));
+
+        warmup.prefetch();
+        Health health = new WarmupHealthIndicator(warmup).health();
+
+        assertEquals(Status.OUT_OF_SERVICE, health.getStatus());
+        assertEquals("failed: 404 Not Found", health.getDetails().get("prefetch"));
+    }
+
+    @Test
+    void builtInSamplesPassStructuralValidation() {
+        ValidationProperties properties = TestFixtures.validationProperties();
+        properties.setDevices(List.of("mobile", "desktop", "tablet", "kiosk"));
+        properties.setChannels(List.of("online", "atm", "branch", "mobile"));
+        ValidationProperties.CurrencyConfig currency = new ValidationProperties.CurrencyConfig();
+        currency.setIsoCodes(List.of("USD", "EUR", "GBP", "JPY", "INR"));
+        currency.setStrictIsoValidation(true);
+        properties.setCurrency(currency);
+        ValidationRuleSnapshot rules = ValidationRuleSnapshot.compile(properties, 1, "test");
+        TransactionService transactionService = new TransactionService(null, null, null, null, null, null, null,
+                null, TestFixtures.tracer());
+
+        for (IngestRequest request : WarmupService.builtInSamples()) {
+            request.setCustomerId(WarmupService.syntheticCustomerId(0));
+            request.setTimestamp(Instant.now());
+            assertEquals(List.of(), transactionService.validateStructural(request, rules), request.getMerchant());
+        }
+    }
+
+    private static WarmupService warmup(WarmupProperties properties, Map<String, Function<Object[], Object>> mongo) {
+        return new WarmupService(properties, null, null, null, null, TestFixtures.batchClient(mongo), null, null,
+                TestFixtures.tracer(), null, new SimpleMeterRegistry(), "received", "validated", "rejected",
+                "validation-failed");
+    }
+}
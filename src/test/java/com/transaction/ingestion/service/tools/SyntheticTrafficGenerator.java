@@ -0,0 +1,278 @@
+package com.transaction.ingestion.service.tools;
+
+import com.riskplatform.common.entity.Customer;
+import com.riskplatform.common.model.Location;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.model.Money;
+import com.transaction.ingestion.service.service.FxRateSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import static com.transaction.ingestion.service.constant.Constant.SANCTIONED_COUNTRIES;
+import static com.transaction.ingestion.service.constant.Constant.SANCTIONED_MERCHANTS;
+
+// Deterministic generator of realistic IngestRequests for load tests and capacity planning. Customer activity and
+// merchant popularity follow Zipf distributions; every customer has a stable profile (home country and currency,
+// regular merchants, log-normal amount profile) derived from the seed and its index, so nothing per customer is
+// stored. Arrivals are Poisson with occasional bursts, and a configurable share of requests are re-sent duplicates
+// or involve sanctioned entities. The same properties and seed always yield the same sequence. Customer limits are
+// converted into the base currency of the given rates, which is what the daily and per-transaction limits are
+// checked in.
+public class SyntheticTrafficGenerator {
+
+    private static final String[] KNOWN_MERCHANTS = { "Amazon", "Walmart", "Target", "Best Buy", "Starbucks",
+            "McDonald's", "Subway", "Shell", "Exxon", "Costco" };
+    private static final String[] MERCHANT_CATEGORIES = { "E-commerce", "Retail", "Food & Beverage", "Gas Station",
+            "Wholesale" };
+    private static final String[] COUNTRIES = { "USA", "UK", "Germany", "Japan", "India" };
+    private static final String[] CITIES = { "New York", "London", "Berlin", "Tokyo", "Mumbai" };
+    private static final int RECENT_REQUESTS = 1024;
+
+    private final TrafficGeneratorProperties properties;
+    private final FxRateSnapshot rates;
+    private final long seed;
+    private final Instant start;
+    private final SplittableRandom random;
+    private final ZipfSampler customerSampler;
+    private final ZipfSampler merchantSampler;
+    private final WeightedChoice channels;
+    private final WeightedChoice devices;
+    private final WeightedChoice currencies;
+    private final String[] sanctionedMerchants;
+    private final String[] sanctionedCountries;
+    private final double baseRatePerNano;
+
+    private final GeneratedRequest[] recent = new GeneratedRequest[RECENT_REQUESTS];
+    private long sequence;
+    private long arrivalNanos;
+    private int burstRemaining;
+
+    public SyntheticTrafficGenerator(TrafficGeneratorProperties properties, FxRateSnapshot rates, Instant start) {
+        for (String currency : properties.getCurrencyMix().keySet()) {
+            if (!rates.hasRate(currency)) {
+                throw new IllegalArgumentException("No exchange rate for generated currency " + currency);
+            }
+        }
+        this.properties = properties;
+        this.rates = rates;
+        this.seed = properties.getSeed();
+        this.start = start;
+        this.random = new SplittableRandom(seed);
+        TrafficGeneratorProperties.PopulationConfig population = properties.getPopulation();
+        this.customerSampler = new ZipfSampler(population.getCustomers(), population.getCustomerSkew());
+        this.merchantSampler = new ZipfSampler(population.getMerchants(), population.getMerchantSkew());
+        this.channels = new WeightedChoice(properties.getChannelMix());
+        this.devices = new WeightedChoice(properties.getDeviceMix());
+        this.currencies = new WeightedChoice(properties.getCurrencyMix());
+        this.sanctionedMerchants = SANCTIONED_MERCHANTS.stream().sorted().toArray(String[]::new);
+        this.sanctionedCountries = SANCTIONED_COUNTRIES.stream().sorted().toArray(String[]::new);
+
+        // Lower the base rate so that, bursts included, the long-run rate matches the target
+        TrafficGeneratorProperties.ArrivalConfig arrival = properties.getArrival();
+        double burstLength = arrival.getBurstStartProbability() * arrival.getMeanBurstLength();
+        double burstShare = burstLength / (1.0 + burstLength);
+        double target = properties.getDrive().getTargetRatePerSecond();
+        this.baseRatePerNano = target * ((1.0 - burstShare) + burstShare / arrival.getBurstRateMultiplier())
+                / 1_000_000_000.0;
+    }
+
+    public GeneratedRequest next() {
+        long index = sequence++;
+        arrivalNanos += nextGapNanos();
+
+        TrafficGeneratorProperties.InjectionConfig injection = properties.getInjection();
+        if (index > 0 && random.nextDouble() < injection.getDuplicateRate()) {
+            GeneratedRequest original = recent[random.nextInt((int) Math.min(index, RECENT_REQUESTS))];
+            if (original != null) {
+                return new GeneratedRequest(original.getRequest(), original.getIdempotencyKey(), arrivalNanos, true,
+                        original.isSanctioned());
+            }
+        }
+
+        int customer = customerSampler.sample(random);
+        CustomerProfile profile = profile(customer);
+        IngestRequest request = new IngestRequest();
+        request.setCustomerId(customerId(customer));
+        request.setTimestamp(start.plusNanos(arrivalNanos));
+        request.setChannel(channels.choose(random));
+        request.setDevice(devices.choose(random));
+        request.setCurrency(profile.currency);
+
+        int merchant = random.nextDouble() < properties.getPopulation().getRegularMerchantShare()
+                ? profile.regularMerchants[random.nextInt(profile.regularMerchants.length)]
+                : merchantSampler.sample(random);
+        request.setMerchant(merchantName(merchant));
+        request.setMerchantCategory(MERCHANT_CATEGORIES[Math.floorMod(mix(seed, merchant),
+                MERCHANT_CATEGORIES.length)]);
+
+        TrafficGeneratorProperties.AmountConfig amount = properties.getAmount();
+        double value = profile.medianAmount * Math.exp(amount.getSigma() * random.nextGaussian());
+        value = Math.min(Math.max(value, 0.01), amount.getMaxAmount());
+        request.setAmount(Money.of(value, profile.currency).toDouble());
+
+        Location location = new Location();
+        location.setCountry(COUNTRIES[profile.home]);
+        location.setCity(CITIES[profile.home]);
+        location.setIp(profile.ip);
+        request.setLocation(location);
+
+        boolean sanctioned = random.nextDouble() < injection.getSanctionedRate();
+        if (sanctioned) {
+            if (random.nextBoolean()) {
+                request.setMerchant(sanctionedMerchants[random.nextInt(sanctionedMerchants.length)]);
+            } else {
+                location.setCountry(sanctionedCountries[random.nextInt(sanctionedCountries.length)]);
+            }
+        }
+
+        GeneratedRequest generated = new GeneratedRequest(request, "gen-" + seed + "-" + index, arrivalNanos, false,
+                sanctioned);
+        recent[(int) (index % RECENT_REQUESTS)] = generated;
+        return generated;
+    }
+
+    // Customer record matching the generated traffic, so the population can be bulk loaded first
+    public Customer customer(int index) {
+        CustomerProfile profile = profile(index);
+        Customer customer = new Customer();
+        customer.setCustomerId(customerId(index));
+        customer.setName("Customer " + index);
+        customer.setEmail("customer" + index + "@example.com");
+        customer.setStatus("ACTIVE");
+        // The most active customers hold the richer tiers
+        customer.setTier(index < 100 ? "PREMIUM" : index < 10_000 ? "STANDARD" : "BASIC");
+        customer.setTransactionLimit(rates.toBase(Money.of(profile.medianAmount * 20, profile.currency)).toDouble());
+        customer.setDailyLimit(rates.toBase(Money.of(profile.medianAmount * 60, profile.currency)).toDouble());
+        customer.setBlacklisted(false);
+        customer.setCreatedAt(start);
+        customer.setUpdatedAt(start);
+        return customer;
+    }
+
+    public int getCustomerCount() {
+        return properties.getPopulation().getCustomers();
+    }
+
+    private long nextGapNanos() {
+        TrafficGeneratorProperties.ArrivalConfig arrival = properties.getArrival();
+        if (burstRemaining > 0) {
+            burstRemaining--;
+        } else if (random.nextDouble() < arrival.getBurstStartProbability()) {
+            // Geometric burst length with the configured mean
+            double p = 1.0 / Math.max(1, arrival.getMeanBurstLength());
+            burstRemaining = (int) Math.ceil(Math.log(1.0 - random.nextDouble()) / Math.log(1.0 - p + 1e-12));
+        }
+        double rate = burstRemaining > 0 ? baseRatePerNano * arrival.getBurstRateMultiplier() : baseRatePerNano;
+        return (long) (-Math.log(1.0 - random.nextDouble()) / rate);
+    }
+
+    private CustomerProfile profile(int customer) {
+        SplittableRandom customerRandom = new SplittableRandom(mix(seed, customer));
+        TrafficGeneratorProperties.AmountConfig amount = properties.getAmount();
+        double logMin = Math.log(amount.getMinMedian());
+        double logMax = Math.log(amount.getMaxMedian());
+        double median = Math.exp(logMin + (logMax - logMin) * customerRandom.nextDouble());
+
+        int[] regularMerchants = new int[Math.max(1, properties.getPopulation().getRegularMerchantsPerCustomer())];
+        for (int i = 0; i < regularMerchants.length; i++) {
+            regularMerchants[i] = merchantSampler.sample(customerRandom);
+        }
+        int home = customerRandom.nextInt(COUNTRIES.length);
+        String currency = currencies.choose(customerRandom);
+        String ip = "10." + customerRandom.nextInt(256) + "." + customerRandom.nextInt(256) + "."
+                + customerRandom.nextInt(1, 255);
+        return new CustomerProfile(median, regularMerchants, home, currency, ip);
+    }
+
+    private static String customerId(int index) {
+        return "C" + (100001 + index);
+    }
+
+    // The most popular merchants are the well-known ones; the long tail gets synthetic names
+    private static String merchantName(int index) {
+        return index < KNOWN_MERCHANTS.length ? KNOWN_MERCHANTS[index] : String.format("Merchant-%06d", index);
+    }
+
+    private static long mix(long seed, long value) {
+        long z = seed ^ (value * 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class GeneratedRequest {
+        private final IngestRequest request;
+        private final String idempotencyKey;
+        // Offset of the planned arrival from the start of the run
+        private final long arrivalNanos;
+        private final boolean duplicate;
+        private final boolean sanctioned;
+    }
+
+    @AllArgsConstructor
+    private static class CustomerProfile {
+        private final double medianAmount;
+        private final int[] regularMerchants;
+        private final int home;
+        private final String currency;
+        private final String ip;
+    }
+
+    // Inverse-CDF sampling of ranks 0..n-1 with probability proportional to 1 / (rank + 1)^skew
+    private static final class ZipfSampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double skew) {
+            cumulative = new double[Math.max(1, n)];
+            double total = 0;
+            for (int rank = 0; rank < cumulative.length; rank++) {
+                total += 1.0 / Math.pow(rank + 1, skew);
+                cumulative[rank] = total;
+            }
+            for (int rank = 0; rank < cumulative.length; rank++) {
+                cumulative[rank] /= total;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+
+    private static final class WeightedChoice {
+
+        private final String[] values;
+        private final double[] cumulative;
+
+        // Keys are sorted so the outcome does not depend on the map's iteration order
+        WeightedChoice(Map<String, Double> weights) {
+            Map<String, Double> sorted = new TreeMap<>(weights);
+            values = sorted.keySet().toArray(new String[0]);
+            cumulative = new double[values.length];
+            double total = 0;
+            int i = 0;
+            for (double weight : sorted.values()) {
+                total += Math.max(0.0, weight);
+                cumulative[i++] = total;
+            }
+            for (i = 0; i < cumulative.length; i++) {
+                cumulative[i] /= total;
+            }
+        }
+
+        String choose(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return values[Math.min(index >= 0 ? index : -index - 1, values.length - 1)];
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.transaction.ingestion.service.tools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.riskplatform.common.entity.Customer;
+import com.transaction.ingestion.service.service.FxRateSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyntheticTrafficGeneratorTest {
+
+    private static final FxRateSnapshot RATES = FxRateSnapshot.of("USD", Map.of("EUR", new BigDecimal("2")),
+            Instant.EPOCH);
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void customerLimitsAreInTheBaseCurrency() {
+        TrafficGeneratorProperties properties = properties();
+        properties.getAmount().setMinMedian(10.0);
+        properties.getAmount().setMaxMedian(10.0);
+        SyntheticTrafficGenerator generator = new SyntheticTrafficGenerator(properties, RATES, Instant.EPOCH);
+
+        Customer customer = generator.customer(0);
+
+        // 10.00 EUR medians at 2 USD per EUR
+        assertEquals(400.00, customer.getTransactionLimit());
+        assertEquals(1_200.00, customer.getDailyLimit());
+    }
+
+    @Test
+    void rejectsACurrencyWithoutARate() {
+        TrafficGeneratorProperties properties = properties();
+        properties.setCurrencyMix(Map.of("GBP", 1.0));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new SyntheticTrafficGenerator(properties, RATES, Instant.EPOCH));
+    }
+
+    @Test
+    void requestsFileKeepsTheIdempotencyKeyOfDuplicates() throws IOException {
+        TrafficGeneratorProperties properties = properties();
+        properties.setRequests(500);
+        properties.setOutputFile(tempDir.resolve("traffic.ndjson").toString());
+        properties.getInjection().setDuplicateRate(0.2);
+
+        new TrafficGeneratorRunner(properties, RATES, objectMapper).writeFiles();
+
+        List<String> lines = Files.readAllLines(tempDir.resolve("traffic.ndjson"));
+        assertEquals(500, lines.size());
+        Map<String, JsonNode> requestsByKey = new HashMap<>();
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            String key = node.path("idempotencyKey").asText();
+            assertFalse(key.isEmpty());
+            JsonNode previous = requestsByKey.putIfAbsent(key, node.get("request"));
+            if (previous != null) {
+                assertEquals(previous, node.get("request"));
+            }
+        }
+        assertTrue(requestsByKey.size() < lines.size());
+    }
+
+    private static TrafficGeneratorProperties properties() {
+        TrafficGeneratorProperties properties = new TrafficGeneratorProperties();
+        properties.getPopulation().setCustomers(100);
+        properties.getPopulation().setMerchants(50);
+        properties.setCurrencyMix(Map.of("EUR", 1.0));
+        return properties;
+    }
+}
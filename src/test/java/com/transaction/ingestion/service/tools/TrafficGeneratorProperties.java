@@ -0,0 +1,73 @@
+package com.transaction.ingestion.service.tools;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Bound by TrafficGeneratorRunner from traffic-generator.* system properties or environment variables
+@Data
+public class TrafficGeneratorProperties {
+    // FILE writes NDJSON requests with their Idempotency-Key, DRIVE posts them to the ingest endpoint
+    private String mode = "FILE";
+    // The same seed always produces the same sequence of requests
+    private long seed = 42L;
+    private long requests = 1_000_000L;
+    private String outputFile = "data/traffic.ndjson";
+    private DriveConfig drive = new DriveConfig();
+    private PopulationConfig population = new PopulationConfig();
+    private AmountConfig amount = new AmountConfig();
+    private ArrivalConfig arrival = new ArrivalConfig();
+    private InjectionConfig injection = new InjectionConfig();
+    private Map<String, Double> channelMix = new LinkedHashMap<>(Map.of(
+            "online", 0.50, "mobile", 0.35, "atm", 0.10, "branch", 0.05));
+    private Map<String, Double> deviceMix = new LinkedHashMap<>(Map.of(
+            "mobile", 0.55, "desktop", 0.35, "tablet", 0.08, "kiosk", 0.02));
+    private Map<String, Double> currencyMix = new LinkedHashMap<>(Map.of(
+            "USD", 0.60, "EUR", 0.20, "GBP", 0.10, "INR", 0.06, "JPY", 0.04));
+
+    @Data
+    public static class DriveConfig {
+        private String baseUrl = "http://localhost:8080";
+        // Long-run request rate; bursts temporarily exceed it
+        private double targetRatePerSecond = 500;
+        private int maxInFlight = 256;
+    }
+
+    @Data
+    public static class PopulationConfig {
+        private int customers = 100_000;
+        // Zipf exponents: higher values concentrate activity on fewer customers and merchants
+        private double customerSkew = 1.1;
+        private int merchants = 20_000;
+        private double merchantSkew = 1.0;
+        // Share of transactions made at a customer's few regular merchants
+        private double regularMerchantShare = 0.6;
+        private int regularMerchantsPerCustomer = 5;
+    }
+
+    @Data
+    public static class AmountConfig {
+        // Each customer gets a log-normal amount profile whose median is drawn from this range
+        private double minMedian = 15.0;
+        private double maxMedian = 400.0;
+        private double sigma = 0.8;
+        private double maxAmount = 50_000.0;
+    }
+
+    @Data
+    public static class ArrivalConfig {
+        // Chance that any given request starts a burst, the mean burst length and the rate multiplier inside it
+        private double burstStartProbability = 0.0005;
+        private int meanBurstLength = 2_000;
+        private double burstRateMultiplier = 8.0;
+    }
+
+    @Data
+    public static class InjectionConfig {
+        // Re-sends of a recent request with the same Idempotency-Key, as a retrying client would
+        private double duplicateRate = 0.01;
+        // Requests with a sanctioned merchant or country
+        private double sanctionedRate = 0.001;
+    }
+}
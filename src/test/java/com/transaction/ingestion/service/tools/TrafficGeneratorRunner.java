@@ -0,0 +1,216 @@
+package com.transaction.ingestion.service.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.riskplatform.common.entity.Customer;
+import com.transaction.ingestion.service.config.FxProperties;
+import com.transaction.ingestion.service.dto.IngestRequest;
+import com.transaction.ingestion.service.service.FxRateService;
+import com.transaction.ingestion.service.service.FxRateSnapshot;
+import com.transaction.ingestion.service.service.IdempotencyService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs the synthetic traffic generator. FILE mode writes the customer population and the requests as NDJSON (the
+// customers file can be fed to the bulk loader); DRIVE mode posts the requests to an ingest endpoint, following the
+// generated arrival times and logs the achieved rate, status counts and latency percentiles. Not part of the service;
+// scripts/stack-comparison.sh uses DRIVE mode to compare the servlet and reactive stacks. Run it with
+//   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.transaction.ingestion.service.tools.TrafficGeneratorRunner \
+//       -Dtraffic-generator.mode=DRIVE -Dtraffic-generator.requests=100000
+// traffic-generator.* and fx.* are read from system properties and the environment.
+@RequiredArgsConstructor
+@Slf4j
+public final class TrafficGeneratorRunner {
+
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final TrafficGeneratorProperties trafficGeneratorProperties;
+    private final FxRateSnapshot rates;
+    private final ObjectMapper objectMapper;
+
+    public static void main(String[] args) throws Exception {
+        Binder binder = Binder.get(new StandardEnvironment());
+        TrafficGeneratorProperties properties = binder.bind("traffic-generator", TrafficGeneratorProperties.class)
+                .orElseGet(TrafficGeneratorProperties::new);
+        FxRateService fxRateService = new FxRateService(
+                binder.bind("fx", FxProperties.class).orElseGet(FxProperties::new), new DefaultResourceLoader(),
+                new SimpleMeterRegistry());
+        fxRateService.loadInitialRates();
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        new TrafficGeneratorRunner(properties, fxRateService.current(), objectMapper).run();
+    }
+
+    void run() throws Exception {
+        if ("DRIVE".equalsIgnoreCase(trafficGeneratorProperties.getMode())) {
+            drive();
+        } else {
+            writeFiles();
+        }
+    }
+
+    void writeFiles() throws IOException {
+        // A fixed start keeps the files byte-for-byte reproducible for a given seed
+        Instant start = Instant.EPOCH.plus(trafficGeneratorProperties.getSeed() % 10_000, ChronoUnit.DAYS);
+        SyntheticTrafficGenerator generator = new SyntheticTrafficGenerator(trafficGeneratorProperties, rates, start);
+        Path requestsFile = Paths.get(trafficGeneratorProperties.getOutputFile()).toAbsolutePath();
+        Path customersFile = requestsFile.resolveSibling("customers-" + requestsFile.getFileName());
+        Files.createDirectories(requestsFile.getParent());
+
+        long started = System.nanoTime();
+        ObjectWriter customerWriter = objectMapper.writerFor(Customer.class);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(customersFile), 1 << 16)) {
+            for (int i = 0; i < generator.getCustomerCount(); i++) {
+                out.write(customerWriter.writeValueAsBytes(generator.customer(i)));
+                out.write('\n');
+            }
+        }
+
+        long duplicates = 0;
+        long sanctioned = 0;
+        // Each line carries the Idempotency-Key with the body, so a replay sends duplicates as the same request
+        ObjectWriter requestWriter = objectMapper.writerFor(RequestLine.class);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(requestsFile), 1 << 16)) {
+            for (long i = 0; i < trafficGeneratorProperties.getRequests(); i++) {
+                SyntheticTrafficGenerator.GeneratedRequest generated = generator.next();
+                duplicates += generated.isDuplicate() ? 1 : 0;
+                sanctioned += generated.isSanctioned() && !generated.isDuplicate() ? 1 : 0;
+                out.write(requestWriter.writeValueAsBytes(new RequestLine(generated.getIdempotencyKey(),
+                        generated.getRequest())));
+                out.write('\n');
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        log.info("Wrote {} customers to {} and {} requests ({} duplicates, {} sanctioned) to {} in {}s",
+                generator.getCustomerCount(), customersFile, trafficGeneratorProperties.getRequests(), duplicates,
+                sanctioned, requestsFile, String.format("%.1f", seconds));
+    }
+
+    private void drive() throws InterruptedException {
+        TrafficGeneratorProperties.DriveConfig config = trafficGeneratorProperties.getDrive();
+        SyntheticTrafficGenerator generator = new SyntheticTrafficGenerator(trafficGeneratorProperties, rates,
+                Instant.now());
+        WebClient webClient = WebClient.builder().baseUrl(config.getBaseUrl()).build();
+        Semaphore inFlight = new Semaphore(Math.max(1, config.getMaxInFlight()));
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder errors = new LongAdder();
+        LongAdder late = new LongAdder();
+        // Measured from the scheduled arrival, so time spent waiting for max-in-flight counts against the target.
+        // Percentiles cover the whole run, not Micrometer's default two-minute window.
+        Timer latency = Timer.builder("traffic-generator.latency")
+                .publishPercentiles(0.5, 0.95, 0.99, 0.999)
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(new SimpleMeterRegistry());
+
+        long started = System.nanoTime();
+        long lastReport = started;
+        long lastSent = 0;
+        long total = trafficGeneratorProperties.getRequests();
+        for (long sent = 0; sent < total; sent++) {
+            SyntheticTrafficGenerator.GeneratedRequest generated = generator.next();
+            long due = started + generated.getArrivalNanos();
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // Blocking here means the target cannot keep up; the shortfall shows up as a lower achieved rate
+            if (!inFlight.tryAcquire()) {
+                late.increment();
+                inFlight.acquire();
+            }
+            // Timestamps are stamped at send time so they fall inside the ingest timestamp window. Duplicates keep
+            // the original body, otherwise the idempotency fingerprint would not match.
+            if (!generated.isDuplicate()) {
+                generated.getRequest().setTimestamp(Instant.now());
+            }
+            webClient.post()
+                    .uri("/api/v1/transactions/ingest")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(IdempotencyService.IDEMPOTENCY_KEY_HEADER, generated.getIdempotencyKey())
+                    .bodyValue(generated.getRequest())
+                    .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+                    .doFinally(signal -> {
+                        latency.record(System.nanoTime() - due, TimeUnit.NANOSECONDS);
+                        inFlight.release();
+                    })
+                    .subscribe(status -> statuses.computeIfAbsent(status, s -> new LongAdder()).increment(),
+                            e -> errors.increment());
+
+            long now = System.nanoTime();
+            if (now - lastReport >= REPORT_INTERVAL_NANOS) {
+                log.info("Traffic generator: {} sent, {} req/s, statuses {}, {} transport errors, {} delayed by "
+                        + "max-in-flight", sent + 1, String.format("%.0f", (sent + 1 - lastSent)
+                        / ((now - lastReport) / 1_000_000_000.0)), summary(statuses), errors.sum(), late.sum());
+                lastReport = now;
+                lastSent = sent + 1;
+            }
+        }
+        // Wait for the responses still in flight
+        inFlight.acquire(Math.max(1, config.getMaxInFlight()));
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        log.info("Traffic generator finished: {} requests in {}s ({} req/s against a target of {}), statuses {}, "
+                + "{} transport errors", total, String.format("%.1f", seconds),
+                String.format("%.0f", total / seconds), config.getTargetRatePerSecond(), summary(statuses),
+                errors.sum());
+        log.info("Traffic generator latency: {}", percentiles(latency));
+    }
+
+    // e.g. "p50=3.1ms p95=8.4ms p99=21.0ms p99.9=48.2ms max=95.3ms"
+    private static String percentiles(Timer latency) {
+        StringBuilder summary = new StringBuilder();
+        for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+            summary.append(String.format("p%s=%.1fms ", trimmed(value.percentile() * 100),
+                    value.value(TimeUnit.MILLISECONDS)));
+        }
+        return summary.append(String.format("max=%.1fms", latency.max(TimeUnit.MILLISECONDS))).toString();
+    }
+
+    private static String trimmed(double percent) {
+        return percent == Math.rint(percent) ? String.valueOf((long) percent) : String.valueOf(percent);
+    }
+
+    private static Map<Integer, Long> summary(Map<Integer, LongAdder> statuses) {
+        Map<Integer, Long> summary = new TreeMap<>();
+        statuses.forEach((status, count) -> summary.put(status, count.sum()));
+        return summary;
+    }
+
+    // One line of the requests file
+    @Getter
+    @AllArgsConstructor
+    static class RequestLine {
+        private final String idempotencyKey;
+        private final IngestRequest request;
+    }
+}
@@ -0,0 +1,169 @@
+package com.transaction.ingestion.service.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.ingestion.service.config.TracingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TracerTest {
+
+    private static final String TRACEPARENT = "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01";
+
+    private final List<String> exported = new ArrayList<>();
+
+    @Test
+    void keepsAValidCallerCorrelationId() {
+        Tracer tracer = tracer(0.0, Duration.ZERO);
+
+        try (Span span = tracer.startTrace("test", null, "order-42:retry_1.a")) {
+            assertEquals("order-42:retry_1.a", span.context().getCorrelationId());
+            assertEquals("order-42:retry_1.a", MDC.get(Tracer.MDC_CORRELATION_ID));
+        }
+    }
+
+    @Test
+    void replacesCorrelationIdsThatCouldInjectIntoLogsOrHeaders() {
+        Tracer tracer = tracer(0.0, Duration.ZERO);
+
+        for (String invalid : List.of("abc\r\nFAKE LOG LINE", "has space", "x".repeat(65), "", "caf\u00e9")) {
+            try (Span span = tracer.startTrace("test", null, invalid)) {
+                assertEquals("corr-" + span.context().getTraceId(), span.context().getCorrelationId());
+            }
+        }
+        assertTrue(Tracer.isValidCorrelationId("x".repeat(Tracer.MAX_CORRELATION_ID_LENGTH)));
+    }
+
+    @Test
+    void continuesAValidTraceparentAndItsSamplingDecision() {
+        Tracer tracer = tracer(0.0, Duration.ZERO);
+
+        try (Span span = tracer.startTrace("test", TRACEPARENT, null)) {
+            assertEquals("0af7651916cd43dd8448eb211c80319c", span.context().getTraceId());
+            assertNotEquals("b7ad6b7169203331", span.context().getSpanId());
+            assertTrue(span.context().isSampled());
+            assertEquals("corr-0af7651916cd43dd8448eb211c80319c", span.context().getCorrelationId());
+        }
+    }
+
+    @Test
+    void startsANewTraceForAMalformedTraceparent() {
+        Tracer tracer = tracer(0.0, Duration.ZERO);
+
+        try (Span span = tracer.startTrace("test", "00-not-a-trace", null)) {
+            assertEquals(32, span.context().getTraceId().length());
+            assertFalse(span.context().isSampled());
+        }
+    }
+
+    @Test
+    void restoresTheOuterTraceAndClearsTheMdcOnClose() {
+        Tracer tracer = tracer(0.0, Duration.ZERO);
+
+        try (Span outer = tracer.startTrace("outer", null, "outer-id")) {
+            try (Span inner = tracer.startTrace("inner", null, "inner-id")) {
+                assertEquals("inner-id", tracer.correlationIdFor("T1"));
+            }
+            assertEquals("outer-id", tracer.correlationIdFor("T1"));
+            assertEquals(outer.context().getTraceId(), MDC.get(Tracer.MDC_TRACE_ID));
+        }
+
+        assertNull(tracer.currentContext());
+        assertNull(MDC.get(Tracer.MDC_CORRELATION_ID));
+        assertEquals("corr-T1", tracer.correlationIdFor("T1"));
+    }
+
+    @Test
+    void aDetachedTraceIsNotBoundToTheThreadAndCanEndOnAnother() throws InterruptedException {
+        Tracer tracer = tracer(1.0, Duration.ZERO);
+
+        Span span = tracer.startDetachedTrace("reactive", null, "caller-id");
+        assertNull(tracer.currentContext());
+        assertEquals("caller-id", Tracer.correlationIdFor(span.context(), "T1"));
+
+        Thread other = new Thread(span::end);
+        other.start();
+        other.join();
+
+        assertEquals(List.of("reactive"), exported);
+        assertEquals("corr-T1", Tracer.correlationIdFor(null, "T1"));
+    }
+
+    @Test
+    void exportsEverySpanOfASampledTrace() {
+        Tracer tracer = tracer(1.0, Duration.ZERO);
+
+        try (Span root = tracer.startTrace("root", null, null)) {
+            try (Span child = tracer.startSpan("child")) {
+                assertEquals(root.context().getTraceId(), child.context().getTraceId());
+                assertNotEquals(root.context().getSpanId(), child.context().getSpanId());
+            }
+        }
+
+        assertEquals(List.of("child", "root"), exported);
+    }
+
+    @Test
+    void exportsAnUnsampledTraceOnlyWhenItsRootIsSlow() {
+        tracer(0.0, Duration.ZERO).startTrace("fast", null, null).close();
+        assertEquals(List.of(), exported);
+
+        Tracer slow = tracer(0.0, Duration.ofNanos(1));
+        try (Span root = slow.startTrace("root", null, null)) {
+            slow.startSpan("child").close();
+            // Buffered children are only exported once the root turns out to be slow
+            assertEquals(List.of(), exported);
+        }
+
+        assertEquals(List.of("child", "root"), exported);
+    }
+
+    @Test
+    void slowCaptureIsOptInAndSampled() {
+        TracingProperties defaults = new TracingProperties();
+        defaults.setSampleRate(0.0);
+        try (Span root = tracer(defaults).startTrace("root", null, null)) {
+            assertFalse(root.isRecording());
+        }
+
+        TracingProperties unsampledCapture = new TracingProperties();
+        unsampledCapture.setSampleRate(0.0);
+        unsampledCapture.setSlowThreshold(Duration.ofNanos(1));
+        unsampledCapture.setSlowSampleRate(0.0);
+        Tracer tracer = tracer(unsampledCapture);
+        try (Span root = tracer.startTrace("root", null, null)) {
+            assertFalse(root.isRecording());
+            assertFalse(tracer.startSpan("child").isRecording());
+        }
+        assertEquals(List.of(), exported);
+    }
+
+    private Tracer tracer(double sampleRate, Duration slowThreshold) {
+        TracingProperties properties = new TracingProperties();
+        properties.setSampleRate(sampleRate);
+        properties.setSlowThreshold(slowThreshold);
+        properties.setSlowSampleRate(1.0);
+        return tracer(properties);
+    }
+
+    private Tracer tracer(TracingProperties properties) {
+        properties.setExporter(TracingProperties.Exporter.NONE);
+        SpanExporter exporter = new SpanExporter(properties, new ObjectMapper(), new SimpleMeterRegistry()) {
+            @Override
+            public void export(Span span) {
+                exported.add(span.name());
+            }
+        };
+        return new Tracer(properties, exporter);
+    }
+}
@@ -0,0 +1,82 @@
+package com.transaction.ingestion.service.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.transaction.ingestion.service.config.TracingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+// Time and allocation per request of the tracing done on the ingest path (the http.ingest root and its validation
+// and mongo-service spans, with their tags) under each sampling setting. Spans handed to the exporter are counted and dropped, so only
+// the recording cost is measured. Not a test; run it on a quiet machine with
+//   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=com.transaction.ingestion.service.tracing.TracingOverheadBenchmark
+public final class TracingOverheadBenchmark {
+
+    private static final int ITERATIONS = 2_000_000;
+    private static final String[] STEPS = { "validate.structural", "validate.business-rules", "validate.schema",
+            "feign POST /api/v1/transactions" };
+
+    private long sink;
+
+    public static void main(String[] args) {
+        new TracingOverheadBenchmark().run();
+    }
+
+    private void run() {
+        System.out.printf("%-44s %10s %10s%n", "setting", "ns/req", "bytes/req");
+        measure("tracing disabled", tracer(false, 0.0, Duration.ZERO, 0.0));
+        measure("unsampled, slow capture off", tracer(true, 0.0, Duration.ZERO, 0.0));
+        measure("unsampled, slow capture on, 10% buffered", tracer(true, 0.0, Duration.ofMillis(250), 0.1));
+        measure("unsampled, slow capture on, all buffered", tracer(true, 0.0, Duration.ofMillis(250), 1.0));
+        measure("sampled (export queue not included)", tracer(true, 1.0, Duration.ZERO, 0.0));
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private void request(Tracer tracer) {
+        try (Span root = tracer.startTrace("http.ingest", null, null)) {
+            root.tag("customerId", "C000001");
+            for (String step : STEPS) {
+                try (Span span = tracer.startSpan(step)) {
+                    span.tag("result", "PASSED");
+                }
+            }
+            sink += root.context().getTraceId().length();
+        }
+    }
+
+    private void measure(String name, Tracer tracer) {
+        for (int i = 0; i < ITERATIONS / 5; i++) {
+            request(tracer);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            request(tracer);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("%-44s %10.0f %10.0f%n", name, (double) elapsed / ITERATIONS,
+                (double) allocated / ITERATIONS);
+    }
+
+    private Tracer tracer(boolean enabled, double sampleRate, Duration slowThreshold, double slowSampleRate) {
+        TracingProperties properties = new TracingProperties();
+        properties.setEnabled(enabled);
+        properties.setSampleRate(sampleRate);
+        properties.setSlowThreshold(slowThreshold);
+        properties.setSlowSampleRate(slowSampleRate);
+        properties.setExporter(TracingProperties.Exporter.NONE);
+        SpanExporter exporter = new SpanExporter(properties, new ObjectMapper(), new SimpleMeterRegistry()) {
+            @Override
+            public void export(Span span) {
+                sink++;
+            }
+        };
+        return new Tracer(properties, exporter);
+    }
+}